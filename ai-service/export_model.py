@@ -0,0 +1,130 @@
+"""
+Export the personality-code model for in-JVM inference (PersonalityCodeModel in the Spring Boot app).
+
+Writes the answer mapping, feature columns, scaler, label encoder and SVM parameters of
+model_artifacts/ as one JSON file, and a golden file of sample inputs with the codes that
+ml_service.predict_codes returns for them. The Java parity test replays the golden file,
+so both files must be regenerated together whenever the artifacts change.
+
+Run it with the scikit-learn version that pickled the artifacts: the golden codes must come
+from the service's own predict_codes on the same library, or the parity test proves nothing.
+The golden file records its generator and the scikit-learn version it ran with.
+
+usage (from ai-service/): python export_model.py [--cases N] [--seed S]
+"""
+import argparse
+import json
+import random
+
+import joblib
+import sklearn
+
+MODEL_OUT = "../personalityTest/src/main/resources/ml/personality_svm.json"
+GOLDEN_OUT = "../personalityTest/src/test/resources/ml/golden_predictions.json"
+GENERATOR = "ml_service.predict_codes"
+
+
+def build_export(model, scaler, feature_columns, scaling_cols, mapping, label_encoder):
+    if model.kernel != "rbf":
+        raise ValueError(f"Only the rbf kernel is supported, got {model.kernel}")
+    if list(model.feature_names_in_) != list(feature_columns):
+        raise ValueError("SVM features do not match feature_columns")
+    if list(scaler.feature_names_in_) != list(scaling_cols):
+        raise ValueError("Scaler features do not match scaling_cols")
+
+    return {
+        "format": 1,
+        "sklearnVersion": model._sklearn_version,
+        "valueMapping": {str(k): float(v) for k, v in mapping.items()},
+        "featureColumns": list(feature_columns),
+        "scaling": {
+            "columns": list(scaling_cols),
+            "mean": scaler.mean_.tolist(),
+            "scale": scaler.scale_.tolist(),
+        },
+        # SVM class i predicts label_encoder.classes_[model.classes_[i]]
+        "classes": [str(label_encoder.classes_[c]) for c in model.classes_.tolist()],
+        "svm": {
+            "kernel": model.kernel,
+            "gamma": float(model._gamma),
+            "nSupport": model._n_support.tolist(),
+            "supportVectors": model.support_vectors_.tolist(),
+            "dualCoef": model._dual_coef_.tolist(),
+            "intercept": model._intercept_.tolist(),
+        },
+    }
+
+
+def golden_inputs(export, count, seed):
+    """
+    Answer dicts covering both key formats: Q1..Qn (what Spring sends) and feature column names.
+    Half of the cases start from a support vector's answers with a few flipped, so every class
+    is predicted somewhere; the rest are random.
+    """
+    rng = random.Random(seed)
+    feature_columns = export["featureColumns"]
+    scaling_cols = set(export["scaling"]["columns"])
+    support_vectors = export["svm"]["supportVectors"]
+    values = list(export["valueMapping"].keys())
+
+    inputs = [{}, {"Q1": "نعم", "Q2": "لا", "Q3": "5"}]
+    for i in range(count):
+        base = support_vectors[rng.randrange(len(support_vectors))] if i % 2 == 0 else None
+        yes_rate = rng.random()
+        answers = {}
+        for j, col in enumerate(feature_columns):
+            if col in scaling_cols:
+                answers[col] = str(rng.randint(1, 7))
+            elif base is not None:
+                yes = base[j] > 0.5 if rng.random() > 0.1 else base[j] <= 0.5
+                answers[col] = "نعم" if yes else "لا"
+            else:
+                answers[col] = values[rng.randrange(len(values))] if rng.random() < yes_rate else "لا"
+        if i % 5 == 0:
+            answers["Q" + str(i + 1)] = "نعم"  # keys outside feature_columns are ignored
+        inputs.append(answers)
+    return inputs
+
+
+def golden_case(answers, feature_columns, code):
+    # Values by feature column index keep the file small; other keys are listed as they are
+    return {
+        "values": [answers.get(col) for col in feature_columns],
+        "otherAnswers": {k: v for k, v in answers.items() if k not in set(feature_columns)},
+        "predictedCode": str(code),
+    }
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("--cases", type=int, default=120)
+    parser.add_argument("--seed", type=int, default=20240218)
+    args = parser.parse_args()
+
+    model = joblib.load("model_artifacts/svm_model.pkl")
+    scaler = joblib.load("model_artifacts/scaler.pkl")
+    feature_columns = joblib.load("model_artifacts/feature_columns.pkl")
+    scaling_cols = joblib.load("model_artifacts/scaling_cols.pkl")
+    mapping = joblib.load("model_artifacts/mapping.pkl")
+    label_encoder = joblib.load("model_artifacts/label_encoder.pkl")
+
+    export = build_export(model, scaler, feature_columns, scaling_cols, mapping, label_encoder)
+    if sklearn.__version__ != export["sklearnVersion"]:
+        raise SystemExit(f"Artifacts were pickled with scikit-learn {export['sklearnVersion']}, "
+                         f"but {sklearn.__version__} is installed: install the same version and rerun")
+    with open(MODEL_OUT, "w", encoding="utf-8") as f:
+        json.dump(export, f, ensure_ascii=False)
+
+    from ml_service import predict_codes
+
+    inputs = golden_inputs(export, args.cases, args.seed)
+    codes = predict_codes(inputs)
+    cases = [golden_case(answers, export["featureColumns"], code) for answers, code in zip(inputs, codes)]
+    with open(GOLDEN_OUT, "w", encoding="utf-8") as f:
+        json.dump({"generator": GENERATOR, "sklearnVersion": sklearn.__version__, "cases": cases}, f, ensure_ascii=False)
+
+    print(f"Wrote {MODEL_OUT} and {len(cases)} golden cases to {GOLDEN_OUT}")
+
+
+if __name__ == "__main__":
+    main()
@@ -5,8 +5,10 @@ This service exposes your LangGraph workflow as a REST API for Spring Boot integ
 """
 from fastapi import FastAPI, HTTPException
 from fastapi.middleware.cors import CORSMiddleware
+from fastapi.responses import StreamingResponse
 from pydantic import BaseModel
-from typing import Dict, Optional
+from typing import Dict, List, Optional
+import json
 import os
 from dotenv import load_dotenv
 
@@ -37,11 +39,17 @@ class StudentInfo(BaseModel):
     email: str
     gender: str
 
+class CachedGuidance(BaseModel):
+    careerRecommendations: str
+    learningPath: str
+    indexVersion: str  # document index the guidance was generated from
+
 class CompleteAIRequest(BaseModel):
     attemptId: int
     personalityCode: str  # e.g., "R-I-A"
     studentInfo: StudentInfo
     metricScores: Dict[str, int]
+    cachedGuidance: Optional[CachedGuidance] = None  # reused only if indexVersion is still current
 
 class CompleteAIResponse(BaseModel):
     personalityCode: str
@@ -49,6 +57,7 @@ class CompleteAIResponse(BaseModel):
     learningPath: str
     jobMatches: str
     emailSent: bool
+    indexVersion: Optional[str] = None  # None when the guidance must not be cached
 
 # ============================================================================
 # LANGGRAPH INTEGRATION
@@ -79,6 +88,7 @@ async def root():
         "endpoints": {
             "health": "/health",
             "complete_analysis": "/api/ai/complete-analysis",
+            "complete_analysis_stream": "/api/ai/complete-analysis/stream",
             "reindex": "/api/admin/reindex-documents"
         }
     }
@@ -92,6 +102,67 @@ async def health_check():
         "langgraph_loaded": langgraph_app is not None
     }
 
+def build_initial_state(request: CompleteAIRequest) -> dict:
+    """Initial LangGraph state for one complete analysis."""
+    return {
+        "query": "complete_analysis",  # Trigger complete workflow
+        "code": request.personalityCode,
+        "student_info": {
+            "name": request.studentInfo.name,
+            "email": request.studentInfo.email,
+            "gender": request.studentInfo.gender,
+            "age": None,
+            "location": None
+        },
+        "scores": request.metricScores,
+        "answers": None,  # Already calculated by Spring Boot
+        "cached_guidance": request.cachedGuidance.dict() if request.cachedGuidance else None,
+        
+        # Workflow outputs (will be populated)
+        "rag_output": None,
+        "api_results": None,
+        "job_answer": None,
+        "email_status": None,
+        "index_version": None,
+        
+        # Auto-approve email for this flow
+        "human_email_decision": "APPROVE",
+    }
+
+
+def workflow_config(request: CompleteAIRequest) -> dict:
+    return {
+        "configurable": {
+            "thread_id": f"complete_{request.attemptId}"
+        }
+    }
+
+
+def email_sent(email_status) -> bool:
+    return any(x in (email_status or "").lower() for x in ["success", "sent", "تم"])
+
+
+def build_response(request: CompleteAIRequest, final_answer: dict) -> CompleteAIResponse:
+    """Spring Boot response from the workflow's final answer."""
+    return CompleteAIResponse(
+        personalityCode=request.personalityCode,
+        careerRecommendations=final_answer.get("rag_output", ""),
+        learningPath=final_answer.get("api_results", ""),
+        jobMatches=json.dumps(final_answer.get("job_answer", {}), ensure_ascii=False),
+        emailSent=email_sent(final_answer.get("email_status", "")),
+        indexVersion=final_answer.get("index_version")
+    )
+
+
+def print_start(request: CompleteAIRequest):
+    print(f"\n{'='*60}")
+    print(f"🚀 Starting Complete AI Analysis")
+    print(f"   Attempt ID: {request.attemptId}")
+    print(f"   Personality Code: {request.personalityCode}")
+    print(f"   Student: {request.studentInfo.name}")
+    print(f"{'='*60}\n")
+
+
 @app.post("/api/ai/complete-analysis", response_model=CompleteAIResponse)
 async def complete_analysis(request: CompleteAIRequest):
     """
@@ -115,46 +186,11 @@ async def complete_analysis(request: CompleteAIRequest):
         )
     
     try:
-        print(f"\n{'='*60}")
-        print(f"🚀 Starting Complete AI Analysis")
-        print(f"   Attempt ID: {request.attemptId}")
-        print(f"   Personality Code: {request.personalityCode}")
-        print(f"   Student: {request.studentInfo.name}")
-        print(f"{'='*60}\n")
-        
-        # Prepare initial state for LangGraph
-        initial_state = {
-            "query": "complete_analysis",  # Trigger complete workflow
-            "code": request.personalityCode,
-            "student_info": {
-                "name": request.studentInfo.name,
-                "email": request.studentInfo.email,
-                "gender": request.studentInfo.gender,
-                "age": None,
-                "location": None
-            },
-            "scores": request.metricScores,
-            "answers": None,  # Already calculated by Spring Boot
-            
-            # Workflow outputs (will be populated)
-            "rag_output": None,
-            "api_results": None,
-            "job_answer": None,
-            "email_status": None,
-            
-            # Auto-approve email for this flow
-            "human_email_decision": "APPROVE",
-        }
+        print_start(request)
         
         # Execute LangGraph workflow
-        config = {
-            "configurable": {
-                "thread_id": f"complete_{request.attemptId}"
-            }
-        }
-        
         print("🔄 Executing LangGraph workflow...")
-        result = langgraph_app.invoke(initial_state, config)
+        result = langgraph_app.invoke(build_initial_state(request), workflow_config(request))
         
         # Extract results
         final_answer = result.get("final_answer", {})
@@ -165,17 +201,7 @@ async def complete_analysis(request: CompleteAIRequest):
         print(f"   Job Matches: Available" if final_answer.get('job_answer') else "   Job Matches: None")
         print(f"   Email Status: {final_answer.get('email_status', 'Not sent')}")
         
-        # Format response
-        import json
-        response = CompleteAIResponse(
-            personalityCode=request.personalityCode,
-            careerRecommendations=final_answer.get("rag_output", ""),
-            learningPath=final_answer.get("api_results", ""),
-            jobMatches=json.dumps(final_answer.get("job_answer", {}), ensure_ascii=False),
-            emailSent=any(x in final_answer.get("email_status", "").lower() for x in ["success", "sent", "تم"])
-        )
-        
-        return response
+        return build_response(request, final_answer)
         
     except Exception as e:
         print(f"\n❌ Error in complete analysis: {str(e)}")
@@ -183,32 +209,144 @@ async def complete_analysis(request: CompleteAIRequest):
         traceback.print_exc()
         raise HTTPException(status_code=500, detail=str(e))
 
+
+def stream_events(request: CompleteAIRequest):
+    """
+    Run the workflow node by node and yield one JSON line per partial result:
+    {"stage": "CAREER_RECOMMENDATIONS" | "LEARNING_PATH" | "JOB_MATCHES" | "EMAIL", "data": {...}},
+    then {"stage": "RESULT", "data": CompleteAIResponse} or {"stage": "ERROR", "data": {"detail": ...}}.
+    """
+    def line(stage, data):
+        return json.dumps({"stage": stage, "data": data}, ensure_ascii=False) + "\n"
+    
+    try:
+        print_start(request)
+        print("🔄 Streaming LangGraph workflow...")
+        final_answer = {}
+        for chunk in langgraph_app.stream(build_initial_state(request), workflow_config(request), stream_mode="updates"):
+            for node, update in chunk.items():
+                update = update or {}
+                if update.get("rag_output") is not None:
+                    yield line("CAREER_RECOMMENDATIONS", {
+                        "careerRecommendations": update["rag_output"],
+                        "indexVersion": update.get("index_version"),
+                    })
+                if update.get("api_results") is not None:
+                    yield line("LEARNING_PATH", {"learningPath": update["api_results"]})
+                if update.get("job_answer") is not None:
+                    yield line("JOB_MATCHES", {"jobMatches": json.dumps(update["job_answer"], ensure_ascii=False)})
+                if update.get("email_status") is not None:
+                    yield line("EMAIL", {"emailSent": email_sent(update["email_status"])})
+                if update.get("final_answer") is not None:
+                    final_answer = update["final_answer"]
+        
+        print("\n✅ Workflow stream completed")
+        yield line("RESULT", build_response(request, final_answer).dict())
+        
+    except Exception as e:
+        print(f"\n❌ Error in streamed analysis: {str(e)}")
+        import traceback
+        traceback.print_exc()
+        yield line("ERROR", {"detail": str(e)})
+
+
+@app.post("/api/ai/complete-analysis/stream")
+async def complete_analysis_stream(request: CompleteAIRequest):
+    """
+    Same pipeline as /api/ai/complete-analysis, streamed as newline-delimited JSON so
+    Spring Boot can forward each stage to its subscribers as soon as it is ready.
+    """
+    if langgraph_app is None:
+        raise HTTPException(
+            status_code=500,
+            detail="LangGraph workflow not loaded. Please check langgraph_workflow.py"
+        )
+    return StreamingResponse(stream_events(request), media_type="application/x-ndjson")
+
+class DocumentRef(BaseModel):
+    documentId: int
+    filename: Optional[str] = None     # stored filename in the documents folder (upserts only)
+    contentHash: Optional[str] = None  # SHA-256 of the file, hex
+
+class DocumentDeltaRequest(BaseModel):
+    upserts: List[DocumentRef] = []    # added or changed documents
+    removed: List[DocumentRef] = []
+
+class ExtractTextRequest(BaseModel):
+    filename: str                      # stored filename in the documents folder
+
+@app.post("/api/admin/documents/extract-text")
+def extract_text(request: ExtractTextRequest):
+    """
+    Text of one document, extracted with the same loader the RAG pipeline uses.
+    Spring Boot indexes it for its local full-text search.
+    """
+    from rag.rag_step_1_loading import load_document
+    
+    if os.path.basename(request.filename) != request.filename:
+        raise HTTPException(status_code=400, detail="filename must not contain a path")
+    folder_path = os.getenv("AI_DOCUMENTS_PATH", "./rag/uploaded_files/")
+    filepath = os.path.join(folder_path, request.filename)
+    if not os.path.isfile(filepath):
+        raise HTTPException(status_code=404, detail=f"Document not found: {request.filename}")
+    
+    document = load_document(filepath)
+    if document is None:
+        raise HTTPException(status_code=422, detail=f"Could not extract text from {request.filename}")
+    return {"filename": request.filename, "text": document["content"], "length": document["length"]}
+
+@app.get("/api/admin/documents/index-manifest")
+async def index_manifest():
+    """
+    Documents currently in the index, by Spring Boot document id, with the content hash
+    they were indexed from. Spring Boot diffs its documents against this to build a delta.
+    """
+    from rag.rag_step_4_vector_db import load_document_manifest
+    
+    manifest = load_document_manifest() or {"generation": 0, "documents": {}}
+    return {
+        "generation": manifest["generation"],
+        "documents": {doc_id: entry["hash"] for doc_id, entry in manifest["documents"].items()}
+    }
+
 @app.post("/api/admin/reindex-documents")
-async def force_reindex():
+def force_reindex(delta: Optional[DocumentDeltaRequest] = None):
     """
-    Admin endpoint to force document reindexing.
-    Call this after uploading new career documents.
+    Admin endpoint to reindex career documents.
+    
+    With a delta (sent by Spring Boot), only the added, changed and removed documents are
+    re-embedded or dropped. Without a body the whole index is cleared and rebuilt from the
+    folder on the next query.
     
     Returns:
-        Success message
+        Applied delta (generation, indexed / failed / removed ids, chunk counts), or a success message
     """
     try:
-        import os
-        from rag.rag_step_4_vector_db import get_db_collection
+        from rag.rag_step_4_vector_db import get_db_collection, MANIFEST_FILE
+        from rag.rag_step_5_indexing import apply_document_delta
         
         my_rag_collection = get_db_collection()
         
+        if delta is not None:
+            folder_path = os.getenv("AI_DOCUMENTS_PATH", "./rag/uploaded_files/")
+            return apply_document_delta(
+                my_rag_collection,
+                folder_path,
+                [ref.dict() for ref in delta.upserts],
+                [ref.dict() for ref in delta.removed]
+            )
+        
         # Delete existing index
-        all_ids = [f"chunk_{i}" for i in range(my_rag_collection.count())]
+        all_ids = my_rag_collection.get(include=[])["ids"]
         if all_ids:
             my_rag_collection.delete(ids=all_ids)
             print(f"🗑️  Deleted {len(all_ids)} chunks from index")
         
         # Delete metadata to force reindex
-        metadata_file = "./chroma_persist/index_metadata.json"
-        if os.path.exists(metadata_file):
-            os.remove(metadata_file)
-            print("🗑️  Deleted index metadata")
+        for metadata_file in ("./chroma_persist/index_metadata.json", MANIFEST_FILE):
+            if os.path.exists(metadata_file):
+                os.remove(metadata_file)
+                print(f"🗑️  Deleted {metadata_file}")
         
         return {
             "success": True,
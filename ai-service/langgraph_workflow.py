@@ -16,7 +16,8 @@ from dotenv import load_dotenv
 from rag.rag_step_1_loading import load_documents_from_folder
 from rag.rag_step_2_chunking import chunk_documents
 from rag.rag_step_3_embeddings import embed_texts
-from rag.rag_step_4_vector_db import get_db_collection, should_reindex_documents, save_index_metadata
+from rag.rag_step_4_vector_db import (get_db_collection, should_reindex_documents, save_index_metadata, index_version,
+                                      load_document_manifest, manifest_version)
 from rag.rag_step_6_similarity import retrieve_relevant_chunks
 from rag.rag_step_7_prompt import prepare_prompt
 from rag.rag_step_8_call_llm import generate_answer
@@ -67,12 +68,14 @@ class AppState(TypedDict):
     code: str  # Personality code from Spring Boot (e.g., "R-I-A")
     student_info: dict  # Student information
     scores: dict  # Metric scores
+    cached_guidance: dict | None  # Code-level guidance cached by Spring Boot (careerRecommendations, learningPath, indexVersion)
     
     # Outputs
     rag_output: str | None  # Career recommendations
     api_results: str | None  # Learning path
     job_answer: dict | None  # Job matches
     email_status: str | None  # Email status
+    index_version: str | None  # Document index the guidance came from; None if it must not be reused
     
     # Control
     human_email_decision: str | None
@@ -181,49 +184,69 @@ def rag_node(state: AppState):
     folder_path = os.getenv("AI_DOCUMENTS_PATH", "./rag/uploaded_files/")
     my_rag_collection = get_db_collection()
     
-    # Smart caching - only reindex if files changed
-    needs_reindex, current_files = should_reindex_documents(my_rag_collection, folder_path)
+    # Documents indexed by id (deltas sent by Spring Boot, see rag_step_5_indexing)
+    manifest = load_document_manifest()
+    if manifest is not None:
+        version = manifest_version(manifest)
+        print(f"✅ Using document index generation {manifest['generation']} ({len(manifest['documents'])} documents)")
+        print(f"   Indexed chunks: {my_rag_collection.count()}")
+    else:
+        # Smart caching - only reindex if files changed
+        needs_reindex, current_files = should_reindex_documents(my_rag_collection, folder_path)
     
-    if needs_reindex:
-        print("🔄 Reindexing documents...")
+        if needs_reindex:
+            print("🔄 Reindexing documents...")
         
-        source_list = load_documents_from_folder(folder_path)
-        if not source_list:
-            return {"rag_output": "لا تتوفر معلومات مهنية."}
+            source_list = load_documents_from_folder(folder_path)
+            if not source_list:
+                return {"rag_output": "لا تتوفر معلومات مهنية."}
         
-        my_chunks_with_metadata = chunk_documents(source_list)
-        if not my_chunks_with_metadata:
-            return {"rag_output": "لا تتوفر معلومات مهنية."}
+            my_chunks_with_metadata = chunk_documents(source_list)
+            if not my_chunks_with_metadata:
+                return {"rag_output": "لا تتوفر معلومات مهنية."}
         
-        ids_list = [f"chunk_{i}" for i in range(len(my_chunks_with_metadata))]
-        text_list = [chunk["text"] for chunk in my_chunks_with_metadata]
-        metadata_list = [{
-            'source': chunk['source'],
-            'doc_id': chunk['doc_id'],
-            'chunk_id': chunk['chunk_id']
-        } for chunk in my_chunks_with_metadata]
+            ids_list = [f"chunk_{i}" for i in range(len(my_chunks_with_metadata))]
+            text_list = [chunk["text"] for chunk in my_chunks_with_metadata]
+            metadata_list = [{
+                'source': chunk['source'],
+                'doc_id': chunk['doc_id'],
+                'chunk_id': chunk['chunk_id']
+            } for chunk in my_chunks_with_metadata]
         
-        vectors_list = embed_texts(text_list)
-        if vectors_list is None or len(vectors_list) == 0:
-            return {"rag_output": "لا تتوفر معلومات مهنية."}
+            vectors_list = embed_texts(text_list)
+            if vectors_list is None or len(vectors_list) == 0:
+                return {"rag_output": "لا تتوفر معلومات مهنية."}
         
-        # Clear and upsert
-        all_ids = [f"chunk_{i}" for i in range(my_rag_collection.count())]
-        if all_ids:
-            my_rag_collection.delete(ids=all_ids)
+            # Clear and upsert
+            all_ids = [f"chunk_{i}" for i in range(my_rag_collection.count())]
+            if all_ids:
+                my_rag_collection.delete(ids=all_ids)
         
-        my_rag_collection.upsert(
-            ids=ids_list,
-            embeddings=vectors_list,
-            documents=text_list,
-            metadatas=metadata_list
-        )
+            my_rag_collection.upsert(
+                ids=ids_list,
+                embeddings=vectors_list,
+                documents=text_list,
+                metadatas=metadata_list
+            )
         
-        save_index_metadata(current_files)
-        print(f"✅ Indexed {my_rag_collection.count()} chunks")
-    else:
-        print(f"✅ Documents unchanged - using existing index")
-        print(f"   Indexed chunks: {my_rag_collection.count()}")
+            save_index_metadata(current_files)
+            print(f"✅ Indexed {my_rag_collection.count()} chunks")
+        else:
+            print(f"✅ Documents unchanged - using existing index")
+            print(f"   Indexed chunks: {my_rag_collection.count()}")
+    
+        version = index_version(current_files)
+    
+    # Guidance depends only on the code and the documents, so reuse Spring Boot's
+    # cached copy as long as it was generated from the current index
+    cached = state.get("cached_guidance") or {}
+    if cached.get("indexVersion") == version and cached.get("careerRecommendations") and cached.get("learningPath"):
+        print(f"♻️  Reusing cached guidance for {state.get('code', '')} (index {version})")
+        return {
+            "rag_output": cached["careerRecommendations"],
+            "api_results": cached["learningPath"],
+            "index_version": version,
+        }
     
     # Query RAG
     personality_code = state.get("code", "")
@@ -242,7 +265,7 @@ def rag_node(state: AppState):
         career_recommendations = generate_answer(prompt, os.getenv("DEEPSEEK_API_KEY"))
         
         print(f"✅ Generated recommendations for {personality_code}")
-        return {"rag_output": career_recommendations}
+        return {"rag_output": career_recommendations, "index_version": version}
         
     except Exception as e:
         print(f"❌ Error: {e}")
@@ -284,6 +307,7 @@ def learn_agent_direct(state: AppState):
         print(f"❌ Error in learn_agent_direct: {e}")
         # Fallback response
         return {
+            "index_version": None,  # generic list, never cache it
             "api_results": f"""
 ## 📚 الخطة التعليمية لرمز الشخصية {code}
 
@@ -349,7 +373,11 @@ def learn_agent_safe(state: AppState):
     """
     SAFE WRAPPER for learn agent.
     Try direct mode first (fastest), fallback to LLM mode if needed.
+    Skipped when the RAG node already restored a cached learning path.
     """
+    if state.get("api_results"):
+        print("♻️  Learning path restored from cache - skipping learn agent")
+        return {}
     try:
         # Try direct mode first (most reliable)
         return learn_agent_direct(state)
@@ -363,6 +391,7 @@ def learn_agent_safe(state: AppState):
             # Ultimate fallback - static response
             code = state.get("code", "")
             return {
+                "index_version": None,  # generic list, never cache it
                 "api_results": f"""
 ## 📚 الخطة التعليمية لرمز الشخصية {code}
 
@@ -493,6 +522,7 @@ def final_format(state: AppState):
         "api_results": state.get('api_results', ''),
         "job_answer": state.get('job_answer', {}),
         "email_status": state.get('email_status', ''),
+        "index_version": state.get('index_version'),
     }
     return {"final_answer": response}
 
@@ -1,4 +1,7 @@
-from fastapi import FastAPI
+from typing import Optional
+import hashlib
+
+from fastapi import FastAPI, HTTPException
 from pydantic import BaseModel
 import pandas as pd
 import joblib
@@ -11,14 +14,26 @@ scaling_cols = joblib.load("model_artifacts/scaling_cols.pkl")
 mapping = joblib.load("model_artifacts/mapping.pkl")
 label_encoder = joblib.load("model_artifacts/label_encoder.pkl")
 
+# Fingerprint of the column order; Spring's FeatureSchema sends it with every feature vector
+COLUMNS_HASH = hashlib.sha256("\n".join(feature_columns).encode("utf-8")).hexdigest()[:16]
+
 app = FastAPI(title="ML Personality Classification Service")
 
 class PredictionRequest(BaseModel):
     answers: dict  # {"Q1": "نعم", "Q2": "لا", ...}
 
-@app.post("/api/ml/predict-code")
-def predict_code(request: PredictionRequest):
-    df = pd.DataFrame([request.answers])
+class BatchPredictionItem(BaseModel):
+    attemptId: int
+    answers: Optional[dict] = None            # {"Q1": "نعم", ...}
+    features: Optional[list[float]] = None    # raw values in feature_columns order
+    columnsHash: Optional[str] = None
+
+class BatchPredictionRequest(BaseModel):
+    items: list[BatchPredictionItem]
+
+def predict_codes(answer_rows):
+    """Predict one code per answers dict; the SVM scores all rows in one call."""
+    df = pd.DataFrame(answer_rows)
 
     # Map answers
     for col in df.columns:
@@ -31,11 +46,50 @@ def predict_code(request: PredictionRequest):
     df.loc[:, scaling_cols] = scaler.transform(df[scaling_cols])
 
     # Predict
-    pred_encoded = model.predict(df)[0]
-    pred_code = label_encoder.inverse_transform([pred_encoded])[0]
+    pred_encoded = model.predict(df)
+    return label_encoder.inverse_transform(pred_encoded)
+
+def predict_vectors(feature_rows):
+    """Predict one code per raw feature vector (already numeric and in feature_columns order)."""
+    df = pd.DataFrame(feature_rows, columns=feature_columns, dtype=float)
+    df.loc[:, scaling_cols] = scaler.transform(df[scaling_cols])
+    return label_encoder.inverse_transform(model.predict(df))
+
+@app.post("/api/ml/predict-code")
+def predict_code(request: PredictionRequest):
+    pred_code = predict_codes([request.answers])[0]
 
     return {
         "predictedCode": pred_code
     }
 
+@app.post("/api/ml/predict-codes")
+def predict_codes_batch(request: BatchPredictionRequest):
+    if not request.items:
+        return {"predictions": []}
+
+    vector_items = [i for i, item in enumerate(request.items) if item.features is not None]
+    answer_items = [i for i, item in enumerate(request.items) if item.features is None]
+    for i in vector_items:
+        item = request.items[i]
+        if item.columnsHash != COLUMNS_HASH or len(item.features) != len(feature_columns):
+            raise HTTPException(status_code=422, detail=(
+                f"Attempt {item.attemptId}: feature vector does not match the model columns "
+                f"({item.columnsHash}, {len(item.features)} values; expected {COLUMNS_HASH}, {len(feature_columns)})"))
+
+    codes = [None] * len(request.items)
+    if vector_items:
+        for i, code in zip(vector_items, predict_vectors([request.items[i].features for i in vector_items])):
+            codes[i] = code
+    if answer_items:
+        for i, code in zip(answer_items, predict_codes([request.items[i].answers or {} for i in answer_items])):
+            codes[i] = code
+
+    return {
+        "predictions": [
+            {"attemptId": item.attemptId, "predictedCode": code}
+            for item, code in zip(request.items, codes)
+        ]
+    }
+
 # to run : uvicorn ml_service:app --host 0.0.0.0 --port 5001 --reload
\ No newline at end of file
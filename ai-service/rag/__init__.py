@@ -7,8 +7,10 @@ from .rag_step_3_embeddings import embed_texts
 from .rag_step_4_vector_db import (
     get_db_collection,
     should_reindex_documents,
-    save_index_metadata
+    save_index_metadata,
+    load_document_manifest
 )
+from .rag_step_5_indexing import apply_document_delta
 from .rag_step_6_similarity import retrieve_relevant_chunks
 from .rag_step_7_prompt import prepare_prompt
 from .rag_step_8_call_llm import generate_answer
@@ -20,6 +22,8 @@ __all__ = [
     'get_db_collection',
     'should_reindex_documents',
     'save_index_metadata',
+    'load_document_manifest',
+    'apply_document_delta',
     'retrieve_relevant_chunks',
     'prepare_prompt',
     'generate_answer',
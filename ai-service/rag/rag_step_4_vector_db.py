@@ -3,6 +3,7 @@ RAG Step 4: Vector Database (ChromaDB)
 Manages vector storage and retrieval
 """
 import chromadb
+import hashlib
 import json
 import os
 
@@ -117,3 +118,85 @@ def save_index_metadata(current_files):
         json.dump(current_files, f, indent=2)
     
     print("💾 Index metadata saved")
+
+
+def index_version(current_files):
+    """
+    Short, stable identifier of a set of indexed documents.
+    Changes whenever a file is added, removed or modified, so answers generated
+    from the index can be tagged with it and reused only while it stays the same.
+    
+    Args:
+        current_files (dict): Dictionary of filename -> modification time
+        
+    Returns:
+        str: 12 hex characters
+    """
+    payload = json.dumps(current_files, sort_keys=True)
+    return hashlib.sha256(payload.encode("utf-8")).hexdigest()[:12]
+
+
+MANIFEST_FILE = "./chroma_persist/document_manifest.json"
+
+
+def load_document_manifest():
+    """
+    Load the manifest of documents indexed by id (see rag_step_5_indexing).
+    
+    Returns:
+        dict: {"generation": int, "documents": {document_id: {"hash", "filename", "generation", "chunks"}}},
+              or None while the index is still built from the whole folder
+    """
+    if not os.path.exists(MANIFEST_FILE):
+        return None
+    try:
+        with open(MANIFEST_FILE, 'r') as f:
+            return json.load(f)
+    except Exception:
+        print("📝 Error reading document manifest - treating index as unmanaged")
+        return None
+
+
+def save_document_manifest(manifest):
+    """
+    Persist the document manifest; written to a temporary file first so a crash
+    never leaves a half-written manifest behind.
+    
+    Args:
+        manifest (dict): Manifest as returned by load_document_manifest
+    """
+    os.makedirs(os.path.dirname(MANIFEST_FILE), exist_ok=True)
+    tmp_file = MANIFEST_FILE + ".tmp"
+    with open(tmp_file, 'w') as f:
+        json.dump(manifest, f, indent=2)
+    os.replace(tmp_file, MANIFEST_FILE)
+
+
+def manifest_version(manifest):
+    """
+    Index version of a manifest: changes whenever a document is added, removed or changed.
+    
+    Args:
+        manifest (dict): Document manifest
+        
+    Returns:
+        str: 12 hex characters
+    """
+    return index_version({doc_id: entry["hash"] for doc_id, entry in manifest["documents"].items()})
+
+
+def file_sha256(filepath):
+    """
+    SHA-256 of a file's content, as computed by Spring Boot when the file was uploaded.
+    
+    Args:
+        filepath (str): Path to the file
+        
+    Returns:
+        str: 64 hex characters
+    """
+    digest = hashlib.sha256()
+    with open(filepath, 'rb') as f:
+        for block in iter(lambda: f.read(1024 * 1024), b""):
+            digest.update(block)
+    return digest.hexdigest()
@@ -0,0 +1,129 @@
+"""
+RAG Step 5: Incremental Indexing
+Applies document changes sent by Spring Boot to the vector database
+"""
+import os
+
+from .rag_step_1_loading import load_document
+from .rag_step_2_chunking import chunk_documents
+from .rag_step_3_embeddings import embed_texts
+from .rag_step_4_vector_db import load_document_manifest, save_document_manifest, file_sha256
+
+
+def delete_document_chunks(collection, document_id):
+    """
+    Remove every chunk of one document from the collection.
+    
+    Args:
+        collection: ChromaDB collection
+        document_id (int): Spring Boot id of the document
+        
+    Returns:
+        int: Number of chunks removed
+    """
+    ids = collection.get(where={"document_id": document_id}, include=[])["ids"]
+    if ids:
+        collection.delete(ids=ids)
+    return len(ids)
+
+
+def apply_document_delta(collection, folder_path, upserts, removed):
+    """
+    Index only the documents that changed since the last delta.
+    
+    Chunks are keyed by document id, so adding or changing a document re-embeds that
+    document alone and removing one deletes its chunks; the cost follows the size of
+    the change, not of the corpus. The first delta replaces an index that was built
+    from the whole folder (positional chunk ids), so Spring Boot sends every document then.
+    
+    Args:
+        collection: ChromaDB collection
+        folder_path (str): Path to documents folder
+        upserts (list): Added or changed documents: {"documentId", "filename", "contentHash"}
+        removed (list): Removed documents: {"documentId", "contentHash"}
+        
+    Returns:
+        dict: generation, indexed ids, failed {id: reason}, removed ids, chunksAdded, chunksRemoved
+    """
+    print("\n" + "=" * 60)
+    print("STEP 5: Applying Document Changes")
+    print("=" * 60)
+    print(f"Added/changed: {len(upserts)}, removed: {len(removed)}")
+
+    manifest = load_document_manifest()
+    chunks_removed = 0
+    if manifest is None:
+        existing = collection.get(include=[])["ids"]
+        if existing:
+            collection.delete(ids=existing)
+            chunks_removed += len(existing)
+            print(f"🗑️  Dropped {len(existing)} chunks of the folder-wide index")
+        manifest = {"generation": 0, "documents": {}}
+
+    generation = manifest["generation"] + 1
+    documents = manifest["documents"]
+    indexed, failed, removed_ids = [], {}, []
+    chunks_added = 0
+
+    for ref in removed:
+        document_id = ref["documentId"]
+        chunks_removed += delete_document_chunks(collection, document_id)
+        documents.pop(str(document_id), None)
+        removed_ids.append(document_id)
+
+    for ref in upserts:
+        document_id = ref["documentId"]
+        filepath = os.path.join(folder_path, ref.get("filename") or "")
+        if not os.path.isfile(filepath):
+            failed[document_id] = "file not found"
+            continue
+
+        content_hash = file_sha256(filepath)
+        if content_hash != ref.get("contentHash"):
+            failed[document_id] = "content hash mismatch"
+            continue
+
+        document = load_document(filepath)
+        if document is None:
+            failed[document_id] = "could not be loaded"
+            continue
+
+        chunks = [chunk for chunk in chunk_documents([document]) if chunk["text"]]
+        chunks_removed += delete_document_chunks(collection, document_id)
+        if chunks:
+            vectors = embed_texts([chunk["text"] for chunk in chunks])
+            collection.upsert(
+                ids=[f"doc_{document_id}_chunk_{chunk['chunk_id']}" for chunk in chunks],
+                embeddings=vectors,
+                documents=[chunk["text"] for chunk in chunks],
+                metadatas=[{
+                    'source': chunk['source'],
+                    'doc_id': document_id,
+                    'chunk_id': chunk['chunk_id'],
+                    'document_id': document_id,
+                    'content_hash': content_hash
+                } for chunk in chunks]
+            )
+
+        documents[str(document_id)] = {
+            "hash": content_hash,
+            "filename": ref.get("filename"),
+            "generation": generation,
+            "chunks": len(chunks)
+        }
+        indexed.append(document_id)
+        chunks_added += len(chunks)
+
+    manifest["generation"] = generation
+    save_document_manifest(manifest)
+
+    print(f"✅ Generation {generation}: {len(indexed)} indexed, {len(failed)} failed, {len(removed_ids)} removed")
+    print(f"   Chunks added: {chunks_added}, removed: {chunks_removed}, total: {collection.count()}")
+    return {
+        "generation": generation,
+        "indexed": indexed,
+        "failed": failed,
+        "removed": removed_ids,
+        "chunksAdded": chunks_added,
+        "chunksRemoved": chunks_removed
+    }
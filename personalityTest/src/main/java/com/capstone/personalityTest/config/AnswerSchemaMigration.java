@@ -0,0 +1,95 @@
+package com.capstone.personalityTest.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Brings existing answer tables in line with the Answer mapping, after Hibernate has updated the schema.
+ *
+ * sub_question_key is a plain column written by the application. Tables that had the earlier MySQL
+ * generated column get it converted in place, and rows that predate the column (added with 0) get
+ * their key from sub_question_id. That backfill only runs while uk_answer_attempt_item is missing
+ * (or a key is NULL), so a migrated table is not scanned on every startup.
+ *
+ * ddl-auto=update only logs a warning when it cannot add uk_answer_attempt_item, which is the case
+ * while older data holds several rows for one item. Those rows are student answers, so they are not
+ * deleted here: startup fails with the number of duplicates, and an operator runs the cleanup from the
+ * README ("Upgrading: duplicate answers") after reviewing them. The answer upserts rely on the constraint.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class AnswerSchemaMigration {
+
+    private static final String ITEM_CONSTRAINT = "uk_answer_attempt_item";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void migrate() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+        boolean mySql = "MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product);
+        if (mySql) {
+            convertGeneratedKey();
+        }
+
+        // A table with the constraint was migrated already and the application writes every key since,
+        // so the backfill (a full table scan) only runs before the constraint is added or for NULL keys
+        boolean constraintMissing = !UniqueConstraints.exists(jdbcTemplate, "answer", ITEM_CONSTRAINT);
+        if (constraintMissing || hasNullKeys()) {
+            backfillKeys();
+        }
+        if (constraintMissing) {
+            addItemConstraint();
+        }
+    }
+
+    // Cheap on a NOT NULL column: the condition can never match and no rows are read
+    private boolean hasNullKeys() {
+        return !jdbcTemplate.queryForList("SELECT id FROM answer WHERE sub_question_key IS NULL LIMIT 1", Long.class).isEmpty();
+    }
+
+    private void backfillKeys() {
+        int backfilled = jdbcTemplate.update("UPDATE answer SET sub_question_key = COALESCE(sub_question_id, 0) " +
+                "WHERE sub_question_key IS NULL OR sub_question_key <> COALESCE(sub_question_id, 0)");
+        if (backfilled > 0) {
+            log.info("🔧 Backfilled sub_question_key for {} answers", backfilled);
+        }
+    }
+
+    private void addItemConstraint() {
+        Integer duplicates = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM answer older WHERE EXISTS (SELECT 1 FROM answer newer " +
+                "WHERE newer.test_attempt_id = older.test_attempt_id AND newer.question_id = older.question_id " +
+                "AND newer.sub_question_key = older.sub_question_key AND newer.id > older.id)", Integer.class);
+        if (duplicates != null && duplicates > 0) {
+            throw new IllegalStateException("Cannot add " + ITEM_CONSTRAINT + ": " + duplicates + " answers have a newer " +
+                    "answer for the same item. Review and remove them (README, \"Upgrading: duplicate answers\") before starting");
+        }
+
+        try {
+            jdbcTemplate.execute("ALTER TABLE answer ADD CONSTRAINT " + ITEM_CONSTRAINT +
+                    " UNIQUE (test_attempt_id, question_id, sub_question_key)");
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not add " + ITEM_CONSTRAINT + " to the answer table", e);
+        }
+        log.info("🔧 Added {} to the answer table", ITEM_CONSTRAINT);
+    }
+
+    // Stored generated columns become plain columns on MODIFY and keep their values
+    private void convertGeneratedKey() {
+        List<String> extra = jdbcTemplate.queryForList("SELECT EXTRA FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'answer' AND COLUMN_NAME = 'sub_question_key'", String.class);
+        if (!extra.isEmpty() && extra.get(0) != null && extra.get(0).toUpperCase().contains("GENERATED")) {
+            jdbcTemplate.execute("ALTER TABLE answer MODIFY sub_question_key BIGINT NOT NULL");
+            log.info("🔧 Converted generated answer.sub_question_key to a plain column");
+        }
+    }
+}
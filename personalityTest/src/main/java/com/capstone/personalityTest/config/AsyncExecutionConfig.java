@@ -0,0 +1,52 @@
+package com.capstone.personalityTest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Executor for @Async work and file storage uploads.
+ *
+ * That work is almost entirely waiting on other services, so with app.async.virtual-threads=true
+ * every task gets its own virtual thread: a task blocked on HTTP costs a few KB instead of a pooled
+ * platform thread, and nothing queues behind a handful of busy threads. Concurrency is then bounded
+ * per downstream instead of by the pool: ServiceGuard for the AI and model services, ConcurrencyLimit
+ * for file storage. With it off, the platform pool configured by spring.task.execution.pool.* is
+ * used as before. (Document reindexing runs one at a time in DocumentReindexScheduler.)
+ */
+@Configuration
+@Slf4j
+public class AsyncExecutionConfig {
+
+    @Value("${app.async.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Replaces Spring Boot's applicationTaskExecutor; also named taskExecutor so @Async picks it
+     * over the scheduler.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder poolBuilder,
+                                                     SimpleAsyncTaskExecutorBuilder simpleBuilder) {
+        if (virtualThreads) {
+            log.info("🧵 Async work runs on virtual threads");
+            return simpleBuilder.virtualThreads(true).threadNamePrefix("async-vt-").build();
+        }
+        return poolBuilder.build();
+    }
+
+    /**
+     * Uploads to and deletes from file storage (Firebase).
+     */
+    @Bean
+    public ConcurrencyLimit storageLimit(MeterRegistry meterRegistry,
+                                         @Value("${app.limits.storage.max-concurrent:16}") int maxConcurrent,
+                                         @Value("${app.limits.storage.max-wait-ms:10000}") long maxWaitMs) {
+        return new ConcurrencyLimit("storage", maxConcurrent, maxWaitMs, meterRegistry);
+    }
+}
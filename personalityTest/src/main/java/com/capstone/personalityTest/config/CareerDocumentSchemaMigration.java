@@ -0,0 +1,47 @@
+package com.capstone.personalityTest.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds uk_career_documents_hash to existing career_documents tables, after Hibernate has updated the schema.
+ *
+ * Older versions could give several documents the same content hash, which keeps ddl-auto=update
+ * from adding the constraint. The oldest document keeps its hash and the copies get none (they
+ * stay listed and indexed); startup fails if the constraint still cannot be added.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class CareerDocumentSchemaMigration {
+
+    private static final String HASH_CONSTRAINT = "uk_career_documents_hash";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    void migrate() {
+        if (UniqueConstraints.exists(jdbcTemplate, "career_documents", HASH_CONSTRAINT)) {
+            return;
+        }
+
+        int cleared = jdbcTemplate.update("UPDATE career_documents SET content_hash = NULL " +
+                "WHERE content_hash IS NOT NULL AND id NOT IN (SELECT id FROM " +
+                "(SELECT MIN(id) AS id FROM career_documents WHERE content_hash IS NOT NULL GROUP BY content_hash) oldest)");
+        if (cleared > 0) {
+            log.warn("⚠️  Cleared the content hash of {} documents with the same content as an older one", cleared);
+        }
+
+        try {
+            jdbcTemplate.execute("ALTER TABLE career_documents ADD CONSTRAINT " + HASH_CONSTRAINT + " UNIQUE (content_hash)");
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not add " + HASH_CONSTRAINT + " to the career_documents table", e);
+        }
+        log.info("🔧 Added {} to the career_documents table", HASH_CONSTRAINT);
+    }
+}
@@ -0,0 +1,88 @@
+package com.capstone.personalityTest.config;
+
+import com.capstone.personalityTest.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bound on the calls in flight to one downstream (such as file storage) that has no ServiceGuard
+ * of its own.
+ *
+ * On virtual threads the executor no longer caps concurrency, so this is what keeps a burst of
+ * work from opening hundreds of simultaneous calls to the same service. A caller waits up to
+ * maxWaitMs for a slot (cheap on a virtual thread) and is refused with ServiceUnavailableException
+ * after that.
+ *
+ * Metrics (GET /actuator/metrics/...), tagged with downstream:
+ * - downstream.limit.available: free slots
+ * - downstream.limit.rejected: calls refused after waiting maxWaitMs
+ */
+public class ConcurrencyLimit {
+
+    private final String downstream;
+    private final int maxConcurrent;
+    private final long maxWaitMs;
+    private final Semaphore slots;
+    private final Counter rejected;
+
+    public ConcurrencyLimit(String downstream, int maxConcurrent, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.downstream = downstream;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMs = maxWaitMs;
+        this.slots = new Semaphore(maxConcurrent, true);
+
+        Gauge.builder("downstream.limit.available", slots, Semaphore::availablePermits)
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+        rejected = Counter.builder("downstream.limit.rejected")
+                .tag("downstream", downstream)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the call once a slot is free.
+     *
+     * @throws ServiceUnavailableException if no slot freed up within maxWaitMs
+     */
+    public <T> T call(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            slots.release();
+        }
+    }
+
+    public void run(Runnable call) {
+        call(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public int available() {
+        return slots.availablePermits();
+    }
+
+    private void acquire() {
+        boolean acquired;
+        try {
+            acquired = maxWaitMs <= 0
+                    ? slots.tryAcquire()
+                    : slots.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + downstream + " call slot", e);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new ServiceUnavailableException(downstream,
+                    downstream + " is busy (" + maxConcurrent + " calls in flight)", maxWaitMs);
+        }
+    }
+}
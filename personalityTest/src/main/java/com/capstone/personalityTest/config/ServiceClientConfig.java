@@ -0,0 +1,165 @@
+package com.capstone.personalityTest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP clients for the Python services, one connection pool per service so a slow service
+ * cannot take the connections (or the threads waiting on them) of another.
+ *
+ * Every client has bounded connect, response and pool-acquire timeouts, and keeps idle
+ * connections alive for reuse. Calls use paths relative to the service URL (root URI).
+ * The AI and model clients also go through a ServiceGuard (circuit breaker + bulkhead), so an
+ * outage fails calls fast with ServiceUnavailableException instead of tying up request threads.
+ *
+ * Metrics (GET /actuator/metrics/...):
+ * - http.client.requests: latency and outcome per endpoint (uri tag), recorded by RestTemplateBuilder
+ * - httpcomponents.httpclient.pool.*: leased / available / pending connections per pool (httpclient tag)
+ * - service.client.*: circuit state and transitions, rejected calls, free bulkhead slots (see ServiceGuard)
+ */
+@Configuration
+public class ServiceClientConfig {
+
+    /**
+     * Pool size and timeouts of one service client.
+     */
+    public record ClientSettings(int maxConnections, long connectTimeoutMs, long readTimeoutMs,
+                                 long acquireTimeoutMs, long keepAliveMs) {
+    }
+
+    /**
+     * Circuit breaker and bulkhead of the AI service. Analyses run on the job workers, so calls over
+     * the limit are refused at once and the job is retried later.
+     */
+    @Bean
+    public ServiceGuard aiServiceGuard(MeterRegistry meterRegistry,
+                                       @Value("${app.resilience.ai.max-concurrent:8}") int maxConcurrent,
+                                       @Value("${app.resilience.ai.max-wait-ms:0}") long maxWaitMs,
+                                       @Value("${app.resilience.window-size:20}") int windowSize,
+                                       @Value("${app.resilience.minimum-calls:10}") int minimumCalls,
+                                       @Value("${app.resilience.failure-rate-percent:50}") int failureRatePercent,
+                                       @Value("${app.resilience.open-ms:30000}") long openMs,
+                                       @Value("${app.resilience.half-open-calls:3}") int halfOpenCalls) {
+        return new ServiceGuard("ai", new ServiceGuard.GuardSettings(maxConcurrent, maxWaitMs, windowSize,
+                minimumCalls, failureRatePercent, openMs, halfOpenCalls), meterRegistry);
+    }
+
+    /**
+     * Circuit breaker and bulkhead of the ML model service. predict-code runs on request threads,
+     * so callers wait at most max-wait-ms for a slot.
+     */
+    @Bean
+    public ServiceGuard modelServiceGuard(MeterRegistry meterRegistry,
+                                          @Value("${app.resilience.model.max-concurrent:8}") int maxConcurrent,
+                                          @Value("${app.resilience.model.max-wait-ms:100}") long maxWaitMs,
+                                          @Value("${app.resilience.window-size:20}") int windowSize,
+                                          @Value("${app.resilience.minimum-calls:10}") int minimumCalls,
+                                          @Value("${app.resilience.failure-rate-percent:50}") int failureRatePercent,
+                                          @Value("${app.resilience.open-ms:30000}") long openMs,
+                                          @Value("${app.resilience.half-open-calls:3}") int halfOpenCalls) {
+        return new ServiceGuard("model", new ServiceGuard.GuardSettings(maxConcurrent, maxWaitMs, windowSize,
+                minimumCalls, failureRatePercent, openMs, halfOpenCalls), meterRegistry);
+    }
+
+    /**
+     * AI service (complete analysis: RAG, learning path, job matching, email). Slow calls, long read timeout.
+     */
+    @Bean
+    public RestTemplate aiRestTemplate(RestTemplateBuilder builder, MeterRegistry meterRegistry, ServiceGuard aiServiceGuard,
+                                       @Value("${ai.service.url:http://localhost:5000}") String url,
+                                       @Value("${app.http.ai.max-connections:20}") int maxConnections,
+                                       @Value("${app.http.ai.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                       @Value("${app.http.ai.read-timeout-ms:120000}") long readTimeoutMs,
+                                       @Value("${app.http.ai.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+                                       @Value("${app.http.keep-alive-ms:30000}") long keepAliveMs) {
+        return pooledRestTemplate("ai", url, builder.additionalInterceptors(aiServiceGuard), meterRegistry,
+                new ClientSettings(maxConnections, connectTimeoutMs, readTimeoutMs, acquireTimeoutMs, keepAliveMs));
+    }
+
+    /**
+     * ML model service (personality code prediction). Fast calls, short read timeout.
+     */
+    @Bean
+    public RestTemplate modelRestTemplate(RestTemplateBuilder builder, MeterRegistry meterRegistry, ServiceGuard modelServiceGuard,
+                                          @Value("${model.service.url:http://localhost:5001}") String url,
+                                          @Value("${app.http.model.max-connections:20}") int maxConnections,
+                                          @Value("${app.http.model.connect-timeout-ms:1000}") long connectTimeoutMs,
+                                          @Value("${app.http.model.read-timeout-ms:10000}") long readTimeoutMs,
+                                          @Value("${app.http.model.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                                          @Value("${app.http.keep-alive-ms:30000}") long keepAliveMs) {
+        return pooledRestTemplate("model", url, builder.additionalInterceptors(modelServiceGuard), meterRegistry,
+                new ClientSettings(maxConnections, connectTimeoutMs, readTimeoutMs, acquireTimeoutMs, keepAliveMs));
+    }
+
+    /**
+     * Document reindexing on the AI service. Rare calls, own small pool so they never queue behind analyses.
+     */
+    @Bean
+    public RestTemplate documentRestTemplate(RestTemplateBuilder builder, MeterRegistry meterRegistry,
+                                             @Value("${ai.service.url:http://localhost:5000}") String url,
+                                             @Value("${app.http.documents.max-connections:2}") int maxConnections,
+                                             @Value("${app.http.documents.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                             @Value("${app.http.documents.read-timeout-ms:300000}") long readTimeoutMs,
+                                             @Value("${app.http.documents.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+                                             @Value("${app.http.keep-alive-ms:30000}") long keepAliveMs) {
+        return pooledRestTemplate("documents", url, builder, meterRegistry,
+                new ClientSettings(maxConnections, connectTimeoutMs, readTimeoutMs, acquireTimeoutMs, keepAliveMs));
+    }
+
+    static RestTemplate pooledRestTemplate(String name, String rootUri, RestTemplateBuilder builder,
+                                           MeterRegistry meterRegistry, ClientSettings settings) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(settings.maxConnections())
+                .setMaxConnPerRoute(settings.maxConnections()) // one route (host) per service
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(settings.connectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(settings.readTimeoutMs()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(settings.acquireTimeoutMs()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(settings.readTimeoutMs()))
+                        .build())
+                // Reuse connections for keepAliveMs unless the server asks for less; close them once idle that long
+                .setKeepAliveStrategy(keepAliveStrategy(settings.keepAliveMs()))
+                .evictIdleConnections(TimeValue.ofMilliseconds(settings.keepAliveMs()))
+                .evictExpiredConnections()
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+
+        return builder
+                .rootUri(rootUri)
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    // The server's Keep-Alive timeout when it sends a shorter one, keepAliveMs otherwise
+    static ConnectionKeepAliveStrategy keepAliveStrategy(long keepAliveMs) {
+        TimeValue configured = TimeValue.ofMilliseconds(keepAliveMs);
+        return (response, context) -> {
+            TimeValue requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(requested) && requested.compareTo(configured) < 0 ? requested : configured;
+        };
+    }
+}
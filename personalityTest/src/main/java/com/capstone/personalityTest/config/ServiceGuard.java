@@ -0,0 +1,344 @@
+package com.capstone.personalityTest.config;
+
+import com.capstone.personalityTest.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker and bulkhead for the calls of one service client, installed as a RestTemplate interceptor.
+ *
+ * Circuit breaker: the outcomes of the last windowSize calls are kept; once at least minimumCalls were
+ * made and failureRatePercent of them failed (I/O error, timeout or 5xx), the circuit opens and every
+ * call is refused at once with ServiceUnavailableException for openMs. Then halfOpenCalls trial calls
+ * are let through: if they all succeed the circuit closes, a single failure opens it again.
+ *
+ * Bulkhead: at most maxConcurrent calls are in flight; a caller waits up to maxWaitMs for a slot and is
+ * refused after that, so a slow service holds a bounded number of request threads.
+ *
+ * A call lasts until its response is closed, not until the headers arrive: the slot is held and the
+ * outcome recorded on close, so a streamed body counts against the bulkhead while it is read, and a
+ * read error in the body (or a failure reported through reportFailure) counts as a failed call.
+ * Outcomes only count in the circuit state their call started in: a call started while closed that
+ * ends after the circuit opened or went half-open is not counted, in particular not as a trial.
+ *
+ * Metrics (GET /actuator/metrics/...), tagged with service:
+ * - service.client.circuit.state: 0 closed, 1 open, 2 half-open
+ * - service.client.circuit.transitions: state changes (from / to tags)
+ * - service.client.calls.rejected: calls refused without being sent (reason tag: circuit-open, bulkhead-full)
+ * - service.client.bulkhead.available: free concurrency slots
+ */
+@Slf4j
+public class ServiceGuard implements ClientHttpRequestInterceptor {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Thresholds of one guard.
+     */
+    public record GuardSettings(int maxConcurrent, long maxWaitMs, int windowSize, int minimumCalls,
+                                int failureRatePercent, long openMs, int halfOpenCalls) {
+    }
+
+    private final String service;
+    private final GuardSettings settings;
+    private final LongSupplier clock;
+    private final Semaphore bulkhead;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedOpen;
+    private final Counter rejectedFull;
+
+    // Circuit state, guarded by this
+    private State state = State.CLOSED;
+    private final boolean[] window;   // ring buffer of outcomes, true = failure
+    private int windowCalls;
+    private int windowFailures;
+    private int windowNext;
+    private long openUntil;
+    private int trialsStarted;
+    private int trialsSucceeded;
+    private long generation;          // incremented on every transition
+
+    public ServiceGuard(String service, GuardSettings settings, MeterRegistry meterRegistry) {
+        this(service, settings, meterRegistry, System::currentTimeMillis);
+    }
+
+    ServiceGuard(String service, GuardSettings settings, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.service = service;
+        this.settings = settings;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.bulkhead = new Semaphore(settings.maxConcurrent(), true);
+        this.window = new boolean[settings.windowSize()];
+
+        Gauge.builder("service.client.circuit.state", this, guard -> guard.state().ordinal())
+                .tag("service", service)
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        Gauge.builder("service.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("service", service)
+                .register(meterRegistry);
+        rejectedOpen = Counter.builder("service.client.calls.rejected")
+                .tag("service", service).tag("reason", "circuit-open")
+                .register(meterRegistry);
+        rejectedFull = Counter.builder("service.client.calls.rejected")
+                .tag("service", service).tag("reason", "bulkhead-full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        long startedIn = acquirePermission();
+        try {
+            if (!tryEnterBulkhead()) {
+                releasePermission(startedIn);
+                rejectedFull.increment();
+                throw new ServiceUnavailableException(service,
+                        service + " service is busy (" + settings.maxConcurrent() + " calls in flight)", settings.maxWaitMs());
+            }
+        } catch (InterruptedException e) {
+            releasePermission(startedIn);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a " + service + " call slot", e);
+        }
+
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            onResult(startedIn, false);
+            bulkhead.release();
+            throw e;
+        }
+
+        // From here on the guarded response's close() releases the slot, also when reading the status fails
+        GuardedResponse guarded = new GuardedResponse(response, startedIn);
+        try {
+            guarded.statusOk = !response.getStatusCode().is5xxServerError();
+            return guarded;
+        } catch (IOException | RuntimeException e) {
+            guarded.failed = true;
+            guarded.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Marks a call as failed although its status was fine, for failures the caller only sees while
+     * reading the body (an error reported inside a stream, a stream that ends early). The outcome is
+     * recorded when the response is closed; responses that did not pass through a guard are ignored.
+     */
+    public static void reportFailure(ClientHttpResponse response) {
+        if (response instanceof GuardedResponse guarded) {
+            guarded.failed = true;
+        }
+    }
+
+    /**
+     * Whether a call would currently be let through the circuit. Lets callers with a fallback
+     * skip queueing work for an open-circuited service.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> clock.getAsLong() >= openUntil;
+            case HALF_OPEN -> trialsStarted < settings.halfOpenCalls();
+        };
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Milliseconds until an open circuit lets trial calls through (0 when not open).
+     */
+    public synchronized long retryAfterMs() {
+        return state == State.OPEN ? Math.max(0, openUntil - clock.getAsLong()) : 0;
+    }
+
+    public String service() {
+        return service;
+    }
+
+    private boolean tryEnterBulkhead() throws InterruptedException {
+        return settings.maxWaitMs() <= 0
+                ? bulkhead.tryAcquire()
+                : bulkhead.tryAcquire(settings.maxWaitMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the generation of the circuit state the call starts in
+     */
+    private synchronized long acquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() < openUntil) {
+                rejectedOpen.increment();
+                throw new ServiceUnavailableException(service,
+                        service + " service circuit is open after repeated failures", openUntil - clock.getAsLong());
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= settings.halfOpenCalls()) {
+                rejectedOpen.increment();
+                throw new ServiceUnavailableException(service,
+                        service + " service circuit is half-open, trial calls in flight", settings.openMs());
+            }
+            trialsStarted++;
+        }
+        return generation;
+    }
+
+    // A half-open trial that was never sent
+    private synchronized void releasePermission(long startedIn) {
+        if (startedIn == generation && state == State.HALF_OPEN && trialsStarted > 0) {
+            trialsStarted--;
+        }
+    }
+
+    private synchronized void onResult(long startedIn, boolean success) {
+        if (startedIn != generation) {
+            // Started in an earlier state (closed before the circuit opened, or an older trial round)
+            return;
+        }
+        switch (state) {
+            case HALF_OPEN -> {
+                if (!success) {
+                    transition(State.OPEN);
+                } else if (++trialsSucceeded >= settings.halfOpenCalls()) {
+                    transition(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                if (windowCalls == window.length) {
+                    if (window[windowNext]) windowFailures--;
+                } else {
+                    windowCalls++;
+                }
+                window[windowNext] = !success;
+                if (!success) windowFailures++;
+                windowNext = (windowNext + 1) % window.length;
+
+                if (windowCalls >= settings.minimumCalls()
+                        && windowFailures * 100 >= settings.failureRatePercent() * windowCalls) {
+                    transition(State.OPEN);
+                }
+            }
+            case OPEN -> {
+                // Calls are only let through while closed or half-open, so none started in this state
+            }
+        }
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        generation++;
+        trialsStarted = 0;
+        trialsSucceeded = 0;
+        if (to == State.OPEN) {
+            openUntil = clock.getAsLong() + settings.openMs();
+            if (from == State.CLOSED) {
+                log.warn("⚡ {} service circuit OPEN for {} ms ({}/{} recent calls failed)",
+                        service, settings.openMs(), windowFailures, windowCalls);
+            } else {
+                log.warn("⚡ {} service circuit OPEN again for {} ms (trial call failed)", service, settings.openMs());
+            }
+        } else {
+            log.info("⚡ {} service circuit {}", service, to);
+        }
+        if (to != State.HALF_OPEN) {
+            windowCalls = 0;
+            windowFailures = 0;
+            windowNext = 0;
+        }
+        Counter.builder("service.client.circuit.transitions")
+                .tag("service", service).tag("from", from.name()).tag("to", to.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Response of a call let through the guard: releases the slot and records the outcome once, on close.
+     */
+    private final class GuardedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final long startedIn;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean statusOk;
+        private volatile boolean failed;
+
+        GuardedResponse(ClientHttpResponse delegate, long startedIn) {
+            this.delegate = delegate;
+            this.startedIn = startedIn;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(delegate.getBody()) {
+                @Override
+                public int read() throws IOException {
+                    try {
+                        return super.read();
+                    } catch (IOException e) {
+                        failed = true;
+                        throw e;
+                    }
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    try {
+                        return super.read(b, off, len);
+                    } catch (IOException e) {
+                        failed = true;
+                        throw e;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            try {
+                delegate.close();
+            } finally {
+                onResult(startedIn, statusOk && !failed);
+                bulkhead.release();
+            }
+        }
+    }
+}
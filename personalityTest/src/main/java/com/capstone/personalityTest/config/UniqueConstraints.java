@@ -0,0 +1,38 @@
+package com.capstone.personalityTest.config;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Lookup of unique constraints for the startup schema migrations
+ */
+final class UniqueConstraints {
+
+    private UniqueConstraints() {
+    }
+
+    /**
+     * Whether the table has a unique index named after the constraint
+     */
+    static boolean exists(JdbcTemplate jdbcTemplate, String table, String constraint) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            DatabaseMetaData metaData = con.getMetaData();
+            // Unquoted names are stored lower case by MySQL and upper case by H2 (which also suffixes index names)
+            for (String name : List.of(table.toLowerCase(), table.toUpperCase())) {
+                try (ResultSet indexes = metaData.getIndexInfo(con.getCatalog(), null, name, true, false)) {
+                    while (indexes.next()) {
+                        String index = indexes.getString("INDEX_NAME");
+                        if (index != null && index.toLowerCase().startsWith(constraint)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
@@ -2,15 +2,22 @@ package com.capstone.personalityTest.controller.test;
 
 import com.capstone.personalityTest.dto.ResponseDTO.test.AIResultResponseDTO;
 import com.capstone.personalityTest.mapper.AIResultMapper;
+import com.capstone.personalityTest.model.Enum.AIAnalysisStage;
 import com.capstone.personalityTest.model.testm.AIResult;
 import com.capstone.personalityTest.service.test.AIIntegrationService;
+import com.capstone.personalityTest.service.test.AIProgressBroadcaster;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
 
 /**
  * REST Controller for retrieving AI analysis results.
@@ -18,6 +25,7 @@ import org.springframework.web.bind.annotation.RestController;
  * 
  * Endpoints:
  * - GET /api/ai-results/attempt/{attemptId} - Get AI results for a test attempt
+ * - GET /api/ai-results/attempt/{attemptId}/events - Server-sent events of the analysis progress
  */
 @RestController
 @RequestMapping("/api/ai-results")
@@ -26,6 +34,7 @@ public class AIResultController {
 
     private final AIIntegrationService aiService;
     private final AIResultMapper aiResultMapper;
+    private final AIProgressBroadcaster progressBroadcaster;
 
     /**
      * Get AI analysis results for a test attempt.
@@ -61,6 +70,31 @@ public class AIResultController {
         return ResponseEntity.ok(aiResultMapper.toDto(result));
     }
 
+    /**
+     * Stream the progress of an attempt's AI analysis instead of polling.
+     * 
+     * Events (name = stage, data = AIProgressEvent JSON):
+     * QUEUED, RUNNING, ML_CODE {personalityCode}, CAREER_RECOMMENDATIONS {careerRecommendations},
+     * LEARNING_PATH {learningPath}, JOB_MATCHES {jobMatches}, EMAIL {emailSent}, then
+     * COMPLETED (fetch the saved result from the endpoint above) or FAILED {error}, which close the stream.
+     * A retried run sends QUEUED again with nextRunAt.
+     * 
+     * Connecting mid-run replays the events of the run so far; browsers reconnecting with
+     * Last-Event-ID only get what they missed. If the analysis already finished, the stream holds
+     * a single COMPLETED event.
+     */
+    @GetMapping(value = "/attempt/{attemptId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAIProgress(@PathVariable Long attemptId,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (!progressBroadcaster.isActive(attemptId)) {
+            AIResult result = aiService.getAIResultByAttemptId(attemptId);
+            if (result != null) {
+                return progressBroadcaster.completed(attemptId, AIAnalysisStage.COMPLETED, Map.of("aiResultId", result.getId()));
+            }
+        }
+        return progressBroadcaster.subscribe(attemptId, lastEventId);
+    }
+
     /**
      * Example response when AI results are ready:
      * {
@@ -1,7 +1,12 @@
 package com.capstone.personalityTest.controller.test;
 
 import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.CareerDocumentResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentImportResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.ReindexStatusResponse;
+import com.capstone.personalityTest.exception.EntityExistsException;
 import com.capstone.personalityTest.service.test.CareerDocumentService;
+import com.capstone.personalityTest.service.test.DocumentReindexScheduler;
+import com.capstone.personalityTest.service.test.DocumentSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -28,6 +33,8 @@ import java.util.Map;
 public class CareerDocumentController {
 
     private final CareerDocumentService documentService;
+    private final DocumentReindexScheduler reindexScheduler;
+    private final DocumentSearchService searchService;
 
     /**
      * Upload a new career document
@@ -65,6 +72,10 @@ public class CareerDocumentController {
 
             return ResponseEntity.ok(response);
 
+        } catch (EntityExistsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("success", false, "error", e.getMessage()));
+
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                 .body(Map.of("success", false, "error", e.getMessage()));
@@ -75,6 +86,47 @@ public class CareerDocumentController {
         }
     }
 
+    /**
+     * Import all documents in a ZIP archive
+     * 
+     * @param file ZIP archive of documents (PDF, DOCX, TXT, MD, etc.)
+     * @param baseTestId Optional: Link the documents to a specific test type
+     * @param description Optional: Description applied to every imported document
+     * @param authentication Current authenticated user
+     * @return Per-entry report: imported, duplicate, rejected or skipped, with the reason
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import career guidance documents from a ZIP archive",
+            description = "Validates and stores every entry, then reindexes once")
+    public ResponseEntity<?> importDocuments(
+        @RequestParam("file") MultipartFile file,
+        @RequestParam(required = false) Long baseTestId,
+        @RequestParam(required = false) String description,
+        Authentication authentication
+    ) {
+        try {
+            DocumentImportResponse report = documentService.importArchive(
+                file,
+                baseTestId,
+                description,
+                authentication.getName()
+            );
+            return ResponseEntity.ok(report);
+
+        } catch (EntityExistsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("success", false, "error", e.getMessage()));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "error", e.getMessage()));
+
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("success", false, "error", "Failed to import archive: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get all uploaded documents
      * 
@@ -86,6 +138,28 @@ public class CareerDocumentController {
         return ResponseEntity.ok(documents);
     }
 
+    /**
+     * Full-text search over document names, descriptions and content
+     * 
+     * @param q Search terms (Arabic or English)
+     * @param limit Maximum number of results (at most 50)
+     * @return Matching documents, best first
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search career guidance documents",
+            description = "Ranked full-text search answered from the local index")
+    public ResponseEntity<?> searchDocuments(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        try {
+            return ResponseEntity.ok(searchService.search(q, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("success", false, "error", e.getMessage()));
+        }
+    }
+
     /**
      * Get documents for a specific base test
      * 
@@ -132,27 +206,34 @@ public class CareerDocumentController {
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
-            
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("success", false, "error", "Failed to delete file: " + e.getMessage()));
         }
     }
 
     /**
      * Manually trigger reindexing of all documents
-     * Useful if automatic reindexing failed
+     * Useful if automatic reindexing failed. Starts right away unless a reindex
+     * is running, in which case one more is queued behind it.
      * 
-     * @return Success message
+     * @return Success message and the reindex status
      */
     @PostMapping("/reindex")
     public ResponseEntity<Map<String, Object>> triggerReindex() {
-        documentService.triggerReindex();
+        ReindexStatusResponse status = reindexScheduler.requestNow();
         
-        return ResponseEntity.ok(Map.of(
+        return ResponseEntity.accepted().body(Map.of(
             "success", true,
-            "message", "Reindexing triggered. This may take a few moments."
+            "message", "Reindexing triggered. This may take a few moments.",
+            "status", status
         ));
     }
+
+    /**
+     * Reindex status: scheduled / running / idle, merged triggers and
+     * the outcome and duration of the last reindex
+     */
+    @GetMapping("/reindex/status")
+    public ResponseEntity<ReindexStatusResponse> getReindexStatus() {
+        return ResponseEntity.ok(reindexScheduler.status());
+    }
 }
 
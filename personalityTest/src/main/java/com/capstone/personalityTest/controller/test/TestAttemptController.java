@@ -1,10 +1,18 @@
 package com.capstone.personalityTest.controller.test;
 
 import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.AnswerRequest;
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIAnalysisJobResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIAnalysisTriggerResponse;
+import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.BatchAnswerRequest;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AnswerResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AttemptProgressResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AnswerSubmissionResult;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.ScorePreviewResponse;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.TestAttemptWithAnswersResponse;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.TestAttemptResponse;
+import com.capstone.personalityTest.model.Enum.AnswerSubmissionStatus;
 import com.capstone.personalityTest.model.testm.EvaluationResult;
+import com.capstone.personalityTest.service.test.AIAnalysisJobService;
 import com.capstone.personalityTest.service.test.ModelServiceClient;
 import com.capstone.personalityTest.service.test.TestAttemptService;
 import lombok.RequiredArgsConstructor;
@@ -12,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +32,7 @@ public class TestAttemptController {
 
     private final TestAttemptService testAttemptService;
     private final ModelServiceClient modelServiceClient;
+    private final AIAnalysisJobService aiAnalysisJobService;
 
     @GetMapping("/{testId}")
     public ResponseEntity<TestAttemptResponse> startTest(
@@ -37,10 +47,35 @@ public class TestAttemptController {
     public ResponseEntity<String> submitAnswers(
             @PathVariable Long attemptId,
             @RequestBody AnswerRequest answer) {
-        testAttemptService.submitAnswers(attemptId, answer);
+        AnswerSubmissionStatus status = testAttemptService.submitAnswers(attemptId, answer);
+        if (status == AnswerSubmissionStatus.DUPLICATE || status == AnswerSubmissionStatus.STALE) {
+            // Retried or overtaken submission: nothing changed, the client can move on
+            return ResponseEntity.ok("Answer already up to date (" + status + ")");
+        }
         return ResponseEntity.ok("Answers submitted successfully");
     }
 
+    // Endpoint to submit a whole section/page of answers in one round trip
+    @PatchMapping("/{attemptId}/answers/batch")
+    public ResponseEntity<List<AnswerSubmissionResult>> submitAnswersBatch(
+            @PathVariable Long attemptId,
+            @RequestBody BatchAnswerRequest request) {
+        List<AnswerRequest> answers = request.getAnswers() != null ? request.getAnswers() : List.of();
+        return ResponseEntity.ok(testAttemptService.submitAnswersBatch(attemptId, answers));
+    }
+
+
+    // Current profile of an in-progress attempt, from the running metric scores
+    @GetMapping("/{attemptId}/score-preview")
+    public ResponseEntity<ScorePreviewResponse> previewScores(@PathVariable Long attemptId) {
+        return ResponseEntity.ok(testAttemptService.previewScores(attemptId));
+    }
+
+    // Resume data: per-section progress, answered values and the next unanswered item
+    @GetMapping("/{attemptId}/progress")
+    public ResponseEntity<AttemptProgressResponse> getProgress(@PathVariable Long attemptId) {
+        return ResponseEntity.ok(testAttemptService.getProgress(attemptId));
+    }
 
     @PatchMapping("/{attemptId}/finalize")
     public ResponseEntity<EvaluationResult> finalizeAttempt(@PathVariable Long attemptId) {
@@ -66,12 +101,15 @@ public class TestAttemptController {
     @PostMapping("/{attemptId}/predict-code")
     public ResponseEntity<?> predictPersonalityCode(@PathVariable Long attemptId) {
         try {
-            String predictedCode = modelServiceClient.getPredictedPersonalityCode(attemptId);
+            ModelServiceClient.CodePrediction prediction = modelServiceClient.getPredictedPersonalityCode(attemptId);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
-                "message", "Personality code predicted successfully",
-                "predictedCode", predictedCode,
+                "message", prediction.calculated()
+                        ? "Model service unavailable, returning the calculated personality code"
+                        : "Personality code predicted successfully",
+                "predictedCode", prediction.code(),
+                "source", prediction.calculated() ? "EVALUATION" : "ML",
                 "attemptId", attemptId
             ));
             
@@ -100,22 +138,45 @@ public class TestAttemptController {
      * Flow:
      * 1. Student completes test
      * 2. Call PATCH /api/test-attempts/{attemptId}/finalize (calculates personality code)
-     * 3. Call POST /api/test-attempts/{attemptId}/analyze (triggers AI analysis)
-     * 4. Poll GET /api/ai-results/attempt/{attemptId} to check if results are ready
+     * 3. Call POST /api/test-attempts/{attemptId}/analyze (queues AI analysis, 202 + job)
+     * 4. Poll GET /api/test-attempts/ai-jobs/{jobId} for the job state, or
+     *    GET /api/ai-results/attempt/{attemptId} to check if results are ready
+     * 
+     * Triggering again while a job is pending returns that job (202, outcome IN_PROGRESS);
+     * triggering an attempt that already has results returns them (200, outcome EXISTING)
+     * unless force=true, which queues a re-run whose result replaces the old one.
      * 
      * @param attemptId ID of the finalized test attempt
-     * @return Success message
+     * @param force re-run even if results exist
+     * @return the queued or pending job, or the existing result id
      */
     @PostMapping("/{attemptId}/analyze")
-    public ResponseEntity<?> triggerAIAnalysis(@PathVariable Long attemptId) {
+    public ResponseEntity<?> triggerAIAnalysis(@PathVariable Long attemptId,
+                                               @RequestParam(defaultValue = "false") boolean force) {
         try {
-            testAttemptService.triggerAIAnalysis(attemptId);
+            AIAnalysisTriggerResponse trigger = testAttemptService.triggerAIAnalysis(attemptId, force);
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "AI analysis triggered successfully. Results will be available shortly.",
-                "attemptId", attemptId
-            ));
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("attemptId", attemptId);
+            body.put("outcome", trigger.getOutcome());
+            body.put("job", trigger.getJob());
+            body.put("aiResultId", trigger.getAiResultId());
+            return switch (trigger.getOutcome()) {
+                case QUEUED -> {
+                    body.put("message", "AI analysis queued. Results will be available shortly.");
+                    yield ResponseEntity.accepted().body(body);
+                }
+                case IN_PROGRESS -> {
+                    body.put("message", "AI analysis already in progress for this attempt.");
+                    yield ResponseEntity.accepted().body(body);
+                }
+                case EXISTING -> {
+                    body.put("message", "AI analysis already exists. Results can be retrieved at GET /api/ai-results/attempt/"
+                            + attemptId + " (use force=true to run it again).");
+                    yield ResponseEntity.ok(body);
+                }
+            };
             
         } catch (IllegalStateException e) {
             return ResponseEntity.badRequest()
@@ -127,6 +188,18 @@ public class TestAttemptController {
         }
     }
 
+    // State of a queued AI analysis (QUEUED / RUNNING / COMPLETED / FAILED, tries, next retry)
+    @GetMapping("/ai-jobs/{jobId}")
+    public ResponseEntity<AIAnalysisJobResponse> getAIAnalysisJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(aiAnalysisJobService.getJob(jobId));
+    }
+
+    // Latest AI analysis job of an attempt
+    @GetMapping("/{attemptId}/ai-job")
+    public ResponseEntity<AIAnalysisJobResponse> getLatestAIAnalysisJob(@PathVariable Long attemptId) {
+        return ResponseEntity.ok(aiAnalysisJobService.getLatestJobForAttempt(attemptId));
+    }
+
 
     @PreAuthorize("hasAnyRole('ORG_OWNER', 'DEVELOPER')")
     // Get all test attempts (for admin)
@@ -4,6 +4,13 @@ import com.capstone.personalityTest.dto.RequestDTO.test.TestRequest.CreateVersio
 import com.capstone.personalityTest.dto.RequestDTO.test.TestRequest.TestRequest;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.TestResponse;
 
+import com.capstone.personalityTest.dto.ResponseDTO.test.AttemptJobResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.FeatureSchemaResponse;
+import com.capstone.personalityTest.service.test.AnswerCompactionService;
+import com.capstone.personalityTest.service.test.AttemptJobRunner;
+import com.capstone.personalityTest.service.test.AttemptRescoringService;
+import com.capstone.personalityTest.service.test.MLBackfillService;
+import com.capstone.personalityTest.service.test.ModelServiceClient;
 import com.capstone.personalityTest.service.test.testservice.TestService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +30,11 @@ import org.springframework.security.core.GrantedAuthority;
 public class TestController {
 
     private final TestService testService;
+    private final AttemptRescoringService attemptRescoringService;
+    private final AnswerCompactionService answerCompactionService;
+    private final MLBackfillService mlBackfillService;
+    private final ModelServiceClient modelServiceClient;
+    private final AttemptJobRunner attemptJobRunner;
 
 
     // 1. Create a test (title + description only)
@@ -50,6 +62,47 @@ public class TestController {
         return ResponseEntity.ok(response);
     }
 
+    // Recompute the stored results of every finalized attempt (e.g. after fixing a metric mapping)
+    @PreAuthorize("hasAnyRole('ORG_OWNER', 'DEVELOPER')")
+    @PostMapping("/{testId}/rescore")
+    public ResponseEntity<AttemptJobResponse> rescoreAttempts(@PathVariable Long testId) {
+        return new ResponseEntity<>(attemptRescoringService.startRescoring(testId), HttpStatus.ACCEPTED);
+    }
+
+    // Move the checkbox/scale answers of finalized attempts into one packed row per attempt
+    @PreAuthorize("hasAnyRole('ORG_OWNER', 'DEVELOPER')")
+    @PostMapping("/{testId}/compact-answers")
+    public ResponseEntity<AttemptJobResponse> compactAnswers(@PathVariable Long testId) {
+        return new ResponseEntity<>(answerCompactionService.startCompaction(testId), HttpStatus.ACCEPTED);
+    }
+
+    // Predict the personality code of finalized attempts that have no ML result yet, in batch calls
+    @PreAuthorize("hasAnyRole('ORG_OWNER', 'DEVELOPER')")
+    @PostMapping("/{testId}/predict-codes")
+    public ResponseEntity<AttemptJobResponse> predictMissingCodes(@PathVariable Long testId) {
+        return new ResponseEntity<>(mlBackfillService.startBackfill(testId), HttpStatus.ACCEPTED);
+    }
+
+    // How the test's items map to the ML model's feature columns (complete = answers sent as a feature vector)
+    @PreAuthorize("hasAnyRole('ORG_OWNER', 'DEVELOPER')")
+    @GetMapping("/{testId}/feature-schema")
+    public ResponseEntity<FeatureSchemaResponse> getFeatureSchema(@PathVariable Long testId) {
+        return ResponseEntity.ok(modelServiceClient.getFeatureSchema(testId));
+    }
+
+    // Rescoring, compaction and code prediction jobs
+    @PreAuthorize("hasAnyRole('ORG_OWNER', 'DEVELOPER')")
+    @GetMapping("/attempt-jobs")
+    public ResponseEntity<List<AttemptJobResponse>> getAttemptJobs() {
+        return ResponseEntity.ok(attemptJobRunner.getJobs());
+    }
+
+    @PreAuthorize("hasAnyRole('ORG_OWNER', 'DEVELOPER')")
+    @GetMapping("/attempt-jobs/{jobId}")
+    public ResponseEntity<AttemptJobResponse> getAttemptJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(attemptJobRunner.getJob(jobId));
+    }
+
     @PreAuthorize("hasAnyRole('ORG_OWNER', 'DEVELOPER')")
     @PatchMapping("/{id}")
     public ResponseEntity<TestResponse> updateTest(
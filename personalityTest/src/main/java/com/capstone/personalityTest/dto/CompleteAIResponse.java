@@ -45,4 +45,10 @@ public class CompleteAIResponse {
      * true if email sent successfully, false otherwise
      */
     private boolean emailSent;
+
+    /**
+     * Version of the document index the career recommendations and learning path were generated from.
+     * null when they must not be reused for other students (e.g. RAG failed or a generic fallback was returned)
+     */
+    private String indexVersion;
 }
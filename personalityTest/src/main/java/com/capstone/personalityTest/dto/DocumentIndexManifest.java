@@ -0,0 +1,26 @@
+package com.capstone.personalityTest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Documents currently in the Python AI service's index (GET /api/admin/documents/index-manifest).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentIndexManifest {
+
+    /**
+     * Current index generation (0 before the first incremental reindex)
+     */
+    private long generation;
+
+    /**
+     * Document ID to the content hash it was indexed from
+     */
+    private Map<Long, String> documents;
+}
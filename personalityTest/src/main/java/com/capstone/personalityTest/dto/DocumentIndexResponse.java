@@ -0,0 +1,40 @@
+package com.capstone.personalityTest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response DTO received from Python AI service after applying an incremental reindex.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentIndexResponse {
+
+    /**
+     * Index generation created by this reindex
+     */
+    private long generation;
+
+    /**
+     * Documents whose current content is now indexed
+     */
+    private List<Long> indexed;
+
+    /**
+     * Documents that could not be indexed, with the reason (file missing, content changed meanwhile, unreadable)
+     */
+    private Map<Long, String> failed;
+
+    /**
+     * Documents dropped from the index
+     */
+    private List<Long> removed;
+
+    private int chunksAdded;
+    private int chunksRemoved;
+}
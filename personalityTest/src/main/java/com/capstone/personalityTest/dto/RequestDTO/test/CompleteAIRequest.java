@@ -40,4 +40,20 @@ public class CompleteAIRequest {
      * Example: {"R": 45, "I": 42, "A": 40, "S": 30, "E": 28, "C": 25}
      */
     private Map<String, Integer> metricScores;
+
+    /**
+     * Career recommendations and learning path previously generated for the same personality code
+     * (see CareerGuidanceCache). Python reuses them instead of re-running RAG and the learning agent
+     * when indexVersion still matches its document index; null when nothing is cached.
+     */
+    private CachedGuidance cachedGuidance;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CachedGuidance {
+        private String careerRecommendations;
+        private String learningPath;
+        private String indexVersion;
+    }
 }
@@ -0,0 +1,48 @@
+package com.capstone.personalityTest.dto.RequestDTO.test;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for an incremental reindex by the Python AI service.
+ * Lists only the documents that changed since the index was last updated.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentIndexRequest {
+
+    /**
+     * Documents added or changed since they were last indexed
+     */
+    private List<DocumentRef> upserts;
+
+    /**
+     * Documents still in the index that no longer exist
+     */
+    private List<DocumentRef> removed;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DocumentRef {
+
+        /**
+         * ID of the career document in our database
+         */
+        private Long documentId;
+
+        /**
+         * Stored filename in the documents folder (null for removed documents)
+         */
+        private String filename;
+
+        /**
+         * SHA-256 of the content to index (or, for removed documents, that was indexed)
+         */
+        private String contentHash;
+    }
+}
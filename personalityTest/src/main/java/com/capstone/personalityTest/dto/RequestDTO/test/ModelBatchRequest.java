@@ -0,0 +1,52 @@
+package com.capstone.personalityTest.dto.RequestDTO.test;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for the Model Service batch request (POST /api/ml/predict-codes)
+ * One item per attempt, either a raw feature vector in the model's feature_columns order
+ * (see FeatureSchema; columnsHash must match the service's columns) or answers in the same
+ * format as ModelRequest for tests that do not match the model's columns
+ *
+ * Example:
+ * {
+ *   "items": [
+ *     { "attemptId": 12, "features": [1, 0, 0, 1, 5, 3], "columnsHash": "9f2c41d07b3e8a65" },
+ *     { "attemptId": 13, "answers": { "Q1": "لا", "Q2": "3" } }
+ *   ]
+ * }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ModelBatchRequest {
+
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+        private Long attemptId;
+        private Map<String, String> answers;
+        private double[] features;
+        private String columnsHash;
+
+        public static Item ofAnswers(Long attemptId, Map<String, String> answers) {
+            return new Item(attemptId, answers, null, null);
+        }
+
+        public static Item ofFeatures(Long attemptId, double[] features, String columnsHash) {
+            return new Item(attemptId, null, features, columnsHash);
+        }
+    }
+}
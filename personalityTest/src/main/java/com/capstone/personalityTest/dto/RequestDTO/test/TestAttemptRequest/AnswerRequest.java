@@ -17,5 +17,7 @@ public class AnswerRequest {
     private Boolean binaryValue;
     private Integer scaleValue;
     private List<String> openValues;
+    private Long clientSequence;    // optional, increases with every submission of the attempt
+    private String idempotencyKey;  // optional, same key on a retried submission
 }
 
@@ -0,0 +1,14 @@
+package com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchAnswerRequest {
+    private List<AnswerRequest> answers; // a whole section or page of answers
+}
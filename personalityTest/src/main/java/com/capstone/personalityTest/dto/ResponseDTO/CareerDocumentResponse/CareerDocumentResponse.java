@@ -55,11 +55,21 @@ public class CareerDocumentResponse {
      */
     private String uploadedBy;
 
+    /**
+     * SHA-256 of the file content (hex)
+     */
+    private String contentHash;
+
     /**
      * Whether this document has been indexed in ChromaDB
      */
     private boolean indexed;
 
+    /**
+     * Index generation that last (re)indexed this document, null if never
+     */
+    private Long indexedGeneration;
+
     /**
      * Optional description of document content
      */
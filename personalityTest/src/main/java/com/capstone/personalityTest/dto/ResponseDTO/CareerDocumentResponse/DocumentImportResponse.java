@@ -0,0 +1,40 @@
+package com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Per-entry report of a bulk document import (POST /api/admin/documents/import).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentImportResponse {
+
+    public enum Outcome {
+        IMPORTED,   // stored and saved as a new document
+        DUPLICATE,  // same content as an existing document or an earlier entry
+        REJECTED,   // type not allowed, empty, too large or unreadable
+        SKIPPED     // archive metadata such as __MACOSX/ or hidden files
+    }
+
+    private int entries;
+    private int imported;
+    private int duplicates;
+    private int rejected;
+    private int skipped;
+    private List<EntryResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EntryResult {
+        private String name;         // path of the entry in the archive
+        private Outcome outcome;
+        private Long documentId;     // new document (IMPORTED) or the existing one it duplicates
+        private String reason;       // why it was not imported
+    }
+}
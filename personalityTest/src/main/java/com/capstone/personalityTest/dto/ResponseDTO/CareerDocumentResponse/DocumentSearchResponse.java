@@ -0,0 +1,29 @@
+package com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Ranked full-text search results over career documents (GET /api/admin/documents/search).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchResponse {
+
+    private String query;
+    private int totalHits;           // documents matching any query term
+    private double tookMs;           // time spent in the index
+    private List<Result> results;    // best matches first
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Result {
+        private CareerDocumentResponse document;
+        private double score;        // BM25
+    }
+}
@@ -0,0 +1,43 @@
+package com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse;
+
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of the career document reindex scheduler (GET /api/admin/documents/reindex/status).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReindexStatusResponse {
+
+    public enum State {
+        IDLE,       // nothing to do
+        SCHEDULED,  // waiting for the debounce window to close
+        RUNNING     // reindex in flight (queued = another one will follow)
+    }
+
+    private State state;
+    private boolean queued;              // a reindex is queued behind the running one
+    private int pendingRequests;         // triggers merged into the next reindex
+    private LocalDateTime nextRunAt;     // only set when SCHEDULED
+    private LocalDateTime runningSince;  // only set when RUNNING
+    private long totalRequests;
+    private long totalRuns;
+    private Long indexGeneration;        // generation of the AI service's index after the last reindex
+
+    // Last finished reindex
+    private JobStatus lastStatus;        // COMPLETED or FAILED, null before the first run
+    private int lastCoalescedRequests;   // triggers it served
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private Long lastDurationMs;
+    private int lastUpserted;            // documents added or changed
+    private int lastRemoved;             // documents dropped from the index
+    private int lastFailed;              // documents that could not be indexed
+    private String lastError;            // only set when FAILED
+}
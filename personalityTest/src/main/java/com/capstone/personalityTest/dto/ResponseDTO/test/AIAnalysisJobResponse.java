@@ -0,0 +1,23 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test;
+
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIAnalysisJobResponse {
+    private Long jobId;
+    private Long attemptId;
+    private JobStatus status;
+    private int tries;
+    private int maxTries;
+    private LocalDateTime nextRunAt;    // next retry while QUEUED
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private String lastError;           // error of the last failed run
+}
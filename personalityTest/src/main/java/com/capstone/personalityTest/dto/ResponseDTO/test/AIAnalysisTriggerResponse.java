@@ -0,0 +1,24 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of POST /api/test-attempts/{attemptId}/analyze.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIAnalysisTriggerResponse {
+
+    public enum Outcome {
+        QUEUED,         // a new job was queued
+        IN_PROGRESS,    // a job for the attempt was already queued or running; that job is returned
+        EXISTING        // the attempt already has an AI result and force was not set
+    }
+
+    private Outcome outcome;
+    private AIAnalysisJobResponse job;  // new or active job; for EXISTING the latest job, if any
+    private Long aiResultId;            // EXISTING only, see GET /api/ai-results/attempt/{attemptId}
+}
@@ -0,0 +1,23 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test;
+
+import com.capstone.personalityTest.model.Enum.AIAnalysisStage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One step of an attempt's AI analysis, sent as a server-sent event named after the stage.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIProgressEvent {
+    private long sequence;              // per attempt, also the SSE event id
+    private Long attemptId;
+    private AIAnalysisStage stage;
+    private Map<String, Object> data;   // partial result of the stage (e.g. careerRecommendations)
+    private LocalDateTime at;
+}
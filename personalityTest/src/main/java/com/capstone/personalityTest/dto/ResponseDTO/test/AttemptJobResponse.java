@@ -0,0 +1,24 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test;
+
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttemptJobResponse {
+    private String jobId;
+    private String type;            // RESCORE, COMPACT_ANSWERS or PREDICT_CODES
+    private Long testId;
+    private JobStatus status;
+    private long totalAttempts;     // finalized attempts of the test when the job started
+    private long processedAttempts;
+    private double attemptsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;           // only set when FAILED
+}
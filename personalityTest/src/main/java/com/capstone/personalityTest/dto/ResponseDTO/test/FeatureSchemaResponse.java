@@ -0,0 +1,21 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeatureSchemaResponse {
+    private Long testId;
+    private String version;               // changes with the model's columns or the test's items
+    private String columnsHash;           // fingerprint of the model's feature_columns
+    private int featureCount;
+    private int mappedColumns;
+    private boolean complete;             // false: predictions use the positional Q1..Qn format
+    private List<String> missingColumns;  // model columns no item of the test matched
+    private List<String> unmatchedItems;  // checkbox/scale items that match no column
+}
@@ -0,0 +1,36 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the Model Service batch response, one prediction per request item
+ *
+ * Example:
+ * {
+ *   "predictions": [
+ *     { "attemptId": 12, "predictedCode": "RIA" },
+ *     { "attemptId": 13, "predictedCode": "SEC" }
+ *   ]
+ * }
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ModelBatchResponse {
+
+    private List<Prediction> predictions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Prediction {
+        private Long attemptId;
+        private String predictedCode;
+    }
+}
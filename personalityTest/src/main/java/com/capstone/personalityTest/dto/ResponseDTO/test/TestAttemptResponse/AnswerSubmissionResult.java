@@ -0,0 +1,17 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse;
+
+import com.capstone.personalityTest.model.Enum.AnswerSubmissionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSubmissionResult {
+    private int index; // position of the item in the submitted batch
+    private Long questionId;
+    private Long subQuestionId;
+    private AnswerSubmissionStatus status;
+    private String error; // only set for REJECTED items
+}
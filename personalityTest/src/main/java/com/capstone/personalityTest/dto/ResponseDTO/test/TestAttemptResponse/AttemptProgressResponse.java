@@ -0,0 +1,50 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttemptProgressResponse {
+    private Long attemptId;
+    private Long testId;
+    private boolean finalized;
+    private int answeredItems;  // answered items the student has to answer
+    private int totalItems;     // items the student has to answer (visible for their gender)
+    private List<SectionProgress> sections;
+    private List<AnsweredItem> answers;
+    private ItemCursor nextUnanswered; // null when every required item is answered
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SectionProgress {
+        private Long sectionId;
+        private int answeredItems;
+        private int totalItems;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AnsweredItem {
+        private Long questionId;
+        private Long subQuestionId;
+        private Boolean binaryValue;
+        private Integer scaleValue;
+        private List<String> openValues;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemCursor {
+        private Long sectionId;
+        private Long questionId;
+        private Long subQuestionId;
+    }
+}
@@ -0,0 +1,21 @@
+package com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScorePreviewResponse {
+    private Long attemptId;
+    private boolean finalized;
+    private Integer answeredItems; // null once finalized
+    private Integer requiredItems; // null once finalized
+    private Map<String, Integer> metricScores;
+    private String firstMetric;
+    private String secondMetric;
+    private String thirdMetric;
+}
@@ -1,5 +1,7 @@
 package com.capstone.personalityTest.exception;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,4 +20,18 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleFound(EntityExistsException e){
         return new ResponseEntity<>(e.getMessage() , HttpStatus.FOUND);
     }
+
+    // Unique key violations, e.g. a second row for the same answer (uk_answer_attempt_item)
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleConflict(DataIntegrityViolationException e){
+        return new ResponseEntity<>("Request conflicts with existing data" , HttpStatus.CONFLICT);
+    }
+
+    // A Python service is failing or saturated; the call was refused without waiting on it
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<String> handleUnavailable(ServiceUnavailableException e){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (e.getRetryAfterMs() + 999) / 1000)))
+                .body(e.getMessage());
+    }
 }
@@ -0,0 +1,31 @@
+package com.capstone.personalityTest.exception;
+
+/**
+ * A downstream service call was refused without being sent: its circuit is open or its
+ * concurrency limit is reached (see ServiceGuard). retryAfterMs is a hint for when to try again.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final String service;
+    private final long retryAfterMs;
+
+    public ServiceUnavailableException(String service, String message, long retryAfterMs) {
+        super(message);
+        this.service = service;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public String getService() { return service; }
+
+    public long getRetryAfterMs() { return retryAfterMs; }
+
+    /**
+     * @return the ServiceUnavailableException in the cause chain of e, or null
+     */
+    public static ServiceUnavailableException find(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ServiceUnavailableException unavailable) return unavailable;
+        }
+        return null;
+    }
+}
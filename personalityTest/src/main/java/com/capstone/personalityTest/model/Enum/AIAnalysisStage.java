@@ -0,0 +1,21 @@
+package com.capstone.personalityTest.model.Enum;
+
+/**
+ * Progress of an AI analysis as pushed to subscribers (GET /api/ai-results/attempt/{attemptId}/events).
+ * COMPLETED and FAILED end the stream.
+ */
+public enum AIAnalysisStage {
+    QUEUED,
+    RUNNING,
+    ML_CODE,
+    CAREER_RECOMMENDATIONS,
+    LEARNING_PATH,
+    JOB_MATCHES,
+    EMAIL,
+    COMPLETED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
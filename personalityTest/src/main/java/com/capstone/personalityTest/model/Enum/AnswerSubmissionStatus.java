@@ -0,0 +1,10 @@
+package com.capstone.personalityTest.model.Enum;
+
+public enum AnswerSubmissionStatus {
+    CREATED,
+    UPDATED,
+    BUFFERED,
+    DUPLICATE,  // already applied (same idempotency key or client sequence)
+    STALE,      // a submission with a higher client sequence was already applied to the item
+    REJECTED
+}
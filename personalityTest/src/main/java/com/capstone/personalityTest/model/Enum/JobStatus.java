@@ -0,0 +1,8 @@
+package com.capstone.personalityTest.model.Enum;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,66 @@
+package com.capstone.personalityTest.model.testm;
+
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One queued AI analysis of a finalized test attempt (POST /api/test-attempts/{attemptId}/analyze).
+ *
+ * Jobs are claimed by the AIAnalysisJobWorker pool with SELECT ... FOR UPDATE SKIP LOCKED,
+ * so several instances can share the table. A failed run goes back to QUEUED with a later
+ * nextRunAt until maxTries is reached; a RUNNING job whose lease expired (instance died
+ * mid-run) is queued again.
+ */
+@Entity
+@Table(name = "ai_analysis_job", indexes = {
+        @Index(name = "idx_ai_job_claim", columnList = "status, next_run_at"),
+        @Index(name = "idx_ai_job_attempt", columnList = "test_attempt_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIAnalysisJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "test_attempt_id", nullable = false)
+    private Long testAttemptId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobStatus status;
+
+    /**
+     * Runs started so far, including the current one
+     */
+    @Column(nullable = false)
+    private int tries;
+
+    /**
+     * Earliest time the job may be claimed (now for new jobs, later when backing off)
+     */
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    /**
+     * When the current run was claimed; the run is considered lost once its lease expires
+     */
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -16,7 +16,9 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "career_documents")
+@Table(name = "career_documents", uniqueConstraints = @UniqueConstraint(
+        name = "uk_career_documents_hash",
+        columnNames = "content_hash"))
 public class CareerDocument {
 
     @Id
@@ -24,7 +26,8 @@ public class CareerDocument {
     private Long id;
 
     /**
-     * Stored filename (with UUID prefix to avoid conflicts)
+     * Stored filename in the documents folder: sha256.ext of the content
+     * (documents uploaded before content addressing keep their UUID-prefixed name)
      */
     @Column(nullable = false)
     private String filename;
@@ -65,13 +68,32 @@ public class CareerDocument {
      */
     private String uploadedBy;
 
+    /**
+     * SHA-256 of the file content (hex); at most one document per content (uk_career_documents_hash)
+     * null for documents uploaded before hashing; filled in by the next reindex
+     */
+    @Column(length = 64)
+    private String contentHash;
+
     /**
      * Whether this document has been indexed in ChromaDB
-     * Set to false when uploaded, true after successful indexing
+     * Set to false when uploaded, true once its current content is indexed
      */
     @Column(nullable = false)
     private boolean indexed = false;
 
+    /**
+     * Content hash the AI service last indexed for this document
+     * Differs from contentHash while a change is waiting for the next reindex
+     */
+    @Column(length = 64)
+    private String indexedHash;
+
+    /**
+     * Generation of the AI service's document index that last (re)indexed this document
+     */
+    private Long indexedGeneration;
+
     /**
      * Optional description of document content
      */
@@ -9,6 +9,9 @@ import jakarta.persistence.GenerationType;
 import lombok.Data;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_answer_attempt_item",
+        columnNames = {"test_attempt_id", "question_id", "sub_question_key"}))
 @Data
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "answer_type")
@@ -29,4 +32,22 @@ public abstract class Answer {
     @ManyToOne(optional = false)
     @JoinColumn(name = "test_attempt_id", nullable = false)
     private TestAttempt testAttempt;
+
+    // sub_question_id with 0 for "no sub-question" (unique keys ignore NULLs), kept in sync by syncSubQuestionKey
+    // and by the upsert statements in AnswerUpsertRepositoryImpl
+    @Column(name = "sub_question_key", nullable = false)
+    private Long subQuestionKey;
+
+    // Client sequence number and idempotency key of the submission that last wrote this answer
+    @Column(name = "client_sequence")
+    private Long clientSequence;
+
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    @PrePersist
+    @PreUpdate
+    void syncSubQuestionKey() {
+        subQuestionKey = subQuestion == null ? 0L : subQuestion.getId();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.capstone.personalityTest.model.testm.TestAttempt;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compiled item order of a test at the time its attempts were packed.
+ *
+ * Packed answer sets only store one value per item position; the layout maps each position
+ * back to its question/sub-question, so a later change to the test does not shift old values.
+ * A test has one layout per distinct item order, shared by all attempts packed against it.
+ *
+ * Example itemKeys: "3:10:C,3:11:C,4:12:S,5::O" (questionId:subQuestionId:C|S|O)
+ */
+@Entity
+@Table(name = "packed_answer_layout", indexes = @Index(name = "idx_packed_layout_test", columnList = "test_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackedAnswerLayout {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "test_id", nullable = false)
+    private Long testId;
+
+    @Lob
+    @Column(name = "item_keys", nullable = false)
+    private String itemKeys;
+}
@@ -0,0 +1,34 @@
+package com.capstone.personalityTest.model.testm.TestAttempt;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact storage of the CHECKBOX and SCALE answers of a finalized attempt.
+ *
+ * Replaces one Answer row per item with a single row: 4 bits per item position of the
+ * referenced layout (see PackedAnswers for the encoding). OPEN answers, and values that do
+ * not fit the encoding, stay in the answer table.
+ */
+@Entity
+@Table(name = "packed_answer_set")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PackedAnswerSet {
+
+    @Id
+    @Column(name = "test_attempt_id")
+    private Long testAttemptId;
+
+    @Column(name = "layout_id", nullable = false)
+    private Long layoutId;
+
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
+    @Column(name = "packed_values", nullable = false, length = 4096)
+    private byte[] packedValues;
+}
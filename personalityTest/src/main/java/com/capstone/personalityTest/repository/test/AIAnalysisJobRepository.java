@@ -0,0 +1,51 @@
+package com.capstone.personalityTest.repository.test;
+
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import com.capstone.personalityTest.model.testm.AIAnalysisJob;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AIAnalysisJobRepository extends JpaRepository<AIAnalysisJob, Long> {
+
+    /**
+     * Due jobs, locked until the end of the transaction. Rows already locked by another
+     * worker are skipped (lock timeout -2 = SKIP LOCKED) instead of waited on.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT j FROM AIAnalysisJob j WHERE j.status = com.capstone.personalityTest.model.Enum.JobStatus.QUEUED " +
+            "AND j.nextRunAt <= :now ORDER BY j.nextRunAt, j.id")
+    List<AIAnalysisJob> findDueForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Put RUNNING jobs whose lease expired back in the queue.
+     */
+    @Modifying
+    @Query("UPDATE AIAnalysisJob j SET j.status = com.capstone.personalityTest.model.Enum.JobStatus.QUEUED, " +
+            "j.lockedAt = null, j.nextRunAt = :now " +
+            "WHERE j.status = com.capstone.personalityTest.model.Enum.JobStatus.RUNNING AND j.lockedAt < :cutoff")
+    int requeueExpired(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+
+    Optional<AIAnalysisJob> findFirstByTestAttemptIdOrderByIdDesc(Long testAttemptId);
+
+    /**
+     * Latest job of an attempt in one of the given states (QUEUED / RUNNING = still to produce a result).
+     */
+    Optional<AIAnalysisJob> findFirstByTestAttemptIdAndStatusInOrderByIdDesc(Long testAttemptId, Collection<JobStatus> statuses);
+
+    long countByStatus(JobStatus status);
+}
@@ -9,12 +9,53 @@ import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
-public interface AnswerRepository extends JpaRepository<Answer, Long> {
+public interface AnswerRepository extends JpaRepository<Answer, Long>, AnswerUpsertRepository {
+
+    /**
+     * Stored value of one answer, read without hydrating the entity or its question/sub-question.
+     * answerType is the discriminator (BINARY, SCALE, OPEN).
+     */
+    interface AnswerValueView {
+        Long getId();
+        Long getQuestionId();
+        Long getSubQuestionId();
+        String getAnswerType();
+        Boolean getBinaryValue();
+        Integer getScaleValue();
+        Long getClientSequence();
+        String getIdempotencyKey();
+    }
+
+    interface OpenValueView {
+        Long getAnswerId();
+        String getValue();
+    }
 
     List<Answer> findByTestAttempt(TestAttempt testAttempt);
 
     List<Answer> findByTestAttemptId(Long testAttemptId);
 
+    /**
+     * All answers of an attempt with their question/sub-question fetched in the same query,
+     * used to match a batch of submissions against what is already stored.
+     */
+    @Query("SELECT a FROM Answer a " +
+            "JOIN FETCH a.question " +
+            "LEFT JOIN FETCH a.subQuestion " +
+            "WHERE a.testAttempt.id = :attemptId")
+    List<Answer> findWithItemsByTestAttemptId(@Param("attemptId") Long attemptId);
+
+    @Query(value = "SELECT a.id AS id, a.question_id AS questionId, a.sub_question_id AS subQuestionId, " +
+            "a.answer_type AS answerType, a.binary_value AS binaryValue, a.scale_value AS scaleValue, " +
+            "a.client_sequence AS clientSequence, a.idempotency_key AS idempotencyKey " +
+            "FROM answer a WHERE a.test_attempt_id = :attemptId ORDER BY a.id", nativeQuery = true)
+    List<AnswerValueView> findValuesByTestAttemptId(@Param("attemptId") Long attemptId);
+
+    @Query(value = "SELECT v.open_answer_id AS answerId, v.value AS value " +
+            "FROM open_answer_values v JOIN answer a ON a.id = v.open_answer_id " +
+            "WHERE a.test_attempt_id = :attemptId", nativeQuery = true)
+    List<OpenValueView> findOpenValuesByTestAttemptId(@Param("attemptId") Long attemptId);
+
     @Query("SELECT a FROM Answer a " +
             "WHERE a.testAttempt.id = :attemptId " +
             "AND a.question.id = :questionId " +
@@ -0,0 +1,34 @@
+package com.capstone.personalityTest.repository.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+
+import java.util.List;
+
+/**
+ * Insert-or-update of CHECKBOX/SCALE answers in one statement, keyed by the unique
+ * (test_attempt_id, question_id, sub_question_key) index. The parent TestAttempt row is not touched.
+ *
+ * The update follows the same ordering rules as SubmissionOrder: a row is left unchanged when the
+ * submission repeats its idempotency key or does not carry a higher client sequence.
+ * A null value keeps the stored one.
+ */
+public interface AnswerUpsertRepository {
+
+    enum UpsertOutcome {
+        INSERTED,
+        UPDATED,
+        UNCHANGED
+    }
+
+    record ValueUpsert(Long attemptId, Long questionId, Long subQuestionId, AnswerType answerType,
+                       Boolean binaryValue, Integer scaleValue, Long clientSequence, String idempotencyKey) {
+    }
+
+    UpsertOutcome upsertValue(ValueUpsert value);
+
+    /**
+     * Same as upsertValue for many answers, sent as one JDBC batch. Outcomes are not reported
+     * (MySQL does not return per-row counts for rewritten batches).
+     */
+    void upsertValues(List<ValueUpsert> values);
+}
@@ -0,0 +1,228 @@
+package com.capstone.personalityTest.repository.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dialect-specific AnswerUpsertRepository: MySQL (production) and H2 (local tests).
+ * The dialect is read from the connection metadata at startup, so a misconfigured datasource fails fast.
+ */
+@RequiredArgsConstructor
+public class AnswerUpsertRepositoryImpl implements AnswerUpsertRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Dialect dialect;
+
+    private interface Dialect {
+        UpsertOutcome upsert(JdbcTemplate jdbcTemplate, ValueUpsert value);
+
+        void upsertAll(JdbcTemplate jdbcTemplate, List<ValueUpsert> values);
+    }
+
+    @Override
+    public UpsertOutcome upsertValue(ValueUpsert value) {
+        return dialect().upsert(jdbcTemplate, value);
+    }
+
+    @Override
+    public void upsertValues(List<ValueUpsert> values) {
+        if (values.isEmpty()) return;
+        dialect().upsertAll(jdbcTemplate, values);
+    }
+
+    @PostConstruct
+    void detectDialect() {
+        dialect();
+    }
+
+    private Dialect dialect() {
+        if (dialect == null) {
+            dialect = jdbcTemplate.execute((ConnectionCallback<Dialect>) con -> detect(con.getMetaData()));
+        }
+        return dialect;
+    }
+
+    private static Dialect detect(DatabaseMetaData metaData) throws SQLException {
+        String product = metaData.getDatabaseProductName();
+        if ("MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product)) {
+            String url = metaData.getURL();
+            if (url == null || !url.contains("useAffectedRows=true")) {
+                throw new IllegalStateException("Datasource URL needs useAffectedRows=true: without it answer upserts " +
+                        "that change nothing are reported as inserts");
+            }
+            return new MySqlDialect();
+        }
+        if ("H2".equalsIgnoreCase(product)) {
+            return new H2Dialect();
+        }
+        throw new IllegalStateException("Answer upsert is not supported on " + product);
+    }
+
+    // Discriminator value of the Answer subclass
+    private static String discriminator(AnswerType answerType) {
+        return switch (answerType) {
+            case CHECKBOX -> "BINARY";
+            case SCALE -> "SCALE";
+            default -> throw new IllegalArgumentException("Only CHECKBOX and SCALE answers can be upserted: " + answerType);
+        };
+    }
+
+    // Value of the sub_question_key column: 0 for "no sub-question", as Answer.syncSubQuestionKey
+    private static long subQuestionKey(ValueUpsert value) {
+        return value.subQuestionId() == null ? 0L : value.subQuestionId();
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, sqlType);
+        } else {
+            ps.setObject(index, value, sqlType);
+        }
+    }
+
+    /**
+     * INSERT ... ON DUPLICATE KEY UPDATE that leaves an existing row alone (affected rows 1 = inserted,
+     * 0 = already there), then a conditional UPDATE of the existing row. The apply condition sits in the
+     * UPDATE's WHERE clause, so it is evaluated once on the stored row, as in the H2 dialect. Folding it into
+     * the ON DUPLICATE KEY assignments would need a session variable or rely on their left-to-right order,
+     * since it reads client_sequence and idempotency_key, which the assignments change.
+     *
+     * The counts need useAffectedRows=true on the JDBC URL: by default Connector/J reports found rows,
+     * so a duplicate left as it was would come back as 1 and read as an insert. detect() refuses to start without it.
+     */
+    private static final class MySqlDialect implements Dialect {
+
+        private static final String INSERT = "INSERT INTO answer (answer_type, test_attempt_id, question_id, sub_question_id, " +
+                "sub_question_key, binary_value, scale_value, client_sequence, idempotency_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE id = id";
+
+        private static final String UPDATE = "UPDATE answer SET " +
+                "binary_value = COALESCE(?, binary_value), scale_value = COALESCE(?, scale_value), " +
+                "client_sequence = ?, idempotency_key = ? " +
+                "WHERE test_attempt_id = ? AND question_id = ? AND sub_question_key = ? " +
+                "AND (? IS NULL OR idempotency_key IS NULL OR idempotency_key <> ?) " +
+                "AND (? IS NULL OR client_sequence IS NULL OR ? > client_sequence)";
+
+        @Override
+        public UpsertOutcome upsert(JdbcTemplate jdbcTemplate, ValueUpsert value) {
+            if (jdbcTemplate.update(INSERT, ps -> bindInsert(ps, value)) == 1) return UpsertOutcome.INSERTED;
+            return jdbcTemplate.update(UPDATE, ps -> bindUpdate(ps, value)) > 0 ? UpsertOutcome.UPDATED : UpsertOutcome.UNCHANGED;
+        }
+
+        /**
+         * Rewritten batches may report SUCCESS_NO_INFO instead of a count, so every row not known to be
+         * inserted also goes through the UPDATE; on a row just inserted with the same values its condition is false.
+         */
+        @Override
+        public void upsertAll(JdbcTemplate jdbcTemplate, List<ValueUpsert> values) {
+            int[][] inserted = jdbcTemplate.batchUpdate(INSERT, values, values.size(), MySqlDialect::bindInsert);
+            List<ValueUpsert> existing = new ArrayList<>();
+            for (int i = 0; i < values.size(); i++) {
+                if (inserted[0][i] != 1) existing.add(values.get(i));
+            }
+            if (existing.isEmpty()) return;
+            jdbcTemplate.batchUpdate(UPDATE, existing, existing.size(), MySqlDialect::bindUpdate);
+        }
+
+        private static void bindInsert(PreparedStatement ps, ValueUpsert value) throws SQLException {
+            ps.setString(1, discriminator(value.answerType()));
+            ps.setLong(2, value.attemptId());
+            ps.setLong(3, value.questionId());
+            setNullable(ps, 4, value.subQuestionId(), Types.BIGINT);
+            ps.setLong(5, subQuestionKey(value));
+            setNullable(ps, 6, value.binaryValue(), Types.BOOLEAN);
+            setNullable(ps, 7, value.scaleValue(), Types.INTEGER);
+            setNullable(ps, 8, value.clientSequence(), Types.BIGINT);
+            setNullable(ps, 9, value.idempotencyKey(), Types.VARCHAR);
+        }
+
+        private static void bindUpdate(PreparedStatement ps, ValueUpsert value) throws SQLException {
+            setNullable(ps, 1, value.binaryValue(), Types.BOOLEAN);
+            setNullable(ps, 2, value.scaleValue(), Types.INTEGER);
+            setNullable(ps, 3, value.clientSequence(), Types.BIGINT);
+            setNullable(ps, 4, value.idempotencyKey(), Types.VARCHAR);
+            ps.setLong(5, value.attemptId());
+            ps.setLong(6, value.questionId());
+            ps.setLong(7, subQuestionKey(value));
+            setNullable(ps, 8, value.idempotencyKey(), Types.VARCHAR);
+            setNullable(ps, 9, value.idempotencyKey(), Types.VARCHAR);
+            setNullable(ps, 10, value.clientSequence(), Types.BIGINT);
+            setNullable(ps, 11, value.clientSequence(), Types.BIGINT);
+        }
+    }
+
+    /**
+     * Conditional UPDATE, then INSERT ... WHERE NOT EXISTS when no row matched. H2 runs in-process,
+     * so the second statement costs no round trip; the unique index still rejects a racing insert.
+     */
+    private static final class H2Dialect implements Dialect {
+
+        private static final String ITEM = "test_attempt_id = ? AND question_id = ? AND sub_question_key = ?";
+
+        private static final String UPDATE = "UPDATE answer SET " +
+                "binary_value = COALESCE(CAST(? AS BOOLEAN), binary_value), " +
+                "scale_value = COALESCE(CAST(? AS INTEGER), scale_value), " +
+                "client_sequence = CAST(? AS BIGINT), idempotency_key = CAST(? AS VARCHAR(64)) " +
+                "WHERE " + ITEM + " " +
+                "AND (CAST(? AS VARCHAR(64)) IS NULL OR idempotency_key IS NULL OR idempotency_key <> CAST(? AS VARCHAR(64))) " +
+                "AND (CAST(? AS BIGINT) IS NULL OR client_sequence IS NULL OR CAST(? AS BIGINT) > client_sequence)";
+
+        private static final String INSERT = "INSERT INTO answer (answer_type, test_attempt_id, question_id, sub_question_id, " +
+                "sub_question_key, binary_value, scale_value, client_sequence, idempotency_key) " +
+                "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ? FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM answer WHERE " + ITEM + ")";
+
+        @Override
+        public UpsertOutcome upsert(JdbcTemplate jdbcTemplate, ValueUpsert value) {
+            int updated = jdbcTemplate.update(UPDATE, ps -> {
+                setNullable(ps, 1, value.binaryValue(), Types.BOOLEAN);
+                setNullable(ps, 2, value.scaleValue(), Types.INTEGER);
+                setNullable(ps, 3, value.clientSequence(), Types.BIGINT);
+                setNullable(ps, 4, value.idempotencyKey(), Types.VARCHAR);
+                bindItem(ps, 5, value);
+                setNullable(ps, 8, value.idempotencyKey(), Types.VARCHAR);
+                setNullable(ps, 9, value.idempotencyKey(), Types.VARCHAR);
+                setNullable(ps, 10, value.clientSequence(), Types.BIGINT);
+                setNullable(ps, 11, value.clientSequence(), Types.BIGINT);
+            });
+            if (updated > 0) return UpsertOutcome.UPDATED;
+
+            int inserted = jdbcTemplate.update(INSERT, ps -> {
+                ps.setString(1, discriminator(value.answerType()));
+                ps.setLong(2, value.attemptId());
+                ps.setLong(3, value.questionId());
+                setNullable(ps, 4, value.subQuestionId(), Types.BIGINT);
+                ps.setLong(5, subQuestionKey(value));
+                setNullable(ps, 6, value.binaryValue(), Types.BOOLEAN);
+                setNullable(ps, 7, value.scaleValue(), Types.INTEGER);
+                setNullable(ps, 8, value.clientSequence(), Types.BIGINT);
+                setNullable(ps, 9, value.idempotencyKey(), Types.VARCHAR);
+                bindItem(ps, 10, value);
+            });
+            return inserted > 0 ? UpsertOutcome.INSERTED : UpsertOutcome.UNCHANGED;
+        }
+
+        @Override
+        public void upsertAll(JdbcTemplate jdbcTemplate, List<ValueUpsert> values) {
+            for (ValueUpsert value : values) {
+                upsert(jdbcTemplate, value);
+            }
+        }
+
+        private static void bindItem(PreparedStatement ps, int from, ValueUpsert value) throws SQLException {
+            ps.setLong(from, value.attemptId());
+            ps.setLong(from + 1, value.questionId());
+            ps.setLong(from + 2, subQuestionKey(value));
+        }
+    }
+}
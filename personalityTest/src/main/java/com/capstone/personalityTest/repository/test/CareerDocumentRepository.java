@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,11 @@ public interface CareerDocumentRepository extends JpaRepository<CareerDocument,
      */
     Optional<CareerDocument> findByFilename(String filename);
 
+    /**
+     * Whether a document still refers to this stored file
+     */
+    boolean existsByFilename(String filename);
+
     /**
      * Find all documents for a specific base test
      */
@@ -40,7 +46,12 @@ public interface CareerDocumentRepository extends JpaRepository<CareerDocument,
     long countByFileType(String fileType);
 
     /**
-     * Check if a document with the original filename already exists
+     * Find the document with this content, if it was already uploaded
+     */
+    Optional<CareerDocument> findFirstByContentHash(String contentHash);
+
+    /**
+     * Find the documents with any of these contents
      */
-    boolean existsByOriginalFilename(String originalFilename);
+    List<CareerDocument> findByContentHashIn(Collection<String> contentHashes);
 }
@@ -0,0 +1,11 @@
+package com.capstone.personalityTest.repository.test;
+
+import com.capstone.personalityTest.model.testm.TestAttempt.PackedAnswerLayout;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PackedAnswerLayoutRepository extends JpaRepository<PackedAnswerLayout, Long> {
+
+    List<PackedAnswerLayout> findByTestId(Long testId);
+}
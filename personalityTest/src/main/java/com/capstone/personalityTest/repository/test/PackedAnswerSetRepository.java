@@ -0,0 +1,7 @@
+package com.capstone.personalityTest.repository.test;
+
+import com.capstone.personalityTest.model.testm.TestAttempt.PackedAnswerSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PackedAnswerSetRepository extends JpaRepository<PackedAnswerSet, Long> {
+}
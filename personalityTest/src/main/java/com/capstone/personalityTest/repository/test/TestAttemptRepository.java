@@ -1,16 +1,43 @@
 package com.capstone.personalityTest.repository.test;
 
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.TestAttemptResponse;
+import com.capstone.personalityTest.model.Enum.TargetGender;
 import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TestAttemptRepository extends JpaRepository<TestAttempt, Long> {
 
+    /**
+     * What is needed to resolve an attempt's compiled test, without loading the attempt graph.
+     */
+    interface AttemptHeaderView {
+        Long getId();
+        Long getTestId();
+        TargetGender getGender();
+        Boolean getFinalized();
+    }
+
+    @Query("SELECT ta.id AS id, ta.test.id AS testId, s.gender AS gender, ta.finalized AS finalized " +
+            "FROM TestAttempt ta LEFT JOIN ta.student s WHERE ta.id = :attemptId")
+    Optional<AttemptHeaderView> findHeaderById(@Param("attemptId") Long attemptId);
+
+    /**
+     * The attempt, its row locked until the end of the transaction. Serializes work on one attempt
+     * across application instances.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ta FROM TestAttempt ta WHERE ta.id = :attemptId")
+    Optional<TestAttempt> findByIdForUpdate(@Param("attemptId") Long attemptId);
+
     List<TestAttempt> findByStudentId(Long studentId);
 
     @Query("SELECT ta.test.baseTest.type, COUNT(ta) FROM TestAttempt ta GROUP BY ta.test.baseTest.type")
@@ -19,9 +19,14 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +38,7 @@ public class FinancialAidService {
     private final OrganizationRepository organizationRepository;
     private final DonorRepository donorRepository;
     private final FileStorageStrategy fileStorageService;
+    private final Executor applicationTaskExecutor;    // AsyncExecutionConfig
 
     /**
      * Request financial aid with file uploads (ALL VALIDATION HERE)
@@ -74,11 +80,13 @@ public class FinancialAidService {
         validateFileSize(universityFees, "University fees");
         validateFileSize(gradeProof, "Grade proof");
 
-        // 6. Store files and get filenames
+        // 6. Store files (uploaded concurrently) and get filenames
         String studentId = student.getId().toString();
-        String idCardFileName = fileStorageService.storeFile(idCard, studentId, "ID");
-        String feesFileName = fileStorageService.storeFile(universityFees, studentId, "FEES");
-        String gradesFileName = fileStorageService.storeFile(gradeProof, studentId, "GRADES");
+        List<String> fileNames = storeFiles(studentId,
+                List.of(idCard, universityFees, gradeProof), List.of("ID", "FEES", "GRADES"));
+        String idCardFileName = fileNames.get(0);
+        String feesFileName = fileNames.get(1);
+        String gradesFileName = fileNames.get(2);
 
         // 7. Create financial aid request entity
         FinancialAidRequest aidRequest = new FinancialAidRequest();
@@ -447,6 +455,33 @@ public class FinancialAidService {
         return user.getId();
     }
 
+    /**
+     * Upload files concurrently on the async executor and wait for all of them; each upload is a
+     * blocking call to storage. If one fails, the ones already stored are deleted and the failure
+     * is rethrown.
+     *
+     * @return stored file names, in the order of the files
+     */
+    private List<String> storeFiles(String studentId, List<MultipartFile> files, List<String> fileTypes) {
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String fileType = fileTypes.get(i);
+            uploads.add(CompletableFuture.supplyAsync(
+                    () -> fileStorageService.storeFile(file, studentId, fileType), applicationTaskExecutor));
+        }
+
+        try {
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            uploads.stream()
+                    .filter(upload -> upload.state() == Future.State.SUCCESS)
+                    .forEach(upload -> fileStorageService.deleteFile(upload.resultNow()));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return uploads.stream().map(CompletableFuture::join).toList();
+    }
+
     /**
      * Validate file type (accept only images and PDFs)
      */
@@ -1,5 +1,6 @@
 package com.capstone.personalityTest.service.financial_aid;
 
+import com.capstone.personalityTest.config.ConcurrencyLimit;
 import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.Bucket;
 import com.google.firebase.cloud.StorageClient;
@@ -20,8 +21,14 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class FirebaseFileStorageService implements FileStorageStrategy {
 
+    private final ConcurrencyLimit storageLimit;    // uploads and deletes in flight (AsyncExecutionConfig)
+
     @Override
     public String storeFile(MultipartFile file, String studentId, String fileType) {
+        return storageLimit.call(() -> upload(file, studentId, fileType));
+    }
+
+    private String upload(MultipartFile file, String studentId, String fileType) {
         try {
             Bucket bucket = StorageClient.getInstance().bucket();
             String fileName = "financial_aid/" + studentId + "/" + fileType + "_" + System.currentTimeMillis() + "_" + file.getOriginalFilename();
@@ -54,11 +61,14 @@ public class FirebaseFileStorageService implements FileStorageStrategy {
                 path = fileUrl.substring(index).split("\\?")[0]; 
             }
             if (path != null) {
-                Bucket bucket = StorageClient.getInstance().bucket();
-                Blob blob = bucket.get(path);
-                if (blob != null) {
-                    blob.delete();
-                }
+                String blobPath = path;
+                storageLimit.run(() -> {
+                    Bucket bucket = StorageClient.getInstance().bucket();
+                    Blob blob = bucket.get(blobPath);
+                    if (blob != null) {
+                        blob.delete();
+                    }
+                });
             }
         } catch (Exception ex) {
             System.err.println("Failed to delete file: " + fileUrl + " Error: " + ex.getMessage());
@@ -0,0 +1,271 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIAnalysisJobResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIAnalysisTriggerResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIAnalysisTriggerResponse.Outcome;
+import com.capstone.personalityTest.exception.ServiceUnavailableException;
+import com.capstone.personalityTest.model.Enum.AIAnalysisStage;
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import com.capstone.personalityTest.model.testm.AIAnalysisJob;
+import com.capstone.personalityTest.model.testm.AIResult;
+import com.capstone.personalityTest.repository.test.AIAnalysisJobRepository;
+import com.capstone.personalityTest.repository.test.AIResultRepository;
+import com.capstone.personalityTest.repository.test.TestAttemptRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable queue of AI analysis runs, stored in the ai_analysis_job table.
+ *
+ * Requests only insert a QUEUED row; the AIAnalysisJobWorker pool claims due jobs and runs
+ * them through AIIntegrationService. A failed run is retried with exponential backoff
+ * (with jitter, so a burst that failed together does not retry together) until maxTries.
+ * A run refused by the AI service circuit breaker or bulkhead does not count as a try; the
+ * job is queued again once the circuit may let calls through.
+ * Job transitions are also published to AIProgressBroadcaster (QUEUED, RUNNING, COMPLETED, FAILED).
+ *
+ * Triggers are single-flight per attempt: concurrent triggers (double clicks, client retries)
+ * share one check-and-enqueue, an attempt with a queued or running job gets that job back, and
+ * an attempt that already has a result gets the result unless the trigger forces a re-run.
+ * Within an instance concurrent triggers share one decision; across instances the decision runs
+ * under a row lock on the attempt, so a second instance waits and then sees the job the first queued.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AIAnalysisJobService {
+
+    private static final int MAX_ERROR_LENGTH = 1000; // AIAnalysisJob.lastError column
+
+    private static final EnumSet<JobStatus> ACTIVE = EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING);
+
+    private final AIAnalysisJobRepository jobRepository;
+    private final AIResultRepository aiResultRepository;
+    private final TestAttemptRepository testAttemptRepository;
+    private final AIIntegrationService aiIntegrationService;
+    private final TransactionTemplate transactionTemplate;
+    private final AIProgressBroadcaster progressBroadcaster;
+
+    @Value("${app.ai.jobs.max-tries:5}")
+    private int maxTries = 5;
+
+    @Value("${app.ai.jobs.backoff-base-ms:5000}")
+    private long backoffBaseMs = 5000;
+
+    @Value("${app.ai.jobs.backoff-max-ms:600000}")
+    private long backoffMaxMs = 600000;
+
+    @Value("${app.ai.jobs.lease-ms:900000}")
+    private long leaseMs = 900000;
+
+    /**
+     * A job claimed by this instance, to be run outside the claiming transaction.
+     */
+    record ClaimedJob(Long jobId, Long attemptId, int tries) {
+    }
+
+    // Triggers being decided, per attempt; later concurrent triggers wait for the same outcome
+    private final Map<Long, CompletableFuture<AIAnalysisTriggerResponse>> inFlightTriggers = new ConcurrentHashMap<>();
+
+    /**
+     * Queue an analysis of the attempt unless one is already pending or done.
+     *
+     * @param force queue a new run even if the attempt already has a result; the run replaces it
+     *              (a queued or running job is still returned as is, since it writes a fresh result anyway)
+     */
+    public AIAnalysisTriggerResponse trigger(Long attemptId, boolean force) {
+        CompletableFuture<AIAnalysisTriggerResponse> mine = new CompletableFuture<>();
+        CompletableFuture<AIAnalysisTriggerResponse> running = inFlightTriggers.putIfAbsent(attemptId, mine);
+        if (running != null) {
+            AIAnalysisTriggerResponse shared = join(running);
+            if (!force || shared.getOutcome() != Outcome.EXISTING) {
+                return shared.getOutcome() == Outcome.QUEUED
+                        ? new AIAnalysisTriggerResponse(Outcome.IN_PROGRESS, shared.getJob(), null)
+                        : shared;
+            }
+            return trigger(attemptId, true); // forced re-run after a plain trigger found the result
+        }
+
+        try {
+            AIAnalysisTriggerResponse outcome = transactionTemplate.execute(status -> decide(attemptId, force));
+            mine.complete(outcome);
+            return outcome;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightTriggers.remove(attemptId, mine);
+        }
+    }
+
+    private AIAnalysisTriggerResponse decide(Long attemptId, boolean force) {
+        // First statement of the transaction: the reads below see jobs committed while waiting for the lock
+        testAttemptRepository.findByIdForUpdate(attemptId)
+                .orElseThrow(() -> new EntityNotFoundException("Test attempt not found: " + attemptId));
+
+        AIAnalysisJob active = jobRepository.findFirstByTestAttemptIdAndStatusInOrderByIdDesc(attemptId, ACTIVE).orElse(null);
+        if (active != null) {
+            log.info("AI analysis of attempt {} already pending as job {}", attemptId, active.getId());
+            return new AIAnalysisTriggerResponse(Outcome.IN_PROGRESS, toResponse(active), null);
+        }
+        if (!force) {
+            Long resultId = aiResultRepository.findByTestAttemptId(attemptId).map(AIResult::getId).orElse(null);
+            if (resultId != null) {
+                AIAnalysisJobResponse latest = jobRepository.findFirstByTestAttemptIdOrderByIdDesc(attemptId)
+                        .map(this::toResponse).orElse(null);
+                return new AIAnalysisTriggerResponse(Outcome.EXISTING, latest, resultId);
+            }
+        }
+        return new AIAnalysisTriggerResponse(Outcome.QUEUED, enqueue(attemptId), null);
+    }
+
+    private static AIAnalysisTriggerResponse join(CompletableFuture<AIAnalysisTriggerResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public AIAnalysisJobResponse enqueue(Long attemptId) {
+        LocalDateTime now = LocalDateTime.now();
+        AIAnalysisJob job = new AIAnalysisJob(null, attemptId, JobStatus.QUEUED, 0, now, null, null, now, null);
+        AIAnalysisJobResponse response = toResponse(jobRepository.save(job));
+        progressBroadcaster.publish(attemptId, AIAnalysisStage.QUEUED, Map.of("jobId", response.getJobId()));
+        return response;
+    }
+
+    public AIAnalysisJobResponse getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new EntityNotFoundException("AI analysis job not found: " + jobId));
+    }
+
+    public AIAnalysisJobResponse getLatestJobForAttempt(Long attemptId) {
+        return jobRepository.findFirstByTestAttemptIdOrderByIdDesc(attemptId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new EntityNotFoundException("No AI analysis job for test attempt: " + attemptId));
+    }
+
+    /**
+     * Claim up to limit due jobs: mark them RUNNING under a fresh lease and count the try.
+     * Jobs of runs lost with their instance are queued again first.
+     */
+    List<ClaimedJob> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int requeued = jobRepository.requeueExpired(now.minusNanos(leaseMs * 1_000_000), now);
+            if (requeued > 0) {
+                log.warn("Requeued {} AI analysis job(s) with an expired lease", requeued);
+            }
+
+            List<ClaimedJob> claimed = new ArrayList<>();
+            for (AIAnalysisJob job : jobRepository.findDueForUpdate(now, PageRequest.of(0, limit))) {
+                job.setStatus(JobStatus.RUNNING);
+                job.setTries(job.getTries() + 1);
+                job.setLockedAt(now);
+                claimed.add(new ClaimedJob(job.getId(), job.getTestAttemptId(), job.getTries()));
+            }
+            return claimed;
+        });
+    }
+
+    /**
+     * Run a claimed job and record the outcome. Never throws: failures are written to the job.
+     */
+    void run(ClaimedJob claimed) {
+        try {
+            progressBroadcaster.publish(claimed.attemptId(), AIAnalysisStage.RUNNING,
+                    Map.of("jobId", claimed.jobId(), "try", claimed.tries()));
+            aiIntegrationService.runCompleteAIAnalysis(claimed.attemptId());
+            transactionTemplate.executeWithoutResult(status -> finish(claimed.jobId(), null, false));
+            // After the commit, so subscribers that read the result find it
+            progressBroadcaster.publish(claimed.attemptId(), AIAnalysisStage.COMPLETED, Map.of("jobId", claimed.jobId()));
+        } catch (Exception e) {
+            // A missing attempt will not appear by retrying
+            boolean permanent = e instanceof EntityNotFoundException;
+            log.warn("AI analysis job {} for attempt {} failed (try {}/{}): {}",
+                    claimed.jobId(), claimed.attemptId(), claimed.tries(), maxTries, e.getMessage());
+            try {
+                AIAnalysisJob job = transactionTemplate.execute(status -> finish(claimed.jobId(), e, permanent));
+                if (job != null) {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("jobId", job.getId());
+                    data.put("error", job.getLastError());
+                    data.put("nextRunAt", job.getNextRunAt());
+                    progressBroadcaster.publish(claimed.attemptId(),
+                            job.getStatus() == JobStatus.FAILED ? AIAnalysisStage.FAILED : AIAnalysisStage.QUEUED, data);
+                }
+            } catch (RuntimeException recordError) {
+                // The lease will expire and the job will be queued again
+                log.error("Could not record the failure of AI analysis job {}", claimed.jobId(), recordError);
+            }
+        }
+    }
+
+    private AIAnalysisJob finish(Long jobId, Exception error, boolean permanent) {
+        AIAnalysisJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) return null;
+
+        LocalDateTime now = LocalDateTime.now();
+        job.setLockedAt(null);
+        if (error == null) {
+            job.setStatus(JobStatus.COMPLETED);
+            job.setLastError(null);
+            job.setFinishedAt(now);
+            return job;
+        }
+
+        job.setLastError(truncate(error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName()));
+        if (error instanceof ServiceUnavailableException unavailable) {
+            // Never sent, so the try is given back
+            job.setTries(job.getTries() - 1);
+            job.setStatus(JobStatus.QUEUED);
+            job.setNextRunAt(now.plusNanos(Math.max(unavailable.getRetryAfterMs(), backoffBaseMs) * 1_000_000));
+            return job;
+        }
+        if (permanent || job.getTries() >= maxTries) {
+            job.setStatus(JobStatus.FAILED);
+            job.setFinishedAt(now);
+        } else {
+            job.setStatus(JobStatus.QUEUED);
+            job.setNextRunAt(now.plusNanos(backoffMs(job.getTries()) * 1_000_000));
+        }
+        return job;
+    }
+
+    /**
+     * Delay before the next try: base * 2^(tries - 1), capped at backoffMaxMs,
+     * then spread over its upper half to de-synchronize retries.
+     */
+    long backoffMs(int tries) {
+        long delay = backoffBaseMs << Math.min(Math.max(tries - 1, 0), 30);
+        delay = Math.min(delay < 0 ? backoffMaxMs : delay, backoffMaxMs);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private AIAnalysisJobResponse toResponse(AIAnalysisJob job) {
+        return new AIAnalysisJobResponse(job.getId(), job.getTestAttemptId(), job.getStatus(), job.getTries(), maxTries,
+                job.getNextRunAt(), job.getCreatedAt(), job.getFinishedAt(), job.getLastError());
+    }
+}
@@ -0,0 +1,89 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.config.ServiceGuard;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed pool of threads running queued AI analysis jobs, sized independently of the web threads.
+ * The poller only claims as many jobs as there are idle workers, so the backlog stays in the
+ * database (and survives restarts) instead of in an in-memory executor queue.
+ * Nothing is claimed while the AI service circuit is open.
+ *
+ * With app.async.virtual-threads=true each claimed job runs on its own virtual thread and
+ * app.ai.jobs.workers is only the number of jobs in flight, so it can be raised to what the AI
+ * service accepts (together with app.resilience.ai.max-concurrent and app.http.ai.max-connections)
+ * without a platform thread parked per waiting call.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AIAnalysisJobWorker {
+
+    private final AIAnalysisJobService jobService;
+    private final ServiceGuard aiServiceGuard;
+
+    @Value("${app.ai.jobs.workers:4}")
+    private int workers = 4;
+
+    @Value("${app.async.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    private final AtomicInteger busy = new AtomicInteger();
+    private ExecutorService pool;
+
+    @PostConstruct
+    void start() {
+        if (virtualThreads) {
+            pool = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-jobs-vt-", 1).factory());
+            return;
+        }
+        AtomicInteger threadIds = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "ai-jobs-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.ai.jobs.poll-ms:1000}")
+    public void poll() {
+        int idle = workers - busy.get();
+        if (idle <= 0 || !aiServiceGuard.isCallPermitted()) return;
+
+        List<AIAnalysisJobService.ClaimedJob> claimed;
+        try {
+            claimed = jobService.claim(idle);
+        } catch (RuntimeException e) {
+            log.warn("Could not claim AI analysis jobs: {}", e.getMessage());
+            return;
+        }
+
+        for (AIAnalysisJobService.ClaimedJob job : claimed) {
+            busy.incrementAndGet();
+            pool.execute(() -> {
+                try {
+                    jobService.run(job);
+                } finally {
+                    busy.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Jobs cut off here keep their RUNNING row and are requeued when the lease expires
+        pool.shutdownNow();
+    }
+}
@@ -1,28 +1,40 @@
 package com.capstone.personalityTest.service.test;
 
+import com.capstone.personalityTest.config.ServiceGuard;
 import com.capstone.personalityTest.dto.RequestDTO.test.CompleteAIRequest;
 import com.capstone.personalityTest.dto.CompleteAIResponse;
 import com.capstone.personalityTest.dto.RequestDTO.test.StudentInfoDTO;
+import com.capstone.personalityTest.model.Enum.AIAnalysisStage;
 import com.capstone.personalityTest.model.testm.AIResult;
 import com.capstone.personalityTest.model.testm.MLResult;
 import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
 import com.capstone.personalityTest.repository.test.AIResultRepository;
 import com.capstone.personalityTest.repository.test.MLResultRepository;
 import com.capstone.personalityTest.repository.test.TestAttemptRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Service for integrating with Python AI service.
@@ -33,6 +45,14 @@ import java.time.LocalDateTime;
  * 2. This service sends code + student info to Python AI
  * 3. Python AI runs: RAG → Learning Path → Job Matching → Email
  * 4. This service receives results and saves to database
+ *
+ * Career recommendations and the base learning path depend only on the personality code,
+ * so they are kept in CareerGuidanceCache and sent along with the request; Python then
+ * skips RAG and the learning agent and only produces the student-specific jobs and email.
+ *
+ * With streaming enabled, Python returns each stage as a JSON line as soon as it is ready
+ * (/api/ai/complete-analysis/stream); every stage is forwarded to AIProgressBroadcaster so
+ * subscribers see career recommendations, learning path, jobs and email before the result is saved.
  * 
  * Priority for personality code:
  * 1. ML-predicted code (if available in MLResult)
@@ -44,10 +64,14 @@ import java.time.LocalDateTime;
 public class AIIntegrationService {
 
     // Injected dependencies
-    private final RestTemplate restTemplate;
+    private final RestTemplate aiRestTemplate; // pooled client rooted at ai.service.url (ServiceClientConfig)
     private final AIResultRepository aiResultRepo;
     private final TestAttemptRepository testAttemptRepo;
     private final MLResultRepository mlResultRepo;
+    private final CareerGuidanceCache careerGuidanceCache;
+    private final AIProgressBroadcaster progressBroadcaster;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * URL of Python AI service
@@ -58,76 +82,158 @@ public class AIIntegrationService {
     private String aiServiceUrl;
 
     /**
-     * Trigger complete AI analysis for a test attempt.
-     * This method runs asynchronously to avoid blocking test finalization.
+     * true: call the streaming endpoint and publish partial results; false: one blocking call
+     */
+    @Value("${app.ai.streaming:true}")
+    private boolean streaming = true;
+
+    /**
+     * Run complete AI analysis for a test attempt.
+     * Called by the AIAnalysisJobWorker pool for queued jobs (see AIAnalysisJobService);
+     * failures are thrown so the job can be retried.
      * 
      * Process:
-     * 1. Extract personality code and student info from test attempt
+     * 1. Extract personality code and student info from test attempt (short read transaction)
      * 2. Build request DTO
-     * 3. Call Python AI service via REST API
-     * 4. Save AI results to database
+     * 3. Call Python AI service via REST API (outside any transaction: it can take minutes)
+     * 4. Save AI results to database (short write transaction)
      * 
-     * @param attempt The finalized test attempt with calculated results
+     * @param attemptId ID of the finalized test attempt with calculated results
+     * @throws EntityNotFoundException if the attempt no longer exists
+     * @throws IllegalStateException if the AI service returns a non-success response
+     */
+    public void runCompleteAIAnalysis(Long attemptId) {
+        log.info("🤖 Running AI analysis for attempt: {}", attemptId);
+
+        AnalysisInput input = transactionTemplate.execute(status -> loadInput(attemptId));
+        String personalityCode = input.personalityCode();
+        log.info("   Personality Code: {}", personalityCode);
+        progressBroadcaster.publish(attemptId, AIAnalysisStage.ML_CODE, Map.of("personalityCode", personalityCode));
+
+        // Reuse code-level guidance generated for an earlier student, if any
+        long cacheGeneration = careerGuidanceCache.generation();
+        CareerGuidanceCache.Guidance cached = careerGuidanceCache.get(personalityCode);
+        if (cached != null) {
+            log.info("   ♻️  Sending cached guidance for {} (index {})", personalityCode, cached.indexVersion());
+        }
+
+        // Build complete AI request
+        CompleteAIRequest request = CompleteAIRequest.builder()
+                .attemptId(attemptId)
+                .personalityCode(personalityCode)
+                .studentInfo(input.studentInfo())
+                .metricScores(input.metricScores())
+                .cachedGuidance(cached == null ? null : new CompleteAIRequest.CachedGuidance(
+                        cached.careerRecommendations(), cached.learningPath(), cached.indexVersion()))
+                .build();
+
+        CompleteAIResponse body = streaming ? callStreaming(request) : callBlocking(request);
+        CareerGuidanceCache.Guidance generated = new CareerGuidanceCache.Guidance(
+                body.getCareerRecommendations(), body.getLearningPath(), body.getIndexVersion());
+        if (!generated.equals(cached)) {
+            // Only fresh guidance is stored: re-storing the echoed entry would restart its TTL
+            careerGuidanceCache.put(personalityCode, generated, cacheGeneration);
+        }
+
+        // Save AI results to database
+        transactionTemplate.executeWithoutResult(status -> saveAIResults(attemptId, body));
+        log.info("✅ AI analysis completed successfully for attempt: {}", attemptId);
+    }
+
+    /**
+     * What the AI request needs from the attempt, copied out of the read transaction
+     */
+    private record AnalysisInput(String personalityCode, StudentInfoDTO studentInfo, Map<String, Integer> metricScores) {
+    }
+
+    private AnalysisInput loadInput(Long attemptId) {
+        TestAttempt attempt = testAttemptRepo.findById(attemptId)
+                .orElseThrow(() -> new EntityNotFoundException("Test attempt not found: " + attemptId));
+
+        // Extract personality code from evaluation result
+        // Format: "R-I-A" (top 3 metrics)
+        String personalityCode = extractPersonalityCode(attempt);
+
+        // Build student info DTO
+        StudentInfoDTO studentInfo = StudentInfoDTO.builder()
+                .name(attempt.getStudent().getName())
+                .email(attempt.getStudent().getEmail())
+                .gender(attempt.getStudent().getGender().toString())
+                .build();
+
+        // Copied: the metric scores are loaded lazily
+        return new AnalysisInput(personalityCode, studentInfo,
+                new LinkedHashMap<>(attempt.getEvaluationResult().getMetricScores()));
+    }
+
+    private CompleteAIResponse callBlocking(CompleteAIRequest request) {
+        // Prepare HTTP request
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<CompleteAIRequest> entity = new HttpEntity<>(request, headers);
+
+        // Call Python AI service
+        log.info("📡 Calling Python AI: {}/api/ai/complete-analysis", aiServiceUrl);
+        ResponseEntity<CompleteAIResponse> response = aiRestTemplate.postForEntity(
+                "/api/ai/complete-analysis",
+                entity,
+                CompleteAIResponse.class
+        );
+
+        // Check response
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            return response.getBody();
+        }
+        log.warn("⚠️  Python AI returned non-success status: {}", response.getStatusCode());
+        throw new IllegalStateException("AI service returned " + response.getStatusCode());
+    }
+
+    /**
+     * Call the streaming endpoint: one JSON line per stage ({"stage": ..., "data": {...}}),
+     * published as it arrives, then RESULT with the complete response (or ERROR).
+     */
+    private CompleteAIResponse callStreaming(CompleteAIRequest request) {
+        log.info("📡 Streaming Python AI: {}/api/ai/complete-analysis/stream", aiServiceUrl);
+        return aiRestTemplate.execute(
+                "/api/ai/complete-analysis/stream",
+                HttpMethod.POST,
+                httpRequest -> {
+                    httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    httpRequest.getBody().write(objectMapper.writeValueAsBytes(request));
+                },
+                httpResponse -> readStream(request.getAttemptId(), httpResponse)
+        );
+    }
+
+    /**
+     * Read the stage lines up to RESULT. An ERROR line, a malformed line or a stream that ends
+     * without RESULT fails the call and is reported to the ServiceGuard as a failed call, even
+     * though the response status was 200.
      */
-    @Async
-    @Transactional
-    public void triggerCompleteAIAnalysis(Long attemptId) {
+    CompleteAIResponse readStream(Long attemptId, ClientHttpResponse response) throws IOException {
         try {
-            log.info("🤖 Triggering AI analysis for attempt: {}", attemptId);
-
-            // Fetch attempt within transaction to ensure it's attached and metricScores can be loaded
-            TestAttempt attempt = testAttemptRepo.findById(attemptId)
-                    .orElseThrow(() -> new EntityNotFoundException("Test attempt not found: " + attemptId));
-
-            // Check if AI result already exists (avoid duplicate analysis)
-//            if (aiResultRepo.existsByTestAttemptId(attempt.getId())) {
-//                log.warn("⚠️  AI result already exists for attempt: {}", attempt.getId());
-//                return;
-//            }
-
-            // Extract personality code from evaluation result
-            // Format: "R-I-A" (top 3 metrics)
-            String personalityCode = extractPersonalityCode(attempt);
-            log.info("   Personality Code: {}", personalityCode);
-
-            // Build student info DTO
-            StudentInfoDTO studentInfo = StudentInfoDTO.builder()
-                    .name(attempt.getStudent().getName())
-                    .email(attempt.getStudent().getEmail())
-                    .gender(attempt.getStudent().getGender().toString())
-                    .build();
-
-            // Build complete AI request
-            CompleteAIRequest request = CompleteAIRequest.builder()
-                    .attemptId(attempt.getId())
-                    .personalityCode(personalityCode)
-                    .studentInfo(studentInfo)
-                    .metricScores(attempt.getEvaluationResult().getMetricScores())
-                    .build();
-
-            // Prepare HTTP request
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<CompleteAIRequest> entity = new HttpEntity<>(request, headers);
-
-            // Call Python AI service
-            log.info("📡 Calling Python AI: {}/api/ai/complete-analysis", aiServiceUrl);
-            ResponseEntity<CompleteAIResponse> response = restTemplate.postForEntity(
-                    aiServiceUrl + "/api/ai/complete-analysis",
-                    entity,
-                    CompleteAIResponse.class
-            );
-
-            // Check response
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                // Save AI results to database
-                saveAIResults(attempt, response.getBody());
-                log.info("✅ AI analysis completed successfully for attempt: {}", attempt.getId());
-            } else {
-                log.warn("⚠️  Python AI returned non-success status: {}", response.getStatusCode());
+            BufferedReader reader = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JsonNode event = objectMapper.readTree(line);
+                String stage = event.path("stage").asText();
+                JsonNode data = event.path("data");
+                switch (stage) {
+                    case "RESULT" -> {
+                        return objectMapper.treeToValue(data, CompleteAIResponse.class);
+                    }
+                    case "ERROR" -> throw new IllegalStateException("AI service failed: " + data.path("detail").asText());
+                    case "CAREER_RECOMMENDATIONS", "LEARNING_PATH", "JOB_MATCHES", "EMAIL" ->
+                            progressBroadcaster.publish(attemptId, AIAnalysisStage.valueOf(stage),
+                                    objectMapper.convertValue(data, new TypeReference<Map<String, Object>>() {}));
+                    default -> log.debug("Ignoring unknown AI stage {}", stage);
+                }
             }
-        } catch (Exception e) {
-            log.error("❌ Error during AI analysis for attempt {}: {}", attemptId, e.getMessage(), e);
+            throw new IllegalStateException("AI service stream ended without a result");
+        } catch (IOException | RuntimeException e) {
+            ServiceGuard.reportFailure(response);
+            throw e;
         }
     }
 
@@ -135,15 +241,16 @@ public class AIIntegrationService {
      * Save AI analysis results to database.
      * Creates a new AIResult entity linked to the test attempt.
      * 
-     * @param attempt The test attempt
+     * @param attemptId The test attempt
      * @param aiResponse Response from Python AI service
      */
-    private void saveAIResults(TestAttempt attempt, CompleteAIResponse aiResponse) {
+    private void saveAIResults(Long attemptId, CompleteAIResponse aiResponse) {
         log.info("💾 Saving AI results to database...");
 
-        // Create AIResult entity
-        AIResult aiResult = new AIResult();
-        aiResult.setTestAttempt(attempt);
+        // Create AIResult entity, or replace the previous one in place on a forced re-run
+        // (test_attempt_id is unique, and the old result stays visible until this commits)
+        AIResult aiResult = aiResultRepo.findByTestAttemptId(attemptId).orElseGet(AIResult::new);
+        aiResult.setTestAttempt(testAttemptRepo.getReferenceById(attemptId));
         aiResult.setPersonalityCode(aiResponse.getPersonalityCode());
         aiResult.setCareerRecommendations(aiResponse.getCareerRecommendations());
         aiResult.setLearningPath(aiResponse.getLearningPath());
@@ -0,0 +1,154 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIProgressEvent;
+import com.capstone.personalityTest.model.Enum.AIAnalysisStage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out of AI analysis progress to server-sent event subscribers, per attempt.
+ *
+ * Subscribers are SseEmitters on async requests, so an open stream holds no servlet thread;
+ * events are written by whichever thread publishes them (the AI job workers). Each attempt
+ * keeps the events of its current run, so a subscriber that connects (or reconnects with
+ * Last-Event-ID) mid-run first receives what it missed. COMPLETED or FAILED ends every stream
+ * of the attempt and drops its history; the result is then read from the database.
+ */
+@Component
+@Slf4j
+public class AIProgressBroadcaster {
+
+    /**
+     * How long a stream stays open without reaching COMPLETED or FAILED
+     */
+    @Value("${app.ai.events.timeout-ms:600000}")
+    private long timeoutMs = 600000;
+
+    /**
+     * Events kept per attempt for late subscribers
+     */
+    @Value("${app.ai.events.history-size:32}")
+    private int historySize = 32;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribers and recent events of one attempt; all access is synchronized on the channel.
+     */
+    private static final class Channel {
+        private final List<AIProgressEvent> history = new ArrayList<>();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private boolean closed;
+    }
+
+    /**
+     * Open a stream of the attempt's progress.
+     *
+     * @param lastEventId sequence of the last event the client received (Last-Event-ID), or null
+     */
+    public SseEmitter subscribe(Long attemptId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        while (true) {
+            Channel channel = channels.computeIfAbsent(attemptId, id -> new Channel());
+            synchronized (channel) {
+                if (channel.closed) continue; // ended meanwhile, take the fresh channel
+                for (AIProgressEvent event : channel.history) {
+                    if (lastEventId == null || event.getSequence() > lastEventId) {
+                        if (!send(emitter, event)) return emitter;
+                    }
+                }
+                channel.emitters.add(emitter);
+            }
+            Runnable remove = () -> unsubscribe(attemptId, channel, emitter);
+            emitter.onCompletion(remove);
+            emitter.onTimeout(remove);
+            emitter.onError(e -> remove.run());
+            return emitter;
+        }
+    }
+
+    /**
+     * Whether anything is known about a run of the attempt still in progress
+     */
+    public boolean isActive(Long attemptId) {
+        Channel channel = channels.get(attemptId);
+        if (channel == null) return false;
+        synchronized (channel) {
+            return !channel.history.isEmpty();
+        }
+    }
+
+    /**
+     * Send a stage to every subscriber of the attempt. Never throws: progress is best effort.
+     */
+    public void publish(Long attemptId, AIAnalysisStage stage, Map<String, Object> data) {
+        AIProgressEvent event = new AIProgressEvent(sequence.incrementAndGet(), attemptId, stage, data, LocalDateTime.now());
+        Channel channel = channels.computeIfAbsent(attemptId, id -> new Channel());
+        synchronized (channel) {
+            if (stage == AIAnalysisStage.QUEUED && !channel.history.isEmpty()
+                    && channel.history.get(channel.history.size() - 1).getStage() != AIAnalysisStage.QUEUED) {
+                // A retry: subscribers keep what they saw, late ones start from the new run
+                channel.history.clear();
+            }
+            channel.history.add(event);
+            if (channel.history.size() > historySize) {
+                channel.history.remove(0);
+            }
+            channel.emitters.removeIf(emitter -> !send(emitter, event));
+
+            if (stage.isTerminal()) {
+                channel.closed = true;
+                channel.emitters.forEach(SseEmitter::complete);
+                channel.emitters.clear();
+                channels.remove(attemptId, channel);
+            }
+        }
+    }
+
+    /**
+     * Stream holding a single, final event (e.g. COMPLETED for an attempt analyzed earlier).
+     */
+    public SseEmitter completed(Long attemptId, AIAnalysisStage stage, Map<String, Object> data) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        if (send(emitter, new AIProgressEvent(sequence.incrementAndGet(), attemptId, stage, data, LocalDateTime.now()))) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    private void unsubscribe(Long attemptId, Channel channel, SseEmitter emitter) {
+        synchronized (channel) {
+            channel.emitters.remove(emitter);
+            if (channel.emitters.isEmpty() && channel.history.isEmpty()) {
+                channel.closed = true;
+                channels.remove(attemptId, channel);
+            }
+        }
+    }
+
+    private boolean send(SseEmitter emitter, AIProgressEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getSequence()))
+                    .name(event.getStage().name())
+                    .data(event, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away (or the emitter already completed); the container ends the request
+            log.debug("Dropping AI progress subscriber of attempt {}: {}", event.getAttemptId(), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.AttemptJobResponse;
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.testm.Test.Test;
+import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin job that moves the CHECKBOX and SCALE answers of a test's finalized attempts from the
+ * answer table (one row per item) into one packed_answer_set row per attempt.
+ *
+ * There is no schema migration tool in this project, so old attempts are compacted by running
+ * this job per test. Attempts are processed in keyset-paginated chunks; each chunk inserts its
+ * packed rows and deletes the packed answer rows in one transaction, so an attempt is always
+ * readable from exactly one place. Values that do not fit the encoding stay as rows.
+ * Only finalized attempts are compacted: their answers can no longer change.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnswerCompactionService {
+
+    static final String JOB_TYPE = "COMPACT_ANSWERS";
+
+    private final TestRepository testRepository;
+    private final CompiledTestCache compiledTestCache;
+    private final PackedAnswerStore packedAnswerStore;
+    private final AttemptJobRunner attemptJobRunner;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.answers.compaction.chunk-size:500}")
+    private int chunkSize = 500;
+
+    private record PackedAttempt(long attemptId, byte[] values, List<Long> answerIds) {
+    }
+
+    /**
+     * Queue a compaction job for a test. If one is already queued or running for it, that job is returned.
+     */
+    public AttemptJobResponse startCompaction(Long testId) {
+        if (!testRepository.existsById(testId)) {
+            throw new EntityNotFoundException("Test not found: " + testId);
+        }
+
+        return attemptJobRunner.submit(JOB_TYPE, testId, job -> {
+            // Pack against the test's current item order
+            CompiledTest compiledTest = transactionTemplate.execute(status -> {
+                Test test = testRepository.findById(job.testId)
+                        .orElseThrow(() -> new EntityNotFoundException("Test not found: " + job.testId));
+                return compiledTestCache.compile(test);
+            });
+            Long layoutId = transactionTemplate.execute(status -> packedAnswerStore.layoutId(compiledTest));
+
+            compact(job, compiledTest, layoutId);
+        });
+    }
+
+    void compact(AttemptJob job, CompiledTest compiledTest, Long layoutId) {
+        String pending = "FROM test_attempt t WHERE t.test_id = ? AND t.finalized = TRUE " +
+                "AND NOT EXISTS (SELECT 1 FROM packed_answer_set p WHERE p.test_attempt_id = t.id)";
+        job.total = jdbcTemplate.queryForObject("SELECT COUNT(*) " + pending, Long.class, job.testId);
+
+        long lastId = 0;
+        while (true) {
+            List<Long> attemptIds = jdbcTemplate.queryForList(
+                    "SELECT t.id " + pending + " AND t.id > ? ORDER BY t.id LIMIT ?",
+                    Long.class, job.testId, lastId, chunkSize);
+            if (attemptIds.isEmpty()) break;
+
+            List<PackedAttempt> packed = pack(job.testId, attemptIds, compiledTest);
+            transactionTemplate.executeWithoutResult(status -> write(packed, layoutId, compiledTest.items().size()));
+
+            job.processed.addAndGet(attemptIds.size());
+            lastId = attemptIds.get(attemptIds.size() - 1);
+        }
+    }
+
+    private List<PackedAttempt> pack(Long testId, List<Long> attemptIds, CompiledTest compiledTest) {
+        int itemCount = compiledTest.items().size();
+        Map<Long, PackedAttempt> packed = new LinkedHashMap<>();
+        for (Long attemptId : attemptIds) {
+            packed.put(attemptId, new PackedAttempt(attemptId, PackedAnswers.newValues(itemCount), new ArrayList<>()));
+        }
+
+        // The id range can contain attempts compacted earlier; only rows of this chunk's attempts are packed
+        jdbcTemplate.query(
+                "SELECT a.id, a.test_attempt_id, a.question_id, a.sub_question_id, a.answer_type, a.binary_value, a.scale_value " +
+                        "FROM answer a JOIN test_attempt t ON t.id = a.test_attempt_id " +
+                        "WHERE t.test_id = ? AND t.finalized = TRUE AND t.id BETWEEN ? AND ? " +
+                        "AND a.answer_type IN ('BINARY', 'SCALE') ORDER BY a.id",
+                rs -> {
+                    PackedAttempt attempt = packed.get(rs.getLong("test_attempt_id"));
+                    if (attempt == null) return;
+
+                    long subQuestionId = rs.getLong("sub_question_id");
+                    Long sub = rs.wasNull() ? null : subQuestionId;
+                    CompiledItem item = compiledTest.item(rs.getLong("question_id"), sub);
+                    if (item == null) return; // item no longer in the test, keep the row
+
+                    boolean binary = rs.getBoolean("binary_value");
+                    Boolean binaryValue = rs.wasNull() ? null : binary;
+                    int scale = rs.getInt("scale_value");
+                    Integer scaleValue = rs.wasNull() ? null : scale;
+
+                    AnswerType storedType = "BINARY".equals(rs.getString("answer_type")) ? AnswerType.CHECKBOX : AnswerType.SCALE;
+                    int code = storedType == item.answerType()
+                            ? PackedAnswers.encode(storedType, binaryValue, scaleValue)
+                            : PackedAnswers.EMPTY;
+                    // Duplicate rows for one item: the first one is packed, the others stay
+                    if (code == PackedAnswers.EMPTY || PackedAnswers.get(attempt.values(), item.index()) != PackedAnswers.EMPTY) {
+                        return;
+                    }
+
+                    PackedAnswers.set(attempt.values(), item.index(), code);
+                    attempt.answerIds().add(rs.getLong("id"));
+                },
+                testId, attemptIds.get(0), attemptIds.get(attemptIds.size() - 1));
+
+        return new ArrayList<>(packed.values());
+    }
+
+    private void write(List<PackedAttempt> packed, Long layoutId, int itemCount) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO packed_answer_set (test_attempt_id, layout_id, item_count, packed_values) VALUES (?, ?, ?, ?)",
+                packed, packed.size(), (ps, attempt) -> {
+                    ps.setLong(1, attempt.attemptId());
+                    ps.setLong(2, layoutId);
+                    ps.setInt(3, itemCount);
+                    ps.setBytes(4, attempt.values());
+                });
+
+        List<Long> answerIds = packed.stream().flatMap(attempt -> attempt.answerIds().stream()).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM answer WHERE id = ?",
+                answerIds, answerIds.size(), (ps, id) -> ps.setLong(1, id));
+    }
+}
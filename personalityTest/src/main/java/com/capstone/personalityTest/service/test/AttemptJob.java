@@ -0,0 +1,47 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.AttemptJobResponse;
+import com.capstone.personalityTest.model.Enum.JobStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mutable progress of an admin job over the finalized attempts of a test (rescoring, answer compaction,
+ * ML code backfill), read by the status endpoints while the job's runner updates it.
+ */
+final class AttemptJob {
+
+    final String jobId = UUID.randomUUID().toString();
+    final String type;
+    final Long testId;
+    final AtomicLong processed = new AtomicLong();
+    volatile JobStatus status = JobStatus.QUEUED;
+    volatile long total;
+    volatile LocalDateTime startedAt;
+    volatile LocalDateTime finishedAt;
+    volatile String error;
+
+    AttemptJob(String type, Long testId) {
+        this.type = type;
+        this.testId = testId;
+    }
+
+    long processed() {
+        return processed.get();
+    }
+
+    boolean isActive() {
+        return status == JobStatus.QUEUED || status == JobStatus.RUNNING;
+    }
+
+    AttemptJobResponse toResponse() {
+        double seconds = startedAt == null ? 0
+                : Duration.between(startedAt, finishedAt != null ? finishedAt : LocalDateTime.now()).toMillis() / 1000.0;
+        double throughput = seconds > 0 ? processed.get() / seconds : 0;
+        return new AttemptJobResponse(jobId, type, testId, status, total, processed.get(),
+                Math.round(throughput * 10) / 10.0, startedAt, finishedAt, error);
+    }
+}
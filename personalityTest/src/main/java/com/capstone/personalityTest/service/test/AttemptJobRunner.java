@@ -0,0 +1,124 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.AttemptJobResponse;
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the admin jobs over finalized attempts (rescoring, answer compaction, ML code backfill)
+ * one after another on a single thread, so two jobs never rewrite the same attempts concurrently.
+ * Job progress is kept in memory; finished jobs are dropped after a retention period, and the oldest
+ * ones first once more than a maximum number are kept.
+ */
+@Component
+@Slf4j
+public class AttemptJobRunner {
+
+    /**
+     * Body of a job; updates job.total / job.processed as it goes.
+     */
+    @FunctionalInterface
+    interface Work {
+        void run(AttemptJob job) throws Exception;
+    }
+
+    @Value("${app.jobs.retention-ms:86400000}")
+    private long retentionMs = 86400000;
+
+    @Value("${app.jobs.max-finished:100}")
+    private int maxFinishedJobs = 100;
+
+    private final Map<String, AttemptJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, AttemptJob> activeJobs = new ConcurrentHashMap<>(); // by type and test
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "attempt-jobs");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Queue a job. If a job of the same type is already queued or running for the test, that job is returned.
+     */
+    AttemptJobResponse submit(String type, Long testId, Work work) {
+        evictFinished();
+
+        // compute locks the (type, test) entry, so two requests cannot both queue a job
+        AttemptJob job = activeJobs.compute(activeKey(type, testId), (key, current) -> {
+            if (current != null && current.isActive()) {
+                return current;
+            }
+            AttemptJob queued = new AttemptJob(type, testId);
+            jobs.put(queued.jobId, queued);
+            runner.submit(() -> run(queued, work));
+            return queued;
+        });
+        return job.toResponse();
+    }
+
+    public AttemptJobResponse getJob(String jobId) {
+        AttemptJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException("Job not found: " + jobId);
+        }
+        return job.toResponse();
+    }
+
+    public List<AttemptJobResponse> getJobs() {
+        return jobs.values().stream().map(AttemptJob::toResponse).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private void run(AttemptJob job, Work work) {
+        job.status = JobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        log.info("{} job {} started for test {}", job.type, job.jobId, job.testId);
+
+        try {
+            work.run(job);
+            job.status = JobStatus.COMPLETED;
+            log.info("{} job {} completed: {} attempts", job.type, job.jobId, job.processed());
+        } catch (Exception e) {
+            job.status = JobStatus.FAILED;
+            job.error = e.getMessage();
+            log.error("{} job {} failed after {} attempts", job.type, job.jobId, job.processed(), e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            activeJobs.remove(activeKey(job.type, job.testId), job);
+            evictFinished();
+        }
+    }
+
+    // Finished jobs past the retention period, then the oldest ones beyond maxFinishedJobs
+    private void evictFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(retentionMs * 1_000_000);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+
+        List<AttemptJob> finished = jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted(Comparator.comparing((AttemptJob job) -> job.finishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - maxFinishedJobs; i++) {
+            jobs.remove(finished.get(i).jobId);
+        }
+    }
+
+    private static String activeKey(String type, Long testId) {
+        return type + ":" + testId;
+    }
+}
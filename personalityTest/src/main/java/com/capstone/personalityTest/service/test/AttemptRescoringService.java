@@ -0,0 +1,189 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.AttemptJobResponse;
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.testm.Test.Test;
+import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
+import com.capstone.personalityTest.service.test.PackedAnswers.PackedAnswer;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Admin job that recomputes the stored EvaluationResult of every finalized attempt of a test,
+ * e.g. after a sub-question was mapped to another metric or a metric was added to the base test.
+ *
+ * Attempts are read in keyset-paginated chunks (id > last id) straight from the answer and
+ * packed_answer_set tables, scored in parallel on a dedicated fork-join pool with the test's
+ * MetricIndex, and written back with batched JDBC updates, one transaction per chunk.
+ * Only one chunk is in memory at a time. Jobs run on the AttemptJobRunner.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttemptRescoringService {
+
+    static final String JOB_TYPE = "RESCORE";
+
+    private final TestRepository testRepository;
+    private final CompiledTestCache compiledTestCache;
+    private final PackedAnswerStore packedAnswerStore;
+    private final AttemptJobRunner attemptJobRunner;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.rescoring.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${app.rescoring.parallelism:0}")
+    private int parallelism; // 0 = number of CPU cores
+
+    // One answer row of the chunk being rescored
+    private record AnswerRow(long questionId, Long subQuestionId, String answerType, Boolean binaryValue, Integer scaleValue) {
+    }
+
+    private record ScoredAttempt(long attemptId, int[] scores, int[] top) {
+    }
+
+    /**
+     * Queue a rescoring job for a test. If one is already queued or running for it, that job is returned.
+     */
+    public AttemptJobResponse startRescoring(Long testId) {
+        if (!testRepository.existsById(testId)) {
+            throw new EntityNotFoundException("Test not found: " + testId);
+        }
+
+        return attemptJobRunner.submit(JOB_TYPE, testId, job -> {
+            // Recompile so the current sub-question -> metric mapping is used (and cached)
+            CompiledTest compiledTest = transactionTemplate.execute(status -> {
+                Test test = testRepository.findById(job.testId)
+                        .orElseThrow(() -> new EntityNotFoundException("Test not found: " + job.testId));
+                return compiledTestCache.compile(test);
+            });
+
+            rescore(job, compiledTest);
+        });
+    }
+
+    void rescore(AttemptJob job, CompiledTest compiledTest) throws Exception {
+        job.total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM test_attempt WHERE test_id = ? AND finalized = TRUE",
+                Long.class, job.testId);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            long lastId = 0;
+            while (true) {
+                List<Long> attemptIds = jdbcTemplate.queryForList(
+                        "SELECT id FROM test_attempt WHERE test_id = ? AND finalized = TRUE AND id > ? " +
+                                "ORDER BY id LIMIT ?",
+                        Long.class, job.testId, lastId, chunkSize);
+                if (attemptIds.isEmpty()) break;
+
+                Map<Long, List<AnswerRow>> answers = loadAnswers(job.testId, attemptIds);
+                List<ScoredAttempt> scored = pool.submit(() -> attemptIds.parallelStream()
+                        .map(id -> score(id, answers.getOrDefault(id, List.of()), compiledTest))
+                        .toList()
+                ).get();
+
+                transactionTemplate.executeWithoutResult(status -> write(scored, compiledTest.metricIndex()));
+
+                job.processed.addAndGet(scored.size());
+                lastId = attemptIds.get(attemptIds.size() - 1);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Answers of the chunk's attempts; the id range plus the test/finalized filter selects exactly the chunk
+    private Map<Long, List<AnswerRow>> loadAnswers(Long testId, List<Long> attemptIds) {
+        Map<Long, List<AnswerRow>> answers = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT a.test_attempt_id, a.question_id, a.sub_question_id, a.answer_type, a.binary_value, a.scale_value " +
+                        "FROM answer a JOIN test_attempt t ON t.id = a.test_attempt_id " +
+                        "WHERE t.test_id = ? AND t.finalized = TRUE AND t.id BETWEEN ? AND ?",
+                rs -> {
+                    long subQuestionId = rs.getLong("sub_question_id");
+                    Long sub = rs.wasNull() ? null : subQuestionId;
+                    boolean binary = rs.getBoolean("binary_value");
+                    Boolean binaryValue = rs.wasNull() ? null : binary;
+                    int scale = rs.getInt("scale_value");
+                    Integer scaleValue = rs.wasNull() ? null : scale;
+
+                    answers.computeIfAbsent(rs.getLong("test_attempt_id"), id -> new ArrayList<>())
+                            .add(new AnswerRow(rs.getLong("question_id"), sub, rs.getString("answer_type"),
+                                    binaryValue, scaleValue));
+                },
+                testId, attemptIds.get(0), attemptIds.get(attemptIds.size() - 1));
+
+        // Compacted attempts keep their CHECKBOX/SCALE answers in one packed row
+        jdbcTemplate.query(
+                "SELECT p.test_attempt_id, p.layout_id, p.packed_values " +
+                        "FROM packed_answer_set p JOIN test_attempt t ON t.id = p.test_attempt_id " +
+                        "WHERE t.test_id = ? AND t.finalized = TRUE AND t.id BETWEEN ? AND ?",
+                rs -> {
+                    List<AnswerRow> rows = answers.computeIfAbsent(rs.getLong("test_attempt_id"), id -> new ArrayList<>());
+                    for (PackedAnswer packed : packedAnswerStore.decode(rs.getLong("layout_id"), rs.getBytes("packed_values"))) {
+                        rows.add(new AnswerRow(packed.questionId(), packed.subQuestionId(),
+                                packed.answerType() == AnswerType.CHECKBOX ? "BINARY" : "SCALE",
+                                packed.binaryValue(), packed.scaleValue()));
+                    }
+                },
+                testId, attemptIds.get(0), attemptIds.get(attemptIds.size() - 1));
+        return answers;
+    }
+
+    // Same points as finalizeAttempt: BINARY true = 1, SCALE = value, OPEN = 0
+    private ScoredAttempt score(long attemptId, List<AnswerRow> answers, CompiledTest compiledTest) {
+        int[] scores = compiledTest.metricIndex().newScores();
+        for (AnswerRow answer : answers) {
+            if (answer.subQuestionId() == null) continue;
+
+            CompiledItem item = compiledTest.item(answer.questionId(), answer.subQuestionId());
+            if (item == null || item.metricSlot() == MetricIndex.NONE) continue;
+
+            if ("BINARY".equals(answer.answerType()) && Boolean.TRUE.equals(answer.binaryValue())) {
+                scores[item.metricSlot()] += 1;
+            } else if ("SCALE".equals(answer.answerType()) && answer.scaleValue() != null) {
+                scores[item.metricSlot()] += answer.scaleValue();
+            }
+        }
+        return new ScoredAttempt(attemptId, scores, MetricIndex.topK(scores, 3));
+    }
+
+    private void write(List<ScoredAttempt> scored, MetricIndex metricIndex) {
+        jdbcTemplate.batchUpdate(
+                "UPDATE test_attempt SET first_metric_code = ?, second_metric_code = ?, third_metric_code = ? WHERE id = ?",
+                scored, scored.size(), (ps, attempt) -> {
+                    int[] top = attempt.top();
+                    ps.setString(1, top.length > 0 ? metricIndex.code(top[0]) : null);
+                    ps.setString(2, top.length > 1 ? metricIndex.code(top[1]) : null);
+                    ps.setString(3, top.length > 2 ? metricIndex.code(top[2]) : null);
+                    ps.setLong(4, attempt.attemptId());
+                });
+
+        jdbcTemplate.batchUpdate(
+                "DELETE FROM evaluation_scores WHERE test_attempt_id = ?",
+                scored, scored.size(), (ps, attempt) -> ps.setLong(1, attempt.attemptId()));
+
+        List<Object[]> rows = new ArrayList<>(scored.size() * metricIndex.size());
+        for (ScoredAttempt attempt : scored) {
+            for (int slot = 0; slot < metricIndex.size(); slot++) {
+                rows.add(new Object[]{attempt.attemptId(), metricIndex.code(slot), attempt.scores()[slot]});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO evaluation_scores (test_attempt_id, metric_code, score) VALUES (?, ?, ?)", rows);
+    }
+}
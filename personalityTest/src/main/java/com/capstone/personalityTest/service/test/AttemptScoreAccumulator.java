@@ -0,0 +1,303 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.AnswerRequest;
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.testm.EvaluationResult;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.Answer;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.CheckBoxAnswer;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.OpenAnswer;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.ScaleAnswer;
+import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
+import com.capstone.personalityTest.repository.test.AnswerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Running metric scores of in-progress attempts.
+ *
+ * Every answer write sets the item's contribution (CHECKBOX true = 1, SCALE = value, OPEN = 0)
+ * and moves the metric score by the difference with the previous one, so the live preview
+ * never walks the answers again. The state is only a cache of the Answer table:
+ * it is rebuilt from the database when missing (restart, eviction) and dropped on finalize.
+ *
+ * Only writes the database confirmed are recorded, and only once their transaction commits, so the
+ * state always matches the committed answers. Draft answers (buffered mode) are never part of it:
+ * the preview lays them over a copy (see snapshot with drafts) and they are recorded when flushed.
+ * A missing state is loaded in a transaction of its own while writes to the attempt wait for it,
+ * so a write that commits meanwhile is either in the loaded answers or applied on top of them.
+ *
+ * The state only sees writes made through this instance, so it is used for previews only:
+ * finalizing scores the stored answers (score), and the persisted result never depends on it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttemptScoreAccumulator {
+
+    private final CompiledTestCache compiledTestCache;
+    private final AnswerRepository answerRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.scoring.max-tracked-attempts:20000}")
+    private int maxTrackedAttempts = 20000;
+
+    private final Map<Long, AttemptScores> attempts = new ConcurrentHashMap<>();
+
+    /**
+     * Point-in-time copy of an attempt's running scores.
+     *
+     * @param scores score per metric slot of metricIndex
+     */
+    public record Snapshot(int answeredItems, int requiredItems, MetricIndex metricIndex, int[] scores) {
+
+        public boolean isComplete() {
+            return answeredItems >= requiredItems;
+        }
+
+        public Map<String, Integer> metricScores() {
+            return metricIndex.toMap(scores);
+        }
+
+        public EvaluationResult toEvaluationResult() {
+            return metricIndex.toEvaluationResult(scores);
+        }
+    }
+
+    private static final class AttemptScores {
+        private final CompiledTest compiledTest;
+        private final int[] metricScores;
+        private final boolean[] answered;
+        private final int[] points;
+        private int answeredItems;
+
+        private AttemptScores(CompiledTest compiledTest) {
+            this.compiledTest = compiledTest;
+            this.answered = new boolean[compiledTest.items().size()];
+            this.points = new int[compiledTest.items().size()];
+            this.metricScores = compiledTest.metricIndex().newScores();
+        }
+
+        private AttemptScores(AttemptScores other) {
+            this.compiledTest = other.compiledTest;
+            this.answered = other.answered.clone();
+            this.points = other.points.clone();
+            this.metricScores = other.metricScores.clone();
+            this.answeredItems = other.answeredItems;
+        }
+
+        private synchronized void set(CompiledItem item, boolean isAnswered, int newPoints) {
+            int i = item.index();
+            if (answered[i] != isAnswered) {
+                answered[i] = isAnswered;
+                answeredItems += isAnswered ? 1 : -1;
+            }
+
+            int delta = newPoints - points[i];
+            points[i] = newPoints;
+            if (item.metricSlot() != MetricIndex.NONE) {
+                metricScores[item.metricSlot()] += delta;
+            }
+        }
+
+        private synchronized Snapshot snapshot(int requiredItems) {
+            return new Snapshot(answeredItems, requiredItems, compiledTest.metricIndex(), metricScores.clone());
+        }
+
+        private synchronized AttemptScores copy() {
+            return new AttemptScores(this);
+        }
+    }
+
+    /**
+     * Apply a written answer once the surrounding transaction commits. Only for writes the database
+     * confirmed (an upsert that changed the row, a JPA save); a request without a value leaves the
+     * stored one, and so the item's contribution, unchanged.
+     * Ignored if the attempt is not tracked; it will be rebuilt from the database when needed.
+     */
+    public void record(Long attemptId, AnswerRequest request) {
+        if (!hasValue(request)) return;
+        Long questionId = request.getQuestionId();
+        Long subQuestionId = request.getSubQuestionId();
+        boolean isAnswered = isAnswered(request);
+        int points = points(request);
+
+        afterCommit(() -> apply(attemptId, questionId, subQuestionId, isAnswered, points));
+    }
+
+    /**
+     * Apply the stored value of a CHECKBOX/SCALE item once the surrounding transaction commits,
+     * for writes whose outcome is not reported (batched upserts) and are read back instead.
+     */
+    public void recordStored(Long attemptId, AnswerRepository.AnswerValueView stored) {
+        Long questionId = stored.getQuestionId();
+        Long subQuestionId = stored.getSubQuestionId();
+        boolean isAnswered = stored.getBinaryValue() != null || stored.getScaleValue() != null;
+        int points = Boolean.TRUE.equals(stored.getBinaryValue()) ? 1
+                : stored.getScaleValue() != null ? stored.getScaleValue() : 0;
+
+        afterCommit(() -> apply(attemptId, questionId, subQuestionId, isAnswered, points));
+    }
+
+    public boolean isTracked(Long attemptId) {
+        return attempts.containsKey(attemptId);
+    }
+
+    /**
+     * Scores of the committed answers of an attempt, loading them if not tracked yet.
+     * Writes of the caller's own transaction are not included before it commits.
+     */
+    public Snapshot snapshot(TestAttempt attempt) {
+        AttemptScores scores = tracked(attempt);
+        return scores.snapshot(scores.compiledTest.requiredItemCount(attempt.getStudent().getGender()));
+    }
+
+    /**
+     * Scores of the committed answers with draft answers laid over them. The running state is not changed.
+     */
+    public Snapshot snapshot(TestAttempt attempt, Collection<AnswerRequest> drafts) {
+        if (drafts.isEmpty()) {
+            return snapshot(attempt);
+        }
+        AttemptScores scores = tracked(attempt).copy();
+        for (AnswerRequest draft : drafts) {
+            CompiledItem item = scores.compiledTest.item(draft.getQuestionId(), draft.getSubQuestionId());
+            if (item != null && hasValue(draft)) {
+                scores.set(item, isAnswered(draft), points(draft));
+            }
+        }
+        return scores.snapshot(scores.compiledTest.requiredItemCount(attempt.getStudent().getGender()));
+    }
+
+    /**
+     * Scores of an attempt computed from its answers as the caller's transaction sees them,
+     * without reading or changing the running state
+     */
+    public Snapshot score(TestAttempt attempt) {
+        AttemptScores scores = new AttemptScores(compiledTestCache.getOrCompile(attempt.getTest()));
+        load(scores, attempt.getId());
+        return scores.snapshot(scores.compiledTest.requiredItemCount(attempt.getStudent().getGender()));
+    }
+
+    public void evict(Long attemptId) {
+        attempts.remove(attemptId);
+    }
+
+    private void apply(Long attemptId, Long questionId, Long subQuestionId, boolean isAnswered, int points) {
+        AttemptScores scores = attempts.get(attemptId);
+        if (scores == null) return;
+
+        CompiledItem item = scores.compiledTest.item(questionId, subQuestionId);
+        if (item != null) {
+            scores.set(item, isAnswered, points);
+        }
+    }
+
+    // The new state is published while its lock is held, so writes committed during the load wait
+    // and are applied after it. The load reads in a new transaction: the caller's may have started
+    // before such a write committed and would not see it
+    private AttemptScores tracked(TestAttempt attempt) {
+        AttemptScores scores = attempts.get(attempt.getId());
+        if (scores != null) {
+            return scores;
+        }
+        makeRoom();
+        AttemptScores created = new AttemptScores(compiledTestCache.getOrCompile(attempt.getTest()));
+        synchronized (created) {
+            scores = attempts.putIfAbsent(attempt.getId(), created);
+            if (scores != null) {
+                return scores;
+            }
+            try {
+                loadTemplate().executeWithoutResult(status -> load(created, attempt.getId()));
+            } catch (RuntimeException e) {
+                attempts.remove(attempt.getId(), created);
+                throw e;
+            }
+            return created;
+        }
+    }
+
+    private TransactionTemplate loadTemplate() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private void load(AttemptScores scores, Long attemptId) {
+        for (Answer answer : answerRepository.findWithItemsByTestAttemptId(attemptId)) {
+            CompiledItem item = scores.compiledTest.item(
+                    answer.getQuestion().getId(),
+                    answer.getSubQuestion() != null ? answer.getSubQuestion().getId() : null);
+            if (item != null) {
+                scores.set(item, isAnswered(answer), points(answer));
+            }
+        }
+    }
+
+    // Abandoned attempts are never finalized; drop an arbitrary one, it can always be reloaded
+    private void makeRoom() {
+        Iterator<Long> it = attempts.keySet().iterator();
+        while (attempts.size() >= maxTrackedAttempts && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean isAnswered(Answer answer) {
+        if (answer instanceof CheckBoxAnswer cb) return cb.getBinaryValue() != null;
+        if (answer instanceof ScaleAnswer sa) return sa.getScaleValue() != null;
+        if (answer instanceof OpenAnswer oa) return oa.getValues() != null && !oa.getValues().isEmpty();
+        return false;
+    }
+
+    private static int points(Answer answer) {
+        if (answer instanceof CheckBoxAnswer cb) return Boolean.TRUE.equals(cb.getBinaryValue()) ? 1 : 0;
+        if (answer instanceof ScaleAnswer sa) return sa.getScaleValue() != null ? sa.getScaleValue() : 0;
+        return 0; // OPEN answers are not scored
+    }
+
+    private static boolean hasValue(AnswerRequest request) {
+        if (request.getAnswerType() == AnswerType.CHECKBOX) return request.getBinaryValue() != null;
+        if (request.getAnswerType() == AnswerType.SCALE) return request.getScaleValue() != null;
+        return request.getOpenValues() != null;
+    }
+
+    private static boolean isAnswered(AnswerRequest request) {
+        if (request.getAnswerType() == AnswerType.CHECKBOX) return request.getBinaryValue() != null;
+        if (request.getAnswerType() == AnswerType.SCALE) return request.getScaleValue() != null;
+        return request.getOpenValues() != null && !request.getOpenValues().isEmpty();
+    }
+
+    private static int points(AnswerRequest request) {
+        if (request.getAnswerType() == AnswerType.CHECKBOX) return Boolean.TRUE.equals(request.getBinaryValue()) ? 1 : 0;
+        if (request.getAnswerType() == AnswerType.SCALE) return request.getScaleValue() != null ? request.getScaleValue() : 0;
+        return 0;
+    }
+}
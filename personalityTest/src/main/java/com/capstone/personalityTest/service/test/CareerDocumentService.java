@@ -1,30 +1,49 @@
 package com.capstone.personalityTest.service.test;
 
 import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.CareerDocumentResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentImportResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentImportResponse.EntryResult;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentImportResponse.Outcome;
+import com.capstone.personalityTest.exception.EntityExistsException;
 import com.capstone.personalityTest.mapper.CareerDocumentMapper;
 import com.capstone.personalityTest.model.testm.Test.BaseTest;
 import com.capstone.personalityTest.model.testm.CareerDocument;
 import com.capstone.personalityTest.repository.test.BaseTestRepository;
 import com.capstone.personalityTest.repository.test.CareerDocumentRepository;
+import com.capstone.personalityTest.service.test.CareerDocumentStore.StagedFile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 
 @Service
 @RequiredArgsConstructor
@@ -33,14 +52,18 @@ public class CareerDocumentService {
 
     private final CareerDocumentRepository documentRepository;
     private final BaseTestRepository baseTestRepository;
-    private final RestTemplate restTemplate;
     private final CareerDocumentMapper documentMapper;  // 🆕 MapStruct mapper
+    private final DocumentReindexScheduler reindexScheduler;
+    private final CareerDocumentStore documentStore;
+    private final Executor applicationTaskExecutor;    // AsyncExecutionConfig
+    private final DocumentSearchService searchService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Value("${ai.documents.path}")
-    private String documentsPath;
+    @Value("${app.documents.import.max-entries:200}")
+    private int maxImportEntries;
 
-    @Value("${ai.service.url:http://localhost:5000}")
-    private String aiServiceUrl;
+    @Value("${app.documents.import.parallelism:4}")
+    private int importParallelism = 4;
 
     private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList(
         "pdf", "docx", "txt", "md", "csv", "json", "xlsx"
@@ -50,6 +73,13 @@ public class CareerDocumentService {
 
     /**
      * Upload a career document
+     *
+     * The file is read once: streamed into the content-addressed store while it is hashed and its
+     * size checked. Documents are de-duplicated by content, not by name, so a renamed copy is
+     * rejected before it reaches the embedding pipeline while a new version under the same name
+     * is accepted. The unique content hash settles concurrent uploads of the same content.
+     *
+     * @throws EntityExistsException if a document with the same content exists
      */
     @Transactional
     public CareerDocumentResponse uploadDocument(
@@ -61,82 +91,128 @@ public class CareerDocumentService {
         
         log.info("📤 Uploading document: {}", file.getOriginalFilename());
 
-        // Check if file with same name already exists
-        if (documentRepository.existsByOriginalFilename(file.getOriginalFilename())) {
-            log.warn("⚠️ Duplicate file upload attempted: {}", file.getOriginalFilename());
-            throw new IllegalArgumentException("File with name '" + file.getOriginalFilename() + "' already exists");
-        }
-
         // Validate file
         validateFile(file);
 
-        // Generate unique filename
+        // Save file to the store, hashing the content on the way
         String fileExtension = getFileExtension(file.getOriginalFilename());
-        String storedFilename = UUID.randomUUID() + "_" + file.getOriginalFilename();
+        StagedFile staged = documentStore.stage(file.getInputStream(), fileExtension, MAX_FILE_SIZE);
 
-        // Ensure directory exists
-        Path uploadPath = Paths.get(documentsPath);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-            log.info("📁 Created upload directory: {}", uploadPath);
+        // Reject content that is already uploaded, whatever its name
+        String storedFilename;
+        try {
+            Optional<CareerDocument> duplicate = documentRepository.findFirstByContentHash(staged.contentHash());
+            if (duplicate.isPresent()) {
+                log.warn("⚠️ Duplicate file upload attempted: {} (same content as document {})",
+                        file.getOriginalFilename(), duplicate.get().getId());
+                throw new EntityExistsException("File '" + file.getOriginalFilename()
+                        + "' has the same content as '" + duplicate.get().getOriginalFilename() + "'");
+            }
+            storedFilename = documentStore.store(staged);
+        } finally {
+            documentStore.discard(staged);
         }
+        deleteFilesOnRollback(List.of(storedFilename));
 
-        // Save file to filesystem
-        Path filePath = uploadPath.resolve(storedFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        log.info("💾 File saved to: {}", filePath);
+        // Create database record, linked to the base test if provided
+        CareerDocument document = newDocument(storedFilename, file.getOriginalFilename(), staged,
+                findBaseTest(baseTestId), description, uploadedBy);
 
-        // Create database record
-        CareerDocument document = new CareerDocument();
-        document.setFilename(storedFilename);
-        document.setOriginalFilename(file.getOriginalFilename());
-        document.setFileType(fileExtension);
-        document.setFileSize(file.getSize());
-        document.setUploadedAt(LocalDateTime.now());
-        document.setUploadedBy(uploadedBy);
-        document.setDescription(description);
-        document.setIndexed(false);
-
-        // Link to base test if provided
-        if (baseTestId != null) {
-            BaseTest baseTest = baseTestRepository.findById(baseTestId)
-                .orElseThrow(() -> new IllegalArgumentException("BaseTest not found: " + baseTestId));
-            document.setBaseTest(baseTest);
+        CareerDocument savedDocument;
+        try {
+            savedDocument = documentRepository.saveAndFlush(document);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("⚠️ Duplicate file upload attempted: {} (same content uploaded concurrently)",
+                    file.getOriginalFilename());
+            throw new EntityExistsException("File '" + file.getOriginalFilename()
+                    + "' has the same content as a document uploaded at the same time");
         }
-
-        CareerDocument savedDocument = documentRepository.save(document);
         log.info("✅ Document saved to database with ID: {}", savedDocument.getId());
 
         // Trigger reindexing asynchronously
-        triggerReindex();
+        reindexAfterCommit(() -> searchService.indexLater(List.of(savedDocument.getId())));
 
         // 🆕 Convert to DTO using mapper
         return documentMapper.toDto(savedDocument);
     }
 
+    /**
+     * Import every document in a ZIP archive, with a single reindex for the whole import
+     *
+     * The archive is spooled to a temp file and read with ZipFile, so each entry is streamed on
+     * its own and the archive is never extracted into memory. Entries are validated and staged
+     * (hashed and size-checked while written) in parallel, de-duplicated against existing
+     * documents and each other, and saved in one transaction. Entry paths are only reported,
+     * never used as file paths: files are stored under their content hash.
+     *
+     * Spooling and staging are file I/O only and run before the transaction: a database connection
+     * is held just for de-duplicating and saving the staged entries.
+     *
+     * @throws EntityExistsException if some of the content was uploaded concurrently; nothing is imported
+     */
+    public DocumentImportResponse importArchive(
+        MultipartFile archive,
+        Long baseTestId,
+        String description,
+        String uploadedBy
+    ) throws IOException {
+
+        log.info("📦 Importing document archive: {}", archive.getOriginalFilename());
+
+        if (archive.isEmpty()) {
+            throw new IllegalArgumentException("Archive is empty");
+        }
+        if (!"zip".equalsIgnoreCase(getFileExtension(archive.getOriginalFilename()))) {
+            throw new IllegalArgumentException("Only ZIP archives can be imported");
+        }
+        if (baseTestId != null && !baseTestRepository.existsById(baseTestId)) {
+            throw new IllegalArgumentException("BaseTest not found: " + baseTestId);
+        }
+
+        Path archiveFile = Files.createTempFile("career-import-", ".zip");
+        List<ImportEntry> entries = new ArrayList<>();
+        try {
+            archive.transferTo(archiveFile);
+            try (ZipFile zip = new ZipFile(archiveFile.toFile())) {
+                entries.addAll(stageEntries(zip));
+            } catch (ZipException e) {
+                throw new IllegalArgumentException("Not a valid ZIP archive: " + e.getMessage());
+            }
+            return transactionTemplate.execute(status -> {
+                try {
+                    return saveImported(entries, findBaseTest(baseTestId), description, uploadedBy);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            // Stored entries were moved away already; this drops the rest
+            entries.stream()
+                .filter(entry -> entry.staged != null)
+                .forEach(entry -> documentStore.discard(entry.staged));
+            Files.deleteIfExists(archiveFile);
+        }
+    }
+
     /**
      * Delete a career document
      */
     @Transactional
-    public void deleteDocument(Long documentId) throws IOException {
+    public void deleteDocument(Long documentId) {
         log.info("🗑️  Deleting document ID: {}", documentId);
 
         CareerDocument document = documentRepository.findById(documentId)
             .orElseThrow(() -> new IllegalArgumentException("Document not found: " + documentId));
 
-        // Delete file from filesystem
-        Path filePath = Paths.get(documentsPath, document.getFilename());
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
-            log.info("💾 File deleted from filesystem: {}", filePath);
-        }
-
-        // Delete from database
+        // Delete from database; the file goes once that has committed
         documentRepository.delete(document);
         log.info("✅ Document deleted from database");
+        deleteFilesAfterCommit(List.of(document.getFilename()));
 
         // Trigger reindexing
-        triggerReindex();
+        reindexAfterCommit(() -> searchService.removeLater(List.of(documentId)));
     }
 
     /**
@@ -167,31 +243,244 @@ public class CareerDocumentService {
     }
 
     /**
-     * Trigger Python AI to reindex documents
+     * Ask for a reindex and update the search index once the upload or delete has committed, so
+     * both see the change. Triggers are debounced and merged by DocumentReindexScheduler and the
+     * search index is updated in the background; the request waits for neither.
      */
-    @Async
-    public void triggerReindex() {
+    private void reindexAfterCommit(Runnable searchUpdate) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindexScheduler.request();
+                    searchUpdate.run();
+                }
+            });
+        } else {
+            reindexScheduler.request();
+            searchUpdate.run();
+        }
+    }
+
+    /**
+     * Validate and stage the archive's files in parallel. Directories are left out; archive
+     * metadata is skipped and invalid entries rejected, each with its reason.
+     *
+     * At most importParallelism entries are staged at once: that many workers (the request thread
+     * being one) take entries from a shared queue, so a large archive never submits more than a few
+     * tasks to the shared executor. If the executor rejects a worker, the others do its share.
+     */
+    private List<ImportEntry> stageEntries(ZipFile zip) {
+        List<? extends ZipEntry> files = zip.stream()
+            .filter(zipEntry -> !zipEntry.isDirectory())
+            .toList();
+        if (files.size() > maxImportEntries) {
+            throw new IllegalArgumentException(String.format(
+                "Archive has %d files, at most %d can be imported at once", files.size(), maxImportEntries));
+        }
+
+        List<ImportEntry> entries = new ArrayList<>();
+        Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        for (ZipEntry zipEntry : files) {
+            ImportEntry entry = new ImportEntry(zipEntry.getName());
+            entries.add(entry);
+            if (entry.name.startsWith("__MACOSX/") || entry.filename.startsWith(".")) {
+                entry.finish(Outcome.SKIPPED, null, "Archive metadata");
+                continue;
+            }
+            pending.add(() -> stageEntry(zip, zipEntry, entry));
+        }
+
+        Runnable worker = () -> {
+            Runnable next;
+            while ((next = pending.poll()) != null) {
+                next.run();
+            }
+        };
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        int helpers = Math.min(importParallelism - 1, pending.size() - 1);
+        for (int i = 0; i < helpers; i++) {
+            try {
+                workers.add(CompletableFuture.runAsync(worker, applicationTaskExecutor));
+            } catch (RejectedExecutionException e) {
+                log.warn("⚠️  Executor busy, staging the archive with {} workers", workers.size() + 1);
+                break;
+            }
+        }
+        worker.run();
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        return entries;
+    }
+
+    private void stageEntry(ZipFile zip, ZipEntry zipEntry, ImportEntry entry) {
         try {
-            log.info("🔄 Triggering Python AI reindex...");
-            
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                aiServiceUrl + "/api/admin/reindex-documents",
-                null,
-                String.class
-            );
+            // Declared size may be missing (-1); the size actually read is checked while staging
+            validateFile(entry.filename, zipEntry.getSize());
+            try (InputStream in = zip.getInputStream(zipEntry)) {
+                entry.staged = documentStore.stage(in, getFileExtension(entry.filename), MAX_FILE_SIZE);
+            }
+            if (entry.staged.size() == 0) {
+                entry.finish(Outcome.REJECTED, null, "File is empty");
+            }
+        } catch (IllegalArgumentException e) {
+            entry.finish(Outcome.REJECTED, null, e.getMessage());
+        } catch (IOException e) {
+            entry.finish(Outcome.REJECTED, null, "Could not be read: " + e.getMessage());
+        }
+    }
 
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.info("✅ Reindex triggered successfully");
-                
-                // Mark all documents as indexed
-                documentRepository.updateAllIndexedStatus(true);
-            } else {
-                log.warn("⚠️  Reindex returned non-success status: {}", response.getStatusCode());
+    /**
+     * Store the staged entries that are new content and save them as documents in one go
+     */
+    private DocumentImportResponse saveImported(
+        List<ImportEntry> entries,
+        BaseTest baseTest,
+        String description,
+        String uploadedBy
+    ) throws IOException {
+        List<ImportEntry> candidates = entries.stream()
+            .filter(entry -> entry.outcome == null)
+            .toList();
+        Set<String> hashes = candidates.stream()
+            .map(entry -> entry.staged.contentHash())
+            .collect(Collectors.toSet());
+        Map<String, CareerDocument> existing = hashes.isEmpty() ? Map.of()
+            : documentRepository.findByContentHashIn(hashes).stream()
+                .collect(Collectors.toMap(CareerDocument::getContentHash, document -> document, (a, b) -> a));
+
+        Map<String, ImportEntry> firstByHash = new HashMap<>();
+        List<ImportEntry> accepted = new ArrayList<>();
+        List<CareerDocument> documents = new ArrayList<>();
+        List<String> storedFilenames = new ArrayList<>();
+        deleteFilesOnRollback(storedFilenames);
+        for (ImportEntry entry : candidates) {
+            String hash = entry.staged.contentHash();
+            CareerDocument duplicate = existing.get(hash);
+            if (duplicate != null) {
+                entry.finish(Outcome.DUPLICATE, duplicate.getId(),
+                        "Same content as '" + duplicate.getOriginalFilename() + "'");
+                continue;
+            }
+            ImportEntry earlier = firstByHash.putIfAbsent(hash, entry);
+            if (earlier != null) {
+                entry.finish(Outcome.DUPLICATE, null, "Same content as " + earlier.name);
+                continue;
             }
+            String storedFilename = documentStore.store(entry.staged);
+            storedFilenames.add(storedFilename);
+            documents.add(newDocument(storedFilename, entry.filename, entry.staged, baseTest, description, uploadedBy));
+            accepted.add(entry);
+        }
+
+        List<CareerDocument> saved;
+        try {
+            saved = documentRepository.saveAllAndFlush(documents);
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityExistsException("Some of the archive's documents were uploaded at the same time, "
+                    + "import it again to skip them");
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            accepted.get(i).finish(Outcome.IMPORTED, saved.get(i).getId(), null);
+        }
+
+        // One reindex for the whole archive
+        if (!saved.isEmpty()) {
+            List<Long> savedIds = saved.stream().map(CareerDocument::getId).toList();
+            reindexAfterCommit(() -> searchService.indexLater(savedIds));
+        }
 
-        } catch (Exception e) {
-            log.error("❌ Failed to trigger reindex: {}", e.getMessage(), e);
-            // Don't throw - document upload should succeed even if reindex fails
+        Map<Outcome, Long> counts = entries.stream()
+            .collect(Collectors.groupingBy(entry -> entry.outcome, Collectors.counting()));
+        DocumentImportResponse report = new DocumentImportResponse(
+            entries.size(),
+            counts.getOrDefault(Outcome.IMPORTED, 0L).intValue(),
+            counts.getOrDefault(Outcome.DUPLICATE, 0L).intValue(),
+            counts.getOrDefault(Outcome.REJECTED, 0L).intValue(),
+            counts.getOrDefault(Outcome.SKIPPED, 0L).intValue(),
+            entries.stream().map(ImportEntry::toResult).toList()
+        );
+        log.info("✅ Archive imported: {} new, {} duplicates, {} rejected, {} skipped",
+                report.getImported(), report.getDuplicates(), report.getRejected(), report.getSkipped());
+        return report;
+    }
+
+    private CareerDocument newDocument(
+        String storedFilename,
+        String originalFilename,
+        StagedFile staged,
+        BaseTest baseTest,
+        String description,
+        String uploadedBy
+    ) {
+        CareerDocument document = new CareerDocument();
+        document.setFilename(storedFilename);
+        document.setOriginalFilename(originalFilename);
+        document.setFileType(getFileExtension(originalFilename));
+        document.setFileSize(staged.size());
+        document.setContentHash(staged.contentHash());
+        document.setUploadedAt(LocalDateTime.now());
+        document.setUploadedBy(uploadedBy);
+        document.setDescription(description);
+        document.setIndexed(false);
+        document.setBaseTest(baseTest);
+        return document;
+    }
+
+    private BaseTest findBaseTest(Long baseTestId) {
+        if (baseTestId == null) {
+            return null;
+        }
+        return baseTestRepository.findById(baseTestId)
+            .orElseThrow(() -> new IllegalArgumentException("BaseTest not found: " + baseTestId));
+    }
+
+    /**
+     * The stored files belong to documents only once the upload commits, so they are removed again
+     * if it rolls back, unless a concurrent upload of the same content committed a document for them.
+     * The list is read then, so files may still be added to it.
+     */
+    private void deleteFilesOnRollback(List<String> storedFilenames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    deleteUnreferencedFiles(storedFilenames);
+                }
+            }
+        });
+    }
+
+    /**
+     * Delete the files of deleted documents once the delete commits, unless another document
+     * (with the same content) refers to them by then.
+     */
+    private void deleteFilesAfterCommit(List<String> storedFilenames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteUnreferencedFiles(storedFilenames);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteUnreferencedFiles(storedFilenames);
+            }
+        });
+    }
+
+    private void deleteUnreferencedFiles(List<String> storedFilenames) {
+        for (String storedFilename : storedFilenames) {
+            try {
+                if (documentRepository.existsByFilename(storedFilename)) {
+                    log.info("💾 File {} is still used by another document, keeping it", storedFilename);
+                } else if (documentStore.delete(storedFilename)) {
+                    log.info("💾 File deleted from filesystem: {}", storedFilename);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️  Could not delete file {}: {}", storedFilename, e.getMessage());
+            }
         }
     }
 
@@ -202,16 +491,19 @@ public class CareerDocumentService {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
+        validateFile(file.getOriginalFilename(), file.getSize());
+    }
 
-        // Check file size
-        if (file.getSize() > MAX_FILE_SIZE) {
+    private void validateFile(String filename, long size) {
+        // Check file size (the size actually read is checked again while storing)
+        if (size > MAX_FILE_SIZE) {
             throw new IllegalArgumentException(
                 String.format("File size exceeds maximum allowed size of %d MB", MAX_FILE_SIZE / (1024 * 1024))
             );
         }
 
         // Check file extension
-        String extension = getFileExtension(file.getOriginalFilename());
+        String extension = getFileExtension(filename);
         if (!ALLOWED_EXTENSIONS.contains(extension.toLowerCase())) {
             throw new IllegalArgumentException(
                 String.format("File type '%s' not allowed. Allowed types: %s", extension, ALLOWED_EXTENSIONS)
@@ -228,4 +520,32 @@ public class CareerDocumentService {
         }
         return filename.substring(filename.lastIndexOf(".") + 1);
     }
+
+    /**
+     * One file of an imported archive. Staging may run on another thread; the fields are read
+     * after the workers have been joined.
+     */
+    private static final class ImportEntry {
+        private final String name;
+        private final String filename;
+        private StagedFile staged;
+        private Outcome outcome;
+        private Long documentId;
+        private String reason;
+
+        private ImportEntry(String name) {
+            this.name = name;
+            this.filename = name.substring(name.lastIndexOf('/') + 1);
+        }
+
+        private void finish(Outcome outcome, Long documentId, String reason) {
+            this.outcome = outcome;
+            this.documentId = documentId;
+            this.reason = reason;
+        }
+
+        private EntryResult toResult() {
+            return new EntryResult(name, outcome, documentId, reason);
+        }
+    }
 }
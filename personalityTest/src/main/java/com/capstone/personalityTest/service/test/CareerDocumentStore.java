@@ -0,0 +1,131 @@
+package com.capstone.personalityTest.service.test;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+/**
+ * Content-addressed storage of career document files in the documents folder shared with the
+ * Python AI service.
+ *
+ * A file is ingested in one pass: it streams into a temp file in the documents folder while its
+ * SHA-256 and size are computed, and is then moved atomically to its content-addressed name
+ * (sha256.ext). The AI service never sees a partially written file under a document's name, and
+ * identical content always lands on the same name.
+ */
+@Component
+@Slf4j
+public class CareerDocumentStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TEMP_PREFIX = ".upload-";
+
+    @Value("${ai.documents.path}")
+    private String documentsPath;
+
+    /**
+     * A file written to a temp file and hashed, waiting to be stored or discarded
+     */
+    public record StagedFile(Path tempFile, String contentHash, long size, String extension) {
+
+        public String storedFilename() {
+            return extension.isEmpty() ? contentHash : contentHash + "." + extension;
+        }
+    }
+
+    /**
+     * Stream the content into a temp file, hashing and counting it on the way.
+     *
+     * @throws IllegalArgumentException if the content is larger than maxBytes (the temp file is removed)
+     */
+    public StagedFile stage(InputStream content, String extension, long maxBytes) throws IOException {
+        Path folder = folder();
+        Path tempFile = Files.createTempFile(folder, TEMP_PREFIX, ".tmp");
+        MessageDigest digest = ContentHash.newDigest();
+        long size = 0;
+        try (InputStream in = new DigestInputStream(content, digest);
+             OutputStream out = Files.newOutputStream(tempFile)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new IllegalArgumentException(
+                        String.format("File size exceeds maximum allowed size of %d MB", maxBytes / (1024 * 1024))
+                    );
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new StagedFile(tempFile, ContentHash.hex(digest), size, extension.toLowerCase());
+    }
+
+    /**
+     * Move a staged file to its content-addressed name.
+     * If that file already exists it has the same content, so the temp file is just dropped.
+     *
+     * @return the stored filename, relative to the documents folder
+     */
+    public String store(StagedFile staged) throws IOException {
+        String filename = staged.storedFilename();
+        Path target = resolve(filename);
+        try {
+            Files.move(staged.tempFile(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(staged.tempFile());
+        } catch (AtomicMoveNotSupportedException e) {
+            // Same folder, so this only happens on unusual file systems
+            Files.move(staged.tempFile(), target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        log.info("💾 File stored as: {}", target);
+        return filename;
+    }
+
+    /**
+     * Drop a staged file that will not be stored
+     */
+    public void discard(StagedFile staged) {
+        try {
+            Files.deleteIfExists(staged.tempFile());
+        } catch (IOException e) {
+            log.warn("⚠️  Could not delete temp file {}: {}", staged.tempFile(), e.getMessage());
+        }
+    }
+
+    /**
+     * Delete a stored file
+     *
+     * @return whether the file existed
+     */
+    public boolean delete(String filename) throws IOException {
+        return Files.deleteIfExists(resolve(filename));
+    }
+
+    public Path resolve(String filename) {
+        return Paths.get(documentsPath).resolve(filename);
+    }
+
+    private Path folder() throws IOException {
+        Path folder = Paths.get(documentsPath);
+        if (!Files.exists(folder)) {
+            Files.createDirectories(folder);
+            log.info("📁 Created upload directory: {}", folder);
+        }
+        return folder;
+    }
+}
@@ -0,0 +1,128 @@
+package com.capstone.personalityTest.service.test;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Code-level career guidance shared by every student with the same personality code.
+ *
+ * Career recommendations (RAG) and the base learning path depend only on the code and on the
+ * career documents, so once Python has generated them for "R-I-A" they are reused for the next
+ * "R-I-A" attempt and only jobs and the email are produced per student. Each entry carries the
+ * document-index version it was generated from; Python ignores an entry whose version no longer
+ * matches its index, and CareerDocumentService clears the whole cache when documents change.
+ *
+ * Bounded LRU with a time-to-live. A generation counter is bumped on every invalidation so a
+ * response that was in flight while documents changed is not stored afterwards.
+ */
+@Component
+@Slf4j
+public class CareerGuidanceCache {
+
+    /**
+     * Code-dependent part of a CompleteAIResponse
+     */
+    public record Guidance(String careerRecommendations, String learningPath, String indexVersion) {
+    }
+
+    private record Entry(Guidance guidance, long storedAt) {
+    }
+
+    /**
+     * Maximum number of personality codes kept (there are 120 ordered RIASEC top-3 codes)
+     */
+    @Value("${app.ai.guidance-cache.max-entries:256}")
+    private int maxEntries;
+
+    /**
+     * How long an entry is reused before it is regenerated, in milliseconds (0 disables caching)
+     */
+    @Value("${app.ai.guidance-cache.ttl-ms:86400000}")
+    private long ttlMs;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private long generation;
+
+    public CareerGuidanceCache() {
+        this(System::currentTimeMillis);
+    }
+
+    CareerGuidanceCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Current generation, to be passed back to {@link #put} once the AI response arrives.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * @return cached guidance for the code, or null if none or expired
+     */
+    public synchronized Guidance get(String personalityCode) {
+        if (personalityCode == null) {
+            return null;
+        }
+        Entry entry = entries.get(personalityCode);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt() >= ttlMs) {
+            entries.remove(personalityCode);
+            return null;
+        }
+        return entry.guidance();
+    }
+
+    /**
+     * Store guidance generated for a code. Ignored when the response is not reusable
+     * (no index version), when the cache was invalidated since {@code generation} was read,
+     * or when it is the guidance already cached (its storedAt is not refreshed).
+     */
+    public synchronized void put(String personalityCode, Guidance guidance, long generation) {
+        if (personalityCode == null || guidance == null || guidance.indexVersion() == null
+                || guidance.careerRecommendations() == null || guidance.learningPath() == null || ttlMs <= 0) {
+            return;
+        }
+        if (generation != this.generation) {
+            log.info("♻️  Not caching guidance for {} - documents changed meanwhile", personalityCode);
+            return;
+        }
+        Entry current = entries.get(personalityCode);
+        if (current != null && current.guidance().equals(guidance)) {
+            // The cached guidance echoed back: it keeps its age, the TTL bounds how old guidance gets
+            return;
+        }
+        entries.put(personalityCode, new Entry(guidance, clock.getAsLong()));
+    }
+
+    /**
+     * Drop all entries, called when career documents are added, removed or reindexed.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        if (!entries.isEmpty()) {
+            log.info("♻️  Career guidance cache cleared ({} codes)", entries.size());
+        }
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
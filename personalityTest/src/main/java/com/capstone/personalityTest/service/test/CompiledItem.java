@@ -0,0 +1,27 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+
+/**
+ * One answerable item of a compiled test: either a sub-question or a question answered directly.
+ *
+ * @param index         position of the item in the test's fixed item order
+ * @param subQuestionId null for question-level items
+ * @param targetGender  the sub-question's target for sub-question items, the question's otherwise
+ * @param metric        copy of the metric scored by the item (null for question-level items)
+ * @param metricSlot    slot of the metric in the test's MetricIndex, MetricIndex.NONE if not scored
+ */
+public record CompiledItem(
+        int index,
+        Long sectionId,
+        Long questionId,
+        String questionText,
+        Long subQuestionId,
+        String subQuestionText,
+        AnswerType answerType,
+        TargetGender targetGender,
+        CompiledMetric metric,
+        int metricSlot
+) {
+}
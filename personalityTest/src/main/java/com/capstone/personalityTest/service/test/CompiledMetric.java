@@ -0,0 +1,38 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.testm.Test.BaseTest;
+import com.capstone.personalityTest.model.testm.Test.Metric;
+
+/**
+ * Immutable copy of the Metric scored by a compiled item. Compiled tests are shared by every request,
+ * so they keep these values instead of the entity, which belongs to the persistence context it was loaded in.
+ */
+public record CompiledMetric(
+        Long id,
+        String code,
+        String label,
+        String description,
+        Long baseTestId,
+        String baseTestCode,
+        String baseTestType
+) {
+
+    public static CompiledMetric of(Metric metric) {
+        if (metric == null) {
+            return null;
+        }
+        BaseTest baseTest = metric.getBaseTest();
+        return new CompiledMetric(metric.getId(), metric.getCode(), metric.getLabel(), metric.getDescription(),
+                baseTest != null ? baseTest.getId() : null,
+                baseTest != null ? baseTest.getCode() : null,
+                baseTest != null ? baseTest.getType() : null);
+    }
+
+    /**
+     * A new, unmanaged Metric for response DTOs, which expose the entity type
+     */
+    public Metric toMetric() {
+        BaseTest baseTest = baseTestId != null ? new BaseTest(baseTestId, baseTestCode, baseTestType) : null;
+        return new Metric(id, code, label, description, baseTest);
+    }
+}
@@ -0,0 +1,67 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.SectionResponse;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-filtered view of a published test.
+ * Built once by CompiledTestCache and shared by every attempt on that test,
+ * so starting an attempt never walks the Section -> Question -> SubQuestion graph.
+ *
+ * @param sectionsByGender section tree already filtered for MALE, FEMALE and ALL
+ *                         (ALL = only the items targeted at everyone)
+ * @param items            every answerable item in section/question/sub-question order,
+ *                         one question-level item per question followed by its sub-questions
+ * @param metricIndex      metrics scored by this test: the base test's metrics, then any other metric
+ *                         referenced by a sub-question
+ * @param requiredItemsByGender items a student of each gender must answer before finalizing, in item order
+ */
+public record CompiledTest(
+        Long testId,
+        String title,
+        String description,
+        Map<TargetGender, List<SectionResponse>> sectionsByGender,
+        List<CompiledItem> items,
+        Map<Long, CompiledItem> questionItems,
+        Map<Long, CompiledItem> subQuestionItems,
+        MetricIndex metricIndex,
+        Map<TargetGender, List<CompiledItem>> requiredItemsByGender
+) {
+
+    /**
+     * Sections visible to a student of the given gender.
+     * A student without a gender only sees items targeted at ALL.
+     */
+    public List<SectionResponse> sectionsFor(TargetGender gender) {
+        return sectionsByGender.get(gender == null ? TargetGender.ALL : gender);
+    }
+
+    /**
+     * Items a student of the given gender has to answer: every visible sub-question,
+     * or the question itself when none of its sub-questions is visible.
+     */
+    public List<CompiledItem> requiredItems(TargetGender gender) {
+        return requiredItemsByGender.get(gender == null ? TargetGender.ALL : gender);
+    }
+
+    public int requiredItemCount(TargetGender gender) {
+        return requiredItems(gender).size();
+    }
+
+    /**
+     * Resolve the item an answer targets.
+     *
+     * @return the item, or null if the question is not part of this test
+     *         or the sub-question does not belong to the question
+     */
+    public CompiledItem item(Long questionId, Long subQuestionId) {
+        if (subQuestionId == null) {
+            return questionItems.get(questionId);
+        }
+        CompiledItem item = subQuestionItems.get(subQuestionId);
+        return item != null && item.questionId().equals(questionId) ? item : null;
+    }
+}
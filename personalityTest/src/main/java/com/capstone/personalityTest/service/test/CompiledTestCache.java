@@ -0,0 +1,293 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.QuestionResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.SectionResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.SubQuestionResponse;
+import com.capstone.personalityTest.mapper.TestMapper.QuestionMapper;
+import com.capstone.personalityTest.mapper.TestMapper.SubQuestionMapper;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+import com.capstone.personalityTest.model.Enum.TestStatus;
+import com.capstone.personalityTest.model.testm.Test.Metric;
+import com.capstone.personalityTest.model.testm.Test.Question;
+import com.capstone.personalityTest.model.testm.Test.Section;
+import com.capstone.personalityTest.model.testm.Test.SubQuestion;
+import com.capstone.personalityTest.model.testm.Test.Test;
+import com.capstone.personalityTest.repository.test.TestRepo.MetricRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of compiled (immutable, gender-filtered) test definitions.
+ *
+ * Published tests are locked against edits, so a compiled tree stays valid until the
+ * test is deactivated. Entries are built when a test is published/activated (or lazily
+ * on the first startTest after a restart) and evicted on deactivation or versioning.
+ *
+ * Published tests that are not active are kept apart: they cannot be started (get ignores them),
+ * but attempts, rescoring and ML jobs on them still need the compiled tree, and keeping the same
+ * instance lets per-compilation caches (ModelServiceClient.featureSchema) hold. Drafts can still
+ * be edited and are compiled on every call.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CompiledTestCache {
+
+    private final QuestionMapper questionMapper;
+    private final SubQuestionMapper subQuestionMapper;
+    private final MetricRepository metricRepository;
+
+    private final Map<Long, CompiledTest> compiledTests = new ConcurrentHashMap<>();
+    private final Map<Long, CompiledTest> inactiveTests = new ConcurrentHashMap<>();
+
+    /**
+     * @return the compiled test, or null if the test is not cached (not active, or not compiled yet)
+     */
+    public CompiledTest get(Long testId) {
+        return compiledTests.get(testId);
+    }
+
+    /**
+     * Compile a test. The result is cached when the test is published: with the startable tests
+     * when it is active, with the inactive ones otherwise.
+     */
+    public CompiledTest compile(Test test) {
+        CompiledTest compiled = buildCompiledTest(test);
+        if (isAvailable(test)) {
+            inactiveTests.remove(test.getId());
+            compiledTests.put(test.getId(), compiled);
+            log.info("Compiled test {} cached", test.getId());
+        } else if (test.getStatus() == TestStatus.PUBLISHED) {
+            compiledTests.remove(test.getId());
+            inactiveTests.put(test.getId(), compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiled structure for a test that may no longer be cached (e.g. an in-progress attempt
+     * on a test that was deactivated meanwhile).
+     */
+    public CompiledTest getOrCompile(Test test) {
+        CompiledTest compiled = compiledTests.get(test.getId());
+        if (compiled == null) {
+            compiled = inactiveTests.get(test.getId());
+        }
+        return compiled != null ? compiled : compile(test);
+    }
+
+    /**
+     * Re-evaluate a test after a status change, once the surrounding transaction commits:
+     * cache it if it can be started, evict it otherwise. A rolled back change leaves the cache as it was.
+     */
+    public void refresh(Test test) {
+        boolean available = isAvailable(test);
+        afterCommit(() -> {
+            if (available) {
+                compile(test);
+            } else {
+                evict(test.getId());
+            }
+        });
+    }
+
+    /**
+     * Stop offering a test to students. Its compiled tree is kept with the inactive tests.
+     */
+    public void evict(Long testId) {
+        CompiledTest compiled = compiledTests.remove(testId);
+        if (compiled != null) {
+            inactiveTests.put(testId, compiled);
+            log.info("Compiled test {} evicted", testId);
+        }
+    }
+
+    /**
+     * Drop every compiled test, e.g. after a metric label shared by published tests changed.
+     */
+    public void clear() {
+        compiledTests.clear();
+        inactiveTests.clear();
+    }
+
+    /**
+     * Visibility rule shared by startTest and finalizeAttempt.
+     */
+    public static boolean isVisible(TargetGender target, TargetGender studentGender) {
+        return target == TargetGender.ALL || target == studentGender;
+    }
+
+    private boolean isAvailable(Test test) {
+        return test.getStatus() == TestStatus.PUBLISHED && test.isActive();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private CompiledTest buildCompiledTest(Test test) {
+        Map<TargetGender, List<SectionResponse>> sectionsByGender = new EnumMap<>(TargetGender.class);
+        for (TargetGender gender : TargetGender.values()) {
+            sectionsByGender.put(gender, compileSections(test.getSections(), gender));
+        }
+
+        MetricIndex metricIndex = compileMetricIndex(test);
+        List<CompiledItem> items = compileItems(test.getSections(), metricIndex);
+
+        Map<TargetGender, List<CompiledItem>> requiredItemsByGender = new EnumMap<>(TargetGender.class);
+        for (TargetGender gender : TargetGender.values()) {
+            requiredItemsByGender.put(gender, compileRequiredItems(items, gender));
+        }
+        Map<Long, CompiledItem> questionItems = new HashMap<>();
+        Map<Long, CompiledItem> subQuestionItems = new HashMap<>();
+        for (CompiledItem item : items) {
+            if (item.subQuestionId() == null) {
+                questionItems.put(item.questionId(), item);
+            } else {
+                subQuestionItems.put(item.subQuestionId(), item);
+            }
+        }
+
+        return new CompiledTest(
+                test.getId(),
+                test.getTitle(),
+                test.getDescription(),
+                Collections.unmodifiableMap(sectionsByGender),
+                List.copyOf(items),
+                Map.copyOf(questionItems),
+                Map.copyOf(subQuestionItems),
+                metricIndex,
+                Collections.unmodifiableMap(requiredItemsByGender)
+        );
+    }
+
+    private MetricIndex compileMetricIndex(Test test) {
+        LinkedHashSet<String> codes = new LinkedHashSet<>();
+        if (test.getBaseTest() != null) {
+            for (Metric metric : metricRepository.findByBaseTestId(test.getBaseTest().getId())) {
+                codes.add(metric.getCode());
+            }
+        }
+        for (Section section : test.getSections()) {
+            for (Question question : section.getQuestions()) {
+                for (SubQuestion subQuestion : question.getSubQuestions()) {
+                    if (subQuestion.getMetric() != null && subQuestion.getMetric().getCode() != null) {
+                        codes.add(subQuestion.getMetric().getCode());
+                    }
+                }
+            }
+        }
+        return MetricIndex.of(codes);
+    }
+
+    // Same rule finalizeAttempt always used: visible sub-questions count individually,
+    // a visible question without visible sub-questions counts once
+    private List<CompiledItem> compileRequiredItems(List<CompiledItem> items, TargetGender gender) {
+        List<CompiledItem> required = new ArrayList<>();
+        int i = 0;
+        while (i < items.size()) {
+            CompiledItem questionItem = items.get(i++); // items are a question followed by its sub-questions
+
+            List<CompiledItem> visibleSubs = new ArrayList<>();
+            while (i < items.size() && items.get(i).subQuestionId() != null) {
+                CompiledItem subItem = items.get(i++);
+                if (isVisible(subItem.targetGender(), gender)) {
+                    visibleSubs.add(subItem);
+                }
+            }
+
+            if (!isVisible(questionItem.targetGender(), gender)) continue;
+            if (visibleSubs.isEmpty()) {
+                required.add(questionItem);
+            } else {
+                required.addAll(visibleSubs);
+            }
+        }
+        return List.copyOf(required);
+    }
+
+    private List<CompiledItem> compileItems(List<Section> sections, MetricIndex metricIndex) {
+        List<CompiledItem> items = new ArrayList<>();
+        for (Section section : sections) {
+            for (Question question : section.getQuestions()) {
+                items.add(new CompiledItem(items.size(), section.getId(), question.getId(),
+                        question.getQuestionText(), null, null,
+                        question.getAnswerType(), question.getTargetGender(), null, MetricIndex.NONE));
+
+                for (SubQuestion subQuestion : question.getSubQuestions()) {
+                    items.add(new CompiledItem(items.size(), section.getId(), question.getId(),
+                            question.getQuestionText(), subQuestion.getId(), subQuestion.getSubQuestionText(),
+                            question.getAnswerType(), subQuestion.getTargetGender(), CompiledMetric.of(subQuestion.getMetric()),
+                            subQuestion.getMetric() != null ? metricIndex.slotOf(subQuestion.getMetric().getCode()) : MetricIndex.NONE));
+                }
+            }
+        }
+        return items;
+    }
+
+    // Builds new DTOs instead of filtering the managed entities in place
+    private List<SectionResponse> compileSections(List<Section> sections, TargetGender gender) {
+        List<SectionResponse> result = new ArrayList<>(sections.size());
+        for (Section section : sections) {
+            List<QuestionResponse> questions = section.getQuestions().stream()
+                    .filter(q -> isVisible(q.getTargetGender(), gender))
+                    .map(q -> compileQuestion(q, gender))
+                    .toList();
+
+            result.add(new SectionResponse(section.getId(), section.getTitle(), questions));
+        }
+        return List.copyOf(result);
+    }
+
+    private QuestionResponse compileQuestion(Question question, TargetGender gender) {
+        QuestionResponse response = questionMapper.toDto(question);
+
+        List<SubQuestion> visibleSubQuestions = question.getSubQuestions().stream()
+                .filter(sq -> isVisible(sq.getTargetGender(), gender))
+                .toList();
+
+        if (visibleSubQuestions.isEmpty()) {
+            response.setGroupedSubQuestions(null);
+        } else {
+            Map<String, List<SubQuestionResponse>> grouped = visibleSubQuestions.stream()
+                    .map(this::compileSubQuestion)
+                    .filter(sq -> sq.getMetric() != null)
+                    .collect(Collectors.groupingBy(
+                            sq -> sq.getMetric().getCode(),
+                            Collectors.collectingAndThen(Collectors.toList(), List::copyOf)
+                    ));
+            response.setGroupedSubQuestions(Collections.unmodifiableMap(grouped));
+        }
+        return response;
+    }
+
+    // The DTO gets its own copy of the metric: the cached tree must not hold managed entities
+    private SubQuestionResponse compileSubQuestion(SubQuestion subQuestion) {
+        SubQuestionResponse response = subQuestionMapper.toDto(subQuestion);
+        CompiledMetric metric = CompiledMetric.of(response.getMetric());
+        response.setMetric(metric != null ? metric.toMetric() : null);
+        return response;
+    }
+}
@@ -0,0 +1,355 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.DocumentIndexManifest;
+import com.capstone.personalityTest.dto.DocumentIndexResponse;
+import com.capstone.personalityTest.dto.RequestDTO.test.DocumentIndexRequest;
+import com.capstone.personalityTest.dto.RequestDTO.test.DocumentIndexRequest.DocumentRef;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.ReindexStatusResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.ReindexStatusResponse.State;
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import com.capstone.personalityTest.model.testm.CareerDocument;
+import com.capstone.personalityTest.repository.test.CareerDocumentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debounced, coalescing, incremental reindex of the career documents by the Python AI service.
+ *
+ * Every reindex diffs all documents against the index and costs a round trip to the AI service,
+ * so triggers are merged: a trigger schedules a reindex debounce-ms later, and each further trigger
+ * within that window pushes it back (never past max-delay-ms after the first one). Uploading 30
+ * documents in a row costs one reindex, which embeds the 30 new documents together.
+ *
+ * Reindexes run one at a time on a dedicated thread, off the request threads. Triggers that
+ * arrive while one is running queue exactly one more reindex behind it, since the running one
+ * may already have listed the files. Status and duration are kept in memory (per instance).
+ *
+ * A reindex only sends the delta: documents are diffed by content hash against the manifest of the
+ * AI service's index, and only added, changed and removed documents are (re-)embedded or dropped.
+ * Each document records the hash and index generation it was last indexed with.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentReindexScheduler {
+
+    private final RestTemplate documentRestTemplate; // pooled client rooted at ai.service.url (ServiceClientConfig)
+    private final CareerDocumentRepository documentRepository;
+    private final CareerGuidanceCache careerGuidanceCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ai.documents.path}")
+    private String documentsPath;
+
+    /**
+     * Quiet period after the last trigger before the reindex starts
+     */
+    @Value("${app.documents.reindex.debounce-ms:5000}")
+    private long debounceMs = 5000;
+
+    /**
+     * Longest a trigger waits for its reindex while triggers keep coming
+     */
+    @Value("${app.documents.reindex.max-delay-ms:60000}")
+    private long maxDelayMs = 60000;
+
+    private final ScheduledExecutorService runner = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "docs-reindex");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Scheduler state, guarded by this
+    private State state = State.IDLE;
+    private boolean queued;
+    private int pendingRequests;
+    private long firstPendingAt;
+    private long nextRunAt;
+    private long runningSince;
+    private long scheduleId;
+    private ScheduledFuture<?> scheduled;
+    private long totalRequests;
+    private long totalRuns;
+    private Long indexGeneration;
+
+    // Last finished reindex, guarded by this
+    private JobStatus lastStatus;
+    private int lastCoalescedRequests;
+    private LocalDateTime lastStartedAt;
+    private LocalDateTime lastFinishedAt;
+    private Long lastDurationMs;
+    private IndexDelta lastDelta;
+    private String lastError;
+
+    /**
+     * What one reindex changed
+     */
+    record IndexDelta(int upserted, int removed, int failed, long generation) {
+    }
+
+    /**
+     * Ask for a reindex after the debounce window, merged with other triggers.
+     */
+    public synchronized ReindexStatusResponse request() {
+        return request(debounceMs);
+    }
+
+    /**
+     * Ask for a reindex as soon as possible (manual trigger); still never runs two at once.
+     */
+    public synchronized ReindexStatusResponse requestNow() {
+        return request(0);
+    }
+
+    public synchronized ReindexStatusResponse status() {
+        return new ReindexStatusResponse(
+                state,
+                queued,
+                pendingRequests,
+                state == State.SCHEDULED ? toDateTime(nextRunAt) : null,
+                state == State.RUNNING ? toDateTime(runningSince) : null,
+                totalRequests,
+                totalRuns,
+                indexGeneration,
+                lastStatus,
+                lastCoalescedRequests,
+                lastStartedAt,
+                lastFinishedAt,
+                lastDurationMs,
+                lastDelta != null ? lastDelta.upserted() : 0,
+                lastDelta != null ? lastDelta.removed() : 0,
+                lastDelta != null ? lastDelta.failed() : 0,
+                lastError
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private ReindexStatusResponse request(long delayMs) {
+        long now = System.currentTimeMillis();
+        totalRequests++;
+        pendingRequests++;
+
+        switch (state) {
+            case RUNNING -> queued = true;
+            case IDLE -> {
+                firstPendingAt = now;
+                schedule(now, delayMs);
+            }
+            case SCHEDULED -> {
+                // Push the window back, but not past max-delay-ms after the first trigger
+                long latest = firstPendingAt + maxDelayMs;
+                long runAt = Math.min(now + delayMs, Math.max(latest, now));
+                if (runAt != nextRunAt) {
+                    scheduled.cancel(false);
+                    schedule(now, runAt - now);
+                }
+            }
+        }
+        return status();
+    }
+
+    private void schedule(long now, long delayMs) {
+        long id = ++scheduleId;
+        state = State.SCHEDULED;
+        nextRunAt = now + delayMs;
+        scheduled = runner.schedule(() -> run(id), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(long id) {
+        int coalesced;
+        long startedAt;
+        synchronized (this) {
+            if (state != State.SCHEDULED || id != scheduleId) {
+                return; // superseded by a later schedule
+            }
+            state = State.RUNNING;
+            coalesced = pendingRequests;
+            pendingRequests = 0;
+            startedAt = System.currentTimeMillis();
+            runningSince = startedAt;
+        }
+
+        log.info("🔄 Reindexing career documents ({} trigger(s) merged)...", coalesced);
+        String error = null;
+        IndexDelta delta = null;
+        try {
+            delta = reindex();
+            if (delta.failed() > 0) {
+                error = delta.failed() + " document(s) could not be indexed";
+            }
+        } catch (Exception e) {
+            error = e.getMessage();
+            log.error("❌ Reindex failed: {}", e.getMessage(), e);
+        }
+        long durationMs = System.currentTimeMillis() - startedAt;
+
+        synchronized (this) {
+            totalRuns++;
+            lastStatus = error == null ? JobStatus.COMPLETED : JobStatus.FAILED;
+            lastCoalescedRequests = coalesced;
+            lastStartedAt = toDateTime(startedAt);
+            lastFinishedAt = LocalDateTime.now();
+            lastDurationMs = durationMs;
+            lastDelta = delta;
+            lastError = error;
+            if (delta != null) {
+                indexGeneration = delta.generation();
+            }
+
+            if (queued) {
+                queued = false;
+                long now = System.currentTimeMillis();
+                firstPendingAt = now;
+                schedule(now, debounceMs);
+            } else {
+                state = State.IDLE;
+            }
+        }
+        if (error == null) {
+            log.info("✅ Reindex completed in {} ms", durationMs);
+        }
+    }
+
+    /**
+     * One incremental reindex: diff the documents against the AI service's manifest, send the
+     * delta, then record per document what was indexed. Cached career guidance was generated from
+     * the old documents, so it is dropped when anything changes.
+     */
+    private IndexDelta reindex() {
+        DocumentIndexManifest manifest = documentRestTemplate.getForObject(
+            "/api/admin/documents/index-manifest",
+            DocumentIndexManifest.class
+        );
+        Map<Long, String> inIndex = manifest != null && manifest.getDocuments() != null
+                ? manifest.getDocuments() : Map.of();
+        long generation = manifest != null ? manifest.getGeneration() : 0;
+
+        List<CareerDocument> documents = documentRepository.findAll();
+        List<DocumentRef> upserts = new ArrayList<>();
+        Set<Long> present = new HashSet<>();
+        for (CareerDocument document : documents) {
+            present.add(document.getId());
+            String hash = contentHash(document);
+            if (hash != null && !hash.equals(inIndex.get(document.getId()))) {
+                upserts.add(new DocumentRef(document.getId(), document.getFilename(), hash));
+            }
+        }
+        List<DocumentRef> removed = inIndex.entrySet().stream()
+                .filter(entry -> !present.contains(entry.getKey()))
+                .map(entry -> new DocumentRef(entry.getKey(), null, entry.getValue()))
+                .toList();
+
+        if (upserts.isEmpty() && removed.isEmpty()) {
+            log.info("✅ Index already up to date (generation {})", generation);
+            markIndexed(inIndex, generation);
+            return new IndexDelta(0, 0, 0, generation);
+        }
+
+        careerGuidanceCache.invalidate();
+        log.info("📡 Sending index delta: {} added/changed, {} removed", upserts.size(), removed.size());
+        ResponseEntity<DocumentIndexResponse> response = documentRestTemplate.postForEntity(
+            "/api/admin/reindex-documents",
+            new DocumentIndexRequest(upserts, removed),
+            DocumentIndexResponse.class
+        );
+        DocumentIndexResponse result = response.getBody();
+        if (!response.getStatusCode().is2xxSuccessful() || result == null) {
+            throw new IllegalStateException("Reindex returned " + response.getStatusCode());
+        }
+
+        Map<Long, String> nowIndexed = new HashMap<>(inIndex);
+        removed.forEach(ref -> nowIndexed.remove(ref.getDocumentId()));
+        Set<Long> indexedIds = new HashSet<>(result.getIndexed() != null ? result.getIndexed() : List.of());
+        for (DocumentRef ref : upserts) {
+            if (indexedIds.contains(ref.getDocumentId())) {
+                nowIndexed.put(ref.getDocumentId(), ref.getContentHash());
+            }
+        }
+        markIndexed(nowIndexed, result.getGeneration());
+
+        Map<Long, String> failed = result.getFailed() != null ? result.getFailed() : Map.of();
+        failed.forEach((id, reason) -> log.warn("⚠️  Document {} not indexed: {}", id, reason));
+        log.info("📚 Index generation {}: {} chunks added, {} removed",
+                result.getGeneration(), result.getChunksAdded(), result.getChunksRemoved());
+        return new IndexDelta(indexedIds.size(), removed.size(), failed.size(), result.getGeneration());
+    }
+
+    /**
+     * Record per document whether its current content is the indexed one. Documents indexed
+     * by this reindex (or before) get the hash and generation; changed ones stay unindexed.
+     */
+    private void markIndexed(Map<Long, String> indexedHashes, long generation) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (CareerDocument document : documentRepository.findAll()) {
+                String indexedHash = indexedHashes.get(document.getId());
+                boolean indexed = indexedHash != null && indexedHash.equals(document.getContentHash());
+                if (indexedHash != null && !indexedHash.equals(document.getIndexedHash())) {
+                    document.setIndexedHash(indexedHash);
+                    document.setIndexedGeneration(generation);
+                }
+                document.setIndexed(indexed);
+            }
+        });
+    }
+
+    /**
+     * Content hash of the document, computed from the stored file for documents uploaded
+     * before hashing. null if the file is missing.
+     */
+    private String contentHash(CareerDocument document) {
+        if (document.getContentHash() != null) {
+            return document.getContentHash();
+        }
+        Path file = Paths.get(documentsPath, document.getFilename());
+        try {
+            String hash = ContentHash.of(file);
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        documentRepository.findById(document.getId()).ifPresent(stored -> {
+                            stored.setContentHash(hash);
+                            documentRepository.saveAndFlush(stored);
+                        }));
+                document.setContentHash(hash);
+            } catch (DataIntegrityViolationException e) {
+                // Hashes are unique: a copy of another document stays unhashed, but is still indexed
+                log.warn("⚠️  Document {} has the same content as another document", document.getId());
+            }
+            return hash;
+        } catch (IOException e) {
+            log.warn("⚠️  Cannot hash document {} ({}): {}", document.getId(), file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static LocalDateTime toDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,294 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.service.test.DocumentSearchSegment.SegmentDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over career document text on local disk, ranked with BM25.
+ *
+ * Documents are added in batches, each written as a new immutable segment; a document that is
+ * indexed again or removed just stops being live in its old segment. The manifest (JSON) lists
+ * the segments and, per live document, the segment holding it and the content hash it was
+ * indexed from, so the index survives restarts without a rebuild and can be reconciled against
+ * the database. Once there are more than maxSegments segments they are merged into one, which
+ * also drops dead postings.
+ *
+ * Searches read an immutable snapshot and never block; writes are serialized. Files of merged
+ * segments are deleted when replaced; their mappings are released by the GC.
+ */
+@Slf4j
+public class DocumentSearchIndex {
+
+    private static final String MANIFEST_FILE = "manifest.json";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // BM25 parameters (the usual defaults)
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * Where a live document is indexed. complete = false if only its name and description were
+     * indexed because its text could not be extracted.
+     */
+    public record IndexedEntry(String segment, String contentHash, boolean complete, int length) {
+    }
+
+    /**
+     * A document to index
+     */
+    public record IndexDocument(long documentId, String contentHash, boolean complete, List<String> terms) {
+    }
+
+    public record Hit(long documentId, double score) {
+    }
+
+    public record Hits(int total, List<Hit> top) {
+    }
+
+    record Manifest(long generation, List<String> segments, Map<Long, IndexedEntry> documents) {
+    }
+
+    private record Snapshot(List<DocumentSearchSegment> segments, Map<Long, IndexedEntry> documents, long totalLength) {
+    }
+
+    private final Path directory;
+    private final int maxSegments;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Snapshot snapshot;
+    private long generation;
+
+    private DocumentSearchIndex(Path directory, int maxSegments) {
+        this.directory = directory;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Open the index in this directory, or start an empty one. A damaged index is discarded
+     * (logged); reconciliation then rebuilds it.
+     */
+    public static DocumentSearchIndex open(Path directory, int maxSegments) throws IOException {
+        Files.createDirectories(directory);
+        DocumentSearchIndex index = new DocumentSearchIndex(directory, maxSegments);
+        index.load();
+        return index;
+    }
+
+    public Map<Long, IndexedEntry> documents() {
+        return snapshot.documents();
+    }
+
+    public int segmentCount() {
+        return snapshot.segments().size();
+    }
+
+    /**
+     * Index the documents as one new segment, replacing earlier versions of them
+     */
+    public synchronized void add(Collection<IndexDocument> documents) throws IOException {
+        if (documents.isEmpty()) {
+            return;
+        }
+        Snapshot current = snapshot;
+        String name = nextSegmentName();
+        List<SegmentDocument> segmentDocuments = new ArrayList<>();
+        Map<Long, IndexedEntry> live = new HashMap<>(current.documents());
+        Map<Long, IndexDocument> latest = new LinkedHashMap<>();
+        documents.forEach(document -> latest.put(document.documentId(), document));
+        for (IndexDocument document : latest.values()) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            document.terms().forEach(term -> frequencies.merge(term, 1, Integer::sum));
+            segmentDocuments.add(new SegmentDocument(document.documentId(), frequencies, document.terms().size()));
+            live.put(document.documentId(),
+                    new IndexedEntry(name, document.contentHash(), document.complete(), document.terms().size()));
+        }
+        DocumentSearchSegment.write(directory.resolve(name), segmentDocuments);
+
+        List<DocumentSearchSegment> segments = new ArrayList<>(current.segments());
+        segments.add(DocumentSearchSegment.open(directory.resolve(name)));
+        commit(segments, live);
+    }
+
+    /**
+     * Drop the documents from the index
+     */
+    public synchronized void remove(Collection<Long> documentIds) throws IOException {
+        Snapshot current = snapshot;
+        Map<Long, IndexedEntry> live = new HashMap<>(current.documents());
+        if (!live.keySet().removeAll(documentIds)) {
+            return;
+        }
+        commit(current.segments(), live);
+    }
+
+    /**
+     * Rank the live documents containing any of the query's terms
+     */
+    public Hits search(String query, int limit) {
+        Snapshot current = snapshot;
+        Set<String> terms = new LinkedHashSet<>(DocumentSearchTokenizer.tokenize(query));
+        int documentCount = current.documents().size();
+        if (terms.isEmpty() || documentCount == 0) {
+            return new Hits(0, List.of());
+        }
+        double averageLength = Math.max(1.0, (double) current.totalLength() / documentCount);
+
+        Map<Long, Double> scores = new HashMap<>();
+        List<long[]> matches = new ArrayList<>();  // (document id, frequency, length) of the current term
+        for (String term : terms) {
+            matches.clear();
+            for (DocumentSearchSegment segment : current.segments()) {
+                int termIndex = segment.find(term);
+                if (termIndex < 0) {
+                    continue;
+                }
+                for (int p = 0, n = segment.postingCount(termIndex); p < n; p++) {
+                    int ordinal = segment.postingOrdinal(termIndex, p);
+                    long documentId = segment.documentId(ordinal);
+                    IndexedEntry entry = current.documents().get(documentId);
+                    if (entry != null && entry.segment().equals(segment.name())) {
+                        matches.add(new long[]{documentId, segment.postingFrequency(termIndex, p), segment.length(ordinal)});
+                    }
+                }
+            }
+            int df = matches.size();
+            double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            for (long[] match : matches) {
+                double tf = match[1];
+                double norm = K1 * (1 - B + B * match[2] / averageLength);
+                scores.merge(match[0], idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+            }
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        scores.forEach((documentId, score) -> {
+            top.add(new Hit(documentId, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::documentId));
+        return new Hits(scores.size(), ranked);
+    }
+
+    /**
+     * Merge if needed, persist the manifest, publish the snapshot, delete unreferenced segments
+     */
+    private void commit(List<DocumentSearchSegment> segments, Map<Long, IndexedEntry> live) throws IOException {
+        // Segments without live documents are dropped right away
+        Set<String> used = new HashSet<>();
+        live.values().forEach(entry -> used.add(entry.segment()));
+        segments = new ArrayList<>(segments.stream().filter(segment -> used.contains(segment.name())).toList());
+
+        if (segments.size() > maxSegments) {
+            String merged = nextSegmentName();
+            DocumentSearchSegment.write(directory.resolve(merged), liveDocuments(segments, live));
+            segments = new ArrayList<>(List.of(DocumentSearchSegment.open(directory.resolve(merged))));
+            live.replaceAll((documentId, entry) ->
+                    new IndexedEntry(merged, entry.contentHash(), entry.complete(), entry.length()));
+            log.info("🗂️  Merged search index into {} ({} documents)", merged, live.size());
+        }
+
+        List<String> names = segments.stream().map(DocumentSearchSegment::name).toList();
+        Path manifest = directory.resolve(MANIFEST_FILE);
+        Path temp = directory.resolve(MANIFEST_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), new Manifest(generation, names, live));
+        Files.move(temp, manifest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        long totalLength = live.values().stream().mapToLong(IndexedEntry::length).sum();
+        snapshot = new Snapshot(List.copyOf(segments), Map.copyOf(live), totalLength);
+        deleteUnreferenced(Set.copyOf(names));
+    }
+
+    /**
+     * Rebuild the live documents of these segments from their postings (for merging)
+     */
+    private static List<SegmentDocument> liveDocuments(List<DocumentSearchSegment> segments, Map<Long, IndexedEntry> live) {
+        Map<Long, Map<String, Integer>> frequencies = new HashMap<>();
+        for (DocumentSearchSegment segment : segments) {
+            for (int t = 0; t < segment.termCount(); t++) {
+                String term = null;
+                for (int p = 0, n = segment.postingCount(t); p < n; p++) {
+                    long documentId = segment.documentId(segment.postingOrdinal(t, p));
+                    IndexedEntry entry = live.get(documentId);
+                    if (entry == null || !entry.segment().equals(segment.name())) {
+                        continue;
+                    }
+                    if (term == null) {
+                        term = segment.term(t);
+                    }
+                    frequencies.computeIfAbsent(documentId, id -> new HashMap<>())
+                            .put(term, segment.postingFrequency(t, p));
+                }
+            }
+        }
+        List<SegmentDocument> documents = new ArrayList<>();
+        live.forEach((documentId, entry) -> documents.add(
+                new SegmentDocument(documentId, frequencies.getOrDefault(documentId, Map.of()), entry.length())));
+        return documents;
+    }
+
+    private void load() throws IOException {
+        Path manifestFile = directory.resolve(MANIFEST_FILE);
+        if (Files.exists(manifestFile)) {
+            try {
+                Manifest manifest = objectMapper.readValue(manifestFile.toFile(), Manifest.class);
+                List<DocumentSearchSegment> segments = new ArrayList<>();
+                for (String name : manifest.segments()) {
+                    segments.add(DocumentSearchSegment.open(directory.resolve(name)));
+                }
+                generation = manifest.generation();
+                long totalLength = manifest.documents().values().stream().mapToLong(IndexedEntry::length).sum();
+                snapshot = new Snapshot(List.copyOf(segments), Map.copyOf(manifest.documents()), totalLength);
+                deleteUnreferenced(Set.copyOf(manifest.segments()));
+                log.info("🔎 Search index loaded: {} documents in {} segments", manifest.documents().size(), segments.size());
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️  Search index in {} is unreadable, starting empty: {}", directory, e.getMessage());
+            }
+        }
+        generation = 0;
+        snapshot = new Snapshot(List.of(), Map.of(), 0);
+        Files.deleteIfExists(manifestFile);
+        deleteUnreferenced(Set.of());
+    }
+
+    private String nextSegmentName() {
+        generation++;
+        return String.format("seg-%08d%s", generation, SEGMENT_SUFFIX);
+    }
+
+    private void deleteUnreferenced(Set<String> referenced) {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                boolean segmentFile = name.endsWith(SEGMENT_SUFFIX) || name.endsWith(SEGMENT_SUFFIX + ".tmp");
+                if (segmentFile && !referenced.contains(name)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            // Still mapped on some platforms; retried on the next change or restart
+            log.warn("⚠️  Could not delete old search index segments: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.capstone.personalityTest.service.test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable file of the document search index, read through a memory mapping.
+ *
+ * Layout (big-endian ints/longs):
+ * - header: magic, version, document count, term count, term bytes length
+ * - documents: (document id: long, length in terms: int) per document; ordinal = position
+ * - terms: (term offset, term length, postings offset, postings count) per term, sorted by the
+ *   term's UTF-8 bytes so a term is found by binary search without loading the dictionary
+ * - term bytes: UTF-8 of all terms, back to back
+ * - postings: (document ordinal, term frequency) per document containing the term
+ *
+ * Only absolute reads are used, so one mapping is shared by concurrent searches. Segments are
+ * written once and never changed; updates go to new segments (see DocumentSearchIndex).
+ */
+final class DocumentSearchSegment {
+
+    private static final int MAGIC = 0x43444958;  // "CDIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int DOCUMENT_BYTES = 12;
+    private static final int TERM_BYTES = 16;
+    private static final int POSTING_BYTES = 8;
+
+    /**
+     * A document to write: its terms with their frequencies, and its length in terms
+     */
+    record SegmentDocument(long documentId, Map<String, Integer> termFrequencies, int length) {
+    }
+
+    private final String name;
+    private final MappedByteBuffer buffer;
+    private final int documentCount;
+    private final int termCount;
+    private final int termsOffset;
+    private final int termBytesOffset;
+    private final int postingsOffset;
+
+    private DocumentSearchSegment(String name, MappedByteBuffer buffer) throws IOException {
+        this.name = name;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a search index segment (version " + VERSION + "): " + name);
+        }
+        documentCount = buffer.getInt(8);
+        termCount = buffer.getInt(12);
+        int termBytesLength = buffer.getInt(16);
+        termsOffset = HEADER_BYTES + documentCount * DOCUMENT_BYTES;
+        termBytesOffset = termsOffset + termCount * TERM_BYTES;
+        postingsOffset = termBytesOffset + termBytesLength;
+    }
+
+    static DocumentSearchSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new DocumentSearchSegment(file.getFileName().toString(), buffer);
+        }
+    }
+
+    /**
+     * Write the documents as a new segment. The file appears under its name only once complete.
+     */
+    static void write(Path file, List<SegmentDocument> documents) throws IOException {
+        // Invert: term -> postings, terms sorted by UTF-8 bytes
+        Map<String, List<int[]>> postingsByTerm = new HashMap<>();
+        for (int ordinal = 0; ordinal < documents.size(); ordinal++) {
+            for (Map.Entry<String, Integer> entry : documents.get(ordinal).termFrequencies().entrySet()) {
+                postingsByTerm.computeIfAbsent(entry.getKey(), term -> new ArrayList<>())
+                        .add(new int[]{ordinal, entry.getValue()});
+            }
+        }
+        byte[][] terms = postingsByTerm.keySet().stream()
+                .map(term -> term.getBytes(StandardCharsets.UTF_8))
+                .sorted(Arrays::compareUnsigned)
+                .toArray(byte[][]::new);
+        int termBytesLength = Arrays.stream(terms).mapToInt(term -> term.length).sum();
+        int postingCount = postingsByTerm.values().stream().mapToInt(List::size).sum();
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + documents.size() * DOCUMENT_BYTES
+                + terms.length * TERM_BYTES + termBytesLength + postingCount * POSTING_BYTES);
+        out.putInt(MAGIC).putInt(VERSION).putInt(documents.size()).putInt(terms.length).putInt(termBytesLength);
+        for (SegmentDocument document : documents) {
+            out.putLong(document.documentId()).putInt(document.length());
+        }
+        int termOffset = 0;
+        int postingOffset = 0;
+        for (byte[] term : terms) {
+            int count = postingsByTerm.get(new String(term, StandardCharsets.UTF_8)).size();
+            out.putInt(termOffset).putInt(term.length).putInt(postingOffset).putInt(count);
+            termOffset += term.length;
+            postingOffset += count;
+        }
+        for (byte[] term : terms) {
+            out.put(term);
+        }
+        for (byte[] term : terms) {
+            for (int[] posting : postingsByTerm.get(new String(term, StandardCharsets.UTF_8))) {
+                out.putInt(posting[0]).putInt(posting[1]);
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp)) {
+            stream.write(out.array());
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    String name() {
+        return name;
+    }
+
+    int documentCount() {
+        return documentCount;
+    }
+
+    long documentId(int ordinal) {
+        return buffer.getLong(HEADER_BYTES + ordinal * DOCUMENT_BYTES);
+    }
+
+    int length(int ordinal) {
+        return buffer.getInt(HEADER_BYTES + ordinal * DOCUMENT_BYTES + 8);
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    String term(int termIndex) {
+        int entry = termsOffset + termIndex * TERM_BYTES;
+        byte[] bytes = new byte[buffer.getInt(entry + 4)];
+        buffer.get(termBytesOffset + buffer.getInt(entry), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Index of the term, or -1 if no document of this segment contains it
+     */
+    int find(String term) {
+        byte[] key = term.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareTerm(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    int postingCount(int termIndex) {
+        return buffer.getInt(termsOffset + termIndex * TERM_BYTES + 12);
+    }
+
+    int postingOrdinal(int termIndex, int posting) {
+        return buffer.getInt(postingAt(termIndex, posting));
+    }
+
+    int postingFrequency(int termIndex, int posting) {
+        return buffer.getInt(postingAt(termIndex, posting) + 4);
+    }
+
+    private int postingAt(int termIndex, int posting) {
+        int first = buffer.getInt(termsOffset + termIndex * TERM_BYTES + 8);
+        return postingsOffset + (first + posting) * POSTING_BYTES;
+    }
+
+    private int compareTerm(int termIndex, byte[] key) {
+        int entry = termsOffset + termIndex * TERM_BYTES;
+        int offset = termBytesOffset + buffer.getInt(entry);
+        int length = buffer.getInt(entry + 4);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(offset + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+}
@@ -0,0 +1,199 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentSearchResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentSearchResponse.Result;
+import com.capstone.personalityTest.mapper.CareerDocumentMapper;
+import com.capstone.personalityTest.model.testm.CareerDocument;
+import com.capstone.personalityTest.repository.test.CareerDocumentRepository;
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.Hit;
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.Hits;
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.IndexDocument;
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.IndexedEntry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over career documents, answered from a local index (DocumentSearchIndex)
+ * without calling the Python RAG stack.
+ *
+ * Uploads, imports and deletes update the index in the background once committed, one update at a
+ * time and in commit order, so a delete never overtakes the add it follows. A periodic
+ * reconciliation against the database catches up on anything missed: documents uploaded before
+ * the index existed, changes made while the application was down, and documents whose text the
+ * AI service could not extract at the time (those are indexed by name and description until then).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentSearchService {
+
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_LIMIT = 50;
+
+    private final CareerDocumentRepository documentRepository;
+    private final DocumentTextExtractor textExtractor;
+    private final CareerDocumentMapper documentMapper;
+
+    @Value("${app.documents.search.path:./search-index}")
+    private String indexPath;
+
+    @Value("${app.documents.search.max-segments:8}")
+    private int maxSegments;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    // Index updates and reconciliation, in submission order
+    private final ExecutorService indexUpdates = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private DocumentSearchIndex index;
+
+    @PostConstruct
+    void open() throws IOException {
+        index = DocumentSearchIndex.open(Paths.get(indexPath), maxSegments);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexUpdates.shutdownNow();
+    }
+
+    /**
+     * Documents matching the query, best first
+     */
+    public DocumentSearchResponse search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is empty");
+        }
+        long started = System.nanoTime();
+        Hits hits = index.search(query, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        double tookMs = (System.nanoTime() - started) / 1_000_000.0;
+
+        Map<Long, CareerDocument> documents = documentRepository
+            .findAllById(hits.top().stream().map(Hit::documentId).toList()).stream()
+            .collect(Collectors.toMap(CareerDocument::getId, Function.identity()));
+        List<Result> results = hits.top().stream()
+            .filter(hit -> documents.containsKey(hit.documentId()))
+            .map(hit -> new Result(documentMapper.toDto(documents.get(hit.documentId())), hit.score()))
+            .toList();
+        return new DocumentSearchResponse(query, hits.total(), tookMs, results);
+    }
+
+    /**
+     * Index (or re-index) the documents in the background
+     */
+    public void indexLater(Collection<Long> documentIds) {
+        List<Long> ids = List.copyOf(documentIds);
+        indexUpdates.execute(() -> {
+            try {
+                index(documentRepository.findAllById(ids));
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️  Could not update search index for documents {}: {}", ids, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Drop the documents from the index in the background
+     */
+    public void removeLater(Collection<Long> documentIds) {
+        List<Long> ids = List.copyOf(documentIds);
+        indexUpdates.execute(() -> {
+            try {
+                index.remove(ids);
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️  Could not remove documents {} from search index: {}", ids, e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(initialDelayString = "${app.documents.search.reconcile-initial-delay-ms:30000}",
+               fixedDelayString = "${app.documents.search.reconcile-ms:600000}")
+    public void reconcileLater() {
+        // Runs off the scheduler thread (text extraction may wait on the AI service), in line with the updates
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        indexUpdates.execute(() -> {
+            try {
+                reconcile();
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️  Search index reconciliation failed: {}", e.getMessage());
+            } finally {
+                reconciling.set(false);
+            }
+        });
+    }
+
+    /**
+     * Index documents that are missing, changed or only partly indexed, and drop deleted ones
+     */
+    void reconcile() throws IOException {
+        Map<Long, IndexedEntry> indexed = index.documents();
+        List<CareerDocument> documents = documentRepository.findAll();
+
+        List<CareerDocument> stale = documents.stream()
+            .filter(document -> {
+                IndexedEntry entry = indexed.get(document.getId());
+                return entry == null || !entry.complete() || !Objects.equals(entry.contentHash(), document.getContentHash());
+            })
+            .toList();
+        Set<Long> present = documents.stream().map(CareerDocument::getId).collect(Collectors.toSet());
+        List<Long> deleted = indexed.keySet().stream()
+            .filter(documentId -> !present.contains(documentId))
+            .toList();
+        if (stale.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+
+        index.remove(deleted);
+        for (int from = 0; from < stale.size(); from += BATCH_SIZE) {
+            index(stale.subList(from, Math.min(from + BATCH_SIZE, stale.size())));
+        }
+        log.info("🔎 Search index reconciled: {} documents indexed, {} removed", stale.size(), deleted.size());
+    }
+
+    /**
+     * Index the documents' name, description and text as one segment
+     */
+    private void index(List<CareerDocument> documents) throws IOException {
+        List<IndexDocument> batch = new ArrayList<>();
+        for (CareerDocument document : documents) {
+            StringBuilder text = new StringBuilder(document.getOriginalFilename());
+            if (document.getDescription() != null) {
+                text.append('\n').append(document.getDescription());
+            }
+            boolean complete = true;
+            try {
+                text.append('\n').append(textExtractor.extract(document));
+            } catch (IOException | RuntimeException e) {
+                complete = false;
+                log.warn("⚠️  Could not extract text of document {} ({}): {}",
+                        document.getId(), document.getOriginalFilename(), e.getMessage());
+            }
+            batch.add(new IndexDocument(document.getId(), document.getContentHash(), complete,
+                    DocumentSearchTokenizer.tokenize(text.toString())));
+        }
+        index.add(batch);
+    }
+}
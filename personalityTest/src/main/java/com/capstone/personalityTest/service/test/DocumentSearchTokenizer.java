@@ -0,0 +1,104 @@
+package com.capstone.personalityTest.service.test;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits career document text and search queries into index terms, the same way for both.
+ *
+ * Text is decomposed (NFKD) first, which turns Arabic presentation forms from PDF extraction back
+ * into base letters and splits hamza and accents off their letters. Marks (tashkeel, hamza, Latin
+ * accents), tatweel and zero-width joiners are then dropped inside words, so أحمد, إحمد and احمد
+ * or "résumé" and "resume" give the same term. Further Arabic normalization: ى -> ي, ة -> ه,
+ * ٱ -> ا, Arabic-Indic digits -> 0-9; then the attached article (ال, وال, بال, كال, فال, لل) is
+ * stripped. Latin text is lower-cased. Stop words and terms shorter than 2 characters are dropped.
+ */
+final class DocumentSearchTokenizer {
+
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 40;
+
+    private static final String[] ARABIC_PREFIXES = {"وال", "بال", "كال", "فال", "لل", "ال"};
+
+    // Normalized forms, checked before the article is stripped
+    private static final Set<String> STOP_WORDS = Set.of(
+        "the", "and", "for", "with", "that", "this", "are", "was", "from", "you", "your", "into",
+        "our", "not", "but", "can", "its", "has", "have", "will", "of", "to", "in", "on", "is",
+        "it", "as", "at", "by", "or", "an", "be",
+        "في", "من", "الي", "علي", "عن", "ان", "او", "ما", "لا", "هذا", "هذه", "ذلك", "التي", "الذي",
+        "مع", "كان", "كل", "هو", "هي", "ثم", "قد", "به", "لم", "لن", "بين", "حتي", "عند", "كما",
+        "ايضا", "الا", "اذا"
+    );
+
+    private DocumentSearchTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); ) {
+            int cp = decomposed.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isIgnorable(cp)) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(cp)) {
+                word.appendCodePoint(normalize(cp));
+            } else {
+                addTerm(terms, word);
+            }
+        }
+        addTerm(terms, word);
+        return terms;
+    }
+
+    private static boolean isIgnorable(int cp) {
+        int type = Character.getType(cp);
+        return type == Character.NON_SPACING_MARK
+                || type == Character.ENCLOSING_MARK
+                || type == Character.FORMAT          // zero-width (non-)joiners, bidi marks
+                || cp == 0x0640;                     // tatweel
+    }
+
+    private static int normalize(int cp) {
+        if (Character.isDigit(cp)) {
+            return '0' + Character.digit(cp, 10);
+        }
+        return switch (cp) {
+            case 0x0649 -> 0x064A;  // ى -> ي
+            case 0x0629 -> 0x0647;  // ة -> ه
+            case 0x0671 -> 0x0627;  // ٱ -> ا
+            default -> Character.toLowerCase(cp);
+        };
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder word) {
+        if (word.isEmpty()) {
+            return;
+        }
+        String term = word.toString();
+        word.setLength(0);
+        if (STOP_WORDS.contains(term)) {
+            return;
+        }
+        term = stripArabicArticle(term);
+        if (term.length() >= MIN_LENGTH && term.length() <= MAX_LENGTH) {
+            terms.add(term);
+        }
+    }
+
+    private static String stripArabicArticle(String term) {
+        for (String prefix : ARABIC_PREFIXES) {
+            if (term.startsWith(prefix) && term.length() - prefix.length() >= MIN_LENGTH) {
+                return term.substring(prefix.length());
+            }
+        }
+        return term;
+    }
+}
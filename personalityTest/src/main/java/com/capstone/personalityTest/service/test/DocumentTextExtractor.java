@@ -0,0 +1,51 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.testm.CareerDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Text of a career document, for the search index.
+ *
+ * Plain text formats are read directly. PDF, DOCX and XLSX are extracted by the Python AI
+ * service (POST /api/admin/documents/extract-text), with the same loader the RAG pipeline uses,
+ * so search and RAG see the same text.
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentTextExtractor {
+
+    private static final Set<String> PLAIN_TEXT = Set.of("txt", "md", "csv", "json");
+
+    private final CareerDocumentStore documentStore;
+    private final RestTemplate documentRestTemplate;
+
+    /**
+     * @throws IOException if the file cannot be read
+     * @throws IllegalStateException if the AI service returned no text
+     */
+    public String extract(CareerDocument document) throws IOException {
+        String fileType = document.getFileType() == null ? "" : document.getFileType().toLowerCase();
+        if (PLAIN_TEXT.contains(fileType)) {
+            // Invalid UTF-8 is replaced rather than failing the whole document
+            return new String(Files.readAllBytes(documentStore.resolve(document.getFilename())), StandardCharsets.UTF_8);
+        }
+
+        Map<?, ?> response = documentRestTemplate.postForObject(
+            "/api/admin/documents/extract-text",
+            Map.of("filename", document.getFilename()),
+            Map.class
+        );
+        if (response == null || !(response.get("text") instanceof String text)) {
+            throw new IllegalStateException("No text extracted from " + document.getFilename());
+        }
+        return text;
+    }
+}
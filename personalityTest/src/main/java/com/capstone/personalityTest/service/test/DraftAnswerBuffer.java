@@ -0,0 +1,176 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.AnswerRequest;
+import com.capstone.personalityTest.model.Enum.AnswerSubmissionStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store for in-progress answers when answer durability is "buffered".
+ *
+ * Students change their answers many times before finalizing; in buffered mode only the
+ * latest value per item is kept here and written to the Answer table in bulk on finalize,
+ * on idle timeout or on the periodic checkpoint (see DraftAnswerFlushScheduler).
+ * In "write-through" mode (the default) nothing is buffered and every submission hits the database.
+ *
+ * A draft is checked against the stored answers as well (SubmissionOrder): the ordering state of
+ * the attempt's rows is handed in when its draft is created, so a submission older than what the
+ * database holds is reported STALE right away instead of being buffered and dropped at flush time.
+ *
+ * Attempts are independent: every operation on an attempt runs inside ConcurrentHashMap.compute,
+ * which locks only that attempt's bin, so students never wait on each other.
+ * Answers still in the buffer are lost if the JVM dies, which is the trade-off of buffered mode.
+ */
+@Component
+@Slf4j
+public class DraftAnswerBuffer {
+
+    /**
+     * "write-through" (every change is persisted immediately) or "buffered"
+     */
+    @Value("${app.answers.durability:write-through}")
+    private String durability;
+
+    /**
+     * Maximum number of attempts held in memory. When full, new attempts are written through
+     * until the next flush makes room.
+     */
+    @Value("${app.answers.buffer.max-attempts:10000}")
+    private int maxAttempts;
+
+    private final Map<Long, Draft> drafts = new ConcurrentHashMap<>();
+
+    /**
+     * Pending answers of one attempt, keyed by compiled item index (last write wins), and the
+     * ordering state of its stored answers when the draft was created (null if not known).
+     */
+    private static final class Draft {
+        private final Map<Integer, AnswerRequest> answers = new LinkedHashMap<>();
+        private final Map<Integer, SubmissionOrder.Stored> stored;
+        private volatile long lastTouched = System.currentTimeMillis();
+
+        private Draft(Map<Integer, SubmissionOrder.Stored> stored) {
+            this.stored = stored == null ? null : new HashMap<>(stored);
+        }
+    }
+
+    public boolean isBuffered() {
+        return "buffered".equalsIgnoreCase(durability);
+    }
+
+    /**
+     * Buffer the latest value of an item. A submission that the draft or the stored answer already
+     * reflects (see SubmissionOrder) is dropped instead.
+     *
+     * @param stored ordering state of the attempt's stored answers by item index, used if the attempt
+     *               has no draft yet (see hasPending); null if not loaded
+     * @return BUFFERED, DUPLICATE or STALE; null if the answer was not buffered (write-through mode,
+     *         the buffer is full, or the stored answer is not known) and must be written to the
+     *         database by the caller
+     */
+    public AnswerSubmissionStatus stage(Long attemptId, int itemIndex, AnswerRequest answer,
+                                        Map<Integer, SubmissionOrder.Stored> stored) {
+        if (!isBuffered()) {
+            return null;
+        }
+
+        AnswerSubmissionStatus[] status = {null};
+        boolean[] full = {false};
+        drafts.compute(attemptId, (id, draft) -> {
+            if (draft == null) {
+                if (stored == null) {
+                    return null;
+                }
+                if (drafts.size() >= maxAttempts) {
+                    full[0] = true;
+                    return null;
+                }
+                draft = new Draft(stored);
+            }
+
+            AnswerRequest previous = draft.answers.get(itemIndex);
+            if (previous == null && draft.stored == null) {
+                // Restored after a failed flush: the stored answer is unknown, the caller checks it
+                return draft;
+            }
+            AnswerSubmissionStatus dropped = previous != null
+                    ? SubmissionOrder.check(SubmissionOrder.Stored.of(previous), answer)
+                    : SubmissionOrder.check(draft.stored.get(itemIndex), answer);
+            if (dropped != null) {
+                status[0] = dropped;
+                return draft;
+            }
+
+            draft.answers.put(itemIndex, answer);
+            draft.lastTouched = System.currentTimeMillis();
+            status[0] = AnswerSubmissionStatus.BUFFERED;
+            return draft;
+        });
+
+        if (full[0]) {
+            log.warn("Draft answer buffer full ({} attempts), writing attempt {} through", maxAttempts, attemptId);
+        }
+        return status[0];
+    }
+
+    /**
+     * Remove and return every pending answer of an attempt by item index, in first-answered order.
+     */
+    public Map<Integer, AnswerRequest> drain(Long attemptId) {
+        Draft draft = drafts.remove(attemptId);
+        return draft == null ? Map.of() : draft.answers;
+    }
+
+    /**
+     * Copy of the pending answers of an attempt, which stay in the buffer.
+     */
+    public List<AnswerRequest> pending(Long attemptId) {
+        List<AnswerRequest> pending = new ArrayList<>();
+        drafts.computeIfPresent(attemptId, (id, draft) -> {
+            pending.addAll(draft.answers.values());
+            return draft;
+        });
+        return pending;
+    }
+
+    /**
+     * Put drained answers back after a failed flush. Answers staged meanwhile are newer and win.
+     */
+    public void restore(Long attemptId, Map<Integer, AnswerRequest> answers) {
+        drafts.compute(attemptId, (id, draft) -> {
+            Draft restored = draft != null ? draft : new Draft(null);
+            answers.forEach(restored.answers::putIfAbsent);
+            return restored;
+        });
+    }
+
+    public boolean hasPending(Long attemptId) {
+        return drafts.containsKey(attemptId);
+    }
+
+    /**
+     * Attempts whose last change is older than the given idle time.
+     */
+    public List<Long> idleAttempts(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        List<Long> idle = new ArrayList<>();
+        drafts.forEach((attemptId, draft) -> {
+            if (draft.lastTouched <= cutoff) {
+                idle.add(attemptId);
+            }
+        });
+        return idle;
+    }
+
+    public List<Long> bufferedAttempts() {
+        return new ArrayList<>(drafts.keySet());
+    }
+}
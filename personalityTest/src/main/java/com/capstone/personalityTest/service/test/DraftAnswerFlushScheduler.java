@@ -0,0 +1,58 @@
+package com.capstone.personalityTest.service.test;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes buffered draft answers (see DraftAnswerBuffer) to the database:
+ * - attempts idle for longer than app.answers.buffer.idle-timeout-ms
+ * - every attempt on the periodic checkpoint and on shutdown
+ * Finalizing an attempt flushes its drafts directly in TestAttemptService.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DraftAnswerFlushScheduler {
+
+    private final DraftAnswerBuffer draftAnswerBuffer;
+    private final TestAttemptService testAttemptService;
+
+    @Value("${app.answers.buffer.idle-timeout-ms:120000}")
+    private long idleTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${app.answers.buffer.idle-check-ms:10000}")
+    public void flushIdleAttempts() {
+        flush(draftAnswerBuffer.idleAttempts(idleTimeoutMs));
+    }
+
+    @Scheduled(fixedDelayString = "${app.answers.buffer.checkpoint-ms:300000}")
+    public void checkpoint() {
+        flush(draftAnswerBuffer.bufferedAttempts());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        checkpoint();
+    }
+
+    private void flush(List<Long> attemptIds) {
+        if (attemptIds.isEmpty()) return;
+
+        int failed = 0;
+        for (Long attemptId : attemptIds) {
+            try {
+                testAttemptService.flushDraftAnswers(attemptId);
+            } catch (Exception e) {
+                failed++; // drafts were restored, retried on the next run
+                log.error("Failed to flush draft answers of attempt {}: {}", attemptId, e.getMessage());
+            }
+        }
+        log.info("Flushed draft answers of {} attempts ({} failed)", attemptIds.size() - failed, failed);
+    }
+}
@@ -0,0 +1,188 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.service.test.PackedAnswers.PackedAnswer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fixed mapping of a test's items to the personality model's feature columns, so an attempt's
+ * answers go to the model as one numeric vector in feature_columns order instead of positional
+ * "Q1".."Qn" strings.
+ *
+ * Items are matched to columns by text, the way the training data was exported from the form:
+ * a checkbox sub-question by its own text, a scale sub-question as "question [sub-question]" or
+ * by its own text, a question without sub-questions by the question text. The schema is complete
+ * when every column is matched by exactly one item of the column's kind (scaled columns by SCALE
+ * items, the others by CHECKBOX items); incomplete schemas are not used for predictions.
+ *
+ * columnsHash identifies the model's column list and is checked by whoever evaluates the vector;
+ * version identifies the whole mapping (columns and matched items).
+ */
+public final class FeatureSchema {
+
+    private final Long testId;
+    private final String columnsHash;
+    private final String version;
+    private final int featureCount;
+    private final int[] columnByItem; // by CompiledItem.index, -1 if the item is not a feature
+    private final List<String> missingColumns;
+    private final List<CompiledItem> unmatchedItems;
+
+    private FeatureSchema(Long testId, String columnsHash, String version, int featureCount, int[] columnByItem,
+                          List<String> missingColumns, List<CompiledItem> unmatchedItems) {
+        this.testId = testId;
+        this.columnsHash = columnsHash;
+        this.version = version;
+        this.featureCount = featureCount;
+        this.columnByItem = columnByItem;
+        this.missingColumns = missingColumns;
+        this.unmatchedItems = unmatchedItems;
+    }
+
+    /**
+     * Match a compiled test's items against the model's feature columns.
+     */
+    public static FeatureSchema build(CompiledTest test, List<String> featureColumns, Set<String> scaledColumns) {
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (int i = 0; i < featureColumns.size(); i++) {
+            columnIndex.putIfAbsent(normalize(featureColumns.get(i)), i);
+        }
+
+        // A question with sub-questions is answered through them
+        Set<Long> questionsWithSubQuestions = new HashSet<>();
+        for (CompiledItem item : test.items()) {
+            if (item.subQuestionId() != null) questionsWithSubQuestions.add(item.questionId());
+        }
+
+        int[] columnByItem = new int[test.items().size()];
+        Arrays.fill(columnByItem, -1);
+        boolean[] matched = new boolean[featureColumns.size()];
+        List<CompiledItem> unmatchedItems = new ArrayList<>();
+        StringBuilder mapping = new StringBuilder(columnsHash(featureColumns));
+
+        for (CompiledItem item : test.items()) {
+            if (item.answerType() == AnswerType.OPEN
+                    || (item.subQuestionId() == null && questionsWithSubQuestions.contains(item.questionId()))) {
+                continue;
+            }
+
+            int column = -1;
+            for (String candidate : candidates(item)) {
+                Integer index = columnIndex.get(normalize(candidate));
+                if (index != null && !matched[index]
+                        && scaledColumns.contains(featureColumns.get(index)) == (item.answerType() == AnswerType.SCALE)) {
+                    column = index;
+                    break;
+                }
+            }
+            if (column < 0) {
+                unmatchedItems.add(item);
+                continue;
+            }
+
+            matched[column] = true;
+            columnByItem[item.index()] = column;
+            mapping.append('|').append(item.questionId()).append(':').append(item.subQuestionId()).append('=').append(column);
+        }
+
+        List<String> missingColumns = new ArrayList<>();
+        for (int i = 0; i < featureColumns.size(); i++) {
+            if (!matched[i]) missingColumns.add(featureColumns.get(i));
+        }
+
+        return new FeatureSchema(test.testId(), columnsHash(featureColumns), sha256(mapping.toString()).substring(0, 12),
+                featureColumns.size(), columnByItem, List.copyOf(missingColumns), List.copyOf(unmatchedItems));
+    }
+
+    /**
+     * Fingerprint of a feature column list; ml_service.py computes the same one from feature_columns.pkl.
+     */
+    public static String columnsHash(List<String> featureColumns) {
+        return sha256(String.join("\n", featureColumns)).substring(0, 16);
+    }
+
+    /**
+     * Raw (unscaled) feature vector of an attempt's checkbox/scale answers: 1/0 for checkboxes,
+     * the value for scales, 0 for unanswered items.
+     */
+    public double[] encode(CompiledTest test, List<PackedAnswer> answers) {
+        double[] vector = new double[featureCount];
+        for (PackedAnswer answer : answers) {
+            CompiledItem item = test.item(answer.questionId(), answer.subQuestionId());
+            if (item == null || item.answerType() != answer.answerType() || columnByItem[item.index()] < 0) continue;
+
+            int column = columnByItem[item.index()];
+            if (answer.answerType() == AnswerType.CHECKBOX) {
+                vector[column] = Boolean.TRUE.equals(answer.binaryValue()) ? 1 : 0;
+            } else if (answer.scaleValue() != null) {
+                vector[column] = answer.scaleValue();
+            }
+        }
+        return vector;
+    }
+
+    public boolean isComplete() {
+        return missingColumns.isEmpty();
+    }
+
+    public Long testId() {
+        return testId;
+    }
+
+    public String columnsHash() {
+        return columnsHash;
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public int featureCount() {
+        return featureCount;
+    }
+
+    public List<String> missingColumns() {
+        return missingColumns;
+    }
+
+    /**
+     * Checkbox/scale items that match no column (left out of the vector).
+     */
+    public List<CompiledItem> unmatchedItems() {
+        return unmatchedItems;
+    }
+
+    private static List<String> candidates(CompiledItem item) {
+        if (item.subQuestionId() == null) {
+            return List.of(item.questionText());
+        }
+        if (item.answerType() == AnswerType.SCALE) {
+            return List.of(item.questionText() + " [" + item.subQuestionText() + "]", item.subQuestionText());
+        }
+        return List.of(item.subQuestionText());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : Normalizer.normalize(text, Normalizer.Form.NFC).strip().replaceAll("\\s+", " ");
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
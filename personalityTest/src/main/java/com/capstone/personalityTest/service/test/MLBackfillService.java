@@ -0,0 +1,142 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.RequestDTO.test.ModelBatchRequest;
+import com.capstone.personalityTest.dto.ResponseDTO.test.AttemptJobResponse;
+import com.capstone.personalityTest.model.testm.Test.Test;
+import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
+import com.capstone.personalityTest.service.test.PackedAnswers.PackedAnswer;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin job that predicts the personality code of every finalized attempt of a test that has
+ * no ml_results row yet (attempts finalized while the model service was down, or before it existed).
+ *
+ * Attempts are read in keyset-paginated chunks; the answers of a chunk are loaded with two queries,
+ * encoded with the test's FeatureSchema (see ModelServiceClient.toModelItem), predicted together
+ * (in-process, or as one model service batch call) and the codes inserted with one JDBC batch.
+ * Rows written meanwhile by the per-attempt endpoint are left as they are.
+ */
+@Service
+@RequiredArgsConstructor
+public class MLBackfillService {
+
+    static final String JOB_TYPE = "PREDICT_CODES";
+
+    private final TestRepository testRepository;
+    private final CompiledTestCache compiledTestCache;
+    private final PackedAnswerStore packedAnswerStore;
+    private final ModelServiceClient modelServiceClient;
+    private final AttemptJobRunner attemptJobRunner;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.ml.backfill.chunk-size:256}")
+    private int chunkSize = 256;
+
+    /**
+     * Queue a backfill job for a test. If one is already queued or running for it, that job is returned.
+     */
+    public AttemptJobResponse startBackfill(Long testId) {
+        if (!testRepository.existsById(testId)) {
+            throw new EntityNotFoundException("Test not found: " + testId);
+        }
+        return attemptJobRunner.submit(JOB_TYPE, testId, job -> {
+            CompiledTest compiledTest = transactionTemplate.execute(status -> {
+                Test test = testRepository.findById(job.testId)
+                        .orElseThrow(() -> new EntityNotFoundException("Test not found: " + job.testId));
+                return compiledTestCache.getOrCompile(test);
+            });
+            backfill(job, compiledTest);
+        });
+    }
+
+    void backfill(AttemptJob job, CompiledTest compiledTest) {
+        String pending = "FROM test_attempt t WHERE t.test_id = ? AND t.finalized = TRUE " +
+                "AND NOT EXISTS (SELECT 1 FROM ml_results m WHERE m.test_attempt_id = t.id)";
+        job.total = jdbcTemplate.queryForObject("SELECT COUNT(*) " + pending, Long.class, job.testId);
+
+        long lastId = 0;
+        while (true) {
+            List<Long> attemptIds = jdbcTemplate.queryForList(
+                    "SELECT t.id " + pending + " AND t.id > ? ORDER BY t.id LIMIT ?",
+                    Long.class, job.testId, lastId, chunkSize);
+            if (attemptIds.isEmpty()) break;
+
+            // Attempts without any answer cannot be predicted and are skipped
+            List<ModelBatchRequest.Item> items = new ArrayList<>();
+            loadAnswers(attemptIds).forEach((attemptId, answers) -> {
+                if (!answers.isEmpty()) {
+                    items.add(modelServiceClient.toModelItem(attemptId, compiledTest, answers));
+                }
+            });
+            write(items, modelServiceClient.predictCodes(items));
+
+            job.processed.addAndGet(attemptIds.size());
+            lastId = attemptIds.get(attemptIds.size() - 1);
+        }
+    }
+
+    /**
+     * Answers of each attempt in the order ModelServiceClient numbers them: packed answers first,
+     * then the answer rows by id.
+     */
+    Map<Long, List<PackedAnswer>> loadAnswers(List<Long> attemptIds) {
+        Map<Long, List<PackedAnswer>> answers = new LinkedHashMap<>();
+        Map<Long, List<PackedAnswer>> packed = packedAnswerStore.readAll(attemptIds);
+        for (Long attemptId : attemptIds) {
+            answers.put(attemptId, new ArrayList<>(packed.getOrDefault(attemptId, List.of())));
+        }
+
+        // Only this chunk's attempts: ids of other tests' attempts are interleaved, so an id range would read theirs too
+        String placeholders = String.join(", ", Collections.nCopies(attemptIds.size(), "?"));
+        jdbcTemplate.query(
+                "SELECT a.test_attempt_id, a.question_id, a.sub_question_id, a.answer_type, a.binary_value, a.scale_value FROM answer a " +
+                        "WHERE a.test_attempt_id IN (" + placeholders + ") ORDER BY a.test_attempt_id, a.id",
+                rs -> {
+                    List<PackedAnswer> attemptAnswers = answers.get(rs.getLong("test_attempt_id"));
+                    if (attemptAnswers == null) return;
+
+                    long subQuestionId = rs.getLong("sub_question_id");
+                    Long sub = rs.wasNull() ? null : subQuestionId;
+                    boolean binary = rs.getBoolean("binary_value");
+                    Boolean binaryValue = rs.wasNull() ? null : binary;
+                    int scale = rs.getInt("scale_value");
+                    Integer scaleValue = rs.wasNull() ? null : scale;
+                    attemptAnswers.add(ModelServiceClient.answerValue(rs.getLong("question_id"), sub,
+                            rs.getString("answer_type"), binaryValue, scaleValue));
+                },
+                attemptIds.toArray());
+
+        return answers;
+    }
+
+    private void write(List<ModelBatchRequest.Item> items, List<String> codes) {
+        Timestamp predictedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) indexes.add(i);
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO ml_results (test_attempt_id, predicted_code, predicted_at) SELECT ?, ?, ? FROM DUAL " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM ml_results WHERE test_attempt_id = ?)",
+                indexes, indexes.size(), (ps, i) -> {
+                    Long attemptId = items.get(i).getAttemptId();
+                    ps.setLong(1, attemptId);
+                    ps.setString(2, codes.get(i));
+                    ps.setTimestamp(3, predictedAt);
+                    ps.setLong(4, attemptId);
+                });
+    }
+}
@@ -0,0 +1,110 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.testm.EvaluationResult;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense index of the metrics scored by a test: every metric code gets a slot 0..n-1
+ * (base test metrics first, in their stored order), so scores live in a plain int[]
+ * and the code -> score map is only built when the result is persisted or returned.
+ */
+public final class MetricIndex {
+
+    /**
+     * Slot of items that do not score a metric
+     */
+    public static final int NONE = -1;
+
+    private final String[] codes;
+    private final Map<String, Integer> slots;
+
+    private MetricIndex(String[] codes) {
+        this.codes = codes;
+        this.slots = new HashMap<>(codes.length * 2);
+        for (int i = 0; i < codes.length; i++) {
+            slots.put(codes[i], i);
+        }
+    }
+
+    /**
+     * @param codes metric codes in slot order; duplicates keep their first slot
+     */
+    public static MetricIndex of(Collection<String> codes) {
+        return new MetricIndex(codes.stream().distinct().toArray(String[]::new));
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public String code(int slot) {
+        return codes[slot];
+    }
+
+    public int slotOf(String code) {
+        return code == null ? NONE : slots.getOrDefault(code, NONE);
+    }
+
+    public List<String> codes() {
+        return List.of(codes);
+    }
+
+    public int[] newScores() {
+        return new int[codes.length];
+    }
+
+    /**
+     * Slots of the k highest scores, highest first, without sorting the whole array.
+     * Ties go to the lower slot, so the same scores always give the same code.
+     */
+    public static int[] topK(int[] scores, int k) {
+        int n = Math.min(k, scores.length);
+        int[] top = new int[n];
+        int size = 0;
+        if (n == 0) return top;
+
+        for (int slot = 0; slot < scores.length; slot++) {
+            int score = scores[slot];
+            if (size == n && score <= scores[top[n - 1]]) continue;
+
+            // Insertion into the small sorted window; strict > keeps earlier slots ahead on ties
+            int pos = size < n ? size++ : n - 1;
+            while (pos > 0 && score > scores[top[pos - 1]]) {
+                top[pos] = top[pos - 1];
+                pos--;
+            }
+            top[pos] = slot;
+        }
+        return top;
+    }
+
+    /**
+     * Scores by metric code, in slot order
+     */
+    public Map<String, Integer> toMap(int[] scores) {
+        Map<String, Integer> map = new LinkedHashMap<>(codes.length * 2);
+        for (int i = 0; i < codes.length; i++) {
+            map.put(codes[i], scores[i]);
+        }
+        return map;
+    }
+
+    /**
+     * Result to persist: the metric score map plus the top 3 metric codes.
+     */
+    public EvaluationResult toEvaluationResult(int[] scores) {
+        int[] top = topK(scores, 3);
+
+        EvaluationResult result = new EvaluationResult();
+        result.setMetricScores(toMap(scores));
+        result.setFirstMetric(top.length > 0 ? codes[top[0]] : null);
+        result.setSecondMetric(top.length > 1 ? codes[top[1]] : null);
+        result.setThirdMetric(top.length > 2 ? codes[top[2]] : null);
+        return result;
+    }
+}
@@ -1,31 +1,40 @@
 package com.capstone.personalityTest.service.test;
 
-import com.capstone.personalityTest.dto.RequestDTO.test.ModelRequest;
-import com.capstone.personalityTest.dto.ResponseDTO.test.ModelResponse;
+import com.capstone.personalityTest.config.ServiceGuard;
+import com.capstone.personalityTest.dto.RequestDTO.test.ModelBatchRequest;
+import com.capstone.personalityTest.dto.ResponseDTO.test.FeatureSchemaResponse;
+import com.capstone.personalityTest.exception.ServiceUnavailableException;
+import com.capstone.personalityTest.model.Enum.AnswerType;
 import com.capstone.personalityTest.model.testm.MLResult;
+import com.capstone.personalityTest.model.testm.Test.Test;
 import com.capstone.personalityTest.model.testm.TestAttempt.Answer.Answer;
 import com.capstone.personalityTest.model.testm.TestAttempt.Answer.CheckBoxAnswer;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.OpenAnswer;
 import com.capstone.personalityTest.model.testm.TestAttempt.Answer.ScaleAnswer;
 import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
 import com.capstone.personalityTest.repository.test.AnswerRepository;
 import com.capstone.personalityTest.repository.test.MLResultRepository;
 import com.capstone.personalityTest.repository.test.TestAttemptRepository;
+import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
+import com.capstone.personalityTest.service.test.PackedAnswers.PackedAnswer;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for integrating with Python ML Model Service
@@ -33,20 +42,32 @@ import java.util.Map;
  * 
  * Flow:
  * 1. Retrieve all answers from a test attempt
- * 2. Transform them to model's expected format (Map<String, String>)
- * 3. Send to model service for personality code prediction
+ * 2. Encode them as a dense feature vector with the test's FeatureSchema, or as the positional
+ *    Map<String, String> format when the test's items do not match the model's feature columns
+ * 3. Predict the personality code in-process (PersonalityCodeModel), or with the model service
  * 4. Save ML result to database
  * 5. Return predicted code
+ *
+ * Steps 1-2 and 4 run in short transactions of their own: no database connection is held while a
+ * request waits on a prediction batch or the model service.
+ *
+ * While the model service circuit is open (see ServiceGuard), remote predictions fail fast and
+ * getPredictedPersonalityCode falls back to the code calculated from the scores (EvaluationResult).
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ModelServiceClient {
 
-    private final RestTemplate restTemplate;
     private final TestAttemptRepository testAttemptRepository;
+    private final TestRepository testRepository;
+    private final CompiledTestCache compiledTestCache;
     private final AnswerRepository answerRepository;
     private final MLResultRepository mlResultRepository;
+    private final PackedAnswerStore packedAnswerStore;
+    private final PredictionBatcher predictionBatcher;
+    private final ServiceGuard modelServiceGuard;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * URL of Python ML Model Service
@@ -56,73 +77,99 @@ public class ModelServiceClient {
     @Value("${model.service.url}")
     private String modelServiceUrl;
 
+    /**
+     * local: predict with the exported model in this JVM; remote: always call the model service.
+     * With remote-fallback, the model service is also used when the export cannot be loaded.
+     * remote by default: the export's parity with the model service has not been shown yet.
+     */
+    @Value("${app.ml.inference:remote}")
+    private String inference = "remote";
+
+    @Value("${app.ml.local-model:classpath:ml/personality_svm.json}")
+    private Resource localModelResource;
+
+    @Value("${app.ml.remote-fallback:true}")
+    private boolean remoteFallback = true;
+
+    private PersonalityCodeModel model;  // the export: feature columns for FeatureSchema, and the model itself
+    private boolean localInference;      // predict with the export instead of calling the model service
+
+    private record CachedSchema(CompiledTest compiledTest, FeatureSchema schema) {
+    }
+
+    /**
+     * Personality code of an attempt; calculated is true when the model service was unavailable
+     * and the code comes from the attempt's EvaluationResult instead of the model.
+     */
+    public record CodePrediction(String code, boolean calculated) {
+    }
+
+    // What a prediction needs from the database, read before the call
+    private record PredictionInput(ModelBatchRequest.Item item, String calculatedCode) {
+    }
+
+    private final Map<Long, CachedSchema> featureSchemas = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void loadLocalModel() {
+        try (InputStream in = localModelResource.getInputStream()) {
+            model = PersonalityCodeModel.load(in);
+        } catch (IOException | RuntimeException e) {
+            if ("local".equalsIgnoreCase(inference) && !remoteFallback) {
+                throw new IllegalStateException("Could not load ML model export " + localModelResource, e);
+            }
+            log.warn("⚠️ Could not load ML model export {}, using the model service with positional answers: {}",
+                    localModelResource, e.getMessage());
+            return;
+        }
+
+        localInference = "local".equalsIgnoreCase(inference);
+        if (localInference) {
+            log.info("🤖 ML inference: in-process model from {} (sklearn {})", localModelResource, model.sklearnVersion());
+        } else {
+            log.info("🤖 ML inference: model service at {}", modelServiceUrl);
+        }
+    }
+
     /**
      * Get personality code from ML model for a test attempt and save to database.
      * 
      * Process:
-     * 1. Retrieve test attempt and its answers
-     * 2. Transform answers to model format
-     * 3. Call model-service.py prediction endpoint
-     * 4. Save ML result to database
+     * 1. Retrieve test attempt and its answers (short read transaction)
+     * 2. Encode answers for the model (feature vector or positional map)
+     * 3. Predict in-process, or call model-service.py (batched with concurrent calls), outside any transaction
+     * 4. Save ML result to database (short write transaction)
      * 5. Return predicted code
      * 
+     * If the model service is refused by its circuit breaker or bulkhead, the calculated code
+     * (EvaluationResult, e.g. "R-I-A") is returned instead and no ML result is saved.
+     * 
      * @param attemptId ID of the test attempt
-     * @return Predicted personality code (e.g., "R-I-A")
+     * @return Predicted personality code (e.g., "RIA"), or the calculated one
      * @throws IllegalStateException if test attempt has no answers
      */
-    @Transactional
-    public String getPredictedPersonalityCode(Long attemptId) {
+    public CodePrediction getPredictedPersonalityCode(Long attemptId) {
         try {
             log.info("🤖 Getting personality code from ML Model for attempt: {}", attemptId);
 
-            // Fetch test attempt
-            TestAttempt attempt = testAttemptRepository.findById(attemptId)
-                    .orElseThrow(() -> new EntityNotFoundException("Test attempt not found: " + attemptId));
+            PredictionInput input = transactionTemplate.execute(status -> loadPredictionInput(attemptId));
 
-            // Get all answers for this attempt
-            List<Answer> answers = answerRepository.findByTestAttempt(attempt);
-            
-            if (answers.isEmpty()) {
-                throw new IllegalStateException("No answers found for test attempt: " + attemptId);
+            String predictedCode;
+            try {
+                predictedCode = predictCode(input.item());
+            } catch (RuntimeException e) {
+                ServiceUnavailableException unavailable = ServiceUnavailableException.find(e);
+                if (unavailable == null || input.calculatedCode() == null) throw e;
+                log.warn("⚠️ {}, returning the calculated code {} for attempt {}",
+                        unavailable.getMessage(), input.calculatedCode(), attemptId);
+                return new CodePrediction(input.calculatedCode(), true);
             }
+            log.info("✅ Predicted personality code: {}", predictedCode);
 
-            log.info("   Found {} answers", answers.size());
-
-            // Transform answers to model format
-            Map<String, String> answersMap = transformAnswersToModelFormat(answers);
-            log.info("   Transformed to model format with keys: {}", answersMap.keySet());
-
-            // Build request
-            ModelRequest request = ModelRequest.builder()
-                    .answers(answersMap)
-                    .build();
-
-            // Prepare HTTP request
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<ModelRequest> entity = new HttpEntity<>(request, headers);
-
-            // Call model service
-            log.info("📡 Calling Model Service: {}/api/ml/predict-code", modelServiceUrl);
-            ResponseEntity<ModelResponse> response = restTemplate.postForEntity(
-                    modelServiceUrl + "/api/ml/predict-code",
-                    entity,
-                    ModelResponse.class
-            );
-
-            // Check response
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String predictedCode = response.getBody().getPredictedCode();
-                log.info("✅ Predicted personality code: {}", predictedCode);
-                
-                // Save ML result to database
-                saveMLResult(attempt, predictedCode);
-                
-                return predictedCode;
-            } else {
-                log.warn("⚠️  Model Service returned non-success status: {}", response.getStatusCode());
-                throw new RuntimeException("Model service returned error: " + response.getStatusCode());
-            }
+            // Save ML result to database
+            transactionTemplate.executeWithoutResult(status -> saveMLResult(attemptId, predictedCode));
+
+            return new CodePrediction(predictedCode, false);
 
         } catch (Exception e) {
             log.error("❌ Error getting personality code from model: {}", e.getMessage(), e);
@@ -130,22 +177,170 @@ public class ModelServiceClient {
         }
     }
 
+    private PredictionInput loadPredictionInput(Long attemptId) {
+        // Fetch test attempt
+        TestAttempt attempt = testAttemptRepository.findById(attemptId)
+                .orElseThrow(() -> new EntityNotFoundException("Test attempt not found: " + attemptId));
+
+        // Get all answers for this attempt; a compacted attempt keeps its checkbox/scale answers packed
+        List<PackedAnswer> answers = new ArrayList<>(packedAnswerStore.read(attemptId));
+        for (AnswerRepository.AnswerValueView row : answerRepository.findValuesByTestAttemptId(attemptId)) {
+            answers.add(answerValue(row.getQuestionId(), row.getSubQuestionId(), row.getAnswerType(),
+                    row.getBinaryValue(), row.getScaleValue()));
+        }
+
+        if (answers.isEmpty()) {
+            throw new IllegalStateException("No answers found for test attempt: " + attemptId);
+        }
+
+        log.info("   Found {} answers", answers.size());
+
+        ModelBatchRequest.Item item = toModelItem(attemptId, compiledTestCache.getOrCompile(attempt.getTest()), answers);
+        return new PredictionInput(item,
+                attempt.getEvaluationResult() != null ? attempt.getEvaluationResult().toString() : null);
+    }
+
+    /**
+     * Model request item for one attempt: a feature vector when the test's schema matches every
+     * model column, the positional Q1..Qn answers otherwise.
+     *
+     * @param answers packed answers first, then answer rows by id (the order Q1..Qn follows)
+     */
+    ModelBatchRequest.Item toModelItem(Long attemptId, CompiledTest compiledTest, List<PackedAnswer> answers) {
+        FeatureSchema schema = featureSchema(compiledTest);
+        if (schema != null && schema.isComplete()) {
+            return ModelBatchRequest.Item.ofFeatures(attemptId, schema.encode(compiledTest, answers), schema.columnsHash());
+        }
+
+        List<Answer> legacyAnswers = answers.stream()
+                .map(answer -> answer.answerType() == AnswerType.OPEN ? new OpenAnswer() : answer.toAnswer())
+                .toList();
+        Map<String, String> answersMap = transformAnswersToModelFormat(legacyAnswers);
+        log.info("   Transformed to model format with keys: {}", answersMap.keySet());
+        return ModelBatchRequest.Item.ofAnswers(attemptId, answersMap);
+    }
+
+    /**
+     * Stored answer value as a PackedAnswer (answerType is the answer table discriminator:
+     * BINARY, SCALE or OPEN; OPEN answers carry no value).
+     */
+    static PackedAnswer answerValue(Long questionId, Long subQuestionId, String answerType, Boolean binaryValue, Integer scaleValue) {
+        AnswerType type = switch (answerType) {
+            case "BINARY" -> AnswerType.CHECKBOX;
+            case "SCALE" -> AnswerType.SCALE;
+            default -> AnswerType.OPEN;
+        };
+        return new PackedAnswer(questionId, subQuestionId, type, binaryValue, scaleValue);
+    }
+
+    /**
+     * Feature schema of a compiled test, rebuilt when the test is recompiled.
+     *
+     * @return null when the model export is not loaded
+     */
+    FeatureSchema featureSchema(CompiledTest compiledTest) {
+        if (model == null) return null;
+
+        CachedSchema cached = featureSchemas.get(compiledTest.testId());
+        if (cached != null && cached.compiledTest() == compiledTest) {
+            return cached.schema();
+        }
+
+        FeatureSchema schema = FeatureSchema.build(compiledTest, model.featureColumns(), model.scaledColumns());
+        if (schema.isComplete()) {
+            log.info("📐 Feature schema {} for test {}: {} columns", schema.version(), compiledTest.testId(), schema.featureCount());
+        } else {
+            log.warn("⚠️ Test {} matches {} of {} model columns, predictions use positional answers",
+                    compiledTest.testId(), schema.featureCount() - schema.missingColumns().size(), schema.featureCount());
+        }
+        featureSchemas.put(compiledTest.testId(), new CachedSchema(compiledTest, schema));
+        return schema;
+    }
+
+    /**
+     * How a test's items map to the model's feature columns.
+     */
+    @Transactional
+    public FeatureSchemaResponse getFeatureSchema(Long testId) {
+        Test test = testRepository.findById(testId)
+                .orElseThrow(() -> new EntityNotFoundException("Test not found: " + testId));
+        FeatureSchema schema = featureSchema(compiledTestCache.getOrCompile(test));
+        if (schema == null) {
+            throw new IllegalStateException("ML model export is not loaded");
+        }
+
+        List<String> unmatchedItems = schema.unmatchedItems().stream()
+                .map(item -> item.subQuestionId() != null ? item.subQuestionText() : item.questionText())
+                .toList();
+        return new FeatureSchemaResponse(testId, schema.version(), schema.columnsHash(), schema.featureCount(),
+                schema.featureCount() - schema.missingColumns().size(), schema.isComplete(),
+                schema.missingColumns(), unmatchedItems);
+    }
+
+    /**
+     * Predicted code of one attempt.
+     */
+    String predictCode(ModelBatchRequest.Item item) {
+        if (localInference) {
+            try {
+                return predictLocally(item);
+            } catch (RuntimeException e) {
+                if (!remoteFallback) throw e;
+                log.warn("⚠️ In-process prediction failed for attempt {}, calling the model service: {}", item.getAttemptId(), e.getMessage());
+            }
+        }
+
+        // Do not queue behind a batch that the open circuit would refuse anyway
+        if (!modelServiceGuard.isCallPermitted()) {
+            throw new ServiceUnavailableException("model", "model service circuit is open", modelServiceGuard.retryAfterMs());
+        }
+
+        // Coalesced with concurrent predictions into one batch call (see PredictionBatcher)
+        log.info("📡 Calling Model Service: {}/api/ml/predict-codes", modelServiceUrl);
+        return predictionBatcher.predictCode(item);
+    }
+
+    /**
+     * Predicted codes of several attempts, in item order.
+     */
+    List<String> predictCodes(List<ModelBatchRequest.Item> items) {
+        if (localInference) {
+            try {
+                return items.stream().map(this::predictLocally).toList();
+            } catch (RuntimeException e) {
+                if (!remoteFallback) throw e;
+                log.warn("⚠️ In-process prediction failed for {} attempts, calling the model service: {}", items.size(), e.getMessage());
+            }
+        }
+        return predictionBatcher.predictAll(items);
+    }
+
+    private String predictLocally(ModelBatchRequest.Item item) {
+        if (item.getFeatures() == null) {
+            return model.predict(item.getAnswers());
+        }
+        if (!model.columnsHash().equals(item.getColumnsHash())) {
+            throw new IllegalArgumentException("Feature vector built for columns " + item.getColumnsHash() + ", model has " + model.columnsHash());
+        }
+        return model.predictVector(item.getFeatures());
+    }
+
     /**
      * Save ML prediction result to database.
      * Creates or updates MLResult entity for the test attempt.
      * 
-     * @param attempt The test attempt
+     * @param attemptId The test attempt
      * @param predictedCode The predicted personality code from ML model
      */
-    private void saveMLResult(TestAttempt attempt, String predictedCode) {
+    private void saveMLResult(Long attemptId, String predictedCode) {
         log.info("💾 Saving ML result to database...");
         
         // Check if ML result already exists for this attempt
-        MLResult mlResult = mlResultRepository.findByTestAttemptId(attempt.getId())
+        MLResult mlResult = mlResultRepository.findByTestAttemptId(attemptId)
                 .orElse(new MLResult());
         
         // Set/update fields
-        mlResult.setTestAttempt(attempt);
+        mlResult.setTestAttempt(testAttemptRepository.getReferenceById(attemptId));
         mlResult.setPredictedCode(predictedCode);
         mlResult.setPredictedAt(LocalDateTime.now());
        
@@ -180,7 +375,7 @@ public class ModelServiceClient {
      * @param answers List of Answer entities from database
      * @return Map of question IDs to answer values in model format
      */
-    private Map<String, String> transformAnswersToModelFormat(List<Answer> answers) {
+    static Map<String, String> transformAnswersToModelFormat(List<Answer> answers) {
         Map<String, String> answersMap = new HashMap<>();
 
         for (int i = 0; i < answers.size(); i++) {
@@ -198,7 +393,8 @@ public class ModelServiceClient {
             } else if (answer instanceof CheckBoxAnswer) {
                 // Binary answer: convert boolean to Arabic yes/no
                 CheckBoxAnswer checkBoxAnswer = (CheckBoxAnswer) answer;
-                answerValue = checkBoxAnswer.getBinaryValue() ? "نعم" : "لا";
+                answerValue = checkBoxAnswer.getBinaryValue() == null ? ""
+                        : checkBoxAnswer.getBinaryValue() ? "نعم" : "لا";
                 log.debug("   {} (BINARY): {}", questionKey, answerValue);
             }
             //  else if (answer instanceof OpenAnswer) {
@@ -0,0 +1,74 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.testm.TestAttempt.PackedAnswerLayout;
+import com.capstone.personalityTest.model.testm.TestAttempt.PackedAnswerSet;
+import com.capstone.personalityTest.repository.test.PackedAnswerLayoutRepository;
+import com.capstone.personalityTest.repository.test.PackedAnswerSetRepository;
+import com.capstone.personalityTest.service.test.PackedAnswers.ItemKey;
+import com.capstone.personalityTest.service.test.PackedAnswers.PackedAnswer;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read side of the packed answer format, plus the layouts it is decoded against.
+ * Layouts never change once written, so they are cached for the life of the application.
+ */
+@Component
+@RequiredArgsConstructor
+public class PackedAnswerStore {
+
+    private final PackedAnswerSetRepository packedAnswerSetRepository;
+    private final PackedAnswerLayoutRepository packedAnswerLayoutRepository;
+
+    private final Map<Long, List<ItemKey>> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * Packed answers of an attempt, empty if it was never compacted.
+     */
+    public List<PackedAnswer> read(Long attemptId) {
+        return packedAnswerSetRepository.findById(attemptId)
+                .map(set -> decode(set.getLayoutId(), set.getPackedValues()))
+                .orElse(List.of());
+    }
+
+    public Map<Long, List<PackedAnswer>> readAll(Collection<Long> attemptIds) {
+        Map<Long, List<PackedAnswer>> answers = new HashMap<>();
+        if (attemptIds.isEmpty()) return answers;
+
+        for (PackedAnswerSet set : packedAnswerSetRepository.findAllById(attemptIds)) {
+            answers.put(set.getTestAttemptId(), decode(set.getLayoutId(), set.getPackedValues()));
+        }
+        return answers;
+    }
+
+    public List<PackedAnswer> decode(Long layoutId, byte[] packedValues) {
+        return PackedAnswers.decode(layout(layoutId), packedValues);
+    }
+
+    /**
+     * Id of the layout matching the compiled test's current item order, created if missing.
+     */
+    public Long layoutId(CompiledTest compiledTest) {
+        String itemKeys = PackedAnswers.formatLayout(PackedAnswers.layoutOf(compiledTest));
+        for (PackedAnswerLayout layout : packedAnswerLayoutRepository.findByTestId(compiledTest.testId())) {
+            if (itemKeys.equals(layout.getItemKeys())) {
+                return layout.getId();
+            }
+        }
+        return packedAnswerLayoutRepository.save(new PackedAnswerLayout(null, compiledTest.testId(), itemKeys)).getId();
+    }
+
+    private List<ItemKey> layout(Long layoutId) {
+        return layouts.computeIfAbsent(layoutId, id -> PackedAnswers.parseLayout(
+                packedAnswerLayoutRepository.findById(id)
+                        .orElseThrow(() -> new EntityNotFoundException("Packed answer layout not found: " + id))
+                        .getItemKeys()));
+    }
+}
@@ -0,0 +1,134 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.Answer;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.CheckBoxAnswer;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.ScaleAnswer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoding of the packed answer format: one 4-bit code per item position of a layout,
+ * two items per byte (even positions in the low nibble).
+ *
+ * Codes: 0 = not answered, CHECKBOX 1 = false / 2 = true, SCALE value + 1 (values 0..14).
+ * Whether a code is a checkbox or a scale value comes from the layout's item type.
+ */
+public final class PackedAnswers {
+
+    public static final int EMPTY = 0;
+    public static final int MAX_SCALE_VALUE = 14;
+
+    private PackedAnswers() {
+    }
+
+    /**
+     * One position of a layout.
+     */
+    public record ItemKey(Long questionId, Long subQuestionId, AnswerType answerType) {
+    }
+
+    /**
+     * A decoded CHECKBOX or SCALE answer.
+     */
+    public record PackedAnswer(Long questionId, Long subQuestionId, AnswerType answerType,
+                               Boolean binaryValue, Integer scaleValue) {
+
+        /**
+         * Detached Answer carrying the value only, for code that consumes Answer entities.
+         */
+        public Answer toAnswer() {
+            if (answerType == AnswerType.CHECKBOX) {
+                return new CheckBoxAnswer(binaryValue);
+            }
+            return new ScaleAnswer(scaleValue);
+        }
+    }
+
+    public static byte[] newValues(int itemCount) {
+        return new byte[(itemCount + 1) / 2];
+    }
+
+    /**
+     * @return the code of a value, or EMPTY if it cannot be packed (null, unknown type, out of range)
+     */
+    public static int encode(AnswerType answerType, Boolean binaryValue, Integer scaleValue) {
+        if (answerType == AnswerType.CHECKBOX && binaryValue != null) {
+            return binaryValue ? 2 : 1;
+        }
+        if (answerType == AnswerType.SCALE && scaleValue != null && scaleValue >= 0 && scaleValue <= MAX_SCALE_VALUE) {
+            return scaleValue + 1;
+        }
+        return EMPTY;
+    }
+
+    public static int get(byte[] values, int index) {
+        int b = values[index >> 1];
+        return (index & 1) == 0 ? b & 0x0F : (b >> 4) & 0x0F;
+    }
+
+    public static void set(byte[] values, int index, int code) {
+        int i = index >> 1;
+        values[i] = (index & 1) == 0
+                ? (byte) ((values[i] & 0xF0) | code)
+                : (byte) ((values[i] & 0x0F) | (code << 4));
+    }
+
+    public static List<PackedAnswer> decode(List<ItemKey> layout, byte[] values) {
+        List<PackedAnswer> answers = new ArrayList<>();
+        int count = Math.min(layout.size(), values.length * 2);
+        for (int i = 0; i < count; i++) {
+            int code = get(values, i);
+            if (code == EMPTY) continue;
+
+            ItemKey key = layout.get(i);
+            if (key.answerType() == AnswerType.CHECKBOX) {
+                answers.add(new PackedAnswer(key.questionId(), key.subQuestionId(), key.answerType(), code == 2, null));
+            } else if (key.answerType() == AnswerType.SCALE) {
+                answers.add(new PackedAnswer(key.questionId(), key.subQuestionId(), key.answerType(), null, code - 1));
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * Layout of a compiled test, in compiled item order.
+     */
+    public static List<ItemKey> layoutOf(CompiledTest compiledTest) {
+        return compiledTest.items().stream()
+                .map(item -> new ItemKey(item.questionId(), item.subQuestionId(), item.answerType()))
+                .toList();
+    }
+
+    public static String formatLayout(List<ItemKey> layout) {
+        StringBuilder sb = new StringBuilder(layout.size() * 10);
+        for (ItemKey key : layout) {
+            if (!sb.isEmpty()) sb.append(',');
+            sb.append(key.questionId()).append(':')
+                    .append(key.subQuestionId() != null ? key.subQuestionId() : "").append(':')
+                    .append(key.answerType() != null ? key.answerType().name().charAt(0) : '-');
+        }
+        return sb.toString();
+    }
+
+    public static List<ItemKey> parseLayout(String itemKeys) {
+        if (itemKeys == null || itemKeys.isEmpty()) return List.of();
+
+        String[] entries = itemKeys.split(",");
+        List<ItemKey> layout = new ArrayList<>(entries.length);
+        for (String entry : entries) {
+            String[] parts = entry.split(":", -1);
+            layout.add(new ItemKey(
+                    Long.valueOf(parts[0]),
+                    parts[1].isEmpty() ? null : Long.valueOf(parts[1]),
+                    switch (parts[2]) {
+                        case "C" -> AnswerType.CHECKBOX;
+                        case "S" -> AnswerType.SCALE;
+                        case "O" -> AnswerType.OPEN;
+                        default -> null;
+                    }));
+        }
+        return layout;
+    }
+}
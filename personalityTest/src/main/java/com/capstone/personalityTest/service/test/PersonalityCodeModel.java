@@ -0,0 +1,211 @@
+package com.capstone.personalityTest.service.test;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process copy of the model service's personality-code pipeline (ai-service/ml_service.py):
+ * answer mapping, feature column order, StandardScaler and an RBF SVC with libsvm's one-vs-one
+ * voting, evaluated on primitive arrays. Loaded from the JSON written by ai-service/export_model.py;
+ * PersonalityCodeModelTest replays the golden predictions exported with it.
+ *
+ * The preprocessing mirrors the Python one exactly, quirks included: answers are matched to
+ * features by column name, and a value missing from the mapping counts as 0.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class PersonalityCodeModel {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Export(int format, String sklearnVersion, Map<String, Double> valueMapping, List<String> featureColumns,
+                  Scaling scaling, List<String> classes, Svm svm) {
+    }
+
+    record Scaling(List<String> columns, double[] mean, double[] scale) {
+    }
+
+    record Svm(String kernel, double gamma, int[] nSupport, double[][] supportVectors, double[][] dualCoef,
+               double[] intercept) {
+    }
+
+    private final String sklearnVersion;
+    private final List<String> featureColumns;
+    private final String columnsHash;
+    private final Set<String> scaledColumns;
+    private final Map<String, Integer> featureIndex;
+    private final Map<String, Double> valueMapping;
+    private final int[] scaledFeatures;
+    private final double[] mean;
+    private final double[] scale;
+    private final String[] classes;
+    private final double gamma;
+    private final int[] supportStart;   // first support vector of each class
+    private final int[] supportCount;
+    private final double[] supportVectors; // row-major, one row of featureColumns.size() per support vector
+    private final double[] dualCoef;       // row-major, (classes - 1) rows of supportCount total
+    private final double[] intercept;      // one per class pair (i < j), in libsvm order
+
+    private PersonalityCodeModel(Export export) {
+        Svm svm = export.svm();
+        if (export.format() != 1 || !"rbf".equals(svm.kernel())) {
+            throw new IllegalArgumentException("Unsupported model export: format " + export.format() + ", kernel " + svm.kernel());
+        }
+
+        sklearnVersion = export.sklearnVersion();
+        featureColumns = List.copyOf(export.featureColumns());
+        columnsHash = FeatureSchema.columnsHash(featureColumns);
+        featureIndex = new HashMap<>();
+        for (int i = 0; i < featureColumns.size(); i++) {
+            featureIndex.put(featureColumns.get(i), i);
+        }
+        valueMapping = Map.copyOf(export.valueMapping());
+
+        List<String> scalingColumns = export.scaling().columns();
+        scaledColumns = new LinkedHashSet<>(scalingColumns);
+        scaledFeatures = new int[scalingColumns.size()];
+        for (int k = 0; k < scaledFeatures.length; k++) {
+            Integer index = featureIndex.get(scalingColumns.get(k));
+            if (index == null) {
+                throw new IllegalArgumentException("Scaled column is not a feature: " + scalingColumns.get(k));
+            }
+            scaledFeatures[k] = index;
+        }
+        mean = export.scaling().mean();
+        scale = export.scaling().scale();
+
+        classes = export.classes().toArray(String[]::new);
+        gamma = svm.gamma();
+        supportCount = svm.nSupport();
+        supportStart = new int[classes.length];
+        for (int c = 1; c < classes.length; c++) {
+            supportStart[c] = supportStart[c - 1] + supportCount[c - 1];
+        }
+
+        int features = featureColumns.size();
+        int vectors = svm.supportVectors().length;
+        supportVectors = new double[vectors * features];
+        for (int s = 0; s < vectors; s++) {
+            System.arraycopy(svm.supportVectors()[s], 0, supportVectors, s * features, features);
+        }
+        dualCoef = new double[(classes.length - 1) * vectors];
+        for (int r = 0; r < classes.length - 1; r++) {
+            System.arraycopy(svm.dualCoef()[r], 0, dualCoef, r * vectors, vectors);
+        }
+        intercept = svm.intercept();
+    }
+
+    public static PersonalityCodeModel load(InputStream in) throws IOException {
+        return new PersonalityCodeModel(new ObjectMapper().readValue(in, Export.class));
+    }
+
+    public String sklearnVersion() {
+        return sklearnVersion;
+    }
+
+    public List<String> featureColumns() {
+        return featureColumns;
+    }
+
+    /**
+     * Columns standardized before the SVM (the scale answers); the others are checkbox answers.
+     */
+    public Set<String> scaledColumns() {
+        return scaledColumns;
+    }
+
+    public String columnsHash() {
+        return columnsHash;
+    }
+
+    /**
+     * Predicted personality code (e.g. "ISE") for answers in the model service's request format.
+     */
+    public String predict(Map<String, String> answers) {
+        return classes[predictClass(features(answers))];
+    }
+
+    /**
+     * Predicted personality code for a raw feature vector in featureColumns order (see FeatureSchema).
+     */
+    public String predictVector(double[] features) {
+        if (features.length != featureColumns.size()) {
+            throw new IllegalArgumentException("Expected " + featureColumns.size() + " features, got " + features.length);
+        }
+        double[] x = features.clone();
+        standardize(x);
+        return classes[predictClass(x)];
+    }
+
+    /**
+     * Scaled feature vector of one answers map, the row ml_service.py builds with pandas.
+     */
+    double[] features(Map<String, String> answers) {
+        double[] x = new double[featureColumns.size()];
+        for (Map.Entry<String, String> answer : answers.entrySet()) {
+            Integer index = featureIndex.get(answer.getKey());
+            if (index == null) continue; // reindex(columns=feature_columns) drops it
+
+            Double value = answer.getValue() == null ? null : valueMapping.get(answer.getValue());
+            x[index] = value == null ? 0 : value;
+        }
+        standardize(x);
+        return x;
+    }
+
+    private void standardize(double[] x) {
+        for (int k = 0; k < scaledFeatures.length; k++) {
+            int index = scaledFeatures[k];
+            x[index] = (x[index] - mean[k]) / scale[k];
+        }
+    }
+
+    /**
+     * libsvm's svm_predict for C-SVC: one decision value per class pair, one vote for its winner,
+     * the first class with most votes wins.
+     */
+    int predictClass(double[] x) {
+        int features = x.length;
+        int vectors = supportVectors.length / features;
+        double[] kernel = new double[vectors];
+        for (int s = 0; s < vectors; s++) {
+            double distance = 0;
+            int offset = s * features;
+            for (int f = 0; f < features; f++) {
+                double d = x[f] - supportVectors[offset + f];
+                distance += d * d;
+            }
+            kernel[s] = Math.exp(-gamma * distance);
+        }
+
+        int[] votes = new int[classes.length];
+        int pair = 0;
+        for (int i = 0; i < classes.length; i++) {
+            for (int j = i + 1; j < classes.length; j++) {
+                double sum = 0;
+                int coefI = (j - 1) * vectors;
+                int coefJ = i * vectors;
+                for (int s = supportStart[i]; s < supportStart[i] + supportCount[i]; s++) {
+                    sum += dualCoef[coefI + s] * kernel[s];
+                }
+                for (int s = supportStart[j]; s < supportStart[j] + supportCount[j]; s++) {
+                    sum += dualCoef[coefJ + s] * kernel[s];
+                }
+                sum += intercept[pair++];
+                votes[sum > 0 ? i : j]++;
+            }
+        }
+
+        int best = 0;
+        for (int c = 1; c < classes.length; c++) {
+            if (votes[c] > votes[best]) best = c;
+        }
+        return best;
+    }
+}
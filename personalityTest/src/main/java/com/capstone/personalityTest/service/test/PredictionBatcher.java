@@ -0,0 +1,166 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.RequestDTO.test.ModelBatchRequest;
+import com.capstone.personalityTest.dto.ResponseDTO.test.ModelBatchResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces concurrent personality-code predictions into batch calls to the model service
+ * (POST /api/ml/predict-codes); the SVM scores a batch in about the time of a single row.
+ *
+ * A batch is closed window-ms after its first request or at max-size requests, whichever
+ * comes first. At most max-in-flight batches are sent at once; while they are out, new
+ * requests keep queueing, so batches grow with the load instead of the number of calls.
+ * A caller that gives up (timeout, interrupt) cancels its request, and cancelled requests are
+ * left out of the batch they were queued for.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PredictionBatcher {
+
+    private final RestTemplate modelRestTemplate; // pooled client rooted at model.service.url (ServiceClientConfig)
+
+    @Value("${app.ml.batch.window-ms:10}")
+    private long windowMs = 10;
+
+    @Value("${app.ml.batch.max-size:64}")
+    private int maxSize = 64;
+
+    @Value("${app.ml.batch.max-in-flight:4}")
+    private int maxInFlight = 4;
+
+    @Value("${app.ml.batch.wait-timeout-ms:15000}")
+    private long waitTimeoutMs = 15000;
+
+    private record Pending(ModelBatchRequest.Item item, CompletableFuture<String> result) {
+    }
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private Semaphore inFlight;
+    private ExecutorService senders;
+    private Thread collector;
+
+    @PostConstruct
+    void start() {
+        inFlight = new Semaphore(maxInFlight);
+        senders = Executors.newFixedThreadPool(maxInFlight, r -> {
+            Thread thread = new Thread(r, "ml-batch-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        collector = new Thread(this::collect, "ml-batch-collector");
+        collector.setDaemon(true);
+        collector.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        collector.interrupt();
+        senders.shutdownNow();
+    }
+
+    /**
+     * Predicted code of one attempt, sent together with whatever other predictions are pending.
+     *
+     * @throws IllegalStateException if the batch call fails or does not answer within wait-timeout-ms
+     */
+    public String predictCode(ModelBatchRequest.Item item) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        queue.add(new Pending(item, result));
+        try {
+            return result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Model service prediction failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw new IllegalStateException("Model service prediction timed out after " + waitTimeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the model service", e);
+        }
+    }
+
+    /**
+     * One batch call, bypassing the queue (callers that already have a batch, e.g. the backfill).
+     *
+     * @return predicted codes in item order
+     */
+    public List<String> predictAll(List<ModelBatchRequest.Item> items) {
+        if (items.isEmpty()) return List.of();
+
+        ModelBatchResponse response = modelRestTemplate.postForObject(
+                "/api/ml/predict-codes", new ModelBatchRequest(items), ModelBatchResponse.class);
+        int received = response != null && response.getPredictions() != null ? response.getPredictions().size() : 0;
+        if (received != items.size()) {
+            throw new IllegalStateException(String.format(
+                    "Model service returned %d predictions for %d items", received, items.size()));
+        }
+        return response.getPredictions().stream().map(ModelBatchResponse.Prediction::getPredictedCode).toList();
+    }
+
+    private void collect() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                // Wait for a free sender first: requests arriving meanwhile join the next batch
+                inFlight.acquire();
+                List<Pending> batch = new ArrayList<>();
+                Pending first = queue.take();
+                while (first.result().isDone()) {
+                    first = queue.take();
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    if (!next.result().isDone()) batch.add(next);
+                }
+                senders.execute(() -> send(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void send(List<Pending> collected) {
+        // Callers may have given up while the batch was collected or waited for a sender
+        List<Pending> batch = collected.stream().filter(pending -> !pending.result().isDone()).toList();
+        try {
+            if (batch.isEmpty()) return;
+
+            List<ModelBatchRequest.Item> items = batch.stream().map(Pending::item).toList();
+            List<String> codes = predictAll(items);
+            log.debug("Predicted {} personality codes in one batch", codes.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(codes.get(i));
+            }
+        } catch (Exception e) {
+            log.warn("Batch prediction of {} attempts failed: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        } finally {
+            inFlight.release();
+        }
+    }
+}
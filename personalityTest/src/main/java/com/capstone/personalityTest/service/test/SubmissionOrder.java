@@ -0,0 +1,51 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.AnswerRequest;
+import com.capstone.personalityTest.model.Enum.AnswerSubmissionStatus;
+
+/**
+ * Ordering rules for pipelined answer submissions.
+ *
+ * Clients may number the submissions of an attempt with an increasing clientSequence and/or
+ * tag each one with an idempotencyKey, then send them without waiting for the responses.
+ * Each stored answer remembers the sequence and key that last wrote it; a submission for the
+ * same item is dropped when it carries that key again (a retry) or a sequence that is not
+ * higher (a retry, or an older request overtaken on the network).
+ */
+final class SubmissionOrder {
+
+    private SubmissionOrder() {
+    }
+
+    /**
+     * Sequence and key of the submission that last wrote an item
+     */
+    record Stored(Long clientSequence, String idempotencyKey) {
+
+        static Stored of(AnswerRequest request) {
+            return new Stored(request.getClientSequence(), request.getIdempotencyKey());
+        }
+    }
+
+    /**
+     * @return DUPLICATE or STALE if the request must be dropped, null if it should be applied
+     *         (always null when nothing is stored)
+     */
+    static AnswerSubmissionStatus check(Stored stored, AnswerRequest request) {
+        return stored == null ? null : check(stored.clientSequence(), stored.idempotencyKey(), request);
+    }
+
+    /**
+     * @return DUPLICATE or STALE if the request must be dropped, null if it should be applied
+     */
+    static AnswerSubmissionStatus check(Long storedSequence, String storedKey, AnswerRequest request) {
+        if (request.getIdempotencyKey() != null && request.getIdempotencyKey().equals(storedKey)) {
+            return AnswerSubmissionStatus.DUPLICATE;
+        }
+        if (request.getClientSequence() != null && storedSequence != null) {
+            if (request.getClientSequence().equals(storedSequence)) return AnswerSubmissionStatus.DUPLICATE;
+            if (request.getClientSequence() < storedSequence) return AnswerSubmissionStatus.STALE;
+        }
+        return null;
+    }
+}
@@ -1,7 +1,11 @@
 package com.capstone.personalityTest.service.test;
 
 import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.AnswerRequest;
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIAnalysisTriggerResponse;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AnswerResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AttemptProgressResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AnswerSubmissionResult;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.ScorePreviewResponse;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.TestAttemptWithAnswersResponse;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.TestAttemptResponse;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.SectionResponse;
@@ -10,13 +14,11 @@ import com.capstone.personalityTest.mapper.TestAttemptMapper;
 import com.capstone.personalityTest.mapper.TestMapper.QuestionMapper;
 import com.capstone.personalityTest.mapper.TestMapper.SectionMapper;
 import com.capstone.personalityTest.mapper.TestMapper.SubQuestionMapper;
+import com.capstone.personalityTest.model.Enum.AnswerSubmissionStatus;
 import com.capstone.personalityTest.model.Enum.AnswerType;
-import com.capstone.personalityTest.model.Enum.TargetGender;
 import com.capstone.personalityTest.model.Enum.TestStatus;
 import com.capstone.personalityTest.model.testm.EvaluationResult;
-import com.capstone.personalityTest.model.testm.Test.Metric;
 import com.capstone.personalityTest.model.testm.Test.Question;
-import com.capstone.personalityTest.model.testm.Test.Section;
 import com.capstone.personalityTest.model.testm.Test.SubQuestion;
 import com.capstone.personalityTest.model.testm.Test.Test;
 import com.capstone.personalityTest.model.testm.TestAttempt.Answer.Answer;
@@ -26,17 +28,19 @@ import com.capstone.personalityTest.model.testm.TestAttempt.Answer.ScaleAnswer;
 import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
 import com.capstone.personalityTest.model.UserInfo;
 import com.capstone.personalityTest.repository.test.AnswerRepository;
+import com.capstone.personalityTest.repository.test.AnswerUpsertRepository;
 import com.capstone.personalityTest.repository.test.TestAttemptRepository;
-import com.capstone.personalityTest.repository.test.TestRepo.MetricRepository;
 import com.capstone.personalityTest.repository.test.TestRepo.QuestionRepository;
 import com.capstone.personalityTest.repository.test.TestRepo.SubQuestionRepository;
 import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
 import com.capstone.personalityTest.repository.UserInfoRepository;
-import com.capstone.personalityTest.service.test.AIIntegrationService;
+import com.capstone.personalityTest.service.test.PackedAnswers.PackedAnswer;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 
@@ -44,6 +48,8 @@ import java.util.*;
 @RequiredArgsConstructor
 public class TestAttemptService {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64; // Answer.idempotencyKey column
+
     private final TestRepository testRepository;
     private final TestAttemptRepository testAttemptRepository;
     private final UserInfoRepository userInfoRepository;
@@ -55,25 +61,38 @@ public class TestAttemptService {
     private final AnswerRepository answerRepository;
     private final TestAttemptMapper testAttemptMapper;
     private final AnswerMapper answerMapper;
-    private final AIIntegrationService aiIntegrationService;
-    
-    private final MetricRepository metricRepository;
+    private final AIAnalysisJobService aiAnalysisJobService;
+    private final CompiledTestCache compiledTestCache;
+    private final DraftAnswerBuffer draftAnswerBuffer;
+    private final AttemptScoreAccumulator scoreAccumulator;
+    private final PackedAnswerStore packedAnswerStore;
 
 
+    @Transactional
     public TestAttemptResponse startTest(Long testId, Long studentId) {
         Optional<UserInfo> optionalStudent = userInfoRepository.findById(studentId);
         if(optionalStudent.isEmpty())
                 throw new EntityNotFoundException("Student not found");
 
-        Optional<Test> optionalTest = testRepository.findById(testId);
-        if(optionalTest.isEmpty())
-            throw new EntityNotFoundException("Test not found");
-
         UserInfo student = optionalStudent.get();
-        Test test = optionalTest.get();
 
-        if (test.getStatus() != TestStatus.PUBLISHED || !test.isActive()) {
-            throw new IllegalStateException("Test is not available for attempts");
+        // Published & active tests are served from the compiled cache without loading the graph
+        CompiledTest compiledTest = compiledTestCache.get(testId);
+        Test test;
+        if (compiledTest != null) {
+            test = testRepository.getReferenceById(testId);
+        } else {
+            Optional<Test> optionalTest = testRepository.findById(testId);
+            if(optionalTest.isEmpty())
+                throw new EntityNotFoundException("Test not found");
+
+            test = optionalTest.get();
+
+            if (test.getStatus() != TestStatus.PUBLISHED || !test.isActive()) {
+                throw new IllegalStateException("Test is not available for attempts");
+            }
+
+            compiledTest = compiledTestCache.compile(test);
         }
 
         // Create TestAttempt
@@ -83,46 +102,34 @@ public class TestAttemptService {
 
         testAttemptRepository.save(testAttempt);
 
-        //Pre-filter questions & sub questions
-        List<Section> filteredSections = test.getSections().stream()
-                .peek(section -> {
-                    List<Question> filteredQuestions = section.getQuestions().stream()
-                            .filter(q -> isQuestionVisible(q, student))
-                            .peek(q -> q.setSubQuestions(
-                                    q.getSubQuestions().stream()
-                                            .filter(sq -> isSubQuestionVisible(sq, student))
-                                            .toList()
-                            )).toList();
-
-                    section.setQuestions(filteredQuestions);
-                }).toList();
-
-       // MapStruct handles mapping
-        List<SectionResponse> sectionsResponse = sectionMapper.toDtoList(filteredSections);
-
         TestAttemptResponse response = new TestAttemptResponse();
         response.setId(testAttempt.getId());
-        response.setTestId(test.getId());
-        response.setTestTitle(test.getTitle());
-        response.setTestDescription(test.getDescription());
-        response.setSections(sectionsResponse);
+        response.setTestId(compiledTest.testId());
+        response.setTestTitle(compiledTest.title());
+        response.setTestDescription(compiledTest.description());
+        response.setSections(compiledTest.sectionsFor(student.getGender()));
 
         return response;
     }
 
     public boolean isQuestionVisible(Question question, UserInfo student) {
-        return question.getTargetGender() == TargetGender.ALL
-                || question.getTargetGender() == student.getGender();
+        return CompiledTestCache.isVisible(question.getTargetGender(), student.getGender());
     }
 
     public boolean isSubQuestionVisible(SubQuestion subQuestion, UserInfo student) {
-        return subQuestion.getTargetGender() == TargetGender.ALL
-                || subQuestion.getTargetGender() == student.getGender();
+        return CompiledTestCache.isVisible(subQuestion.getTargetGender(), student.getGender());
     }
 
 
+    /**
+     * Submit one answer. Retried or overtaken submissions (see SubmissionOrder) are dropped.
+     * CHECKBOX and SCALE answers are written with a single upsert statement that applies the
+     * ordering rules itself, so concurrent submissions for an attempt need no lock on it.
+     *
+     * @return CREATED, UPDATED or BUFFERED when applied; DUPLICATE or STALE when dropped
+     */
     @Transactional
-    public void submitAnswers(Long attemptId, AnswerRequest answers) {
+    public AnswerSubmissionStatus submitAnswers(Long attemptId, AnswerRequest answers) {
         Optional<TestAttempt> optionalTestAttempt = testAttemptRepository.findById(attemptId);
         if(optionalTestAttempt.isEmpty()) throw new EntityNotFoundException("TestAttempt not found");
         TestAttempt attempt = optionalTestAttempt.get();
@@ -130,8 +137,30 @@ public class TestAttemptService {
         if (attempt.isFinalized()) {
             throw new IllegalStateException("Cannot submit answers: this test attempt is already finalized.");
         }
+        String keyError = validateIdempotencyKey(answers);
+        if (keyError != null) {
+            throw new IllegalArgumentException(keyError);
+        }
 
-
+        // Draft mode: validate in memory and keep the latest value until the next flush
+        if (draftAnswerBuffer.isBuffered()) {
+            CompiledTest compiledTest = compiledTestCache.getOrCompile(attempt.getTest());
+            CompiledItem item = compiledTest.item(answers.getQuestionId(), answers.getSubQuestionId());
+            if (item == null && answers.getSubQuestionId() == null) {
+                throw new EntityNotFoundException("Question not found");
+            }
+            String error = validateItem(item, answers);
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            // The first draft of the attempt is checked against its stored answers
+            Map<Integer, SubmissionOrder.Stored> stored = draftAnswerBuffer.hasPending(attemptId)
+                    ? null : loadStoredItems(attemptId, compiledTest);
+            AnswerSubmissionStatus staged = draftAnswerBuffer.stage(attemptId, item.index(), answers, stored);
+            if (staged != null) {
+                return staged;
+            }
+        }
 
         Question question = questionRepository.findById(answers.getQuestionId())
                 .orElseThrow(() -> new EntityNotFoundException("Question not found"));
@@ -165,38 +194,252 @@ public class TestAttemptService {
             );
         }
 
+        if (answers.getAnswerType() != AnswerType.OPEN) {
+            AnswerUpsertRepository.UpsertOutcome outcome = answerRepository.upsertValue(toValueUpsert(attemptId, answers));
+            if (outcome == AnswerUpsertRepository.UpsertOutcome.UNCHANGED) {
+                return unchangedStatus(attemptId, answers);
+            }
+            scoreAccumulator.record(attemptId, answers);
+            return outcome == AnswerUpsertRepository.UpsertOutcome.INSERTED
+                    ? AnswerSubmissionStatus.CREATED
+                    : AnswerSubmissionStatus.UPDATED;
+        }
+
+        // OPEN answers keep their values in a collection table and go through JPA
         Optional<Answer> existing = answerRepository.findByAttemptAndQuestionAndSubQuestion(
                 attemptId, answers.getQuestionId(), answers.getSubQuestionId());
 
         Answer answer;
         if (existing.isPresent()) {
                 answer = existing.get(); // update existing
-                if (answer instanceof OpenAnswer && answers.getOpenValues() != null) {
-                    ((OpenAnswer) answer).setValues(new ArrayList<>(answers.getOpenValues()));
-                } else if (answer instanceof CheckBoxAnswer && answers.getBinaryValue() != null) {
-                    ((CheckBoxAnswer) answer).setBinaryValue(answers.getBinaryValue());
-                } else if (answer instanceof ScaleAnswer && answers.getScaleValue() != null) {
-                    ((ScaleAnswer) answer).setScaleValue(answers.getScaleValue());
+                AnswerSubmissionStatus dropped = SubmissionOrder.check(
+                        answer.getClientSequence(), answer.getIdempotencyKey(), answers);
+                if (dropped != null) {
+                    return dropped;
                 }
+                applyValues(answer, answers);
         } else {
                 answer = getAnswer(answers); // create new
+                answer.setQuestion(question);
+                answer.setSubQuestion(subQuestion);
+                answer.setTestAttempt(attempt);
+                answerRepository.save(answer);
+        }
+        scoreAccumulator.record(attemptId, answers);
+
+        return existing.isPresent() ? AnswerSubmissionStatus.UPDATED : AnswerSubmissionStatus.CREATED;
+    }
+
+    // The upsert left the row as it was: tell a dropped submission from a repeat of the stored value
+    private AnswerSubmissionStatus unchangedStatus(Long attemptId, AnswerRequest request) {
+        return answerRepository.findByAttemptAndQuestionAndSubQuestion(
+                        attemptId, request.getQuestionId(), request.getSubQuestionId())
+                .map(answer -> SubmissionOrder.check(answer.getClientSequence(), answer.getIdempotencyKey(), request))
+                .orElse(AnswerSubmissionStatus.UPDATED);
+    }
+
+    /**
+     * Submit a whole section/page of answers in one round trip.
+     * Items are validated against the compiled test in memory; invalid items are rejected
+     * individually while the valid CHECKBOX/SCALE ones are upserted in one JDBC batch
+     * (or kept in the draft buffer when answer durability is "buffered").
+     *
+     * @return one result per submitted item, in request order
+     */
+    @Transactional
+    public List<AnswerSubmissionResult> submitAnswersBatch(Long attemptId, List<AnswerRequest> requests) {
+        TestAttempt attempt = testAttemptRepository.findById(attemptId)
+                .orElseThrow(() -> new EntityNotFoundException("TestAttempt not found"));
+
+        if (attempt.isFinalized()) {
+            throw new IllegalStateException("Cannot submit answers: this test attempt is already finalized.");
         }
 
-            // Set common fields
-            answer.setQuestion(question);
-            answer.setSubQuestion(subQuestion);
-            answer.setTestAttempt(attempt);
+        CompiledTest compiledTest = compiledTestCache.getOrCompile(attempt.getTest());
 
-            // Add to attempt if new
-            if (existing.isEmpty()) {
-                attempt.getAnswers().add(answer);
+        List<AnswerSubmissionResult> results = new ArrayList<>(requests.size());
+        Map<Integer, SubmissionOrder.Stored> storedByItem = draftAnswerBuffer.isBuffered() && !draftAnswerBuffer.hasPending(attemptId)
+                ? loadStoredItems(attemptId, compiledTest) : null;
+        List<AnswerUpsertRepository.ValueUpsert> upserts = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            AnswerRequest request = requests.get(i);
+            CompiledItem item = compiledTest.item(request.getQuestionId(), request.getSubQuestionId());
+
+            String error = validateItem(item, request);
+            if (error != null) {
+                results.add(rejected(i, request, error));
+                continue;
             }
 
-            answerRepository.save(answer);
+            AnswerSubmissionStatus status = draftAnswerBuffer.stage(attemptId, item.index(), request, storedByItem);
+            if (status == null) {
+                if (storedByItem == null) {
+                    storedByItem = loadStoredItems(attemptId, compiledTest);
+                }
+                status = writeAnswer(attempt, item, request, storedByItem, upserts);
+            }
 
+            results.add(new AnswerSubmissionResult(
+                    i, request.getQuestionId(), request.getSubQuestionId(), status, null));
+        }
 
-        testAttemptRepository.save(attempt); // persist with result
+        upsertValues(attemptId, compiledTest, upserts);
+        return results;
+    }
 
+    /**
+     * Write the buffered draft answers of an attempt to the Answer table.
+     * Called by the idle/checkpoint flush; drafts of an attempt finalized meanwhile are discarded.
+     */
+    @Transactional
+    public void flushDraftAnswers(Long attemptId) {
+        if (!draftAnswerBuffer.hasPending(attemptId)) return;
+
+        TestAttempt attempt = testAttemptRepository.findById(attemptId).orElse(null);
+        if (attempt == null || attempt.isFinalized()) {
+            draftAnswerBuffer.drain(attemptId);
+            return;
+        }
+        flushPendingAnswers(attempt);
+    }
+
+    // Bulk-write whatever the draft buffer holds for this attempt; no-op in write-through mode.
+    // The drafts leave the buffer now but are only stored once the surrounding transaction commits:
+    // if it does not (a failure here, an incomplete finalize, a failed commit) they are put back
+    private Map<Integer, AnswerRequest> flushPendingAnswers(TestAttempt attempt) {
+        Map<Integer, AnswerRequest> pending = draftAnswerBuffer.drain(attempt.getId());
+        if (pending.isEmpty()) return pending;
+
+        boolean restoreOnCompletion = TransactionSynchronizationManager.isSynchronizationActive();
+        if (restoreOnCompletion) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        draftAnswerBuffer.restore(attempt.getId(), pending);
+                    }
+                }
+            });
+        }
+
+        try {
+            CompiledTest compiledTest = compiledTestCache.getOrCompile(attempt.getTest());
+            Map<Integer, SubmissionOrder.Stored> storedByItem = loadStoredItems(attempt.getId(), compiledTest);
+            List<AnswerUpsertRepository.ValueUpsert> upserts = new ArrayList<>();
+
+            pending.forEach((index, request) ->
+                    writeAnswer(attempt, compiledTest.items().get(index), request, storedByItem, upserts));
+
+            upsertValues(attempt.getId(), compiledTest, upserts);
+        } catch (RuntimeException e) {
+            if (!restoreOnCompletion) {
+                draftAnswerBuffer.restore(attempt.getId(), pending);
+            }
+            throw e;
+        }
+        return pending;
+    }
+
+    // Ordering state of what is already answered in this attempt, keyed by compiled item index.
+    // Read as a projection: no Answer entities enter the persistence context, where the upsert would leave them stale
+    private Map<Integer, SubmissionOrder.Stored> loadStoredItems(Long attemptId, CompiledTest compiledTest) {
+        Map<Integer, SubmissionOrder.Stored> storedByItem = new HashMap<>();
+        for (AnswerRepository.AnswerValueView stored : answerRepository.findValuesByTestAttemptId(attemptId)) {
+            CompiledItem item = compiledTest.item(stored.getQuestionId(), stored.getSubQuestionId());
+            if (item != null) {
+                storedByItem.put(item.index(), new SubmissionOrder.Stored(stored.getClientSequence(), stored.getIdempotencyKey()));
+            }
+        }
+        return storedByItem;
+    }
+
+    // A batch does not report which rows it changed, so the running scores get what the rows hold now.
+    // The upsert locked those rows for this transaction: what it reads back is what it commits
+    private void upsertValues(Long attemptId, CompiledTest compiledTest, List<AnswerUpsertRepository.ValueUpsert> upserts) {
+        answerRepository.upsertValues(upserts);
+        if (upserts.isEmpty()) return;
+
+        Set<Integer> written = new HashSet<>();
+        for (AnswerUpsertRepository.ValueUpsert upsert : upserts) {
+            written.add(compiledTest.item(upsert.questionId(), upsert.subQuestionId()).index());
+        }
+        for (AnswerRepository.AnswerValueView stored : answerRepository.findValuesByTestAttemptId(attemptId)) {
+            CompiledItem item = compiledTest.item(stored.getQuestionId(), stored.getSubQuestionId());
+            if (item != null && written.contains(item.index())) {
+                scoreAccumulator.recordStored(attemptId, stored);
+            }
+        }
+    }
+
+    // Queue a CHECKBOX/SCALE value for the batched upsert (scored by upsertValues), or write an OPEN answer through JPA
+    private AnswerSubmissionStatus writeAnswer(TestAttempt attempt, CompiledItem item, AnswerRequest request,
+                                               Map<Integer, SubmissionOrder.Stored> storedByItem,
+                                               List<AnswerUpsertRepository.ValueUpsert> upserts) {
+        SubmissionOrder.Stored stored = storedByItem.get(item.index());
+        AnswerSubmissionStatus dropped = SubmissionOrder.check(stored, request);
+        if (dropped != null) {
+            return dropped;
+        }
+        storedByItem.put(item.index(), SubmissionOrder.Stored.of(request));
+
+        if (item.answerType() == AnswerType.OPEN) {
+            writeOpenAnswer(attempt, item, request);
+            scoreAccumulator.record(attempt.getId(), request);
+        } else {
+            upserts.add(toValueUpsert(attempt.getId(), request));
+        }
+        return stored != null ? AnswerSubmissionStatus.UPDATED : AnswerSubmissionStatus.CREATED;
+    }
+
+    private void writeOpenAnswer(TestAttempt attempt, CompiledItem item, AnswerRequest request) {
+        Optional<Answer> existing = answerRepository.findByAttemptAndQuestionAndSubQuestion(
+                attempt.getId(), item.questionId(), item.subQuestionId());
+        if (existing.isPresent()) {
+            applyValues(existing.get(), request); // managed entity, flushed on commit
+            return;
+        }
+
+        Answer answer = getAnswer(request);
+        answer.setQuestion(questionRepository.getReferenceById(item.questionId()));
+        answer.setSubQuestion(item.subQuestionId() != null
+                ? subQuestionRepository.getReferenceById(item.subQuestionId())
+                : null);
+        answer.setTestAttempt(attempt);
+        answerRepository.save(answer);
+    }
+
+    private AnswerUpsertRepository.ValueUpsert toValueUpsert(Long attemptId, AnswerRequest request) {
+        return new AnswerUpsertRepository.ValueUpsert(attemptId, request.getQuestionId(), request.getSubQuestionId(),
+                request.getAnswerType(), request.getBinaryValue(), request.getScaleValue(),
+                request.getClientSequence(), request.getIdempotencyKey());
+    }
+
+    // Same checks as submitAnswers, answered from the compiled test; null when the answer is valid
+    private String validateItem(CompiledItem item, AnswerRequest request) {
+        if (item == null) {
+            return request.getSubQuestionId() == null
+                    ? String.format("Question %d is not part of this test", request.getQuestionId())
+                    : String.format("SubQuestion %d does not belong to Question %d or does not exist",
+                            request.getSubQuestionId(), request.getQuestionId());
+        }
+        if (item.answerType() != request.getAnswerType()) {
+            return String.format("Answer type mismatch: Question %d expects %s but got %s",
+                    item.questionId(), item.answerType(), request.getAnswerType());
+        }
+        return validateIdempotencyKey(request);
+    }
+
+    private String validateIdempotencyKey(AnswerRequest request) {
+        if (request.getIdempotencyKey() != null && request.getIdempotencyKey().length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return String.format("idempotencyKey must be at most %d characters", MAX_IDEMPOTENCY_KEY_LENGTH);
+        }
+        return null;
+    }
+
+    private AnswerSubmissionResult rejected(int index, AnswerRequest request, String error) {
+        return new AnswerSubmissionResult(index, request.getQuestionId(), request.getSubQuestionId(),
+                AnswerSubmissionStatus.REJECTED, error);
     }
 
     @Transactional
@@ -204,57 +447,34 @@ public class TestAttemptService {
         TestAttempt attempt = testAttemptRepository.findById(attemptId)
                 .orElseThrow(() -> new EntityNotFoundException("TestAttempt not found"));
 
-        UserInfo student = attempt.getStudent();
-        Test test = attempt.getTest();
-
         if (attempt.isFinalized()) {
             throw new IllegalStateException("Test attempt already finalized.");
         }
 
+        // Buffered drafts must be in the Answer table before counting and scoring
+        flushPendingAnswers(attempt);
+
+        // The persisted result is scored from the stored answers in this transaction. The running scores
+        // are local to this instance and may miss writes made elsewhere, so they only feed the preview
+        AttemptScoreAccumulator.Snapshot scores = scoreAccumulator.score(attempt);
+
         //make sure all questions are being answered
-        int totalVisibleItems = test.getSections().stream()
-                .flatMap(section -> section.getQuestions().stream())
-                .filter(q -> isQuestionVisible(q, student)) // only visible questions
-                .mapToInt(q -> {
-                    // If it has visible subquestions → count them individually
-                    long visibleSubCount = q.getSubQuestions().stream()
-                            .filter(sq -> isSubQuestionVisible(sq, student))
-                            .count();
-                    return visibleSubCount > 0 ? (int) visibleSubCount : 1; // if no subs, count the question itself
-                })
-                .sum();
-
-        // Count answered items
-        long answeredItems = attempt.getAnswers().stream()
-                .filter(a -> {
-                    if (a instanceof CheckBoxAnswer cb) return cb.getBinaryValue() != null;
-                    if (a instanceof ScaleAnswer sa) return sa.getScaleValue() != null;
-                    if (a instanceof OpenAnswer oa) return oa.getValues() != null && !oa.getValues().isEmpty();
-                    return false;
-                })
-                .map(a -> a.getSubQuestion() != null
-                        ? "S" + a.getSubQuestion().getId()
-                        : "Q" + a.getQuestion().getId())
-                .distinct()
-                .count();
-
-
-        if (answeredItems < totalVisibleItems) {
+        if (!scores.isComplete()) {
+            // The transaction rolls back and the flushed drafts go back to the buffer for the student's next try
             throw new IllegalStateException(
                     String.format("Cannot finalize: only %d/%d visible questions answered.",
-                            answeredItems, totalVisibleItems)
+                            scores.answeredItems(), scores.requiredItems())
             );
         }
 
-
-
-        // Calculate final result (personality code + metric scores)
-        EvaluationResult result = calculateResult(attempt.getAnswers(), test);
+        // Final result (personality code + metric scores)
+        EvaluationResult result = scores.toEvaluationResult();
         attempt.setEvaluationResult(result);
         attempt.setFinalized(true); // Lock the test attempt
 
         // Save to database
         testAttemptRepository.save(attempt);
+        scoreAccumulator.evict(attemptId);
         
         // Note: AI analysis is now triggered manually via separate endpoint
         // See: POST /api/test-attempts/{attemptId}/analyze
@@ -262,55 +482,19 @@ public class TestAttemptService {
         return result;
     }
 
-    //helper function for submitAnswer to calculate the results
-    private EvaluationResult calculateResult(List<Answer> answers, Test test) {
-
-        Map<String, Integer> scores = new HashMap<>();
-
-        // Initialize all metrics with 0 from the BaseTest
-        if (test.getBaseTest() != null) {
-            List<Metric> metrics = metricRepository.findByBaseTestId(test.getBaseTest().getId());
-            for (Metric metric : metrics) {
-                scores.put(metric.getCode(), 0);
-            }
-        }
-
-        for (Answer answer : answers) {
-
-            if (answer.getSubQuestion() == null) continue;
-
-            String metricCode = answer.getSubQuestion()
-                    .getMetric()
-                    .getCode();
-
-            if (metricCode == null) continue;
-
-            // CHECKBOX → +1
-            if (answer instanceof CheckBoxAnswer cb &&
-                    Boolean.TRUE.equals(cb.getBinaryValue())) {
-
-                scores.merge(metricCode, 1, Integer::sum);
-            }
-
-            // SCALE → +scaleValue
-            else if (answer instanceof ScaleAnswer sa &&
-                    sa.getScaleValue() != null) {
-
-                scores.merge(metricCode, sa.getScaleValue(), Integer::sum);
-            }
-
-            // OPEN answers → ignored
+    // Overwrite the stored value of an existing answer; null values leave it unchanged
+    private void applyValues(Answer answer, AnswerRequest req) {
+        answer.setClientSequence(req.getClientSequence());
+        answer.setIdempotencyKey(req.getIdempotencyKey());
+        if (answer instanceof OpenAnswer open && req.getOpenValues() != null) {
+            open.setValues(new ArrayList<>(req.getOpenValues()));
+        } else if (answer instanceof CheckBoxAnswer checkBox && req.getBinaryValue() != null) {
+            checkBox.setBinaryValue(req.getBinaryValue());
+        } else if (answer instanceof ScaleAnswer scale && req.getScaleValue() != null) {
+            scale.setScaleValue(req.getScaleValue());
         }
-
-        EvaluationResult result = new EvaluationResult();
-        result.setMetricScores(scores);
-        result.calculateTopMetrics(); // renamed method
-
-        return result;
     }
 
-
-
     private Answer getAnswer(AnswerRequest req) {
         Answer answer;
 
@@ -338,19 +522,125 @@ public class TestAttemptService {
                 throw new IllegalArgumentException("Invalid answer type: " + req.getAnswerType());
         }
 
+        answer.setClientSequence(req.getClientSequence());
+        answer.setIdempotencyKey(req.getIdempotencyKey());
         return answer;
     }
 
 
+    /**
+     * Live profile of an attempt from its running scores and pending drafts, without finalizing it
+     * or writing the drafts. Finalized attempts return their stored result.
+     */
+    @Transactional
+    public ScorePreviewResponse previewScores(Long attemptId) {
+        TestAttempt attempt = testAttemptRepository.findById(attemptId)
+                .orElseThrow(() -> new EntityNotFoundException("TestAttempt not found"));
+
+        if (attempt.isFinalized()) {
+            EvaluationResult result = attempt.getEvaluationResult();
+            return new ScorePreviewResponse(attemptId, true, null, null, result.getMetricScores(),
+                    result.getFirstMetric(), result.getSecondMetric(), result.getThirdMetric());
+        }
+
+        AttemptScoreAccumulator.Snapshot scores = scoreAccumulator.snapshot(attempt, draftAnswerBuffer.pending(attemptId));
+        EvaluationResult result = scores.toEvaluationResult();
+        return new ScorePreviewResponse(attemptId, false, scores.answeredItems(), scores.requiredItems(),
+                result.getMetricScores(), result.getFirstMetric(), result.getSecondMetric(), result.getThirdMetric());
+    }
+
+    /**
+     * Everything needed to resume an attempt: answered/total counts per section, the stored
+     * answer values and the first unanswered item. Reads projections of the attempt and its
+     * answers plus the compiled test instead of mapping the section tree and answer entities.
+     */
+    @Transactional
+    public AttemptProgressResponse getProgress(Long attemptId) {
+        TestAttemptRepository.AttemptHeaderView header = testAttemptRepository.findHeaderById(attemptId)
+                .orElseThrow(() -> new EntityNotFoundException("TestAttempt not found"));
+
+        CompiledTest compiledTest = compiledTestFor(header.getTestId());
+
+        List<AnswerRepository.AnswerValueView> values = answerRepository.findValuesByTestAttemptId(attemptId);
+        Map<Long, List<String>> openValues = new HashMap<>();
+        if (values.stream().anyMatch(value -> "OPEN".equals(value.getAnswerType()))) {
+            for (AnswerRepository.OpenValueView open : answerRepository.findOpenValuesByTestAttemptId(attemptId)) {
+                openValues.computeIfAbsent(open.getAnswerId(), id -> new ArrayList<>()).add(open.getValue());
+            }
+        }
+
+        // Answered items, same rule as finalizeAttempt: a stored non-null value
+        boolean[] answered = new boolean[compiledTest.items().size()];
+        List<AttemptProgressResponse.AnsweredItem> answers = new ArrayList<>(values.size());
+        for (AnswerRepository.AnswerValueView value : values) {
+            CompiledItem item = compiledTest.item(value.getQuestionId(), value.getSubQuestionId());
+            List<String> open = openValues.get(value.getId());
+            boolean isAnswered = value.getBinaryValue() != null || value.getScaleValue() != null
+                    || (open != null && !open.isEmpty());
+            if (item == null || !isAnswered) continue;
+
+            answered[item.index()] = true;
+            answers.add(new AttemptProgressResponse.AnsweredItem(value.getQuestionId(), value.getSubQuestionId(),
+                    value.getBinaryValue(), value.getScaleValue(), open));
+        }
+        // Buffered drafts are part of the progress; they are read here, not written
+        if (!Boolean.TRUE.equals(header.getFinalized())) {
+            for (AnswerRequest draft : draftAnswerBuffer.pending(attemptId)) {
+                CompiledItem item = compiledTest.item(draft.getQuestionId(), draft.getSubQuestionId());
+                if (item == null || !hasValue(draft)) continue;
+
+                answers.removeIf(answer -> Objects.equals(answer.getQuestionId(), draft.getQuestionId())
+                        && Objects.equals(answer.getSubQuestionId(), draft.getSubQuestionId()));
+                answered[item.index()] = true;
+                answers.add(new AttemptProgressResponse.AnsweredItem(draft.getQuestionId(), draft.getSubQuestionId(),
+                        draft.getBinaryValue(), draft.getScaleValue(), draft.getOpenValues()));
+            }
+        }
+        if (Boolean.TRUE.equals(header.getFinalized())) {
+            for (PackedAnswer packed : packedAnswerStore.read(attemptId)) {
+                CompiledItem item = compiledTest.item(packed.questionId(), packed.subQuestionId());
+                if (item == null) continue;
+
+                answered[item.index()] = true;
+                answers.add(new AttemptProgressResponse.AnsweredItem(packed.questionId(), packed.subQuestionId(),
+                        packed.binaryValue(), packed.scaleValue(), null));
+            }
+        }
+
+        Map<Long, AttemptProgressResponse.SectionProgress> sections = new LinkedHashMap<>();
+        for (SectionResponse section : compiledTest.sectionsFor(header.getGender())) {
+            sections.put(section.getId(), new AttemptProgressResponse.SectionProgress(section.getId(), 0, 0));
+        }
+
+        int answeredItems = 0;
+        AttemptProgressResponse.ItemCursor next = null;
+        List<CompiledItem> required = compiledTest.requiredItems(header.getGender());
+        for (CompiledItem item : required) {
+            AttemptProgressResponse.SectionProgress section = sections.computeIfAbsent(item.sectionId(),
+                    id -> new AttemptProgressResponse.SectionProgress(id, 0, 0));
+            section.setTotalItems(section.getTotalItems() + 1);
+
+            if (answered[item.index()]) {
+                section.setAnsweredItems(section.getAnsweredItems() + 1);
+                answeredItems++;
+            } else if (next == null) {
+                next = new AttemptProgressResponse.ItemCursor(item.sectionId(), item.questionId(), item.subQuestionId());
+            }
+        }
+
+        return new AttemptProgressResponse(attemptId, compiledTest.testId(), Boolean.TRUE.equals(header.getFinalized()),
+                answeredItems, required.size(), new ArrayList<>(sections.values()), answers, next);
+    }
+
     @Transactional
     public List<TestAttemptWithAnswersResponse> getAllTestAttempts() {
-        return testAttemptMapper.toAdminDtoList(testAttemptRepository.findAll());
+        return withPackedAnswers(testAttemptMapper.toAdminDtoList(testAttemptRepository.findAll()));
     }
 
     @Transactional
     public List<TestAttemptWithAnswersResponse> getAttemptsByStudent(Long studentId) {
         List<TestAttempt> attempts = testAttemptRepository.findByStudentId(studentId);
-        return testAttemptMapper.toAdminDtoList(attempts);
+        return withPackedAnswers(testAttemptMapper.toAdminDtoList(attempts));
     }
 
     @Transactional
@@ -361,16 +651,26 @@ public class TestAttemptService {
         List<Answer> answers = answerRepository.findByTestAttempt(attempt);
 
         // Map to DTOs
-        return answerMapper.toDtoList(answers);
+        if (attempt.isFinalized()) {
+            return toAnswerResponses(attemptId, attempt.getTest().getId(), answers);
+        }
+        return withDrafts(attemptId, attempt.getTest().getId(), answerMapper.toDtoList(answers));
     }
 
 
+    @Transactional
     public TestAttemptWithAnswersResponse getTestAttemptWithAnswersById(Long attemptId) {
         Optional<TestAttempt> testAttemptOptional = testAttemptRepository.findById(attemptId);
         if (testAttemptOptional.isEmpty())
             throw new EntityNotFoundException("TestAttempt not found with id " + attemptId);
         TestAttempt testAttempt = testAttemptOptional.get();
-        return testAttemptMapper.toAdminDto(testAttempt);
+        if (!testAttempt.isFinalized()) {
+            TestAttemptWithAnswersResponse response = testAttemptMapper.toAdminDto(testAttempt);
+            response.setAnswers(withDrafts(attemptId, response.getTestId(),
+                    response.getAnswers() != null ? response.getAnswers() : List.of()));
+            return response;
+        }
+        return withPackedAnswers(List.of(testAttemptMapper.toAdminDto(testAttempt))).get(0);
 
     }
 
@@ -391,9 +691,123 @@ public class TestAttemptService {
         return response;
     }
 
+    @Transactional
     public List<AnswerResponse> getAllAnswersByTestAttemptId(Long testAttemptId) {
         List<Answer> answers = answerRepository.findByTestAttemptId(testAttemptId);
-        return answerMapper.toDtoList(answers);
+
+        Optional<TestAttemptRepository.AttemptHeaderView> header = testAttemptRepository.findHeaderById(testAttemptId);
+        if (header.isEmpty()) {
+            return answerMapper.toDtoList(answers);
+        }
+        if (Boolean.TRUE.equals(header.get().getFinalized())) {
+            return toAnswerResponses(testAttemptId, header.get().getTestId(), answers);
+        }
+        return withDrafts(testAttemptId, header.get().getTestId(), answerMapper.toDtoList(answers));
+    }
+
+    // Answer rows plus the packed answers of a compacted (finalized) attempt
+    private List<AnswerResponse> toAnswerResponses(Long attemptId, Long testId, List<Answer> answers) {
+        List<PackedAnswer> packed = packedAnswerStore.read(attemptId);
+        if (packed.isEmpty()) {
+            return answerMapper.toDtoList(answers);
+        }
+        List<AnswerResponse> responses = toAnswerResponses(packed, compiledTestFor(testId));
+        responses.addAll(answerMapper.toDtoList(answers));
+        return responses;
+    }
+
+    // Packed values first, in item order; they take their texts and metric from the compiled test
+    private static List<AnswerResponse> toAnswerResponses(List<PackedAnswer> packed, CompiledTest compiledTest) {
+        List<AnswerResponse> responses = new ArrayList<>(packed.size());
+        for (PackedAnswer answer : packed) {
+            AnswerResponse response = itemResponse(compiledTest.item(answer.questionId(), answer.subQuestionId()),
+                    answer.questionId(), answer.subQuestionId());
+            response.setAnswerType(answer.answerType());
+            response.setBinaryValue(answer.binaryValue());
+            response.setScaleValue(answer.scaleValue());
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    // An answer with the item's texts and metric; an item removed from the test since keeps its ids only
+    private static AnswerResponse itemResponse(CompiledItem item, Long questionId, Long subQuestionId) {
+        AnswerResponse response = new AnswerResponse();
+        response.setQuestionId(questionId);
+        response.setSubQuestionId(subQuestionId);
+        if (item != null) {
+            response.setQuestionText(item.questionText());
+            response.setSubQuestionText(item.subQuestionText());
+            response.setMetric(item.metric() != null ? item.metric().toMetric() : null);
+        }
+        return response;
+    }
+
+    /**
+     * Stored answers with the attempt's buffered drafts laid over them in memory, as previewScores does.
+     * Writing the drafts is left to the flush scheduler, submit and finalize.
+     */
+    private List<AnswerResponse> withDrafts(Long attemptId, Long testId, List<AnswerResponse> answers) {
+        List<AnswerRequest> drafts = draftAnswerBuffer.pending(attemptId);
+        if (drafts.isEmpty()) return answers;
+
+        CompiledTest compiledTest = compiledTestFor(testId);
+        Map<Integer, AnswerResponse> byItem = new HashMap<>();
+        List<AnswerResponse> merged = new ArrayList<>(answers.size() + drafts.size());
+        for (AnswerResponse answer : answers) {
+            CompiledItem item = compiledTest.item(answer.getQuestionId(), answer.getSubQuestionId());
+            if (item != null) byItem.put(item.index(), answer);
+            merged.add(answer);
+        }
+
+        for (AnswerRequest draft : drafts) {
+            CompiledItem item = compiledTest.item(draft.getQuestionId(), draft.getSubQuestionId());
+            if (item == null) continue;
+
+            AnswerResponse answer = byItem.get(item.index());
+            if (answer == null) {
+                answer = itemResponse(item, item.questionId(), item.subQuestionId());
+                byItem.put(item.index(), answer);
+                merged.add(answer);
+            }
+            // Same rule as the upsert: a missing value keeps the stored one
+            answer.setAnswerType(draft.getAnswerType());
+            if (draft.getBinaryValue() != null) answer.setBinaryValue(draft.getBinaryValue());
+            if (draft.getScaleValue() != null) answer.setScaleValue(draft.getScaleValue());
+            if (draft.getOpenValues() != null) answer.setOpenValues(draft.getOpenValues());
+        }
+        return merged;
+    }
+
+    private static boolean hasValue(AnswerRequest answer) {
+        return answer.getBinaryValue() != null || answer.getScaleValue() != null
+                || (answer.getOpenValues() != null && !answer.getOpenValues().isEmpty());
+    }
+
+    // The admin DTO maps attempt.answers only; add the packed answers of compacted attempts in front
+    private List<TestAttemptWithAnswersResponse> withPackedAnswers(List<TestAttemptWithAnswersResponse> responses) {
+        Map<Long, List<PackedAnswer>> packed = packedAnswerStore.readAll(
+                responses.stream().map(TestAttemptWithAnswersResponse::getAttemptId).toList());
+        if (packed.isEmpty()) return responses;
+
+        for (TestAttemptWithAnswersResponse response : responses) {
+            List<PackedAnswer> attemptPacked = packed.get(response.getAttemptId());
+            if (attemptPacked == null) continue;
+
+            List<AnswerResponse> answers = toAnswerResponses(attemptPacked, compiledTestFor(response.getTestId()));
+            if (response.getAnswers() != null) answers.addAll(response.getAnswers());
+            response.setAnswers(answers);
+        }
+        return responses;
+    }
+
+    private CompiledTest compiledTestFor(Long testId) {
+        CompiledTest compiledTest = compiledTestCache.get(testId);
+        if (compiledTest == null) {
+            compiledTest = compiledTestCache.getOrCompile(testRepository.findById(testId)
+                    .orElseThrow(() -> new EntityNotFoundException("Test not found")));
+        }
+        return compiledTest;
     }
 
     /**
@@ -403,15 +817,17 @@ public class TestAttemptService {
      * Validates:
      * - Test attempt exists
      * - Test attempt is finalized
-     * - AI analysis hasn't already been run
      * 
-     * Then triggers async AI analysis via AIIntegrationService.
+     * Then queues the AI analysis (see AIAnalysisJobService); it runs on the AI job workers.
+     * Repeated triggers are de-duplicated: a pending job or an existing result is returned
+     * instead of starting another pipeline, unless force is set.
      * 
      * @param attemptId ID of the finalized test attempt
-     * @throws IllegalStateException if test is not finalized or AI already run
+     * @param force re-run the analysis even if a result exists (the new result replaces it)
+     * @return the new or pending job (poll GET /api/test-attempts/ai-jobs/{jobId}), or the existing result
+     * @throws IllegalStateException if test is not finalized
      */
-    @Transactional
-    public void triggerAIAnalysis(Long attemptId) {
+    public AIAnalysisTriggerResponse triggerAIAnalysis(Long attemptId, boolean force) {
         // Fetch test attempt
         TestAttempt attempt = testAttemptRepository.findById(attemptId)
             .orElseThrow(() -> new EntityNotFoundException("Test attempt not found: " + attemptId));
@@ -424,17 +840,9 @@ public class TestAttemptService {
             );
         }
         
-        // Check if AI analysis already exists
-//        if (aiIntegrationService.getAIResultByAttemptId(attemptId) != null) {
-//            throw new IllegalStateException(
-//                "AI analysis already exists for this test attempt. " +
-//                "Results can be retrieved at GET /api/ai-results/attempt/" + attemptId
-//            );
-//        }
-        
-        // Trigger AI analysis asynchronously
+        // Queue AI analysis unless one is pending or done; the job is retried on failure and survives restarts
         // Results saved to ai_results table
-        aiIntegrationService.triggerCompleteAIAnalysis(attempt.getId());
+        return aiAnalysisJobService.trigger(attempt.getId(), force);
     }
 
 }
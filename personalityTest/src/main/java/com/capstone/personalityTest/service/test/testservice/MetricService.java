@@ -9,6 +9,7 @@ import com.capstone.personalityTest.repository.test.BaseTestRepository;
 import com.capstone.personalityTest.repository.test.TestRepo.MetricRepository;
 import com.capstone.personalityTest.exception.EntityExistsException;
 import com.capstone.personalityTest.repository.test.TestRepo.SubQuestionRepository;
+import com.capstone.personalityTest.service.test.CompiledTestCache;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +27,7 @@ public class MetricService {
     private final MetricMapper metricMapper;
     private final BaseTestRepository baseTestRepository;
     private final SubQuestionRepository subQuestionRepository;
+    private final CompiledTestCache compiledTestCache;
 
     public MetricResponse createMetric(MetricRequest metricRequest) {
         // Validate baseTest if provided
@@ -108,6 +110,11 @@ public class MetricService {
         metricMapper.updateMetricFromDto(metricRequest, metric);
         metricRepository.save(metric);
 
+        // Compiled tests embed metric labels/descriptions
+        if (isUsedInPublishedTests) {
+            compiledTestCache.clear();
+        }
+
         return metricMapper.toDto(metric);
     }
 
@@ -10,6 +10,7 @@ import com.capstone.personalityTest.model.testm.Test.Section;
 import com.capstone.personalityTest.model.testm.Test.Test;
 import com.capstone.personalityTest.repository.test.BaseTestRepository;
 import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
+import com.capstone.personalityTest.service.test.CompiledTestCache;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -28,6 +29,7 @@ public class TestService {
     private final TestRepository testRepository;
     private final TestMapper testMapper;
     private final BaseTestRepository baseTestRepository;
+    private final CompiledTestCache compiledTestCache;
 
     // Create test for first time , then versions will be created by createVersion
     // after publishing
@@ -56,6 +58,7 @@ public class TestService {
 
         test.setStatus(TestStatus.PUBLISHED); // lock
         testRepository.save(test);
+        compiledTestCache.refresh(test);
 
         return testMapper.toDto(test);
     }
@@ -71,6 +74,7 @@ public class TestService {
 
         test.setActive(active);
         testRepository.save(test);
+        compiledTestCache.refresh(test); // compile on activation, evict on deactivation
 
         return testMapper.toDto(test);
     }
@@ -0,0 +1,176 @@
+package com.capstone.personalityTest.benchmark;
+
+import com.capstone.personalityTest.config.ServiceGuard;
+import com.capstone.personalityTest.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A batch of blocking AI calls with a simulated 5-30 s latency each: the platform pool of
+ * spring.task.execution.pool (core 2, max 5, queue 100) against a virtual thread per call
+ * (AsyncExecutionConfig with app.async.virtual-threads=true).
+ *
+ * Every call goes through the AI ServiceGuard, as in production. With the configured
+ * app.resilience.ai.max-concurrent=8 and max-wait-ms=0, calls past the 8 in flight are rejected
+ * (AIAnalysisJobService requeues those jobs) instead of waiting, so the virtual-thread batch finishes
+ * early because most of it was turned away. aiMaxConcurrent=1000 shows the unbounded case for
+ * comparison. Read the time together with the rejected count printed after each iteration.
+ *
+ * Each invocation submits `calls` calls and waits for all of them to complete or be rejected.
+ * The pool only grows past its 2 core threads once its queue is full, so up to 100 waiting calls
+ * run 2 at a time (and more than 105 are rejected by the pool). Latencies are scaled by timeScale
+ * (0.01 by default: 50-300 ms) so a run takes minutes; -p timeScale=1 gives real 5-30 s calls.
+ *
+ * Not a unit test. Run after `mvn test-compile` with:
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.capstone.personalityTest.benchmark.AsyncExecutorBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncExecutorBenchmark {
+
+    private static final long MIN_LATENCY_MS = 5_000;
+    private static final long MAX_LATENCY_MS = 30_000;
+
+    @Param({"platform-pool", "virtual-threads"})
+    private String executor;
+
+    @Param({"100"})
+    private int calls;
+
+    @Param({"0.01"})
+    private double timeScale;
+
+    /**
+     * app.resilience.ai.max-concurrent: 8 as configured, 1000 for effectively unbounded
+     */
+    @Param({"8", "1000"})
+    private int aiMaxConcurrent;
+
+    /**
+     * app.resilience.ai.max-wait-ms
+     */
+    @Param({"0"})
+    private long aiMaxWaitMs;
+
+    private AsyncTaskExecutor taskExecutor;
+    private ServiceGuard guard;
+    private long[] latenciesMs;
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        if (executor.equals("platform-pool")) {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(2);
+            pool.setMaxPoolSize(5);
+            pool.setQueueCapacity(100);
+            pool.setThreadNamePrefix("async-ai-");
+            pool.initialize();
+            taskExecutor = pool;
+        } else {
+            taskExecutor = new SimpleAsyncTaskExecutorBuilder().virtualThreads(true).threadNamePrefix("async-vt-").build();
+        }
+        // Circuit settings of application-prod.properties; simulated calls never fail, so it stays closed
+        guard = new ServiceGuard("ai", new ServiceGuard.GuardSettings(aiMaxConcurrent, aiMaxWaitMs, 20, 10, 50, 30_000, 3),
+                new SimpleMeterRegistry());
+
+        Random random = new Random(42);
+        latenciesMs = new long[calls];
+        for (int i = 0; i < calls; i++) {
+            long latency = MIN_LATENCY_MS + (long) (random.nextDouble() * (MAX_LATENCY_MS - MIN_LATENCY_MS));
+            latenciesMs[i] = Math.max(1, (long) (latency * timeScale));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetRejected() {
+        rejected.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportRejected() {
+        System.out.printf("%n%s, ai max-concurrent %d: %d of %d calls rejected%n",
+                executor, aiMaxConcurrent, rejected.get(), calls);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (taskExecutor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (taskExecutor instanceof SimpleAsyncTaskExecutor simple) {
+            simple.close();
+        }
+    }
+
+    /**
+     * @return calls that completed; the others were rejected by the guard
+     */
+    @Benchmark
+    public int batchOfAiCalls() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(calls);
+        AtomicInteger completed = new AtomicInteger();
+        for (long latencyMs : latenciesMs) {
+            taskExecutor.execute(() -> {
+                try {
+                    guardedCall(latencyMs);
+                    completed.incrementAndGet();
+                } catch (ServiceUnavailableException e) {
+                    rejected.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return completed.get();
+    }
+
+    // A blocking HTTP wait on the AI service; the guard holds the call's slot until the response is closed
+    private void guardedCall(long latencyMs) {
+        try (ClientHttpResponse response = guard.intercept(new MockClientHttpRequest(), new byte[0], (request, body) -> {
+            simulatedCall(latencyMs);
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        })) {
+            response.getStatusCode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void simulatedCall(long latencyMs) {
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AsyncExecutorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.capstone.personalityTest.benchmark;
+
+import com.capstone.personalityTest.service.test.DocumentSearchIndex;
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.Hits;
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.IndexDocument;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Three-term queries over a synthetic corpus (documents of `terms` words drawn from a skewed
+ * 20,000-word vocabulary): the on-disk DocumentSearchIndex against scanning every document's
+ * words, which is what finding a keyword costs without an index.
+ *
+ * Not a unit test. Run after `mvn test-compile` with:
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.capstone.personalityTest.benchmark.DocumentSearchBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DocumentSearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int QUERIES = 64;
+
+    @Param({"500", "5000"})
+    private int documents;
+
+    @Param({"2000"})
+    private int terms;
+
+    private Path folder;
+    private DocumentSearchIndex index;
+    private List<List<String>> corpus;
+    private String[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        corpus = new ArrayList<>();
+        List<IndexDocument> batch = new ArrayList<>();
+        for (int id = 0; id < documents; id++) {
+            List<String> words = new ArrayList<>(terms);
+            for (int i = 0; i < terms; i++) {
+                words.add(word(random));
+            }
+            corpus.add(words);
+            batch.add(new IndexDocument(id, "hash-" + id, true, words));
+        }
+        folder = Files.createTempDirectory("search-bench-");
+        index = DocumentSearchIndex.open(folder, 8);
+        for (int from = 0; from < batch.size(); from += 500) {
+            index.add(batch.subList(from, Math.min(from + 500, batch.size())));
+        }
+
+        queries = new String[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = new String[]{word(random), word(random), word(random)};
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Hits index() {
+        String[] query = queries[next++ & (QUERIES - 1)];
+        return index.search(String.join(" ", query), 10);
+    }
+
+    @Benchmark
+    public int scan() {
+        String[] query = queries[next++ & (QUERIES - 1)];
+        int matching = 0;
+        for (List<String> words : corpus) {
+            for (String word : words) {
+                if (word.equals(query[0]) || word.equals(query[1]) || word.equals(query[2])) {
+                    matching++;
+                    break;
+                }
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Skewed like natural text: a few words are very common, most are rare
+     */
+    private static String word(Random random) {
+        double u = random.nextDouble();
+        return "w" + (int) (VOCABULARY * u * u * u);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DocumentSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
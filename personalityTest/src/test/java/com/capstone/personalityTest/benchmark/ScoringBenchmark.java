@@ -0,0 +1,115 @@
+package com.capstone.personalityTest.benchmark;
+
+import com.capstone.personalityTest.model.testm.EvaluationResult;
+import com.capstone.personalityTest.service.test.MetricIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring one attempt: the previous HashMap.merge + sorted top-3 implementation
+ * against MetricIndex (int[] scores, top-k selection).
+ *
+ * Not a unit test. Run after `mvn test-compile` with:
+ *   java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.capstone.personalityTest.benchmark.ScoringBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoringBenchmark {
+
+    private static final int ITEMS_PER_METRIC = 10;
+
+    @Param({"6", "20", "100"})
+    private int metricCount;
+
+    private List<String> metricCodes;
+    private MetricIndex metricIndex;
+
+    // One entry per answered sub-question, as each implementation sees it
+    private String[] answerCodes;
+    private int[] answerSlots;
+    private int[] answerPoints;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        metricCodes = new ArrayList<>(metricCount);
+        for (int i = 0; i < metricCount; i++) {
+            metricCodes.add("M" + i);
+        }
+        metricIndex = MetricIndex.of(metricCodes);
+
+        int answers = metricCount * ITEMS_PER_METRIC;
+        answerCodes = new String[answers];
+        answerSlots = new int[answers];
+        answerPoints = new int[answers];
+        for (int i = 0; i < answers; i++) {
+            int slot = random.nextInt(metricCount);
+            answerCodes[i] = metricCodes.get(slot);
+            answerSlots[i] = slot;
+            answerPoints[i] = random.nextInt(6); // 0..5 like a SCALE answer
+        }
+    }
+
+    @Benchmark
+    public EvaluationResult legacyMapScoring() {
+        Map<String, Integer> scores = new HashMap<>();
+        for (String code : metricCodes) {
+            scores.put(code, 0);
+        }
+        for (int i = 0; i < answerCodes.length; i++) {
+            scores.merge(answerCodes[i], answerPoints[i], Integer::sum);
+        }
+
+        List<String> topMetrics = scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(3)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        EvaluationResult result = new EvaluationResult();
+        result.setMetricScores(scores);
+        result.setFirstMetric(topMetrics.size() > 0 ? topMetrics.get(0) : null);
+        result.setSecondMetric(topMetrics.size() > 1 ? topMetrics.get(1) : null);
+        result.setThirdMetric(topMetrics.size() > 2 ? topMetrics.get(2) : null);
+        return result;
+    }
+
+    @Benchmark
+    public int[] indexedTopK() {
+        int[] scores = metricIndex.newScores();
+        for (int i = 0; i < answerSlots.length; i++) {
+            scores[answerSlots[i]] += answerPoints[i];
+        }
+        return MetricIndex.topK(scores, 3);
+    }
+
+    @Benchmark
+    public EvaluationResult indexedWithPersistedMap() {
+        int[] scores = metricIndex.newScores();
+        for (int i = 0; i < answerSlots.length; i++) {
+            scores[answerSlots[i]] += answerPoints[i];
+        }
+        return metricIndex.toEvaluationResult(scores);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ScoringBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
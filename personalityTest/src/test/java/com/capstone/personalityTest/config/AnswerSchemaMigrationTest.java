@@ -0,0 +1,105 @@
+package com.capstone.personalityTest.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AnswerSchemaMigration
+ * Runs against an answer table as older versions left it: no item constraint, possibly duplicate rows
+ */
+@DisplayName("AnswerSchemaMigration Unit Tests")
+class AnswerSchemaMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:answer_migration;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE answer (id BIGINT AUTO_INCREMENT PRIMARY KEY, answer_type VARCHAR(31), " +
+                "question_id BIGINT, sub_question_id BIGINT, test_attempt_id BIGINT, scale_value INT, " +
+                "sub_question_key BIGINT DEFAULT 0 NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Should backfill keys and add the item constraint")
+    void testMigrate_AddsConstraint() {
+        // Arrange: question 1 answered once, question 2 once per sub-question
+        insert(1L, null, 3);
+        insert(2L, 11L, 4);
+        insert(2L, 12L, 6);
+
+        // Act
+        new AnswerSchemaMigration(jdbcTemplate).migrate();
+
+        // Assert
+        assertEquals(List.of(0L, 11L, 12L), jdbcTemplate.queryForList(
+                "SELECT sub_question_key FROM answer ORDER BY id", Long.class));
+        assertThrows(DataIntegrityViolationException.class, () -> insert(1L, null, 7));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start with duplicate answers and leave them in place")
+    void testMigrate_DuplicatesFailStartup() {
+        // Arrange: question 1 answered twice
+        insert(1L, null, 3);
+        insert(1L, null, 5);
+        insert(2L, 11L, 4);
+
+        // Act
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new AnswerSchemaMigration(jdbcTemplate).migrate());
+
+        // Assert
+        assertTrue(e.getMessage().contains("1 answers"));
+        assertEquals(List.of(3, 5, 4), jdbcTemplate.queryForList(
+                "SELECT scale_value FROM answer ORDER BY id", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should leave a migrated table alone")
+    void testMigrate_Idempotent() {
+        // Arrange
+        insert(1L, null, 3);
+        AnswerSchemaMigration migration = new AnswerSchemaMigration(jdbcTemplate);
+        migration.migrate();
+
+        // Act & Assert
+        assertDoesNotThrow(migration::migrate);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM answer", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should not rerun the key backfill once the item constraint exists")
+    void testMigrate_BackfillOnlyBeforeConstraint() {
+        // Arrange: a migrated table, then a key the backfill would rewrite
+        insert(2L, 11L, 4);
+        AnswerSchemaMigration migration = new AnswerSchemaMigration(jdbcTemplate);
+        migration.migrate();
+        jdbcTemplate.update("UPDATE answer SET sub_question_key = 0");
+
+        // Act
+        migration.migrate();
+
+        // Assert: left as it was, the answer table was not updated
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT sub_question_key FROM answer", Long.class));
+    }
+
+    private void insert(Long questionId, Long subQuestionId, int value) {
+        jdbcTemplate.update("INSERT INTO answer (answer_type, test_attempt_id, question_id, sub_question_id, scale_value) " +
+                "VALUES ('SCALE', 1, ?, ?, ?)", questionId, subQuestionId, value);
+    }
+}
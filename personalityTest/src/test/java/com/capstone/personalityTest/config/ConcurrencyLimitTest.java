@@ -0,0 +1,74 @@
+package com.capstone.personalityTest.config;
+
+import com.capstone.personalityTest.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConcurrencyLimit
+ * Tests that calls over the limit are refused and that slots are given back
+ */
+@DisplayName("ConcurrencyLimit Unit Tests")
+class ConcurrencyLimitTest {
+
+    @Test
+    @DisplayName("Should refuse a call while the slots are held on virtual threads and admit it once freed")
+    void testCall_RefusesOverLimit() throws Exception {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimit limit = new ConcurrencyLimit("storage", 2, 50, meterRegistry);
+        CountDownLatch holding = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2; i++) {
+                virtualThreads.execute(() -> limit.run(() -> {
+                    holding.countDown();
+                    await(release);
+                }));
+            }
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            // Act & Assert
+            ServiceUnavailableException refused = assertThrows(ServiceUnavailableException.class,
+                    () -> limit.call(() -> "third"));
+            assertEquals("storage", refused.getService());
+            assertEquals(1.0, meterRegistry.get("downstream.limit.rejected").counter().count());
+
+            release.countDown();
+        }
+        assertEquals(2, limit.available());
+        assertEquals("third", limit.call(() -> "third"));
+    }
+
+    @Test
+    @DisplayName("Should give the slot back when the call fails")
+    void testCall_ReleasesOnFailure() {
+        // Arrange
+        ConcurrencyLimit limit = new ConcurrencyLimit("documents", 1, 0, new SimpleMeterRegistry());
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> limit.run(() -> {
+            throw new IllegalStateException("reindex failed");
+        }));
+
+        // Assert
+        assertEquals(1, limit.available());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.capstone.personalityTest.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the pooled service clients of ServiceClientConfig
+ * Runs them against a local HTTP server with a fast and a hanging endpoint
+ */
+@DisplayName("ServiceClientConfig Unit Tests")
+class ServiceClientConfigTest {
+
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private RestTemplate client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/ok", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/api/hang", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        client = ServiceClientConfig.pooledRestTemplate("test",
+                "http://127.0.0.1:" + server.getAddress().getPort(), new RestTemplateBuilder(), meterRegistry,
+                new ServiceClientConfig.ClientSettings(2, 500, 300, 500, 30000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should call paths relative to the service URL and expose pool metrics")
+    void testPooledClient_RootUriAndPoolMetrics() {
+        // Act
+        String body = client.getForObject("/api/ok", String.class);
+
+        // Assert
+        assertEquals("ok", body);
+        assertEquals(2.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "test").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should give up on a hung service after the read timeout")
+    void testPooledClient_ReadTimeout() {
+        // Act
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> client.getForObject("/api/hang", String.class));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertTrue(elapsedMs < 1500, "Timed out after " + elapsedMs + " ms instead of ~300 ms");
+    }
+
+    @Test
+    @DisplayName("Should keep connections alive for the shorter of the server's timeout and the configured one")
+    void testKeepAliveStrategy_HonoursServerTimeout() {
+        // Arrange
+        ConnectionKeepAliveStrategy strategy = ServiceClientConfig.keepAliveStrategy(30_000);
+        BasicClassicHttpResponse shorter = new BasicClassicHttpResponse(200);
+        shorter.addHeader("Keep-Alive", "timeout=5");
+        BasicClassicHttpResponse longer = new BasicClassicHttpResponse(200);
+        longer.addHeader("Keep-Alive", "timeout=120");
+
+        // Act & Assert
+        assertEquals(5_000, strategy.getKeepAliveDuration(shorter, HttpClientContext.create()).toMilliseconds());
+        assertEquals(30_000, strategy.getKeepAliveDuration(longer, HttpClientContext.create()).toMilliseconds());
+        assertEquals(30_000, strategy.getKeepAliveDuration(
+                new BasicClassicHttpResponse(200), HttpClientContext.create()).toMilliseconds());
+    }
+}
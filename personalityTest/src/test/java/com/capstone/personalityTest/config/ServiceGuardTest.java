@@ -0,0 +1,203 @@
+package com.capstone.personalityTest.config;
+
+import com.capstone.personalityTest.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ServiceGuard
+ * Tests the closed → open → half-open → closed cycle, its metrics, and the concurrency limit
+ */
+@DisplayName("ServiceGuard Unit Tests")
+class ServiceGuardTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private SimpleMeterRegistry meterRegistry;
+    private ServiceGuard guard;
+
+    private final ClientHttpRequestExecution ok = (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+    private final ClientHttpRequestExecution serverError =
+            (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.INTERNAL_SERVER_ERROR);
+    private final ClientHttpRequestExecution down = (request, body) -> {
+        throw new IOException("Connection refused");
+    };
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 1 slot, window of 4 calls, opens at 50% failures after 4 calls, 2 trial calls
+        guard = new ServiceGuard("model", new ServiceGuard.GuardSettings(1, 0, 4, 4, 50, 30_000, 2),
+                meterRegistry, now::get);
+    }
+
+    @Test
+    @DisplayName("Should open after failures, fail fast, then close after successful trial calls")
+    void testCircuit_OpenHalfOpenClosed() throws Exception {
+        // Arrange: 2 of 4 calls fail
+        call(ok);
+        call(ok);
+        call(serverError);
+        assertThrows(IOException.class, () -> call(down));
+
+        // Assert: open, calls refused without being sent
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+        assertFalse(guard.isCallPermitted());
+        ServiceUnavailableException refused = assertThrows(ServiceUnavailableException.class, () -> call(ok));
+        assertEquals(30_000, refused.getRetryAfterMs());
+        assertEquals(1.0, meterRegistry.get("service.client.circuit.state").tag("service", "model").gauge().value());
+        assertEquals(1.0, meterRegistry.get("service.client.calls.rejected").tag("reason", "circuit-open").counter().count());
+
+        // Act: open time elapses, a failed trial opens it again
+        now.addAndGet(30_000);
+        assertTrue(guard.isCallPermitted());
+        call(serverError);
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+
+        // Act: two successful trials close it
+        now.addAndGet(30_000);
+        call(ok);
+        assertEquals(ServiceGuard.State.HALF_OPEN, guard.state());
+        call(ok);
+
+        // Assert
+        assertEquals(ServiceGuard.State.CLOSED, guard.state());
+        assertEquals(1.0, meterRegistry.get("service.client.circuit.transitions")
+                .tag("from", "HALF_OPEN").tag("to", "OPEN").counter().count());
+        assertEquals(1.0, meterRegistry.get("service.client.circuit.transitions")
+                .tag("from", "HALF_OPEN").tag("to", "CLOSED").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should refuse a call when every slot is taken, without counting it as a failure")
+    void testBulkhead_RefusesWhenFull() throws Exception {
+        // Arrange: one call holds the only slot
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> {
+            try {
+                call((request, body) -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> call(ok));
+        assertEquals(1.0, meterRegistry.get("service.client.calls.rejected").tag("reason", "bulkhead-full").counter().count());
+
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        call(ok);
+        assertEquals(ServiceGuard.State.CLOSED, guard.state());
+        assertEquals(1.0, meterRegistry.get("service.client.bulkhead.available").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should hold the slot until a streamed response is closed and count reported failures")
+    void testStreamedResponse_HeldUntilClosed() throws Exception {
+        // Arrange: headers arrive, the body is still being read
+        ClientHttpResponse streaming = guard.intercept(new MockClientHttpRequest(), new byte[0], ok);
+
+        // Act & Assert: the open stream takes the only slot
+        assertThrows(ServiceUnavailableException.class, () -> call(ok));
+        ServiceGuard.reportFailure(streaming); // e.g. an ERROR line in the stream
+        streaming.close();
+        streaming.close();
+        assertEquals(1.0, meterRegistry.get("service.client.bulkhead.available").gauge().value());
+
+        // Act: a stream whose body read times out, then two more failures open the circuit
+        ClientHttpResponse timedOut = guard.intercept(new MockClientHttpRequest(), new byte[0],
+                (request, body) -> new MockClientHttpResponse(new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new SocketTimeoutException("Read timed out");
+                    }
+                }, HttpStatus.OK));
+        assertThrows(IOException.class, () -> timedOut.getBody().read());
+        timedOut.close();
+        call(ok);
+        call(ok);
+
+        // Assert: 2 of 4 calls failed
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+    }
+
+    @Test
+    @DisplayName("Should close the response and free the slot when its status cannot be read")
+    void testStatusReadFailure_ReleasesSlot() {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        ClientHttpRequestExecution brokenStatus = (request, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK) {
+            @Override
+            public HttpStatusCode getStatusCode() {
+                throw new IllegalStateException("Malformed status line");
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> call(brokenStatus));
+        assertTrue(closed.get());
+        assertEquals(1.0, meterRegistry.get("service.client.bulkhead.available").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should not count a call started while closed as a half-open trial")
+    void testStaleOutcome_NotCountedAsTrial() throws Exception {
+        // Arrange: a call that started while closed is still open when the circuit opens and goes half-open
+        guard = new ServiceGuard("model", new ServiceGuard.GuardSettings(5, 0, 4, 4, 50, 30_000, 2),
+                new SimpleMeterRegistry(), now::get);
+        ClientHttpResponse early = guard.intercept(new MockClientHttpRequest(), new byte[0], ok);
+        call(serverError);
+        call(serverError);
+        call(ok);
+        call(ok);
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+        now.addAndGet(30_000);
+        call(ok);
+
+        // Act
+        early.close();
+
+        // Assert: still one trial short of closing
+        assertEquals(ServiceGuard.State.HALF_OPEN, guard.state());
+        call(ok);
+        assertEquals(ServiceGuard.State.CLOSED, guard.state());
+    }
+
+    private void call(ClientHttpRequestExecution execution) throws IOException {
+        guard.intercept(new MockClientHttpRequest(), new byte[0], execution).close();
+    }
+}
@@ -0,0 +1,132 @@
+package com.capstone.personalityTest.repository.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.testm.Test.Question;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.ScaleAnswer;
+import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
+import com.capstone.personalityTest.repository.test.AnswerUpsertRepository.UpsertOutcome;
+import com.capstone.personalityTest.repository.test.AnswerUpsertRepository.ValueUpsert;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AnswerUpsertRepositoryImpl
+ * Runs the H2 dialect against the answer table and unique item index generated by Hibernate
+ */
+@DataJpaTest
+@DisplayName("AnswerUpsertRepositoryImpl Tests")
+class AnswerUpsertRepositoryImplTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private AnswerUpsertRepositoryImpl upsertRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Answers only: the attempts and questions they point to are not needed here
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        upsertRepository = new AnswerUpsertRepositoryImpl(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should insert a new answer and update it in place afterwards")
+    void testUpsertValue_InsertThenUpdate() {
+        // Act
+        UpsertOutcome inserted = upsertRepository.upsertValue(scale(null, 3, null, null));
+        UpsertOutcome updated = upsertRepository.upsertValue(scale(null, 5, null, null));
+        UpsertOutcome nullValue = upsertRepository.upsertValue(scale(null, null, null, null));
+        upsertRepository.upsertValue(new ValueUpsert(1L, 2L, null, AnswerType.CHECKBOX, true, null, null, null));
+
+        // Assert
+        assertEquals(UpsertOutcome.INSERTED, inserted);
+        assertEquals(UpsertOutcome.UPDATED, updated);
+        assertEquals(UpsertOutcome.UPDATED, nullValue);
+        assertEquals(2, count(), "One row per item");
+        assertEquals(5, scaleValue(), "A null value keeps the stored one");
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT binary_value FROM answer WHERE question_id = 2 AND answer_type = 'BINARY'", Boolean.class));
+    }
+
+    @Test
+    @DisplayName("Should leave the row unchanged for repeated keys and older sequences")
+    void testUpsertValue_AppliesSubmissionOrder() {
+        // Arrange
+        upsertRepository.upsertValue(scale(11L, 4, 5L, "k5"));
+
+        // Act & Assert
+        assertEquals(UpsertOutcome.UNCHANGED, upsertRepository.upsertValue(scale(11L, 1, 6L, "k5")), "Retried key");
+        assertEquals(UpsertOutcome.UNCHANGED, upsertRepository.upsertValue(scale(11L, 1, 3L, "k3")), "Older sequence");
+        assertEquals(UpsertOutcome.UNCHANGED, upsertRepository.upsertValue(scale(11L, 1, 5L, "k5b")), "Same sequence");
+        assertEquals(4, scaleValue());
+        assertEquals("k5", jdbcTemplate.queryForObject("SELECT idempotency_key FROM answer", String.class),
+                "A repeated sequence does not rewrite the key");
+
+        assertEquals(UpsertOutcome.UPDATED, upsertRepository.upsertValue(scale(11L, 7, 8L, "k8")));
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT scale_value, client_sequence, idempotency_key FROM answer");
+        assertEquals(7, row.get("SCALE_VALUE"));
+        assertEquals(8L, row.get("CLIENT_SEQUENCE"));
+        assertEquals("k8", row.get("IDEMPOTENCY_KEY"));
+    }
+
+    @Test
+    @DisplayName("Should write a batch in order, last value per item winning")
+    void testUpsertValues_Batch() {
+        // Act
+        upsertRepository.upsertValues(List.of(
+                scale(11L, 2, 1L, null),
+                scale(12L, 6, 1L, null),
+                scale(11L, 3, 2L, null),
+                scale(11L, 1, 1L, null)));
+
+        // Assert
+        assertEquals(2, count());
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT scale_value FROM answer WHERE sub_question_id = 11", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should update an answer saved through JPA instead of inserting a second row")
+    void testUpsertValue_MatchesJpaRow() {
+        // Arrange
+        ScaleAnswer answer = new ScaleAnswer(2);
+        answer.setTestAttempt(entityManager.getReference(TestAttempt.class, 1L));
+        answer.setQuestion(entityManager.getReference(Question.class, 1L));
+        entityManager.persist(answer);
+        entityManager.flush();
+
+        // Act
+        UpsertOutcome outcome = upsertRepository.upsertValue(scale(null, 6, null, null));
+
+        // Assert
+        assertEquals(0L, answer.getSubQuestionKey());
+        assertEquals(UpsertOutcome.UPDATED, outcome);
+        assertEquals(1, count());
+        assertEquals(6, scaleValue());
+    }
+
+    private ValueUpsert scale(Long subQuestionId, Integer value, Long clientSequence, String idempotencyKey) {
+        return new ValueUpsert(1L, 1L, subQuestionId, AnswerType.SCALE, null, value, clientSequence, idempotencyKey);
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM answer", Integer.class);
+    }
+
+    private Integer scaleValue() {
+        return jdbcTemplate.queryForObject("SELECT scale_value FROM answer WHERE question_id = 1", Integer.class);
+    }
+}
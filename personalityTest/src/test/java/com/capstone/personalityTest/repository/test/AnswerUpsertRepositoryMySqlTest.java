@@ -0,0 +1,118 @@
+package com.capstone.personalityTest.repository.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.repository.test.AnswerUpsertRepository.UpsertOutcome;
+import com.capstone.personalityTest.repository.test.AnswerUpsertRepository.ValueUpsert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AnswerUpsertRepositoryImpl
+ * Runs the MySQL dialect against a real MySQL server (affected-row counts and batch update counts are
+ * MySQL behaviour H2 does not reproduce). Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("AnswerUpsertRepositoryImpl MySQL Tests")
+class AnswerUpsertRepositoryMySqlTest {
+
+    @Container
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("useAffectedRows", "true");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AnswerUpsertRepositoryImpl upsertRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Answers only: the attempts and questions they point to are not needed here
+        jdbcTemplate.execute("SET FOREIGN_KEY_CHECKS = 0");
+        upsertRepository = new AnswerUpsertRepositoryImpl(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should report inserted, updated and unchanged rows from the affected-row count")
+    void testUpsertValue_Outcomes() {
+        // Act & Assert
+        assertEquals(UpsertOutcome.INSERTED, upsertRepository.upsertValue(scale(3, 5L, "k5")));
+        assertEquals(UpsertOutcome.UNCHANGED, upsertRepository.upsertValue(scale(1, 4L, "k4")), "Older sequence");
+        assertEquals(UpsertOutcome.UNCHANGED, upsertRepository.upsertValue(scale(1, 6L, "k5")), "Retried key");
+        assertEquals(UpsertOutcome.UPDATED, upsertRepository.upsertValue(scale(6, 7L, "k7")));
+
+        Map<String, Object> row = row();
+        assertEquals(6, row.get("scale_value"));
+        assertEquals(7L, ((Number) row.get("client_sequence")).longValue());
+        assertEquals("k7", row.get("idempotency_key"));
+    }
+
+    @Test
+    @DisplayName("Should keep the stored key when a submission repeats the sequence with another key")
+    void testUpsertValue_SameSequenceDifferentKey() {
+        // Arrange
+        upsertRepository.upsertValue(scale(4, 5L, "k5"));
+
+        // Act
+        UpsertOutcome outcome = upsertRepository.upsertValue(scale(1, 5L, "k5b"));
+
+        // Assert
+        assertEquals(UpsertOutcome.UNCHANGED, outcome);
+        Map<String, Object> row = row();
+        assertEquals(4, row.get("scale_value"));
+        assertEquals("k5", row.get("idempotency_key"));
+    }
+
+    @Test
+    @DisplayName("Should insert new items and apply only newer submissions in a batch")
+    void testUpsertValues_Batch() {
+        // Arrange
+        upsertRepository.upsertValue(scale(4, 5L, "k5"));
+
+        // Act
+        upsertRepository.upsertValues(List.of(
+                scale(6, 6L, "k6"),
+                new ValueUpsert(1L, 2L, 12L, AnswerType.SCALE, null, 2, 6L, "k6b")));
+
+        // Assert
+        assertEquals(6, row().get("scale_value"));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT scale_value FROM answer WHERE question_id = 2", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse a datasource URL without useAffectedRows=true")
+    void testDetectDialect_RequiresAffectedRows() {
+        // Arrange
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                MYSQL.getJdbcUrl().replace("useAffectedRows=true", "useAffectedRows=false"), MYSQL.getUsername(), MYSQL.getPassword());
+        AnswerUpsertRepositoryImpl repository = new AnswerUpsertRepositoryImpl(new JdbcTemplate(dataSource));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, repository::detectDialect);
+    }
+
+    private ValueUpsert scale(Integer value, Long clientSequence, String idempotencyKey) {
+        return new ValueUpsert(1L, 1L, 11L, AnswerType.SCALE, null, value, clientSequence, idempotencyKey);
+    }
+
+    private Map<String, Object> row() {
+        return jdbcTemplate.queryForMap("SELECT scale_value, client_sequence, idempotency_key FROM answer WHERE question_id = 1");
+    }
+}
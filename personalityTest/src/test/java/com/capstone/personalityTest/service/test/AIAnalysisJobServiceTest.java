@@ -0,0 +1,233 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIAnalysisJobResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.AIAnalysisTriggerResponse;
+import com.capstone.personalityTest.exception.ServiceUnavailableException;
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import com.capstone.personalityTest.model.testm.AIAnalysisJob;
+import com.capstone.personalityTest.model.testm.AIResult;
+import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
+import com.capstone.personalityTest.repository.test.AIAnalysisJobRepository;
+import com.capstone.personalityTest.repository.test.AIResultRepository;
+import com.capstone.personalityTest.repository.test.TestAttemptRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AIAnalysisJobService
+ * Tests enqueueing, claiming and the retry/backoff bookkeeping of AI analysis jobs
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AIAnalysisJobService Unit Tests")
+class AIAnalysisJobServiceTest {
+
+    @Mock
+    private AIAnalysisJobRepository jobRepository;
+
+    @Mock
+    private AIResultRepository aiResultRepository;
+
+    @Mock
+    private TestAttemptRepository testAttemptRepository;
+
+    @Mock
+    private AIIntegrationService aiIntegrationService;
+
+    @Mock
+    private AIProgressBroadcaster progressBroadcaster;
+
+    private AIAnalysisJobService jobService;
+    private AIAnalysisJob job;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new AIAnalysisJobService(jobRepository, aiResultRepository, testAttemptRepository, aiIntegrationService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), progressBroadcaster);
+
+        LocalDateTime now = LocalDateTime.now();
+        job = new AIAnalysisJob(3L, 7L, JobStatus.QUEUED, 0, now, null, null, now, null);
+    }
+
+    @Test
+    @DisplayName("Should store a queued job instead of running the analysis")
+    void testEnqueue_StoresQueuedJob() {
+        // Arrange
+        when(jobRepository.save(any(AIAnalysisJob.class))).thenAnswer(invocation -> {
+            AIAnalysisJob saved = invocation.getArgument(0);
+            saved.setId(3L);
+            return saved;
+        });
+
+        // Act
+        AIAnalysisJobResponse response = jobService.enqueue(7L);
+
+        // Assert
+        assertEquals(3L, response.getJobId());
+        assertEquals(JobStatus.QUEUED, response.getStatus());
+        assertEquals(0, response.getTries());
+        verifyNoInteractions(aiIntegrationService);
+    }
+
+    @Test
+    @DisplayName("Should return the pending job or the existing result, and re-queue only when forced")
+    void testTrigger_DeduplicatesAndForces() {
+        // Arrange
+        AIResult result = new AIResult();
+        result.setId(11L);
+        job.setStatus(JobStatus.COMPLETED);
+        when(testAttemptRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(new TestAttempt()));
+        when(jobRepository.findFirstByTestAttemptIdAndStatusInOrderByIdDesc(eq(7L), any()))
+                .thenReturn(Optional.empty());
+        when(aiResultRepository.findByTestAttemptId(7L)).thenReturn(Optional.of(result));
+        when(jobRepository.findFirstByTestAttemptIdOrderByIdDesc(7L)).thenReturn(Optional.of(job));
+
+        // Act
+        AIAnalysisTriggerResponse existing = jobService.trigger(7L, false);
+
+        // Assert
+        assertEquals(AIAnalysisTriggerResponse.Outcome.EXISTING, existing.getOutcome());
+        assertEquals(11L, existing.getAiResultId());
+        verify(jobRepository, never()).save(any());
+
+        // Arrange: the forced run is queued, a trigger meanwhile gets that job back
+        AIAnalysisJob queued = new AIAnalysisJob(4L, 7L, JobStatus.QUEUED, 0, LocalDateTime.now(), null, null, LocalDateTime.now(), null);
+        when(jobRepository.save(any(AIAnalysisJob.class))).thenReturn(queued);
+
+        // Act
+        AIAnalysisTriggerResponse forced = jobService.trigger(7L, true);
+        when(jobRepository.findFirstByTestAttemptIdAndStatusInOrderByIdDesc(eq(7L), any()))
+                .thenReturn(Optional.of(queued));
+        AIAnalysisTriggerResponse again = jobService.trigger(7L, true);
+
+        // Assert
+        assertEquals(AIAnalysisTriggerResponse.Outcome.QUEUED, forced.getOutcome());
+        assertEquals(4L, forced.getJob().getJobId());
+        assertEquals(AIAnalysisTriggerResponse.Outcome.IN_PROGRESS, again.getOutcome());
+        assertEquals(4L, again.getJob().getJobId());
+        verify(jobRepository, times(1)).save(any(AIAnalysisJob.class));
+        verify(testAttemptRepository, times(3)).findByIdForUpdate(7L);
+        verifyNoInteractions(aiIntegrationService);
+    }
+
+    @Test
+    @DisplayName("Should mark claimed jobs as running and count the try")
+    void testClaim_MarksRunning() {
+        // Arrange
+        when(jobRepository.findDueForUpdate(any(), any())).thenReturn(List.of(job));
+
+        // Act
+        List<AIAnalysisJobService.ClaimedJob> claimed = jobService.claim(4);
+
+        // Assert
+        assertEquals(List.of(new AIAnalysisJobService.ClaimedJob(3L, 7L, 1)), claimed);
+        assertEquals(JobStatus.RUNNING, job.getStatus());
+        assertNotNull(job.getLockedAt());
+        verify(jobRepository).requeueExpired(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should complete a job when the analysis succeeds")
+    void testRun_Success_Completes() {
+        // Arrange
+        job.setStatus(JobStatus.RUNNING);
+        job.setTries(1);
+        when(jobRepository.findById(3L)).thenReturn(Optional.of(job));
+
+        // Act
+        jobService.run(new AIAnalysisJobService.ClaimedJob(3L, 7L, 1));
+
+        // Assert
+        verify(aiIntegrationService).runCompleteAIAnalysis(7L);
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertNotNull(job.getFinishedAt());
+        assertNull(job.getLockedAt());
+    }
+
+    @Test
+    @DisplayName("Should requeue a failed job with backoff and fail it after the last try")
+    void testRun_Failure_RetriesWithBackoff() {
+        // Arrange
+        job.setStatus(JobStatus.RUNNING);
+        job.setTries(2);
+        when(jobRepository.findById(3L)).thenReturn(Optional.of(job));
+        doThrow(new IllegalStateException("AI service returned 503 SERVICE_UNAVAILABLE"))
+                .when(aiIntegrationService).runCompleteAIAnalysis(7L);
+
+        // Act
+        LocalDateTime before = LocalDateTime.now();
+        jobService.run(new AIAnalysisJobService.ClaimedJob(3L, 7L, 2));
+
+        // Assert: second try backs off between 5s and 10s (base 5s * 2, upper half)
+        assertEquals(JobStatus.QUEUED, job.getStatus());
+        assertTrue(job.getLastError().contains("503"));
+        assertFalse(job.getNextRunAt().isBefore(before.plusSeconds(5)));
+        assertFalse(job.getNextRunAt().isAfter(LocalDateTime.now().plusSeconds(10)));
+
+        // Last try
+        job.setStatus(JobStatus.RUNNING);
+        job.setTries(5);
+        jobService.run(new AIAnalysisJobService.ClaimedJob(3L, 7L, 5));
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertNotNull(job.getFinishedAt());
+    }
+
+    @Test
+    @DisplayName("Should fail a job at once when its attempt no longer exists")
+    void testRun_MissingAttempt_FailsWithoutRetry() {
+        // Arrange
+        job.setStatus(JobStatus.RUNNING);
+        job.setTries(1);
+        when(jobRepository.findById(3L)).thenReturn(Optional.of(job));
+        doThrow(new EntityNotFoundException("Test attempt not found: 7"))
+                .when(aiIntegrationService).runCompleteAIAnalysis(7L);
+
+        // Act
+        jobService.run(new AIAnalysisJobService.ClaimedJob(3L, 7L, 1));
+
+        // Assert
+        assertEquals(JobStatus.FAILED, job.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should give the try back when the AI service circuit refuses the call")
+    void testRun_CircuitOpen_DoesNotCountTry() {
+        // Arrange
+        job.setStatus(JobStatus.RUNNING);
+        job.setTries(5);
+        when(jobRepository.findById(3L)).thenReturn(Optional.of(job));
+        doThrow(new ServiceUnavailableException("ai", "ai service circuit is open after repeated failures", 20000))
+                .when(aiIntegrationService).runCompleteAIAnalysis(7L);
+
+        // Act
+        LocalDateTime before = LocalDateTime.now();
+        jobService.run(new AIAnalysisJobService.ClaimedJob(3L, 7L, 5));
+
+        // Assert: not failed on its last try, and not due before the circuit half-opens
+        assertEquals(JobStatus.QUEUED, job.getStatus());
+        assertEquals(4, job.getTries());
+        assertFalse(job.getNextRunAt().isBefore(before.plusSeconds(20)));
+    }
+
+    @Test
+    @DisplayName("Should cap the backoff delay")
+    void testBackoff_Capped() {
+        assertTrue(jobService.backoffMs(40) <= 600000);
+        assertTrue(jobService.backoffMs(40) >= 300000);
+    }
+}
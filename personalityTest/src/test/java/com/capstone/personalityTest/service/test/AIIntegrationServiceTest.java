@@ -0,0 +1,215 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.config.ServiceGuard;
+import com.capstone.personalityTest.model.Enum.AIAnalysisStage;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+import com.capstone.personalityTest.model.UserInfo;
+import com.capstone.personalityTest.model.testm.AIResult;
+import com.capstone.personalityTest.model.testm.EvaluationResult;
+import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
+import com.capstone.personalityTest.repository.test.AIResultRepository;
+import com.capstone.personalityTest.repository.test.MLResultRepository;
+import com.capstone.personalityTest.repository.test.TestAttemptRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AIIntegrationService
+ * Runs the streamed complete analysis against a local stub of the Python AI service
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AIIntegrationService Unit Tests")
+class AIIntegrationServiceTest {
+
+    @Mock
+    private AIResultRepository aiResultRepo;
+
+    @Mock
+    private TestAttemptRepository testAttemptRepo;
+
+    @Mock
+    private MLResultRepository mlResultRepo;
+
+    @Mock
+    private AIProgressBroadcaster progressBroadcaster;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HttpServer server;
+    private AIIntegrationService aiIntegrationService;
+
+    // The stub holds the stream open after the first stage until the test has seen it published
+    private final CountDownLatch firstStagePublished = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/ai/complete-analysis/stream", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0); // chunked
+            try (OutputStream out = exchange.getResponseBody()) {
+                write(out, "{\"stage\":\"CAREER_RECOMMENDATIONS\",\"data\":{\"careerRecommendations\":\"مهن مقترحة\",\"indexVersion\":\"abc123def456\"}}");
+                firstStagePublished.await(5, TimeUnit.SECONDS);
+                write(out, "{\"stage\":\"LEARNING_PATH\",\"data\":{\"learningPath\":\"جامعات\"}}");
+                write(out, "{\"stage\":\"JOB_MATCHES\",\"data\":{\"jobMatches\":\"[]\"}}");
+                write(out, "{\"stage\":\"EMAIL\",\"data\":{\"emailSent\":true}}");
+                write(out, "{\"stage\":\"RESULT\",\"data\":{\"personalityCode\":\"R-I-A\",\"careerRecommendations\":\"مهن مقترحة\","
+                        + "\"learningPath\":\"جامعات\",\"jobMatches\":\"[]\",\"emailSent\":true,\"indexVersion\":\"abc123def456\"}}");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        aiIntegrationService = new AIIntegrationService(
+                new RestTemplateBuilder().rootUri("http://127.0.0.1:" + server.getAddress().getPort()).build(),
+                aiResultRepo, testAttemptRepo, mlResultRepo, new CareerGuidanceCache(), progressBroadcaster, new ObjectMapper(),
+                new TransactionTemplate(transactionManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should publish each streamed stage as it arrives and save the final result")
+    void testRunCompleteAIAnalysis_StreamsStages() {
+        // Arrange
+        when(testAttemptRepo.findById(7L)).thenReturn(Optional.of(finalizedAttempt()));
+        when(mlResultRepo.findByTestAttemptId(7L)).thenReturn(Optional.empty());
+        doAnswer(invocation -> {
+            if (invocation.getArgument(1) == AIAnalysisStage.CAREER_RECOMMENDATIONS) firstStagePublished.countDown();
+            return null;
+        }).when(progressBroadcaster).publish(eq(7L), any(), anyMap());
+
+        // Act
+        long start = System.nanoTime();
+        aiIntegrationService.runCompleteAIAnalysis(7L);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert: the first stage was published while the stub was still holding the rest back
+        assertTrue(elapsedMs < 4000, "Stream was read only after it ended (" + elapsedMs + " ms)");
+
+        // Assert: stages in pipeline order, with their partial payloads
+        InOrder inOrder = inOrder(progressBroadcaster);
+        inOrder.verify(progressBroadcaster).publish(7L, AIAnalysisStage.ML_CODE, Map.of("personalityCode", "R-I-A"));
+        inOrder.verify(progressBroadcaster).publish(eq(7L), eq(AIAnalysisStage.CAREER_RECOMMENDATIONS), anyMap());
+        inOrder.verify(progressBroadcaster).publish(7L, AIAnalysisStage.LEARNING_PATH, Map.of("learningPath", "جامعات"));
+        inOrder.verify(progressBroadcaster).publish(7L, AIAnalysisStage.JOB_MATCHES, Map.of("jobMatches", "[]"));
+        inOrder.verify(progressBroadcaster).publish(7L, AIAnalysisStage.EMAIL, Map.of("emailSent", true));
+
+        ArgumentCaptor<AIResult> saved = ArgumentCaptor.forClass(AIResult.class);
+        verify(aiResultRepo).save(saved.capture());
+        assertEquals("مهن مقترحة", saved.getValue().getCareerRecommendations());
+        assertEquals("جامعات", saved.getValue().getLearningPath());
+        assertTrue(saved.getValue().isEmailSent());
+        verify(progressBroadcaster, never()).publish(any(), eq(AIAnalysisStage.COMPLETED), anyMap());
+
+        // Assert: the AI call runs between a read and a write transaction, not inside one
+        InOrder transactions = inOrder(transactionManager, progressBroadcaster, aiResultRepo);
+        transactions.verify(transactionManager).getTransaction(any());
+        transactions.verify(transactionManager).commit(any());
+        transactions.verify(progressBroadcaster).publish(eq(7L), eq(AIAnalysisStage.CAREER_RECOMMENDATIONS), anyMap());
+        transactions.verify(transactionManager).getTransaction(any());
+        transactions.verify(aiResultRepo).save(any());
+        transactions.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should fail a stream that ends without RESULT and count it against the circuit")
+    void testReadStream_EndsWithoutResult() throws Exception {
+        // Arrange: a guard that opens on a single failure
+        ServiceGuard guard = new ServiceGuard("ai", new ServiceGuard.GuardSettings(1, 0, 1, 1, 100, 30_000, 1),
+                new SimpleMeterRegistry());
+
+        // Act & Assert
+        try (ClientHttpResponse response = streamed(guard,
+                "{\"stage\":\"CAREER_RECOMMENDATIONS\",\"data\":{\"careerRecommendations\":\"مهن\"}}")) {
+            assertThrows(IllegalStateException.class, () -> aiIntegrationService.readStream(7L, response));
+        }
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+    }
+
+    @Test
+    @DisplayName("Should fail on an ERROR line and count it against the circuit")
+    void testReadStream_ErrorLine() throws Exception {
+        // Arrange
+        ServiceGuard guard = new ServiceGuard("ai", new ServiceGuard.GuardSettings(1, 0, 1, 1, 100, 30_000, 1),
+                new SimpleMeterRegistry());
+
+        // Act & Assert
+        try (ClientHttpResponse response = streamed(guard, "{\"stage\":\"ERROR\",\"data\":{\"detail\":\"RAG index missing\"}}")) {
+            IllegalStateException error = assertThrows(IllegalStateException.class,
+                    () -> aiIntegrationService.readStream(7L, response));
+            assertTrue(error.getMessage().contains("RAG index missing"));
+        }
+        assertEquals(ServiceGuard.State.OPEN, guard.state());
+    }
+
+    private static ClientHttpResponse streamed(ServiceGuard guard, String... lines) throws IOException {
+        byte[] body = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        return guard.intercept(new MockClientHttpRequest(), new byte[0],
+                (request, requestBody) -> new MockClientHttpResponse(body, HttpStatus.OK));
+    }
+
+    private TestAttempt finalizedAttempt() {
+        UserInfo student = new UserInfo();
+        student.setName("Student");
+        student.setEmail("student@test.com");
+        student.setGender(TargetGender.FEMALE);
+
+        EvaluationResult evaluation = new EvaluationResult();
+        evaluation.setMetricScores(Map.of("R", 9, "I", 8, "A", 7));
+        evaluation.setFirstMetric("R");
+        evaluation.setSecondMetric("I");
+        evaluation.setThirdMetric("A");
+
+        TestAttempt attempt = new TestAttempt();
+        attempt.setId(7L);
+        attempt.setStudent(student);
+        attempt.setEvaluationResult(evaluation);
+        return attempt;
+    }
+
+    private static void write(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+}
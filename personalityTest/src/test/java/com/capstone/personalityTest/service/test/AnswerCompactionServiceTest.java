@@ -0,0 +1,114 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
+import com.capstone.personalityTest.service.test.PackedAnswers.PackedAnswer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for AnswerCompactionService and the PackedAnswers encoding
+ * Runs the chunked compaction against an in-memory H2 copy of the answer/test_attempt tables
+ */
+@DisplayName("AnswerCompactionService Unit Tests")
+class AnswerCompactionServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AnswerCompactionService compactionService;
+    private CompiledTest compiledTest;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:compaction;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE test_attempt (id BIGINT PRIMARY KEY, test_id BIGINT, finalized BOOLEAN)");
+        jdbcTemplate.execute("CREATE TABLE answer (id BIGINT AUTO_INCREMENT PRIMARY KEY, answer_type VARCHAR(31), " +
+                "question_id BIGINT, sub_question_id BIGINT, test_attempt_id BIGINT, binary_value BOOLEAN, scale_value INT)");
+        jdbcTemplate.execute("CREATE TABLE packed_answer_set (test_attempt_id BIGINT PRIMARY KEY, layout_id BIGINT, " +
+                "item_count INT, packed_values VARBINARY(4096))");
+
+        compactionService = new AnswerCompactionService(mock(TestRepository.class), mock(CompiledTestCache.class),
+                mock(PackedAnswerStore.class), mock(AttemptJobRunner.class), jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(compactionService, "chunkSize", 2);
+
+        // Item order: checkbox 10, scale 11, open question 2
+        CompiledItem checkbox = new CompiledItem(0, 1L, 1L, "Q", 10L, "R", AnswerType.CHECKBOX, TargetGender.ALL, null, MetricIndex.NONE);
+        CompiledItem scale = new CompiledItem(1, 1L, 1L, "Q", 11L, "I", AnswerType.SCALE, TargetGender.ALL, null, MetricIndex.NONE);
+        CompiledItem open = new CompiledItem(2, 1L, 2L, "Open", null, null, AnswerType.OPEN, TargetGender.ALL, null, MetricIndex.NONE);
+        compiledTest = new CompiledTest(7L, "RIASEC", null, Map.of(), List.of(checkbox, scale, open),
+                Map.of(2L, open), Map.of(10L, checkbox, 11L, scale), MetricIndex.of(List.of()), Map.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Should round-trip checkbox and scale values through the 4-bit encoding")
+    void testPackedAnswers_RoundTrip() {
+        List<PackedAnswers.ItemKey> layout = PackedAnswers.layoutOf(compiledTest);
+        byte[] values = PackedAnswers.newValues(layout.size());
+        PackedAnswers.set(values, 0, PackedAnswers.encode(AnswerType.CHECKBOX, false, null));
+        PackedAnswers.set(values, 1, PackedAnswers.encode(AnswerType.SCALE, null, 14));
+
+        assertEquals(2, values.length, "Two items per byte");
+        assertEquals(PackedAnswers.EMPTY, PackedAnswers.encode(AnswerType.SCALE, null, 15), "Out of range stays a row");
+        assertEquals(layout, PackedAnswers.parseLayout(PackedAnswers.formatLayout(layout)));
+        assertEquals(List.of(
+                        new PackedAnswer(1L, 10L, AnswerType.CHECKBOX, false, null),
+                        new PackedAnswer(1L, 11L, AnswerType.SCALE, null, 14)),
+                PackedAnswers.decode(layout, values));
+    }
+
+    @Test
+    @DisplayName("Should pack checkbox/scale rows of finalized attempts and leave open and unfinalized answers as rows")
+    void testCompact_PacksFinalizedAttempts() {
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO test_attempt VALUES (?, 7, TRUE)", id);
+            jdbcTemplate.update("INSERT INTO answer (answer_type, question_id, sub_question_id, test_attempt_id, binary_value) " +
+                    "VALUES ('BINARY', 1, 10, ?, TRUE)", id);
+            jdbcTemplate.update("INSERT INTO answer (answer_type, question_id, sub_question_id, test_attempt_id, scale_value) " +
+                    "VALUES ('SCALE', 1, 11, ?, ?)", id, (int) id + 2);
+            jdbcTemplate.update("INSERT INTO answer (answer_type, question_id, test_attempt_id) VALUES ('OPEN', 2, ?)", id);
+        }
+        jdbcTemplate.update("INSERT INTO test_attempt VALUES (4, 7, FALSE)");
+        jdbcTemplate.update("INSERT INTO answer (answer_type, question_id, sub_question_id, test_attempt_id, binary_value) " +
+                "VALUES ('BINARY', 1, 10, 4, FALSE)");
+
+        AttemptJob job = new AttemptJob(AnswerCompactionService.JOB_TYPE, 7L);
+        compactionService.compact(job, compiledTest, 1L);
+
+        assertEquals(3, job.processed());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM packed_answer_set", Integer.class));
+        assertEquals(List.of("OPEN", "OPEN", "OPEN", "BINARY"), jdbcTemplate.queryForList(
+                "SELECT answer_type FROM answer ORDER BY test_attempt_id", String.class));
+
+        byte[] packed = jdbcTemplate.queryForObject(
+                "SELECT packed_values FROM packed_answer_set WHERE test_attempt_id = 2", byte[].class);
+        assertEquals(List.of(
+                        new PackedAnswer(1L, 10L, AnswerType.CHECKBOX, true, null),
+                        new PackedAnswer(1L, 11L, AnswerType.SCALE, null, 4)),
+                PackedAnswers.decode(PackedAnswers.layoutOf(compiledTest), packed));
+
+        // Running again finds nothing left to compact
+        AttemptJob again = new AttemptJob(AnswerCompactionService.JOB_TYPE, 7L);
+        compactionService.compact(again, compiledTest, 1L);
+        assertEquals(0, again.processed());
+    }
+}
@@ -0,0 +1,82 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.AttemptJobResponse;
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AttemptJobRunner
+ * Tests deduplication of concurrent submissions and eviction of finished jobs
+ */
+@DisplayName("AttemptJobRunner Unit Tests")
+class AttemptJobRunnerTest {
+
+    private final AttemptJobRunner runner = new AttemptJobRunner();
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should queue a single job when the same job is submitted concurrently")
+    void testSubmit_ConcurrentSubmissionsShareOneJob() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        AttemptJobRunner.Work work = job -> release.await(5, TimeUnit.SECONDS);
+
+        // Act
+        List<CompletableFuture<AttemptJobResponse>> submissions = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> runner.submit("RESCORE", 1L, work)))
+                .toList();
+        Set<String> jobIds = submissions.stream()
+                .map(CompletableFuture::join)
+                .map(AttemptJobResponse::getJobId)
+                .collect(Collectors.toSet());
+        release.countDown();
+
+        // Assert
+        assertEquals(1, jobIds.size());
+        assertEquals(1, runner.getJobs().size());
+    }
+
+    @Test
+    @DisplayName("Should keep only the most recent finished jobs")
+    void testSubmit_EvictsOldestFinishedJobs() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(runner, "maxFinishedJobs", 2);
+
+        // Act
+        String first = runner.submit("RESCORE", 1L, job -> { }).getJobId();
+        for (long testId = 2; testId <= 4; testId++) {
+            runner.submit("RESCORE", testId, job -> { });
+        }
+        String last = runner.submit("RESCORE", 5L, job -> { }).getJobId();
+        awaitJobCount(2);
+
+        // Assert
+        assertEquals(2, runner.getJobs().size());
+        assertEquals(JobStatus.COMPLETED, runner.getJob(last).getStatus());
+        assertThrows(EntityNotFoundException.class, () -> runner.getJob(first));
+    }
+
+    private void awaitJobCount(int count) throws InterruptedException {
+        for (int i = 0; i < 500 && runner.getJobs().size() > count; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for AttemptRescoringService
+ * Runs the chunked rescoring against an in-memory H2 copy of the answer/test_attempt tables
+ */
+@DisplayName("AttemptRescoringService Unit Tests")
+class AttemptRescoringServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AttemptRescoringService rescoringService;
+    private PackedAnswerStore packedAnswerStore;
+    private CompiledTest compiledTest;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:rescoring;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE test_attempt (id BIGINT PRIMARY KEY, test_id BIGINT, finalized BOOLEAN, " +
+                "first_metric_code VARCHAR(20), second_metric_code VARCHAR(20), third_metric_code VARCHAR(20))");
+        jdbcTemplate.execute("CREATE TABLE answer (id BIGINT AUTO_INCREMENT PRIMARY KEY, answer_type VARCHAR(31), " +
+                "question_id BIGINT, sub_question_id BIGINT, test_attempt_id BIGINT, binary_value BOOLEAN, scale_value INT)");
+        jdbcTemplate.execute("CREATE TABLE evaluation_scores (test_attempt_id BIGINT, metric_code VARCHAR(20), score INT)");
+        jdbcTemplate.execute("CREATE TABLE packed_answer_set (test_attempt_id BIGINT PRIMARY KEY, layout_id BIGINT, " +
+                "item_count INT, packed_values VARBINARY(4096))");
+
+        packedAnswerStore = mock(PackedAnswerStore.class);
+        rescoringService = new AttemptRescoringService(mock(TestRepository.class), mock(CompiledTestCache.class),
+                packedAnswerStore, mock(AttemptJobRunner.class), jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(rescoringService, "chunkSize", 2);
+        ReflectionTestUtils.setField(rescoringService, "parallelism", 2);
+
+        // Sub-question 11 now scores "I" (it used to score "R")
+        CompiledItem realistic = new CompiledItem(0, 1L, 1L, "Q", 10L, "R", AnswerType.CHECKBOX,
+                TargetGender.ALL, new CompiledMetric(1L, "R", "Realistic", null, null, null, null), 0);
+        CompiledItem investigative = new CompiledItem(1, 1L, 1L, "Q", 11L, "I", AnswerType.CHECKBOX,
+                TargetGender.ALL, new CompiledMetric(2L, "I", "Investigative", null, null, null, null), 1);
+        compiledTest = new CompiledTest(7L, "RIASEC", null, Map.of(), List.of(realistic, investigative),
+                Map.of(), Map.of(10L, realistic, 11L, investigative),
+                MetricIndex.of(List.of("R", "I", "A")), Map.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    @DisplayName("Should rescore every finalized attempt of the test across chunks and rewrite its scores")
+    void testRescore_RewritesFinalizedAttempts() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO test_attempt (id, test_id, finalized, first_metric_code) VALUES (?, 7, TRUE, 'R')", id);
+            jdbcTemplate.update("INSERT INTO evaluation_scores VALUES (?, 'R', 1)", id);
+            if (id == 5) continue;
+            jdbcTemplate.update("INSERT INTO answer (answer_type, question_id, sub_question_id, test_attempt_id, binary_value) " +
+                    "VALUES ('BINARY', 1, 11, ?, TRUE)", id);
+        }
+        // Attempt 5 was compacted: its answer lives in a packed row
+        jdbcTemplate.update("INSERT INTO packed_answer_set VALUES (5, 1, 2, X'20')");
+        when(packedAnswerStore.decode(eq(1L), any())).thenReturn(List.of(
+                new PackedAnswers.PackedAnswer(1L, 11L, AnswerType.CHECKBOX, true, null)));
+        jdbcTemplate.update("INSERT INTO test_attempt (id, test_id, finalized, first_metric_code) VALUES (6, 7, FALSE, NULL)");
+        jdbcTemplate.update("INSERT INTO test_attempt (id, test_id, finalized, first_metric_code) VALUES (8, 9, TRUE, 'R')");
+
+        AttemptJob job = new AttemptJob("RESCORE", 7L);
+        rescoringService.rescore(job, compiledTest);
+
+        assertEquals(5, job.processed());
+        assertEquals(5, job.toResponse().getTotalAttempts());
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM test_attempt WHERE first_metric_code = 'I' AND second_metric_code = 'R'", Integer.class),
+                "Packed and row-stored answers score the same");
+        assertEquals(List.of(0, 1, 0), jdbcTemplate.queryForList(
+                "SELECT score FROM evaluation_scores WHERE test_attempt_id = 3 ORDER BY metric_code", Integer.class),
+                "A, I, R: one row per metric, the stale row replaced");
+        assertNull(jdbcTemplate.queryForObject("SELECT first_metric_code FROM test_attempt WHERE id = 6", String.class),
+                "Unfinalized attempts are left alone");
+        assertEquals("R", jdbcTemplate.queryForObject("SELECT first_metric_code FROM test_attempt WHERE id = 8", String.class),
+                "Attempts of other tests are left alone");
+    }
+}
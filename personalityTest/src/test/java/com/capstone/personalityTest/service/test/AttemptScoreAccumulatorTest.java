@@ -0,0 +1,172 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.AnswerRequest;
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+import com.capstone.personalityTest.model.UserInfo;
+import com.capstone.personalityTest.model.testm.Test.Metric;
+import com.capstone.personalityTest.model.testm.Test.Question;
+import com.capstone.personalityTest.model.testm.Test.SubQuestion;
+import com.capstone.personalityTest.model.testm.Test.Test;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.CheckBoxAnswer;
+import com.capstone.personalityTest.model.testm.TestAttempt.Answer.ScaleAnswer;
+import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
+import com.capstone.personalityTest.repository.test.AnswerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AttemptScoreAccumulator
+ * Tests loading the running scores from stored answers, applying confirmed writes as deltas and laying drafts over a copy
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AttemptScoreAccumulator Unit Tests")
+class AttemptScoreAccumulatorTest {
+
+    @Mock
+    private CompiledTestCache compiledTestCache;
+
+    @Mock
+    private AnswerRepository answerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AttemptScoreAccumulator accumulator;
+
+    private TestAttempt attempt;
+    private Question question;
+    private SubQuestion realisticSub;
+
+    @BeforeEach
+    void setUp() {
+        Metric realistic = new Metric(1L, "R", "Realistic", null, null);
+        Metric investigative = new Metric(2L, "I", "Investigative", null, null);
+
+        question = new Question();
+        question.setId(1L);
+        realisticSub = new SubQuestion();
+        realisticSub.setId(11L);
+
+        CompiledItem questionItem = new CompiledItem(0, 1L, 1L, "Q", null, null,
+                AnswerType.SCALE, TargetGender.ALL, null, MetricIndex.NONE);
+        CompiledItem realisticItem = new CompiledItem(1, 1L, 1L, "Q", 11L, "R",
+                AnswerType.SCALE, TargetGender.ALL, CompiledMetric.of(realistic), 0);
+        CompiledItem investigativeItem = new CompiledItem(2, 1L, 1L, "Q", 12L, "I",
+                AnswerType.SCALE, TargetGender.ALL, CompiledMetric.of(investigative), 1);
+
+        CompiledTest compiled = new CompiledTest(1L, "RIASEC", null, Map.of(),
+                List.of(questionItem, realisticItem, investigativeItem),
+                Map.of(1L, questionItem),
+                Map.of(11L, realisticItem, 12L, investigativeItem),
+                MetricIndex.of(List.of("R", "I")),
+                Map.of(TargetGender.MALE, List.of(realisticItem, investigativeItem),
+                        TargetGender.FEMALE, List.of(realisticItem, investigativeItem),
+                        TargetGender.ALL, List.of(realisticItem, investigativeItem)));
+
+        Test test = new Test();
+        test.setId(1L);
+
+        UserInfo student = new UserInfo();
+        student.setGender(TargetGender.FEMALE);
+
+        attempt = new TestAttempt();
+        attempt.setId(5L);
+        attempt.setTest(test);
+        attempt.setStudent(student);
+
+        when(compiledTestCache.getOrCompile(test)).thenReturn(compiled);
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should load scores from stored answers and then apply changes as deltas")
+    void testRecord_AppliesDelta() {
+        when(answerRepository.findWithItemsByTestAttemptId(5L)).thenReturn(List.of(scale(realisticSub, 4)));
+
+        AttemptScoreAccumulator.Snapshot loaded = accumulator.snapshot(attempt);
+        assertEquals(1, loaded.answeredItems());
+        assertEquals(Map.of("R", 4, "I", 0), loaded.metricScores());
+        assertFalse(loaded.isComplete());
+
+        accumulator.record(5L, new AnswerRequest(1L, 11L, AnswerType.SCALE, null, 1, null, null, null));
+        accumulator.record(5L, new AnswerRequest(1L, 12L, AnswerType.SCALE, null, 6, null, null, null));
+
+        AttemptScoreAccumulator.Snapshot updated = accumulator.snapshot(attempt);
+        assertEquals(2, updated.answeredItems(), "Changing an answer must not count it twice");
+        assertEquals(Map.of("R", 1, "I", 6), updated.metricScores());
+        assertTrue(updated.isComplete());
+        assertEquals("I", updated.toEvaluationResult().getFirstMetric());
+        verify(answerRepository, times(1)).findWithItemsByTestAttemptId(5L);
+        verify(transactionManager).commit(any());
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should ignore writes for untracked attempts and reload them after eviction")
+    void testEvict_ReloadsFromAnswers() {
+        accumulator.record(5L, new AnswerRequest(1L, 11L, AnswerType.SCALE, null, 3, null, null, null)); // not tracked yet: nothing to update
+
+        CheckBoxAnswer unanswered = new CheckBoxAnswer();
+        unanswered.setQuestion(question);
+        when(answerRepository.findWithItemsByTestAttemptId(5L)).thenReturn(List.of(unanswered));
+
+        assertEquals(0, accumulator.snapshot(attempt).answeredItems(), "Null values are not answers");
+
+        accumulator.evict(5L);
+        assertFalse(accumulator.isTracked(5L));
+        accumulator.snapshot(attempt);
+        verify(answerRepository, times(2)).findWithItemsByTestAttemptId(5L);
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should lay drafts over a copy and leave the running scores as stored")
+    void testSnapshot_DraftsNotRecorded() {
+        when(answerRepository.findWithItemsByTestAttemptId(5L)).thenReturn(List.of(scale(realisticSub, 4)));
+        List<AnswerRequest> drafts = List.of(
+                new AnswerRequest(1L, 11L, AnswerType.SCALE, null, 2, null, null, null),
+                new AnswerRequest(1L, 12L, AnswerType.SCALE, null, 6, null, null, null));
+
+        AttemptScoreAccumulator.Snapshot preview = accumulator.snapshot(attempt, drafts);
+
+        assertEquals(2, preview.answeredItems());
+        assertEquals(Map.of("R", 2, "I", 6), preview.metricScores());
+        assertEquals(Map.of("R", 4, "I", 0), accumulator.snapshot(attempt).metricScores(), "Running scores untouched");
+        assertEquals(Map.of("R", 4, "I", 0), accumulator.score(attempt).metricScores());
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should apply the stored value read back after a batched upsert")
+    void testRecordStored_AppliesStoredValue() {
+        when(answerRepository.findWithItemsByTestAttemptId(5L)).thenReturn(List.of(scale(realisticSub, 4)));
+        accumulator.snapshot(attempt);
+        AnswerRepository.AnswerValueView stored = mock(AnswerRepository.AnswerValueView.class);
+        when(stored.getQuestionId()).thenReturn(1L);
+        when(stored.getSubQuestionId()).thenReturn(12L);
+        when(stored.getScaleValue()).thenReturn(5);
+
+        accumulator.recordStored(5L, stored);
+
+        AttemptScoreAccumulator.Snapshot updated = accumulator.snapshot(attempt);
+        assertEquals(2, updated.answeredItems());
+        assertEquals(Map.of("R", 4, "I", 5), updated.metricScores());
+    }
+
+    private ScaleAnswer scale(SubQuestion subQuestion, int value) {
+        ScaleAnswer answer = new ScaleAnswer();
+        answer.setQuestion(question);
+        answer.setSubQuestion(subQuestion);
+        answer.setScaleValue(value);
+        return answer;
+    }
+}
@@ -0,0 +1,282 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentImportResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentImportResponse.EntryResult;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.DocumentImportResponse.Outcome;
+import com.capstone.personalityTest.exception.EntityExistsException;
+import com.capstone.personalityTest.mapper.CareerDocumentMapper;
+import com.capstone.personalityTest.model.testm.CareerDocument;
+import com.capstone.personalityTest.repository.test.BaseTestRepository;
+import com.capstone.personalityTest.repository.test.CareerDocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CareerDocumentService
+ * Tests the bulk archive import: per-entry validation, de-duplication by content and a single reindex,
+ * and that stored files shared by content are only deleted once no document refers to them
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CareerDocumentService Unit Tests")
+class CareerDocumentServiceTest {
+
+    @Mock
+    private CareerDocumentRepository documentRepository;
+
+    @Mock
+    private BaseTestRepository baseTestRepository;
+
+    @Mock
+    private CareerDocumentMapper documentMapper;
+
+    @Mock
+    private DocumentReindexScheduler reindexScheduler;
+
+    @Mock
+    private DocumentSearchService searchService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path documentsFolder;
+
+    private CareerDocumentService documentService;
+
+    @BeforeEach
+    void setUp() {
+        CareerDocumentStore documentStore = new CareerDocumentStore();
+        ReflectionTestUtils.setField(documentStore, "documentsPath", documentsFolder.toString());
+        documentService = new CareerDocumentService(documentRepository, baseTestRepository, documentMapper,
+                reindexScheduler, documentStore, new SimpleAsyncTaskExecutor(), searchService,
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(documentService, "maxImportEntries", 200);
+    }
+
+    @Test
+    @DisplayName("Should import new entries once, report the rest and reindex once")
+    void testImportArchive_PerEntryReport() throws Exception {
+        // Arrange
+        byte[] engineering = "Engineering careers".getBytes(StandardCharsets.UTF_8);
+        byte[] medicine = "Medicine careers".getBytes(StandardCharsets.UTF_8);
+        byte[] archive = zip(
+            "guides/engineering.pdf", engineering,
+            "guides/engineering-copy.pdf", engineering,
+            "medicine.md", medicine,
+            "setup.exe", "binary".getBytes(StandardCharsets.UTF_8),
+            "empty.txt", new byte[0],
+            "__MACOSX/._engineering.pdf", "meta".getBytes(StandardCharsets.UTF_8)
+        );
+        CareerDocument existing = new CareerDocument();
+        existing.setId(7L);
+        existing.setOriginalFilename("medicine-2024.md");
+        existing.setContentHash(ContentHash.of(write("medicine", medicine)));
+        when(documentRepository.findByContentHashIn(any())).thenReturn(List.of(existing));
+        when(documentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<CareerDocument> documents = invocation.getArgument(0);
+            for (int i = 0; i < documents.size(); i++) {
+                documents.get(i).setId(100L + i);
+            }
+            return documents;
+        });
+
+        // Act
+        DocumentImportResponse report = documentService.importArchive(
+            new MockMultipartFile("file", "corpus.zip", "application/zip", archive), null, null, "admin@test.com");
+
+        // Assert
+        Map<String, EntryResult> results = report.getResults().stream()
+            .collect(Collectors.toMap(EntryResult::getName, Function.identity()));
+        assertEquals(6, report.getEntries());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(2, report.getRejected());
+        assertEquals(1, report.getSkipped());
+        assertEquals(Outcome.IMPORTED, results.get("guides/engineering.pdf").getOutcome());
+        assertEquals(100L, results.get("guides/engineering.pdf").getDocumentId());
+        assertEquals(Outcome.DUPLICATE, results.get("guides/engineering-copy.pdf").getOutcome());
+        assertEquals(7L, results.get("medicine.md").getDocumentId());
+        assertEquals(Outcome.REJECTED, results.get("setup.exe").getOutcome());
+        assertEquals("File is empty", results.get("empty.txt").getReason());
+        assertEquals(Outcome.SKIPPED, results.get("__MACOSX/._engineering.pdf").getOutcome());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CareerDocument>> saved = ArgumentCaptor.forClass(List.class);
+        verify(documentRepository, times(1)).saveAllAndFlush(saved.capture());
+        CareerDocument imported = saved.getValue().get(0);
+        assertEquals("engineering.pdf", imported.getOriginalFilename());
+        assertEquals(imported.getContentHash() + ".pdf", imported.getFilename());
+        verify(reindexScheduler, times(1)).request();
+        verify(searchService).indexLater(List.of(100L));
+
+        // Only the de-duplication and the save run in the transaction, after every entry was staged
+        InOrder transaction = inOrder(transactionManager, documentRepository);
+        transaction.verify(transactionManager).getTransaction(any());
+        transaction.verify(documentRepository).findByContentHashIn(any());
+        transaction.verify(documentRepository).saveAllAndFlush(anyList());
+        transaction.verify(transactionManager).commit(any());
+
+        // Only the imported file (and the test's own file) is left in the folder: no temp files
+        try (Stream<Path> files = Files.list(documentsFolder)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should stage every entry with a few workers, on the request thread if the executor is full")
+    void testImportArchive_BoundedStaging() throws Exception {
+        // Arrange: an executor that takes one task and rejects the rest, like a saturated pool
+        CareerDocumentStore documentStore = new CareerDocumentStore();
+        ReflectionTestUtils.setField(documentStore, "documentsPath", documentsFolder.toString());
+        AtomicInteger submitted = new AtomicInteger();
+        SimpleAsyncTaskExecutor threads = new SimpleAsyncTaskExecutor();
+        Executor saturated = task -> {
+            if (submitted.incrementAndGet() > 1) throw new RejectedExecutionException("Queue full");
+            threads.execute(task);
+        };
+        documentService = new CareerDocumentService(documentRepository, baseTestRepository, documentMapper,
+                reindexScheduler, documentStore, saturated, searchService, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(documentService, "maxImportEntries", 200);
+        ReflectionTestUtils.setField(documentService, "importParallelism", 4);
+
+        Object[] namesAndContents = new Object[2 * 150];
+        for (int i = 0; i < 150; i++) {
+            namesAndContents[2 * i] = "guide-" + i + ".txt";
+            namesAndContents[2 * i + 1] = ("Career guide " + i).getBytes(StandardCharsets.UTF_8);
+        }
+        when(documentRepository.findByContentHashIn(any())).thenReturn(List.of());
+        when(documentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        DocumentImportResponse report = documentService.importArchive(
+            new MockMultipartFile("file", "corpus.zip", "application/zip", zip(namesAndContents)), null, null, "admin@test.com");
+
+        // Assert
+        assertEquals(150, report.getImported());
+        assertEquals(2, submitted.get(), "Workers are bounded by the parallelism, not by the entries");
+    }
+
+    @Test
+    @DisplayName("Should reject an archive with more files than allowed")
+    void testImportArchive_TooManyEntries() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(documentService, "maxImportEntries", 1);
+        byte[] archive = zip(
+            "a.txt", "a".getBytes(StandardCharsets.UTF_8),
+            "b.txt", "b".getBytes(StandardCharsets.UTF_8)
+        );
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> documentService.importArchive(
+            new MockMultipartFile("file", "corpus.zip", "application/zip", archive), null, null, "admin@test.com"));
+        verifyNoInteractions(documentRepository, reindexScheduler, searchService);
+    }
+
+    @Test
+    @DisplayName("Should report a concurrent upload of the same content as a duplicate and keep its file")
+    void testUploadDocument_ConcurrentDuplicate() throws Exception {
+        // Arrange: the other upload stored the same file and committed its document first
+        byte[] content = "Engineering careers".getBytes(StandardCharsets.UTF_8);
+        when(documentRepository.findFirstByContentHash(any())).thenReturn(Optional.empty());
+        when(documentRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_career_documents_hash"));
+        when(documentRepository.existsByFilename(ContentHash.of(write("copy", content)) + ".pdf")).thenReturn(true);
+
+        // Act: upload in a transaction that then rolls back
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(EntityExistsException.class, () -> documentService.uploadDocument(
+                new MockMultipartFile("file", "engineering.pdf", "application/pdf", content), null, null, "admin@test.com"));
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        try (Stream<Path> files = Files.list(documentsFolder)) {
+            assertEquals(2, files.count(), "The stored file is shared with the committed document");
+        }
+        verifyNoInteractions(reindexScheduler, searchService);
+    }
+
+    @Test
+    @DisplayName("Should delete a document's file only when no other document refers to it")
+    void testDeleteDocument_KeepsSharedFile() throws Exception {
+        // Arrange
+        CareerDocument shared = document(1L, write("shared.pdf", new byte[]{1}));
+        CareerDocument own = document(2L, write("own.pdf", new byte[]{2}));
+        when(documentRepository.findById(1L)).thenReturn(Optional.of(shared));
+        when(documentRepository.findById(2L)).thenReturn(Optional.of(own));
+        when(documentRepository.existsByFilename("shared.pdf")).thenReturn(true);
+        when(documentRepository.existsByFilename("own.pdf")).thenReturn(false);
+
+        // Act
+        documentService.deleteDocument(1L);
+        documentService.deleteDocument(2L);
+
+        // Assert
+        assertTrue(Files.exists(documentsFolder.resolve("shared.pdf")));
+        assertFalse(Files.exists(documentsFolder.resolve("own.pdf")));
+        verify(documentRepository).delete(shared);
+        verify(documentRepository).delete(own);
+    }
+
+    private static CareerDocument document(long id, Path file) {
+        CareerDocument document = new CareerDocument();
+        document.setId(id);
+        document.setFilename(file.getFileName().toString());
+        return document;
+    }
+
+    private Path write(String name, byte[] content) throws Exception {
+        return Files.write(documentsFolder.resolve(name), content);
+    }
+
+    private static byte[] zip(Object... namesAndContents) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry((String) namesAndContents[i]));
+                zip.write((byte[]) namesAndContents[i + 1]);
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
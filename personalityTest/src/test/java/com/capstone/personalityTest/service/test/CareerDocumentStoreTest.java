@@ -0,0 +1,74 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.service.test.CareerDocumentStore.StagedFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CareerDocumentStore
+ * Tests that files are stored under the SHA-256 of their content and that rejected uploads leave nothing behind
+ */
+@DisplayName("CareerDocumentStore Unit Tests")
+class CareerDocumentStoreTest {
+
+    @TempDir
+    Path documentsFolder;
+
+    private CareerDocumentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new CareerDocumentStore();
+        ReflectionTestUtils.setField(store, "documentsPath", documentsFolder.toString());
+    }
+
+    @Test
+    @DisplayName("Should store identical content under the same content-addressed name")
+    void testStore_ContentAddressed() throws Exception {
+        // Arrange
+        byte[] content = "Software engineers design and build systems".getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        StagedFile first = store.stage(new ByteArrayInputStream(content), "TXT", 1024);
+        String firstName = store.store(first);
+        StagedFile renamedCopy = store.stage(new ByteArrayInputStream(content), "txt", 1024);
+        String secondName = store.store(renamedCopy);
+
+        // Assert
+        assertEquals(ContentHash.of(store.resolve(firstName)), first.contentHash());
+        assertEquals(first.contentHash() + ".txt", firstName);
+        assertEquals(firstName, secondName);
+        assertEquals(content.length, first.size());
+        assertArrayEquals(content, Files.readAllBytes(store.resolve(firstName)));
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    @DisplayName("Should reject oversized content while streaming and remove the temp file")
+    void testStage_TooLarge() throws Exception {
+        // Arrange
+        byte[] content = new byte[2048];
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> store.stage(new ByteArrayInputStream(content), "pdf", 1024));
+        assertEquals(0, countFiles());
+    }
+
+    private long countFiles() throws Exception {
+        try (Stream<Path> files = Files.list(documentsFolder)) {
+            return files.count();
+        }
+    }
+}
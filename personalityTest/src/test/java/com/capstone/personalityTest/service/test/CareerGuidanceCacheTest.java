@@ -0,0 +1,96 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.service.test.CareerGuidanceCache.Guidance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CareerGuidanceCache
+ * Tests LRU eviction, expiry, non-reusable responses and invalidation while a request is in flight
+ */
+@DisplayName("CareerGuidanceCache Unit Tests")
+class CareerGuidanceCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private CareerGuidanceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CareerGuidanceCache(now::get);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used code and expire old entries")
+    void testGet_LruAndTtl() {
+        // Arrange
+        long generation = cache.generation();
+        cache.put("R-I-A", guidance("ria"), generation);
+        cache.put("S-E-C", guidance("sec"), generation);
+
+        // Act
+        assertNotNull(cache.get("R-I-A"));           // R-I-A is now the most recent
+        cache.put("I-S-E", guidance("ise"), generation);
+
+        // Assert
+        assertNull(cache.get("S-E-C"), "Least recently used code is evicted");
+        assertEquals("ria", cache.get("R-I-A").careerRecommendations());
+        now.addAndGet(60_000);
+        assertNull(cache.get("I-S-E"), "Entry expired");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should keep the original age when the same guidance is stored again")
+    void testPut_SameGuidanceKeepsAge() {
+        // Arrange
+        cache.put("R-I-A", guidance("ria"), cache.generation());
+        now.addAndGet(40_000);
+
+        // Act: the cached guidance echoed back by a later attempt
+        cache.put("R-I-A", guidance("ria"), cache.generation());
+        now.addAndGet(20_000);
+
+        // Assert: expires 60 s after it was generated, not after it was last used
+        assertNull(cache.get("R-I-A"));
+    }
+
+    @Test
+    @DisplayName("Should not store responses without an index version")
+    void testPut_NotReusable() {
+        // Act
+        cache.put("R-I-A", new Guidance("error", "generic list", null), cache.generation());
+
+        // Assert
+        assertNull(cache.get("R-I-A"));
+    }
+
+    @Test
+    @DisplayName("Should drop entries on invalidate and ignore responses started before it")
+    void testInvalidate() {
+        // Arrange
+        cache.put("R-I-A", guidance("ria"), cache.generation());
+        long inFlight = cache.generation();
+
+        // Act
+        cache.invalidate();
+        cache.put("S-E-C", guidance("sec"), inFlight);
+
+        // Assert
+        assertNull(cache.get("R-I-A"));
+        assertNull(cache.get("S-E-C"), "Generated from documents that changed meanwhile");
+        cache.put("S-E-C", guidance("sec"), cache.generation());
+        assertNotNull(cache.get("S-E-C"));
+    }
+
+    private Guidance guidance(String text) {
+        return new Guidance(text, "path-" + text, "abc123def456");
+    }
+}
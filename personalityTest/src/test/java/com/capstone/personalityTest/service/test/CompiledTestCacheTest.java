@@ -0,0 +1,201 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.QuestionResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.SectionResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.SubQuestionResponse;
+import com.capstone.personalityTest.mapper.TestMapper.QuestionMapper;
+import com.capstone.personalityTest.mapper.TestMapper.SubQuestionMapper;
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+import com.capstone.personalityTest.model.Enum.TestStatus;
+import com.capstone.personalityTest.model.testm.Test.Metric;
+import com.capstone.personalityTest.model.testm.Test.Question;
+import com.capstone.personalityTest.model.testm.Test.Section;
+import com.capstone.personalityTest.model.testm.Test.SubQuestion;
+import com.capstone.personalityTest.model.testm.Test.Test;
+import com.capstone.personalityTest.repository.test.TestRepo.MetricRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Unit tests for CompiledTestCache
+ * Tests gender filtering of the compiled tree and which tests are kept in the cache
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CompiledTestCache Unit Tests")
+class CompiledTestCacheTest {
+
+    @Mock
+    private QuestionMapper questionMapper;
+
+    @Mock
+    private SubQuestionMapper subQuestionMapper;
+
+    @Mock
+    private MetricRepository metricRepository;
+
+    @InjectMocks
+    private CompiledTestCache compiledTestCache;
+
+    private Test test;
+    private Question sharedQuestion;
+
+    @BeforeEach
+    void setUp() {
+        Metric realistic = new Metric(1L, "R", "Realistic", null, null);
+
+        test = new Test();
+        test.setId(10L);
+        test.setTitle("RIASEC");
+        test.setStatus(TestStatus.PUBLISHED);
+        test.setActive(true);
+
+        Section section = new Section();
+        section.setId(1L);
+        section.setTitle("Activities");
+        section.setTest(test);
+
+        sharedQuestion = new Question();
+        sharedQuestion.setId(1L);
+        sharedQuestion.setTargetGender(TargetGender.ALL);
+        sharedQuestion.setAnswerType(AnswerType.CHECKBOX);
+        sharedQuestion.setSection(section);
+        sharedQuestion.setSubQuestions(new ArrayList<>(List.of(
+                subQuestion(1L, TargetGender.ALL, realistic),
+                subQuestion(2L, TargetGender.FEMALE, realistic)
+        )));
+
+        Question maleQuestion = new Question();
+        maleQuestion.setId(2L);
+        maleQuestion.setTargetGender(TargetGender.MALE);
+        maleQuestion.setAnswerType(AnswerType.SCALE);
+        maleQuestion.setSection(section);
+
+        section.setQuestions(new ArrayList<>(List.of(sharedQuestion, maleQuestion)));
+        test.setSections(new ArrayList<>(List.of(section)));
+
+        lenient().when(questionMapper.toDto(any(Question.class))).thenAnswer(invocation -> {
+            Question q = invocation.getArgument(0);
+            return new QuestionResponse(q.getId(), q.getQuestionText(), q.getAnswerType(), q.getTargetGender(), null);
+        });
+        lenient().when(subQuestionMapper.toDto(any(SubQuestion.class))).thenAnswer(invocation -> {
+            SubQuestion sq = invocation.getArgument(0);
+            return new SubQuestionResponse(sq.getId(), sq.getSubQuestionText(), sq.getTargetGender(), sq.getMetric());
+        });
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should compile a separate filtered tree per gender without touching the entities")
+    void testCompile_FiltersPerGender() {
+        CompiledTest compiled = compiledTestCache.compile(test);
+
+        List<SectionResponse> male = compiled.sectionsFor(TargetGender.MALE);
+        List<SectionResponse> female = compiled.sectionsFor(TargetGender.FEMALE);
+
+        assertEquals(2, male.get(0).getQuestions().size(), "Male student sees shared and male question");
+        assertEquals(1, female.get(0).getQuestions().size(), "Female student only sees shared question");
+        assertEquals(1, male.get(0).getQuestions().get(0).getGroupedSubQuestions().get("R").size());
+        assertEquals(2, female.get(0).getQuestions().get(0).getGroupedSubQuestions().get("R").size());
+
+        assertEquals(2, compiled.requiredItemCount(TargetGender.MALE), "One visible sub-question plus the male question");
+        assertEquals(2, compiled.requiredItemCount(TargetGender.FEMALE), "Two visible sub-questions");
+        assertEquals(List.of("R"), compiled.metricIndex().codes());
+
+        assertEquals(2, sharedQuestion.getSubQuestions().size(), "Managed entities must not be filtered in place");
+        assertThrows(UnsupportedOperationException.class, () -> male.add(new SectionResponse()));
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should cache copies of the metric instead of the entity")
+    void testCompile_CopiesMetric() {
+        // Arrange
+        Metric entity = sharedQuestion.getSubQuestions().get(0).getMetric();
+
+        // Act
+        CompiledTest compiled = compiledTestCache.compile(test);
+        entity.setLabel("Renamed");
+
+        // Assert
+        CompiledItem item = compiled.item(1L, 1L);
+        assertEquals(new CompiledMetric(1L, "R", "Realistic", null, null, null, null), item.metric());
+        SubQuestionResponse cached = compiled.sectionsFor(TargetGender.FEMALE).get(0).getQuestions().get(0)
+                .getGroupedSubQuestions().get("R").get(0);
+        assertNotSame(entity, cached.getMetric());
+        assertEquals("Realistic", cached.getMetric().getLabel());
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should only cache tests that are published and active")
+    void testCompile_CachesOnlyAvailableTests() {
+        compiledTestCache.compile(test);
+        assertNotNull(compiledTestCache.get(10L));
+
+        test.setActive(false);
+        compiledTestCache.refresh(test);
+        assertNull(compiledTestCache.get(10L), "Deactivated test should be evicted");
+
+        compiledTestCache.compile(test);
+        assertNull(compiledTestCache.get(10L), "Inactive test should be compiled but not cached");
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should reuse the compilation of an inactive published test but recompile drafts")
+    void testGetOrCompile_KeepsInactiveCompilation() {
+        // Arrange
+        CompiledTest active = compiledTestCache.compile(test);
+        test.setActive(false);
+        compiledTestCache.refresh(test);
+
+        // Act
+        CompiledTest inactive = compiledTestCache.getOrCompile(test);
+
+        // Assert
+        assertSame(active, inactive, "Deactivation keeps the compiled tree for running attempts");
+        assertSame(inactive, compiledTestCache.getOrCompile(test));
+        assertNull(compiledTestCache.get(10L), "Inactive test cannot be started");
+
+        test.setStatus(TestStatus.DRAFT);
+        compiledTestCache.clear();
+        assertNotSame(compiledTestCache.getOrCompile(test), compiledTestCache.getOrCompile(test),
+                "Drafts can still change and are never cached");
+    }
+
+    @org.junit.jupiter.api.Test
+    @DisplayName("Should only apply a refresh once the transaction commits")
+    void testRefresh_DeferredUntilCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            compiledTestCache.refresh(test);
+
+            // Assert
+            assertNull(compiledTestCache.get(10L), "Nothing is cached before commit");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertNotNull(compiledTestCache.get(10L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private SubQuestion subQuestion(Long id, TargetGender gender, Metric metric) {
+        SubQuestion sq = new SubQuestion();
+        sq.setId(id);
+        sq.setTargetGender(gender);
+        sq.setMetric(metric);
+        return sq;
+    }
+}
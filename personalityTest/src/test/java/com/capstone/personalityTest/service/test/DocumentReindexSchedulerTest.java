@@ -0,0 +1,189 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.DocumentIndexManifest;
+import com.capstone.personalityTest.dto.DocumentIndexResponse;
+import com.capstone.personalityTest.dto.RequestDTO.test.DocumentIndexRequest;
+import com.capstone.personalityTest.dto.RequestDTO.test.DocumentIndexRequest.DocumentRef;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.ReindexStatusResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.CareerDocumentResponse.ReindexStatusResponse.State;
+import com.capstone.personalityTest.model.Enum.JobStatus;
+import com.capstone.personalityTest.model.testm.CareerDocument;
+import com.capstone.personalityTest.repository.test.CareerDocumentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DocumentReindexScheduler
+ * Tests that triggers are merged into one reindex, that at most one more is queued behind a running one,
+ * and that only added, changed and removed documents are sent to the AI service
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DocumentReindexScheduler Unit Tests")
+class DocumentReindexSchedulerTest {
+
+    @Mock
+    private RestTemplate documentRestTemplate;
+
+    @Mock
+    private CareerDocumentRepository documentRepository;
+
+    private DocumentReindexScheduler scheduler;
+
+    private static final String REINDEX_URL = "/api/admin/reindex-documents";
+    private static final String MANIFEST_URL = "/api/admin/documents/index-manifest";
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new DocumentReindexScheduler(documentRestTemplate, documentRepository, new CareerGuidanceCache(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(scheduler, "debounceMs", 100L);
+        ReflectionTestUtils.setField(scheduler, "maxDelayMs", 10_000L);
+        ReflectionTestUtils.setField(scheduler, "documentsPath", "./career_documents");
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should merge a burst of triggers into a single reindex")
+    void testRequest_CoalescesBurst() throws Exception {
+        // Arrange
+        stubManifest(new DocumentIndexManifest(0, Map.of()));
+        when(documentRepository.findAll()).thenReturn(List.of(document(1L, "aaa")));
+        when(documentRestTemplate.postForEntity(eq(REINDEX_URL), any(DocumentIndexRequest.class), eq(DocumentIndexResponse.class)))
+                .thenReturn(ResponseEntity.ok(indexed(1, 1L)));
+
+        // Act: 30 uploads in a row
+        for (int i = 0; i < 30; i++) {
+            scheduler.request();
+        }
+        ReindexStatusResponse scheduled = scheduler.status();
+        ReindexStatusResponse done = awaitStatus(status -> status.getTotalRuns() == 1 && status.getState() == State.IDLE);
+
+        // Assert
+        assertEquals(State.SCHEDULED, scheduled.getState());
+        assertEquals(30, scheduled.getPendingRequests());
+        assertEquals(JobStatus.COMPLETED, done.getLastStatus());
+        assertEquals(30, done.getLastCoalescedRequests());
+        assertNotNull(done.getLastDurationMs());
+        verify(documentRestTemplate, times(1)).postForEntity(eq(REINDEX_URL), any(DocumentIndexRequest.class), eq(DocumentIndexResponse.class));
+    }
+
+    @Test
+    @DisplayName("Should queue exactly one reindex behind the running one")
+    void testRequest_QueuesOneBehindRunning() throws Exception {
+        // Arrange: the first reindex holds until released
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        stubManifest(new DocumentIndexManifest(0, Map.of()));
+        when(documentRepository.findAll()).thenReturn(List.of(document(1L, "aaa")));
+        when(documentRestTemplate.postForEntity(eq(REINDEX_URL), any(DocumentIndexRequest.class), eq(DocumentIndexResponse.class)))
+                .thenAnswer(invocation -> {
+                    running.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return ResponseEntity.ok(indexed(1, 1L));
+                })
+                .thenReturn(ResponseEntity.ok(indexed(2, 1L)));
+
+        scheduler.requestNow();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // Act: more uploads while it runs
+        for (int i = 0; i < 5; i++) {
+            scheduler.request();
+        }
+        ReindexStatusResponse whileRunning = scheduler.status();
+        release.countDown();
+        ReindexStatusResponse done = awaitStatus(status -> status.getTotalRuns() == 2 && status.getState() == State.IDLE);
+
+        // Assert
+        assertEquals(State.RUNNING, whileRunning.getState());
+        assertTrue(whileRunning.isQueued());
+        assertNotNull(whileRunning.getRunningSince());
+        assertEquals(5, done.getLastCoalescedRequests());
+        assertEquals(6, done.getTotalRequests());
+        verify(documentRestTemplate, times(2)).postForEntity(eq(REINDEX_URL), any(DocumentIndexRequest.class), eq(DocumentIndexResponse.class));
+    }
+
+    @Test
+    @DisplayName("Should send only changed and removed documents and record what was indexed")
+    void testRequestNow_SendsOnlyDelta() throws Exception {
+        // Arrange: 1 is unchanged, 2 changed since it was indexed, 3 was deleted
+        CareerDocument unchanged = document(1L, "aaa");
+        CareerDocument changed = document(2L, "new");
+        stubManifest(new DocumentIndexManifest(4, Map.of(1L, "aaa", 2L, "old", 3L, "ccc")));
+        when(documentRepository.findAll()).thenReturn(List.of(unchanged, changed));
+        when(documentRestTemplate.postForEntity(eq(REINDEX_URL), any(DocumentIndexRequest.class), eq(DocumentIndexResponse.class)))
+                .thenReturn(ResponseEntity.ok(new DocumentIndexResponse(5, List.of(2L), Map.of(), List.of(3L), 7, 9)));
+
+        // Act
+        scheduler.requestNow();
+        ReindexStatusResponse done = awaitStatus(status -> status.getTotalRuns() == 1 && status.getState() == State.IDLE);
+
+        // Assert
+        ArgumentCaptor<DocumentIndexRequest> sent = ArgumentCaptor.forClass(DocumentIndexRequest.class);
+        verify(documentRestTemplate).postForEntity(eq(REINDEX_URL), sent.capture(), eq(DocumentIndexResponse.class));
+        assertEquals(List.of(new DocumentRef(2L, "doc-2.pdf", "new")), sent.getValue().getUpserts());
+        assertEquals(List.of(new DocumentRef(3L, null, "ccc")), sent.getValue().getRemoved());
+
+        assertEquals(JobStatus.COMPLETED, done.getLastStatus());
+        assertEquals(5L, done.getIndexGeneration());
+        assertEquals(1, done.getLastUpserted());
+        assertEquals(1, done.getLastRemoved());
+        assertTrue(changed.isIndexed());
+        assertEquals("new", changed.getIndexedHash());
+        assertEquals(5L, changed.getIndexedGeneration());
+        assertTrue(unchanged.isIndexed());
+    }
+
+    private void stubManifest(DocumentIndexManifest manifest) {
+        when(documentRestTemplate.getForObject(MANIFEST_URL, DocumentIndexManifest.class)).thenReturn(manifest);
+    }
+
+    private static CareerDocument document(Long id, String contentHash) {
+        CareerDocument document = new CareerDocument();
+        document.setId(id);
+        document.setFilename("doc-" + id + ".pdf");
+        document.setContentHash(contentHash);
+        return document;
+    }
+
+    private static DocumentIndexResponse indexed(long generation, Long documentId) {
+        return new DocumentIndexResponse(generation, List.of(documentId), Map.of(), List.of(), 3, 0);
+    }
+
+    private ReindexStatusResponse awaitStatus(Predicate<ReindexStatusResponse> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        ReindexStatusResponse status = scheduler.status();
+        while (!condition.test(status)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Reindex did not finish: " + status);
+            Thread.sleep(20);
+            status = scheduler.status();
+        }
+        return status;
+    }
+}
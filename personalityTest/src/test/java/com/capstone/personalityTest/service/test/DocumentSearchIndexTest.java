@@ -0,0 +1,82 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.Hit;
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.Hits;
+import com.capstone.personalityTest.service.test.DocumentSearchIndex.IndexDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DocumentSearchIndex
+ * Tests BM25 ranking, updates and deletes across segments, merging and reopening from disk
+ */
+@DisplayName("DocumentSearchIndex Unit Tests")
+class DocumentSearchIndexTest {
+
+    @TempDir
+    Path indexFolder;
+
+    @Test
+    @DisplayName("Should rank the document that matches more and rarer terms first")
+    void testSearch_RanksByBm25() throws Exception {
+        // Arrange
+        DocumentSearchIndex index = DocumentSearchIndex.open(indexFolder, 8);
+        index.add(List.of(
+            document(1L, "Software engineering careers: software developer, software architect"),
+            document(2L, "Medicine careers: doctor, nurse, pharmacist"),
+            document(3L, "Careers in civil engineering and architecture")
+        ));
+
+        // Act
+        Hits hits = index.search("software engineering", 10);
+
+        // Assert
+        assertEquals(2, hits.total());
+        assertEquals(List.of(1L, 3L), hits.top().stream().map(Hit::documentId).toList());
+        assertTrue(hits.top().get(0).score() > hits.top().get(1).score());
+        assertEquals(List.of(2L), ids(index.search("الطب pharmacist", 10)));
+    }
+
+    @Test
+    @DisplayName("Should apply updates and deletes, merge segments and survive a reopen")
+    void testAddRemove_PersistsAcrossReopen() throws Exception {
+        // Arrange: each change is a segment; the third one triggers a merge (max 2)
+        DocumentSearchIndex index = DocumentSearchIndex.open(indexFolder, 2);
+        index.add(List.of(document(1L, "nursing careers"), document(2L, "law careers")));
+        index.add(List.of(document(1L, "dentistry careers")));  // new version of 1
+        index.add(List.of(document(3L, "هندسة البرمجيات")));
+        index.remove(List.of(2L));
+
+        // Act
+        DocumentSearchIndex reopened = DocumentSearchIndex.open(indexFolder, 2);
+
+        // Assert
+        assertEquals(1, reopened.segmentCount());
+        assertEquals(2, reopened.documents().size());
+        assertEquals(List.of(), ids(reopened.search("nursing", 10)));
+        assertEquals(List.of(1L), ids(reopened.search("dentistry", 10)));
+        assertEquals(List.of(), ids(reopened.search("law", 10)));
+        assertEquals(List.of(3L), ids(reopened.search("الهندسة", 10)));
+        assertEquals(List.of(1L, 3L), reopened.documents().keySet().stream().sorted().toList());
+        try (Stream<Path> files = Files.list(indexFolder)) {
+            // manifest + the merged segment; merged-away segments are deleted
+            assertEquals(2, files.count());
+        }
+    }
+
+    private static IndexDocument document(long id, String text) {
+        return new IndexDocument(id, "hash-" + id, true, DocumentSearchTokenizer.tokenize(text));
+    }
+
+    private static List<Long> ids(Hits hits) {
+        return hits.top().stream().map(Hit::documentId).toList();
+    }
+}
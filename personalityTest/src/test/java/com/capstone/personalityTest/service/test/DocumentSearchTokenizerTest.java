@@ -0,0 +1,47 @@
+package com.capstone.personalityTest.service.test;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DocumentSearchTokenizer
+ * Tests that spelling variants of the same Arabic or English word give the same term
+ */
+@DisplayName("DocumentSearchTokenizer Unit Tests")
+class DocumentSearchTokenizerTest {
+
+    @Test
+    @DisplayName("Should normalize Arabic diacritics, hamza forms, tatweel, ta marbuta and the article")
+    void testTokenize_Arabic() {
+        // Act
+        List<String> variants = List.of(
+            DocumentSearchTokenizer.tokenize("الهَنْدَسَة").get(0),
+            DocumentSearchTokenizer.tokenize("هندسة").get(0),
+            DocumentSearchTokenizer.tokenize("والهنـــدسه").get(0)
+        );
+        List<String> hamza = List.of(
+            DocumentSearchTokenizer.tokenize("أطباء").get(0),
+            DocumentSearchTokenizer.tokenize("إطباء").get(0),
+            DocumentSearchTokenizer.tokenize("اطباء").get(0)
+        );
+
+        // Assert
+        assertEquals(List.of("هندسه", "هندسه", "هندسه"), variants);
+        assertEquals(1, hamza.stream().distinct().count());
+        assertEquals(List.of("2024", "طب"), DocumentSearchTokenizer.tokenize("٢٠٢٤ في الطب"));
+    }
+
+    @Test
+    @DisplayName("Should lower-case Latin text, drop accents and stop words")
+    void testTokenize_Latin() {
+        // Act
+        List<String> terms = DocumentSearchTokenizer.tokenize("The Résumé of a Software-Engineer, 2 years");
+
+        // Assert
+        assertEquals(List.of("resume", "software", "engineer", "years"), terms);
+    }
+}
@@ -0,0 +1,116 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.AnswerRequest;
+import com.capstone.personalityTest.model.Enum.AnswerSubmissionStatus;
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DraftAnswerBuffer
+ * Tests last-write-wins per item, the attempt limit, dropping duplicate/stale submissions
+ * (against the draft and the stored answers) and restoring drafts after a failed flush
+ */
+@DisplayName("DraftAnswerBuffer Unit Tests")
+class DraftAnswerBufferTest {
+
+    private static final Map<Integer, SubmissionOrder.Stored> NONE_STORED = Map.of();
+
+    private DraftAnswerBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new DraftAnswerBuffer();
+        ReflectionTestUtils.setField(buffer, "durability", "buffered");
+        ReflectionTestUtils.setField(buffer, "maxAttempts", 2);
+    }
+
+    @Test
+    @DisplayName("Should keep only the latest value per item")
+    void testStage_LastWriteWins() {
+        buffer.stage(1L, 0, scale(1), NONE_STORED);
+        buffer.stage(1L, 1, scale(2), NONE_STORED);
+        buffer.stage(1L, 0, scale(5), NONE_STORED);
+
+        Map<Integer, AnswerRequest> drained = buffer.drain(1L);
+
+        assertEquals(List.of(0, 1), List.copyOf(drained.keySet()));
+        assertEquals(5, drained.get(0).getScaleValue());
+        assertFalse(buffer.hasPending(1L));
+    }
+
+    @Test
+    @DisplayName("Should refuse new attempts when full and never buffer in write-through mode")
+    void testStage_WriteThroughFallback() {
+        assertEquals(AnswerSubmissionStatus.BUFFERED, buffer.stage(1L, 0, scale(1), NONE_STORED));
+        assertEquals(AnswerSubmissionStatus.BUFFERED, buffer.stage(2L, 0, scale(1), NONE_STORED));
+        assertNull(buffer.stage(3L, 0, scale(1), NONE_STORED), "Buffer is full");
+        assertEquals(AnswerSubmissionStatus.BUFFERED, buffer.stage(1L, 1, scale(1), NONE_STORED),
+                "Attempts already buffered keep buffering");
+
+        ReflectionTestUtils.setField(buffer, "durability", "write-through");
+        assertNull(buffer.stage(1L, 2, scale(1), NONE_STORED));
+    }
+
+    @Test
+    @DisplayName("Should not overwrite answers staged after a failed flush drained the attempt")
+    void testRestore_KeepsNewerAnswers() {
+        buffer.stage(1L, 0, scale(1), NONE_STORED);
+        buffer.stage(1L, 1, scale(1), NONE_STORED);
+        Map<Integer, AnswerRequest> drained = buffer.drain(1L);
+
+        buffer.stage(1L, 0, scale(4), NONE_STORED);
+        buffer.restore(1L, drained);
+
+        Map<Integer, AnswerRequest> pending = buffer.drain(1L);
+        assertEquals(4, pending.get(0).getScaleValue());
+        assertEquals(1, pending.get(1).getScaleValue());
+    }
+
+    @Test
+    @DisplayName("Should drop retried and overtaken submissions by client sequence and idempotency key")
+    void testStage_DropsDuplicateAndStaleSubmissions() {
+        assertEquals(AnswerSubmissionStatus.BUFFERED, buffer.stage(1L, 0, sequenced(3, 7L, "k7"), NONE_STORED));
+
+        assertEquals(AnswerSubmissionStatus.DUPLICATE, buffer.stage(1L, 0, sequenced(3, 7L, "k7"), NONE_STORED), "Retry");
+        assertEquals(AnswerSubmissionStatus.DUPLICATE, buffer.stage(1L, 0, sequenced(4, null, "k7"), NONE_STORED), "Same key");
+        assertEquals(AnswerSubmissionStatus.STALE, buffer.stage(1L, 0, sequenced(5, 6L, "k6"), NONE_STORED), "Overtaken");
+        assertEquals(AnswerSubmissionStatus.BUFFERED, buffer.stage(1L, 1, sequenced(5, 6L, "k6"), NONE_STORED),
+                "Sequences are compared per item");
+        assertEquals(AnswerSubmissionStatus.BUFFERED, buffer.stage(1L, 0, sequenced(6, 9L, "k9"), NONE_STORED));
+
+        assertEquals(6, buffer.drain(1L).get(0).getScaleValue());
+    }
+
+    @Test
+    @DisplayName("Should check the first draft of an item against the stored answer")
+    void testStage_ChecksStoredAnswers() {
+        Map<Integer, SubmissionOrder.Stored> stored = Map.of(0, new SubmissionOrder.Stored(8L, "k8"));
+
+        assertEquals(AnswerSubmissionStatus.STALE, buffer.stage(1L, 0, sequenced(3, 7L, "k7"), stored), "Older than stored");
+        assertEquals(AnswerSubmissionStatus.DUPLICATE, buffer.stage(1L, 0, sequenced(3, 9L, "k8"), NONE_STORED), "Stored key");
+        assertEquals(AnswerSubmissionStatus.BUFFERED, buffer.stage(1L, 0, sequenced(3, 9L, "k9"), NONE_STORED));
+        assertNull(buffer.stage(2L, 0, sequenced(3, 9L, "k9"), null), "Stored answers not loaded");
+
+        // Restored drafts no longer know the stored answers: new items are written through
+        Map<Integer, AnswerRequest> drained = buffer.drain(1L);
+        buffer.restore(1L, drained);
+        assertNull(buffer.stage(1L, 1, sequenced(3, 9L, "k9"), null));
+        assertEquals(AnswerSubmissionStatus.STALE, buffer.stage(1L, 0, sequenced(3, 8L, "k8b"), null));
+    }
+
+    private AnswerRequest sequenced(int value, Long clientSequence, String idempotencyKey) {
+        return new AnswerRequest(1L, null, AnswerType.SCALE, null, value, null, clientSequence, idempotencyKey);
+    }
+
+    private AnswerRequest scale(int value) {
+        return new AnswerRequest(1L, null, AnswerType.SCALE, null, value, null, null, null);
+    }
+}
@@ -0,0 +1,93 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.Enum.AnswerType;
+import com.capstone.personalityTest.model.Enum.TargetGender;
+import com.capstone.personalityTest.service.test.PackedAnswers.PackedAnswer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FeatureSchema
+ * Columns follow the model's naming: checkbox items by text, scale grid rows as "question [row]"
+ */
+@DisplayName("FeatureSchema Unit Tests")
+class FeatureSchemaTest {
+
+    private static final List<String> COLUMNS = List.of("1-تصليح أشياء", "2-العمل في مختبر", "قدراتك: [R]", "قدراتك: [I]");
+    private static final Set<String> SCALED = Set.of("قدراتك: [R]", "قدراتك: [I]");
+
+    private CompiledTest compiledTest;
+
+    @BeforeEach
+    void setUp() {
+        // Item order: checkbox question 1 (sub 10, 11), scale question 2 (sub 20, 21), open question 3
+        compiledTest = compiledTest(List.of(
+                item(0, 1L, "اختر", null, null, AnswerType.CHECKBOX),
+                item(1, 1L, "اختر", 10L, "2-العمل  في مختبر", AnswerType.CHECKBOX),
+                item(2, 1L, "اختر", 11L, "1-تصليح أشياء", AnswerType.CHECKBOX),
+                item(3, 2L, "قدراتك:", null, null, AnswerType.SCALE),
+                item(4, 2L, "قدراتك:", 20L, "I", AnswerType.SCALE),
+                item(5, 2L, "قدراتك:", 21L, "R", AnswerType.SCALE),
+                item(6, 3L, "لماذا؟", null, null, AnswerType.OPEN)));
+    }
+
+    @Test
+    @DisplayName("Should map every column to one item and encode answers in column order")
+    void testBuild_CompleteSchemaEncodesInColumnOrder() {
+        // Act
+        FeatureSchema schema = FeatureSchema.build(compiledTest, COLUMNS, SCALED);
+        double[] vector = schema.encode(compiledTest, List.of(
+                new PackedAnswer(1L, 10L, AnswerType.CHECKBOX, true, null),
+                new PackedAnswer(1L, 11L, AnswerType.CHECKBOX, false, null),
+                new PackedAnswer(2L, 21L, AnswerType.SCALE, null, 6),
+                new PackedAnswer(3L, null, AnswerType.OPEN, null, null)));
+
+        // Assert
+        assertTrue(schema.isComplete());
+        assertTrue(schema.unmatchedItems().isEmpty(), "Question-level items with sub-questions are not features");
+        assertArrayEquals(new double[]{0, 1, 6, 0}, vector, "Unanswered scale item stays 0");
+        assertEquals(FeatureSchema.columnsHash(COLUMNS), schema.columnsHash());
+        assertEquals(schema.version(), FeatureSchema.build(compiledTest, COLUMNS, SCALED).version(), "Same mapping, same version");
+    }
+
+    @Test
+    @DisplayName("Should be incomplete when a column has no item of its kind")
+    void testBuild_MissingColumnMakesSchemaIncomplete() {
+        // Arrange - the model expects the checkbox text as a scaled column
+        Set<String> scaled = Set.of("1-تصليح أشياء", "قدراتك: [R]", "قدراتك: [I]");
+
+        // Act
+        FeatureSchema schema = FeatureSchema.build(compiledTest, COLUMNS, scaled);
+
+        // Assert
+        assertFalse(schema.isComplete());
+        assertEquals(List.of("1-تصليح أشياء"), schema.missingColumns());
+        assertEquals(List.of(11L), schema.unmatchedItems().stream().map(CompiledItem::subQuestionId).toList());
+        assertNotEquals(FeatureSchema.build(compiledTest, COLUMNS, SCALED).version(), schema.version());
+    }
+
+    private static CompiledItem item(int index, Long questionId, String questionText, Long subQuestionId,
+                                     String subQuestionText, AnswerType answerType) {
+        return new CompiledItem(index, 1L, questionId, questionText, subQuestionId, subQuestionText, answerType,
+                TargetGender.ALL, null, MetricIndex.NONE);
+    }
+
+    private static CompiledTest compiledTest(List<CompiledItem> items) {
+        Map<Long, CompiledItem> questionItems = new HashMap<>();
+        Map<Long, CompiledItem> subQuestionItems = new HashMap<>();
+        for (CompiledItem item : items) {
+            if (item.subQuestionId() == null) questionItems.put(item.questionId(), item);
+            else subQuestionItems.put(item.subQuestionId(), item);
+        }
+        return new CompiledTest(7L, "RIASEC", null, Map.of(), items, questionItems, subQuestionItems,
+                MetricIndex.of(List.of()), Map.of());
+    }
+}
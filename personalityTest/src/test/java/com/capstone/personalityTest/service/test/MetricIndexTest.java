@@ -0,0 +1,52 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.model.testm.EvaluationResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MetricIndex
+ * Tests top-k selection, tie-breaking and the EvaluationResult built from it
+ */
+@DisplayName("MetricIndex Unit Tests")
+class MetricIndexTest {
+
+    @Test
+    @DisplayName("Should select the highest scores first and break ties by metric order")
+    void testTopK_DeterministicTies() {
+        int[] scores = {4, 9, 4, 1, 9, 4};
+
+        assertArrayEquals(new int[]{1, 4, 0}, MetricIndex.topK(scores, 3));
+        assertArrayEquals(new int[]{1, 4, 0, 2, 5, 3}, MetricIndex.topK(scores, 10));
+        assertArrayEquals(new int[0], MetricIndex.topK(scores, 0));
+    }
+
+    @Test
+    @DisplayName("Should build the evaluation result with the score map and the top 3 codes")
+    void testToEvaluationResult_TopThreeAndScores() {
+        MetricIndex index = MetricIndex.of(List.of("R", "I", "A", "S", "E", "C"));
+        int[] scores = {5, 7, 7, 0, 2, 5};
+
+        EvaluationResult result = index.toEvaluationResult(scores);
+
+        assertEquals("I-A-R", result.toString());
+        assertEquals(List.of("R", "I", "A", "S", "E", "C"), List.copyOf(result.getMetricScores().keySet()));
+        assertEquals(Map.of("R", 5, "I", 7, "A", 7, "S", 0, "E", 2, "C", 5), result.getMetricScores());
+        assertEquals(MetricIndex.NONE, index.slotOf("LOGIC"));
+    }
+
+    @Test
+    @DisplayName("Should leave missing places empty when fewer than 3 metrics are scored")
+    void testToEvaluationResult_FewerThanThreeMetrics() {
+        EvaluationResult result = MetricIndex.of(List.of("LOGIC", "MEMORY")).toEvaluationResult(new int[]{3, 8});
+
+        assertEquals("MEMORY", result.getFirstMetric());
+        assertEquals("LOGIC", result.getSecondMetric());
+        assertNull(result.getThirdMetric());
+    }
+}
@@ -0,0 +1,103 @@
+package com.capstone.personalityTest.service.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parity tests for PersonalityCodeModel
+ * Replays ml/golden_predictions.json: inputs and the codes ml_service.predict_codes returned for them,
+ * written by ai-service/export_model.py together with the model export
+ */
+@DisplayName("PersonalityCodeModel Parity Tests")
+class PersonalityCodeModelTest {
+
+    private static PersonalityCodeModel model;
+    private static JsonNode golden;
+
+    @BeforeAll
+    static void load() throws IOException {
+        try (InputStream in = PersonalityCodeModelTest.class.getResourceAsStream("/ml/personality_svm.json")) {
+            model = PersonalityCodeModel.load(in);
+        }
+        try (InputStream in = PersonalityCodeModelTest.class.getResourceAsStream("/ml/golden_predictions.json")) {
+            golden = new ObjectMapper().readTree(in);
+        }
+    }
+
+    @Test
+    @DisplayName("Should predict the same code as the Python model service for every golden case")
+    void testPredict_MatchesGoldenFile() {
+        // Arrange
+        assertEquals(golden.get("sklearnVersion").asText(), model.sklearnVersion(), "Golden file and export must come from the same artifacts");
+        List<String> columns = model.featureColumns();
+        int mismatches = 0;
+
+        // Act
+        for (JsonNode goldenCase : golden.get("cases")) {
+            Map<String, String> answers = new HashMap<>();
+            JsonNode values = goldenCase.get("values");
+            for (int i = 0; i < columns.size(); i++) {
+                if (!values.get(i).isNull()) answers.put(columns.get(i), values.get(i).asText());
+            }
+            goldenCase.get("otherAnswers").fields().forEachRemaining(answer -> answers.put(answer.getKey(), answer.getValue().asText()));
+
+            if (!goldenCase.get("predictedCode").asText().equals(model.predict(answers))) mismatches++;
+        }
+
+        // Assert
+        assertTrue(golden.get("cases").size() > 100);
+        assertEquals(0, mismatches, "Predictions differing from the Python service");
+    }
+
+    @Test
+    @DisplayName("Should fingerprint the columns like ml_service.py and predict a raw vector like the answers map")
+    void testPredictVector_MatchesMapFormat() {
+        // Arrange - hash of feature_columns.pkl as computed by ml_service.COLUMNS_HASH
+        List<String> columns = model.featureColumns();
+        JsonNode goldenCase = golden.get("cases").get(golden.get("cases").size() - 1);
+        Map<String, String> answers = new HashMap<>();
+        double[] vector = new double[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            String value = goldenCase.get("values").get(i).asText();
+            answers.put(columns.get(i), value);
+            vector[i] = value.equals("نعم") || value.equals("أرغب") ? 1 : 0; // scale strings are unmapped: 0
+        }
+
+        // Act & Assert
+        assertEquals("c565a84c703fb1a0", model.columnsHash());
+        assertEquals(model.predict(answers), model.predictVector(vector));
+        assertThrows(IllegalArgumentException.class, () -> model.predictVector(new double[3]));
+    }
+
+    @Test
+    @DisplayName("Should ignore unknown keys and map unknown values to 0 before scaling, like ml_service.py")
+    void testFeatures_MirrorPandasPreprocessing() {
+        // Arrange
+        List<String> columns = model.featureColumns();
+        String binaryColumn = columns.get(0);
+        String scaledColumn = columns.get(columns.size() - 1);
+
+        // Act
+        double[] empty = model.features(Map.of("Q1", "نعم"));
+        double[] answered = model.features(Map.of(binaryColumn, "نعم", columns.get(1), "5", scaledColumn, "7"));
+
+        // Assert
+        assertEquals(columns.size(), answered.length);
+        assertEquals(1.0, answered[0]);
+        assertEquals(0.0, answered[1], "Values outside the mapping count as 0");
+        assertEquals(empty[columns.size() - 1], answered[columns.size() - 1], "Scale values are not in the mapping either");
+        assertTrue(empty[columns.size() - 1] < 0, "Scaled as (0 - mean) / scale");
+        assertEquals(model.predict(Map.of()), model.predict(Map.of("Q1", "نعم")));
+    }
+}
@@ -0,0 +1,156 @@
+package com.capstone.personalityTest.service.test;
+
+import com.capstone.personalityTest.dto.RequestDTO.test.ModelBatchRequest;
+import com.capstone.personalityTest.dto.ResponseDTO.test.ModelBatchResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PredictionBatcher
+ * The model service is a mocked RestTemplate answering "C{attemptId}" for every item
+ */
+@DisplayName("PredictionBatcher Unit Tests")
+class PredictionBatcherTest {
+
+    private RestTemplate modelRestTemplate;
+    private PredictionBatcher batcher;
+    private final List<List<Long>> calls = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        modelRestTemplate = mock(RestTemplate.class);
+        batcher = new PredictionBatcher(modelRestTemplate);
+        ReflectionTestUtils.setField(batcher, "maxInFlight", 1);
+        ReflectionTestUtils.setField(batcher, "waitTimeoutMs", 5000L);
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should send requests queued while a batch is out as one call and fan the codes out")
+    void testPredictCode_CoalescesConcurrentRequests() throws Exception {
+        // Arrange - the first call blocks until the other requests are queued behind it
+        CountDownLatch firstCallStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCall = new CountDownLatch(1);
+        when(modelRestTemplate.postForObject(eq("/api/ml/predict-codes"), any(ModelBatchRequest.class), eq(ModelBatchResponse.class)))
+                .thenAnswer(invocation -> {
+                    ModelBatchRequest request = invocation.getArgument(1);
+                    calls.add(request.getItems().stream().map(ModelBatchRequest.Item::getAttemptId).toList());
+                    if (calls.size() == 1) {
+                        firstCallStarted.countDown();
+                        releaseFirstCall.await(5, TimeUnit.SECONDS);
+                    }
+                    return respond(request);
+                });
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> batcher.predictCode(ModelBatchRequest.Item.ofAnswers(1L, Map.of("Q1", "نعم"))));
+        assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (long attemptId = 2; attemptId <= 6; attemptId++) {
+            long id = attemptId;
+            queued.add(CompletableFuture.supplyAsync(() -> batcher.predictCode(ModelBatchRequest.Item.ofAnswers(id, Map.of("Q1", "لا")))));
+        }
+        awaitQueued(5);
+        releaseFirstCall.countDown();
+
+        // Assert
+        assertEquals("C1", first.get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < queued.size(); i++) {
+            assertEquals("C" + (i + 2), queued.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, calls.size(), "Five queued requests -> one batch call");
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), calls.get(1).stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Should fail every caller of a batch when the call fails")
+    void testPredictCode_FailedCallFailsWholeBatch() {
+        // Arrange
+        when(modelRestTemplate.postForObject(eq("/api/ml/predict-codes"), any(ModelBatchRequest.class), eq(ModelBatchResponse.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // Act
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> batcher.predictCode(ModelBatchRequest.Item.ofAnswers(1L, Map.of())));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> batcher.predictCode(ModelBatchRequest.Item.ofAnswers(2L, Map.of())));
+
+        // Assert
+        for (CompletableFuture<String> future : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertTrue(e.getCause().getMessage().contains("Connection refused"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave a request whose caller timed out out of the next batch")
+    void testPredictCode_TimedOutRequestNotSent() throws Exception {
+        // Arrange - the first call holds the only sender
+        CountDownLatch firstCallStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCall = new CountDownLatch(1);
+        when(modelRestTemplate.postForObject(eq("/api/ml/predict-codes"), any(ModelBatchRequest.class), eq(ModelBatchResponse.class)))
+                .thenAnswer(invocation -> {
+                    ModelBatchRequest request = invocation.getArgument(1);
+                    calls.add(request.getItems().stream().map(ModelBatchRequest.Item::getAttemptId).toList());
+                    if (calls.size() == 1) {
+                        firstCallStarted.countDown();
+                        releaseFirstCall.await(5, TimeUnit.SECONDS);
+                    }
+                    return respond(request);
+                });
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> batcher.predictCode(ModelBatchRequest.Item.ofAnswers(1L, Map.of())));
+        assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+
+        // Act: attempt 2 gives up while queued, attempt 3 waits
+        ReflectionTestUtils.setField(batcher, "waitTimeoutMs", 50L);
+        assertThrows(IllegalStateException.class, () -> batcher.predictCode(ModelBatchRequest.Item.ofAnswers(2L, Map.of())));
+        ReflectionTestUtils.setField(batcher, "waitTimeoutMs", 5000L);
+        CompletableFuture<String> third = CompletableFuture.supplyAsync(() -> batcher.predictCode(ModelBatchRequest.Item.ofAnswers(3L, Map.of())));
+        awaitQueued(2);
+        releaseFirstCall.countDown();
+
+        // Assert
+        assertEquals("C1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("C3", third.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(3L), calls.get(1));
+    }
+
+    private void awaitQueued(int count) throws InterruptedException {
+        Queue<?> queue = (Queue<?>) ReflectionTestUtils.getField(batcher, "queue");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static ModelBatchResponse respond(ModelBatchRequest request) {
+        return new ModelBatchResponse(request.getItems().stream()
+                .map(item -> new ModelBatchResponse.Prediction(item.getAttemptId(), "C" + item.getAttemptId()))
+                .toList());
+    }
+}
@@ -1,15 +1,21 @@
 package com.capstone.personalityTest.service.test;
 
 import com.capstone.personalityTest.dto.RequestDTO.test.TestAttemptRequest.AnswerRequest;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AnswerResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AnswerSubmissionResult;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.AttemptProgressResponse;
 import com.capstone.personalityTest.dto.ResponseDTO.test.TestAttemptResponse.TestAttemptResponse;
+import com.capstone.personalityTest.dto.ResponseDTO.test.TestResponse.SectionResponse;
 import com.capstone.personalityTest.mapper.AnswerMapper;
 import com.capstone.personalityTest.mapper.TestAttemptMapper;
 import com.capstone.personalityTest.mapper.TestMapper.QuestionMapper;
 import com.capstone.personalityTest.mapper.TestMapper.SectionMapper;
 import com.capstone.personalityTest.mapper.TestMapper.SubQuestionMapper;
+import com.capstone.personalityTest.model.Enum.AnswerSubmissionStatus;
 import com.capstone.personalityTest.model.Enum.AnswerType;
 import com.capstone.personalityTest.model.Enum.TargetGender;
 import com.capstone.personalityTest.model.Enum.TestStatus;
+import com.capstone.personalityTest.model.testm.EvaluationResult;
 import com.capstone.personalityTest.model.testm.Test.Question;
 import com.capstone.personalityTest.model.testm.Test.Section;
 import com.capstone.personalityTest.model.testm.Test.SubQuestion;
@@ -18,8 +24,8 @@ import com.capstone.personalityTest.model.testm.TestAttempt.Answer.ScaleAnswer;
 import com.capstone.personalityTest.model.testm.TestAttempt.TestAttempt;
 import com.capstone.personalityTest.model.UserInfo;
 import com.capstone.personalityTest.repository.test.AnswerRepository;
+import com.capstone.personalityTest.repository.test.AnswerUpsertRepository;
 import com.capstone.personalityTest.repository.test.TestAttemptRepository;
-import com.capstone.personalityTest.repository.test.TestRepo.MetricRepository;
 import com.capstone.personalityTest.repository.test.TestRepo.QuestionRepository;
 import com.capstone.personalityTest.repository.test.TestRepo.SubQuestionRepository;
 import com.capstone.personalityTest.repository.test.TestRepo.TestRepository;
@@ -35,10 +41,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -89,10 +98,19 @@ class TestAttemptServiceTest {
     private AnswerMapper answerMapper;
 
     @Mock
-    private AIIntegrationService aiIntegrationService;
+    private AIAnalysisJobService aiAnalysisJobService;
 
     @Mock
-    private MetricRepository metricRepository;
+    private AttemptScoreAccumulator scoreAccumulator;
+
+    @Mock
+    private PackedAnswerStore packedAnswerStore;
+
+    @Mock
+    private CompiledTestCache compiledTestCache;
+
+    @Mock
+    private DraftAnswerBuffer draftAnswerBuffer;
 
     @InjectMocks
     private TestAttemptService testAttemptService;
@@ -179,7 +197,7 @@ class TestAttemptServiceTest {
         when(userInfoRepository.findById(1L)).thenReturn(Optional.of(maleStudent));
         when(testRepository.findById(1L)).thenReturn(Optional.of(publishedTest));
         when(testAttemptRepository.save(any(TestAttempt.class))).thenReturn(testAttempt);
-        when(sectionMapper.toDtoList(anyList())).thenReturn(new ArrayList<>());
+        when(compiledTestCache.compile(publishedTest)).thenReturn(compiledTest());
 
         // Act
         TestAttemptResponse response = testAttemptService.startTest(1L, 1L);
@@ -204,6 +222,32 @@ class TestAttemptServiceTest {
         assertEquals(publishedTest, savedAttempt.getTest());
     }
 
+    @Test
+    @DisplayName("Should start test from compiled cache without loading the test graph")
+    void testStartTest_CompiledCacheHit() {
+        // Arrange
+        SectionResponse maleSection = new SectionResponse(1L, "Career Preferences", List.of());
+        CompiledTest compiled = new CompiledTest(1L, "Career Assessment Test", "Test to assess career preferences",
+                Map.of(TargetGender.MALE, List.of(maleSection),
+                        TargetGender.FEMALE, List.of(),
+                        TargetGender.ALL, List.of()),
+                List.of(), Map.of(), Map.of(), MetricIndex.of(List.of()), Map.of());
+
+        when(userInfoRepository.findById(1L)).thenReturn(Optional.of(maleStudent));
+        when(compiledTestCache.get(1L)).thenReturn(compiled);
+        when(testRepository.getReferenceById(1L)).thenReturn(publishedTest);
+        when(testAttemptRepository.save(any(TestAttempt.class))).thenReturn(testAttempt);
+
+        // Act
+        TestAttemptResponse response = testAttemptService.startTest(1L, 1L);
+
+        // Assert
+        assertEquals("Career Assessment Test", response.getTestTitle());
+        assertEquals(List.of(maleSection), response.getSections(), "Male student should get the MALE tree");
+        verify(testRepository, never()).findById(anyLong());
+        verify(compiledTestCache, never()).compile(any());
+    }
+
     @Test
     @DisplayName("Should throw exception when test not found")
     void testStartTest_TestNotFound() {
@@ -289,27 +333,28 @@ class TestAttemptServiceTest {
 
         when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
         when(questionRepository.findById(2L)).thenReturn(Optional.of(allGenderQuestion));
-        when(answerRepository.findByAttemptAndQuestionAndSubQuestion(1L, 2L, null))
-                .thenReturn(Optional.empty());
-        when(answerRepository.save(any(Answer.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(testAttemptRepository.save(any(TestAttempt.class))).thenReturn(testAttempt);
+        when(answerRepository.upsertValue(any())).thenReturn(AnswerUpsertRepository.UpsertOutcome.INSERTED);
 
         // Act
-        testAttemptService.submitAnswers(1L, answerRequest);
+        AnswerSubmissionStatus status = testAttemptService.submitAnswers(1L, answerRequest);
 
         // Assert
+        assertEquals(AnswerSubmissionStatus.CREATED, status);
         verify(testAttemptRepository).findById(1L);
         verify(questionRepository).findById(2L);
-        verify(answerRepository).findByAttemptAndQuestionAndSubQuestion(1L, 2L, null);
-        verify(answerRepository).save(any(Answer.class));
-        verify(testAttemptRepository).save(any(TestAttempt.class));
 
-        // Verify answer was added to attempt
-        ArgumentCaptor<TestAttempt> attemptCaptor = ArgumentCaptor.forClass(TestAttempt.class);
-        verify(testAttemptRepository).save(attemptCaptor.capture());
-        TestAttempt savedAttempt = attemptCaptor.getValue();
+        ArgumentCaptor<AnswerUpsertRepository.ValueUpsert> upsertCaptor =
+                ArgumentCaptor.forClass(AnswerUpsertRepository.ValueUpsert.class);
+        verify(answerRepository).upsertValue(upsertCaptor.capture());
+        assertEquals(1L, upsertCaptor.getValue().attemptId());
+        assertEquals(2L, upsertCaptor.getValue().questionId());
+        assertEquals(4, upsertCaptor.getValue().scaleValue());
 
-        assertFalse(savedAttempt.getAnswers().isEmpty(), "Answer should be added to test attempt");
+        // One statement for the answer: no select-then-update, no cascade through the attempt
+        verify(answerRepository, never()).findByAttemptAndQuestionAndSubQuestion(anyLong(), anyLong(), any());
+        verify(answerRepository, never()).save(any());
+        verify(testAttemptRepository, never()).save(any());
+        verify(scoreAccumulator).record(1L, answerRequest);
     }
 
     @Test
@@ -362,29 +407,280 @@ class TestAttemptServiceTest {
         answerRequest.setAnswerType(AnswerType.SCALE);
         answerRequest.setScaleValue(5); // New value
 
+        when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
+        when(questionRepository.findById(2L)).thenReturn(Optional.of(allGenderQuestion));
+        when(answerRepository.upsertValue(any())).thenReturn(AnswerUpsertRepository.UpsertOutcome.UPDATED);
+
+        // Act
+        AnswerSubmissionStatus status = testAttemptService.submitAnswers(1L, answerRequest);
+
+        // Assert
+        assertEquals(AnswerSubmissionStatus.UPDATED, status);
+        verify(answerRepository).upsertValue(any());
+        verify(testAttemptRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should drop a submission older than the one already stored for the item")
+    void testSubmitAnswers_StaleSequence_Dropped() {
+        // Arrange
+        AnswerRequest answerRequest = new AnswerRequest(2L, null, AnswerType.SCALE, null, 1, null, 4L, "k4");
+
         ScaleAnswer existingAnswer = new ScaleAnswer();
-        existingAnswer.setId(1L);
-        existingAnswer.setScaleValue(3); // Old value
-        existingAnswer.setQuestion(allGenderQuestion);
-        existingAnswer.setTestAttempt(testAttempt);
+        existingAnswer.setScaleValue(5);
+        existingAnswer.setClientSequence(6L);
+        existingAnswer.setIdempotencyKey("k6");
 
         when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
         when(questionRepository.findById(2L)).thenReturn(Optional.of(allGenderQuestion));
+        when(answerRepository.upsertValue(any())).thenReturn(AnswerUpsertRepository.UpsertOutcome.UNCHANGED);
         when(answerRepository.findByAttemptAndQuestionAndSubQuestion(1L, 2L, null))
                 .thenReturn(Optional.of(existingAnswer));
-        when(answerRepository.save(any(Answer.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(testAttemptRepository.save(any(TestAttempt.class))).thenReturn(testAttempt);
+
+        // Act
+        AnswerSubmissionStatus status = testAttemptService.submitAnswers(1L, answerRequest);
+
+        // Assert
+        assertEquals(AnswerSubmissionStatus.STALE, status);
+        verify(answerRepository, never()).save(any());
+        verify(scoreAccumulator, never()).record(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should upsert a batch of answers and reject invalid items individually")
+    void testSubmitAnswersBatch_MixedItems() {
+        // Arrange
+        AnswerRequest update = new AnswerRequest(2L, null, AnswerType.SCALE, null, 6, null, 2L, null);
+        AnswerRequest stale = new AnswerRequest(2L, null, AnswerType.SCALE, null, 1, null, 1L, null);
+        AnswerRequest create = new AnswerRequest(1L, null, AnswerType.SCALE, null, 2, null, null, null);
+        AnswerRequest wrongType = new AnswerRequest(1L, null, AnswerType.CHECKBOX, true, null, null, null, null);
+        AnswerRequest foreignSub = new AnswerRequest(2L, 999L, AnswerType.SCALE, null, 4, null, null, null);
+
+        when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
+        when(compiledTestCache.getOrCompile(publishedTest)).thenReturn(compiledTest());
+        when(answerRepository.findValuesByTestAttemptId(1L))
+                .thenReturn(List.of(valueView(10L, 2L, "SCALE", 3, 1L)));
+
+        // Act
+        List<AnswerSubmissionResult> results = testAttemptService.submitAnswersBatch(1L,
+                List.of(update, stale, create, wrongType, foreignSub));
+
+        // Assert
+        assertEquals(AnswerSubmissionStatus.UPDATED, results.get(0).getStatus());
+        assertEquals(AnswerSubmissionStatus.STALE, results.get(1).getStatus(), "Overtaken by the update in the same batch");
+        assertEquals(AnswerSubmissionStatus.CREATED, results.get(2).getStatus());
+        assertEquals(AnswerSubmissionStatus.REJECTED, results.get(3).getStatus());
+        assertTrue(results.get(3).getError().contains("Answer type mismatch"));
+        assertEquals(AnswerSubmissionStatus.REJECTED, results.get(4).getStatus());
+
+        ArgumentCaptor<List<AnswerUpsertRepository.ValueUpsert>> upsertCaptor = ArgumentCaptor.forClass(List.class);
+        verify(answerRepository).upsertValues(upsertCaptor.capture());
+        assertEquals(List.of(6, 2), upsertCaptor.getValue().stream()
+                .map(AnswerUpsertRepository.ValueUpsert::scaleValue).toList());
+        verify(answerRepository, never()).findWithItemsByTestAttemptId(anyLong());
+        verify(questionRepository, never()).findById(anyLong());
+        verify(testAttemptRepository, never()).save(any());
+
+        // Assert: upserted rows are scored from what they hold after the batch
+        verify(scoreAccumulator).recordStored(eq(1L), any());
+        verify(scoreAccumulator, never()).record(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep the answer in the draft buffer without touching the Answer table in buffered mode")
+    void testSubmitAnswers_BufferedMode_StagesDraft() {
+        // Arrange
+        AnswerRequest answerRequest = new AnswerRequest(2L, null, AnswerType.SCALE, null, 4, null, null, null);
+
+        when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
+        when(draftAnswerBuffer.isBuffered()).thenReturn(true);
+        when(compiledTestCache.getOrCompile(publishedTest)).thenReturn(compiledTest());
+        when(draftAnswerBuffer.stage(1L, 1, answerRequest, Map.of())).thenReturn(AnswerSubmissionStatus.BUFFERED);
 
         // Act
         testAttemptService.submitAnswers(1L, answerRequest);
 
         // Assert
-        ArgumentCaptor<Answer> answerCaptor = ArgumentCaptor.forClass(Answer.class);
-        verify(answerRepository).save(answerCaptor.capture());
-        
-        Answer savedAnswer = answerCaptor.getValue();
-        assertTrue(savedAnswer instanceof ScaleAnswer);
-        assertEquals(5, ((ScaleAnswer) savedAnswer).getScaleValue(), "Answer should be updated with new value");
+        verify(draftAnswerBuffer).stage(1L, 1, answerRequest, Map.of());
+        verify(questionRepository, never()).findById(anyLong());
+        verify(answerRepository, never()).save(any());
+        verify(testAttemptRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should finalize from the stored answers, not the running scores")
+    void testFinalizeAttempt_ScoresStoredAnswers() {
+        // Arrange
+        when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
+        when(scoreAccumulator.score(testAttempt)).thenReturn(
+                new AttemptScoreAccumulator.Snapshot(2, 2, MetricIndex.of(List.of("R", "I")), new int[]{3, 7}));
+
+        // Act
+        EvaluationResult result = testAttemptService.finalizeAttempt(1L);
+
+        // Assert
+        assertEquals("I", result.getFirstMetric());
+        assertEquals("R", result.getSecondMetric());
+        assertTrue(testAttempt.isFinalized());
+        verify(testAttemptRepository).save(testAttempt);
+        verify(scoreAccumulator).evict(1L);
+        verify(scoreAccumulator, never()).snapshot(any());
+    }
+
+    @Test
+    @DisplayName("Should score the stored answers when finalizing flushed drafts")
+    void testFinalizeAttempt_FlushedDraftsScoredFromAnswers() {
+        // Arrange
+        AnswerRequest draft = new AnswerRequest(2L, null, AnswerType.SCALE, null, 4, null, null, null);
+        when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
+        when(draftAnswerBuffer.drain(1L)).thenReturn(Map.of(1, draft));
+        when(compiledTestCache.getOrCompile(publishedTest)).thenReturn(compiledTest());
+        when(scoreAccumulator.score(testAttempt)).thenReturn(
+                new AttemptScoreAccumulator.Snapshot(2, 2, MetricIndex.of(List.of("R", "I")), new int[]{3, 7}));
+
+        // Act
+        testAttemptService.finalizeAttempt(1L);
+
+        // Assert: the flushed value reaches the running scores only on commit
+        verify(answerRepository).upsertValues(any());
+        verify(scoreAccumulator, never()).snapshot(any());
+        assertTrue(testAttempt.isFinalized());
+    }
+
+    @Test
+    @DisplayName("Should put flushed drafts back in the buffer when the transaction rolls back")
+    void testFinalizeAttempt_RollbackRestoresDrafts() {
+        // Arrange
+        AnswerRequest draft = new AnswerRequest(2L, null, AnswerType.SCALE, null, 4, null, null, null);
+        when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
+        when(draftAnswerBuffer.drain(1L)).thenReturn(Map.of(1, draft));
+        when(compiledTestCache.getOrCompile(publishedTest)).thenReturn(compiledTest());
+        when(scoreAccumulator.score(testAttempt)).thenReturn(
+                new AttemptScoreAccumulator.Snapshot(2, 2, MetricIndex.of(List.of("R", "I")), new int[]{3, 7}));
+
+        // Act: the flush succeeds, then the transaction fails to commit
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            testAttemptService.finalizeAttempt(1L);
+            verify(draftAnswerBuffer, never()).restore(anyLong(), any());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        verify(draftAnswerBuffer).restore(1L, Map.of(1, draft));
+    }
+
+    @Test
+    @DisplayName("Should refuse to finalize while visible items are unanswered")
+    void testFinalizeAttempt_Incomplete_ThrowsException() {
+        // Arrange
+        when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
+        when(scoreAccumulator.score(testAttempt)).thenReturn(
+                new AttemptScoreAccumulator.Snapshot(1, 2, MetricIndex.of(List.of("R")), new int[]{3}));
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> testAttemptService.finalizeAttempt(1L));
+
+        assertTrue(exception.getMessage().contains("only 1/2"));
+        assertFalse(testAttempt.isFinalized());
+        verify(testAttemptRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should report progress and the next unanswered item from projections")
+    void testGetProgress_FromProjections() {
+        // Arrange
+        TestAttemptRepository.AttemptHeaderView header = new TestAttemptRepository.AttemptHeaderView() {
+            public Long getId() { return 1L; }
+            public Long getTestId() { return 1L; }
+            public TargetGender getGender() { return TargetGender.MALE; }
+            public Boolean getFinalized() { return false; }
+        };
+        AnswerRepository.AnswerValueView scaleAnswer = valueView(10L, 2L, "SCALE", 5, null);
+
+        when(testAttemptRepository.findHeaderById(1L)).thenReturn(Optional.of(header));
+        when(compiledTestCache.get(1L)).thenReturn(compiledTest());
+        when(answerRepository.findValuesByTestAttemptId(1L)).thenReturn(List.of(scaleAnswer));
+
+        // Act
+        AttemptProgressResponse progress = testAttemptService.getProgress(1L);
+
+        // Assert
+        assertEquals(1, progress.getAnsweredItems());
+        assertEquals(2, progress.getTotalItems());
+        assertEquals(1, progress.getSections().size());
+        assertEquals(2, progress.getSections().get(0).getTotalItems());
+        assertEquals(5, progress.getAnswers().get(0).getScaleValue());
+        assertEquals(1L, progress.getNextUnanswered().getQuestionId(), "Male-specific question is still open");
+        verify(testAttemptRepository, never()).findById(anyLong());
+        verify(answerRepository, never()).findOpenValuesByTestAttemptId(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should lay buffered drafts over the stored answers without flushing them")
+    void testGetAnswersByTestAttempt_MergesDrafts() {
+        // Arrange: question 2 stored with 3 and drafted with 5, question 1 only drafted
+        AnswerResponse stored = new AnswerResponse();
+        stored.setQuestionId(2L);
+        stored.setAnswerType(AnswerType.SCALE);
+        stored.setScaleValue(3);
+
+        when(testAttemptRepository.findById(1L)).thenReturn(Optional.of(testAttempt));
+        when(answerRepository.findByTestAttempt(testAttempt)).thenReturn(List.of());
+        when(answerMapper.toDtoList(List.<Answer>of())).thenReturn(List.of(stored));
+        when(draftAnswerBuffer.pending(1L)).thenReturn(List.of(
+                new AnswerRequest(2L, null, AnswerType.SCALE, null, 5, null, null, null),
+                new AnswerRequest(1L, null, AnswerType.SCALE, null, 4, null, null, null)));
+        when(compiledTestCache.get(1L)).thenReturn(compiledTest());
+
+        // Act
+        List<AnswerResponse> answers = testAttemptService.getAnswersByTestAttempt(1L);
+
+        // Assert
+        assertEquals(2, answers.size());
+        assertEquals(5, answers.get(0).getScaleValue());
+        assertEquals(1L, answers.get(1).getQuestionId());
+        assertEquals("Male-specific question", answers.get(1).getQuestionText());
+        assertEquals(4, answers.get(1).getScaleValue());
+        verify(draftAnswerBuffer, never()).drain(anyLong());
+        verify(answerRepository, never()).upsertValues(any());
+    }
+
+    private AnswerRepository.AnswerValueView valueView(Long id, Long questionId, String answerType,
+                                                       Integer scaleValue, Long clientSequence) {
+        return new AnswerRepository.AnswerValueView() {
+            public Long getId() { return id; }
+            public Long getQuestionId() { return questionId; }
+            public Long getSubQuestionId() { return null; }
+            public String getAnswerType() { return answerType; }
+            public Boolean getBinaryValue() { return null; }
+            public Integer getScaleValue() { return scaleValue; }
+            public Long getClientSequence() { return clientSequence; }
+            public String getIdempotencyKey() { return null; }
+        };
+    }
+
+    private CompiledTest compiledTest() {
+        CompiledItem maleQuestionItem = new CompiledItem(0, 1L, 1L, "Male-specific question", null, null,
+                AnswerType.SCALE, TargetGender.MALE, null, MetricIndex.NONE);
+        CompiledItem allGenderQuestionItem = new CompiledItem(1, 1L, 2L, "All-gender question", null, null,
+                AnswerType.SCALE, TargetGender.ALL, null, MetricIndex.NONE);
+
+        return new CompiledTest(1L, "Career Assessment Test", "Test to assess career preferences",
+                Map.of(TargetGender.MALE, List.of(),
+                        TargetGender.FEMALE, List.of(),
+                        TargetGender.ALL, List.of()),
+                List.of(maleQuestionItem, allGenderQuestionItem),
+                Map.of(1L, maleQuestionItem, 2L, allGenderQuestionItem),
+                Map.of(),
+                MetricIndex.of(List.of("R", "I")),
+                Map.of(TargetGender.MALE, List.of(maleQuestionItem, allGenderQuestionItem),
+                        TargetGender.FEMALE, List.of(allGenderQuestionItem),
+                        TargetGender.ALL, List.of(allGenderQuestionItem)));
     }
 
     @Test